@@ -3,6 +3,7 @@ import os
 import sys
 import argparse
 import json
+import heapq
 import platform
 import subprocess
 import ssl
@@ -313,8 +314,8 @@ def main():
                 if res:
                     results.append(res)
             
-            sorted_results = sorted(results, key=lambda x: x['streak'], reverse=True)
-            top_N_results = sorted_results[:args.topN]
+            # 전체 정렬 대신 상위 N 개만 선택 (동점 시 입력 순서 유지)
+            top_N_results = heapq.nlargest(args.topN, results, key=lambda x: x['streak'])
             print(json.dumps(top_N_results, ensure_ascii=False, indent=2))
             
     except Exception as e:
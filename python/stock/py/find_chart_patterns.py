@@ -10,6 +10,7 @@
 import os
 import sys
 import json
+import heapq
 import logging
 import argparse
 from datetime import datetime
@@ -264,8 +265,7 @@ def main():
         close = slice_close(df, start, end)
         if close.empty: return 0.0
         return float(np.std(close.values[-min(60, len(close)):]))
-    results.sort(key=score, reverse=True)
-    results = results[:topN]
+    results = heapq.nlargest(topN, results, key=score)
 
     logger.info(f"[PROGRESS] 100 완료 (탐지 {len(results)}건)")
     print(json.dumps(results, ensure_ascii=False, indent=2))
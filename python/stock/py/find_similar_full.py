@@ -10,6 +10,7 @@
 import os
 import sys
 import json
+import heapq
 import logging
 import argparse
 from datetime import datetime
@@ -183,8 +184,7 @@ def find_similar(base_symbol: str, start: str, end: str, n: int):
         if i % step_log_every == 0:
             logger.info(f"[PROGRESS] 유사도 계산 {int(i/total*100)}%")
 
-    sims.sort(key=lambda x: x["cosine_similarity"], reverse=True)
-    return sims[:max(1, n)]
+    return heapq.nlargest(max(1, n), sims, key=lambda x: x["cosine_similarity"])
 
 
 def main():
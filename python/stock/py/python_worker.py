@@ -0,0 +1,164 @@
+# -*- coding: utf-8 -*-
+"""
+python_worker.py
+--------------------------------------------------------
+PythonWorkerPool(Java) 용 상주 워커
+- 기동 시 무거운 모듈(pandas, matplotlib 등)을 한 번만 import 하고
+  표준 입력으로 받은 작업을 같은 인터프리터에서 반복 실행
+- 프로토콜: 요청 한 줄 = JSON 1개 (UTF-8)
+  요청: {"id": "...", "op": "run", "script": "경로", "args": [...], "cwd": "경로"}
+        {"id": "...", "op": "ping"}
+  응답: 헤더 JSON 한 줄 + (size > 0 이면) 스크립트 표준 출력 원본 size 바이트 + 줄바꿈
+        {"id": "...", "ok": true, "exit": 0, "size": 출력 바이트 수}
+        {"id": "...", "ok": true, "pong": true, "jobs": 처리 건수}
+  기동 완료: {"ready": true, "pid": ...}
+  (출력을 JSON 문자열로 감싸지 않아 Java 쪽이 본문을 그대로 스트리밍 파싱)
+- 요청 처리 후 표준 에러에 "\0done:<id>" 표식 → Java 쪽이 작업별 stderr 수집 완료 시점을 앎
+- 스크립트는 runpy 로 __main__ 실행 (sys.argv 설정, print 출력은 output 으로 수집)
+  sys.exit(n) 은 exit 코드로, 처리되지 않은 예외는 exit 1 + 표준 에러에 traceback
+- 스크립트가 작업마다 붙이는 logging 핸들러·레벨은 작업 후 닫고 실행 전 상태로 되돌림
+  (같은 인터프리터에서 핸들러가 쌓여 로그가 중복되거나 파일이 열린 채 남지 않고,
+   다음 스크립트의 logging.basicConfig 도 새 프로세스처럼 동작)
+- 프로토콜 전용 채널: 원래 표준 출력(fd 1)을 복제해 사용하고 fd 1 은 표준 에러로 돌림
+  (자식 프로세스·C 확장이 직접 쓰는 출력이 응답 줄을 깨뜨리지 않도록)
+--------------------------------------------------------
+"""
+import io
+import json
+import logging
+import os
+import runpy
+import sys
+import traceback
+from contextlib import redirect_stdout
+
+
+def open_protocol_channel():
+    fd = os.dup(1)
+    os.dup2(2, 1)
+    sys.stdout = io.TextIOWrapper(io.FileIO(1, "w", closefd=False), encoding="utf-8", line_buffering=True)
+    return io.BufferedWriter(io.FileIO(fd, "w"), buffer_size=64 * 1024)
+
+
+def send(channel, message, body=b""):
+    if body:
+        message["size"] = len(body)
+    channel.write((json.dumps(message, ensure_ascii=False) + "\n").encode("utf-8"))
+    if body:
+        channel.write(body)
+        channel.write(b"\n")
+    channel.flush()
+
+
+def mark_done(job_id):
+    sys.stderr.write(f"\0done:{job_id}\n")
+    sys.stderr.flush()
+
+
+def preload(modules):
+    for name in modules:
+        try:
+            __import__(name)
+        except Exception as e:  # 미설치 모듈은 건너뜀 (해당 스크립트 실행 시 오류로 드러남)
+            print(f"[worker] preload 실패: {name} ({e})", file=sys.stderr, flush=True)
+    if "matplotlib" in sys.modules:
+        import matplotlib
+        matplotlib.use("Agg")
+
+
+def logging_state():
+    """root 와 이름 있는 logger 들의 (핸들러, 레벨, propagate, disabled)"""
+    loggers = [logging.root] + [lg for lg in logging.Logger.manager.loggerDict.values()
+                                if isinstance(lg, logging.Logger)]
+    return {lg: (list(lg.handlers), lg.level, lg.propagate, lg.disabled) for lg in loggers}
+
+
+def restore_logging(saved, saved_disable):
+    """작업 중 추가된 핸들러는 닫고, 모든 logger 를 실행 전 상태로 되돌림 (작업 중 생긴 logger 는 기본값)"""
+    for lg, _ in logging_state().items():
+        handlers, level, propagate, disabled = saved.get(lg, ([], logging.NOTSET, True, False))
+        for h in lg.handlers:
+            if h in handlers:
+                continue
+            try:
+                h.flush()
+                h.close()
+            except Exception:
+                pass
+        lg.handlers = list(handlers)
+        lg.setLevel(level)
+        lg.propagate = propagate
+        lg.disabled = disabled
+    logging.disable(saved_disable)
+
+
+def run_job(request):
+    script = request["script"]
+    args = [str(a) for a in request.get("args", [])]
+    cwd = request.get("cwd")
+
+    saved_argv, saved_cwd, saved_path = sys.argv, os.getcwd(), list(sys.path)
+    saved_logging, saved_disable = logging_state(), logging.root.manager.disable
+    buffer = io.StringIO()
+    exit_code = 0
+    try:
+        if cwd:
+            os.chdir(cwd)
+        sys.argv = [script] + args
+        sys.path.insert(0, os.path.dirname(os.path.abspath(script)))
+        with redirect_stdout(buffer):
+            try:
+                runpy.run_path(script, run_name="__main__")
+            except SystemExit as e:
+                if e.code is None:
+                    exit_code = 0
+                elif isinstance(e.code, int):
+                    exit_code = e.code
+                else:
+                    print(e.code, file=sys.stderr, flush=True)
+                    exit_code = 1
+    except Exception:
+        traceback.print_exc(file=sys.stderr)
+        sys.stderr.flush()
+        exit_code = 1
+    finally:
+        sys.argv, sys.path = saved_argv, saved_path
+        os.chdir(saved_cwd)
+        restore_logging(saved_logging, saved_disable)
+        if "matplotlib.pyplot" in sys.modules:
+            sys.modules["matplotlib.pyplot"].close("all")
+    return exit_code, buffer.getvalue()
+
+
+def main():
+    channel = open_protocol_channel()
+    preload([m for m in os.environ.get("PY_WORKER_PRELOAD", "").split(",") if m.strip()])
+    send(channel, {"ready": True, "pid": os.getpid()})
+
+    jobs = 0
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            request = json.loads(line)
+        except ValueError as e:
+            send(channel, {"id": None, "ok": False, "exit": 1, "error": f"잘못된 요청: {e}"})
+            continue
+        job_id = request.get("id")
+        op = request.get("op", "run")
+        if op == "ping":
+            mark_done(job_id)
+            send(channel, {"id": job_id, "ok": True, "pong": True, "jobs": jobs})
+        elif op == "run":
+            exit_code, output = run_job(request)
+            jobs += 1
+            mark_done(job_id)
+            send(channel, {"id": job_id, "ok": exit_code == 0, "exit": exit_code}, output.encode("utf-8"))
+        else:
+            mark_done(job_id)
+            send(channel, {"id": job_id, "ok": False, "exit": 1, "error": f"알 수 없는 op: {op}"})
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,42 @@
+package com.mybaselink.app.batch;
+
+import com.mybaselink.app.stock.similarity.SimilarityEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+public class CorrelationMatrixScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationMatrixScheduler.class);
+    private final SimilarityEngine similarityEngine;
+
+    @Autowired
+    public CorrelationMatrixScheduler(SimilarityEngine similarityEngine) {
+        this.similarityEngine = similarityEngine;
+    }
+
+    /**
+     * 매일 오전 2시 30분에 표준 구간(1/3/6개월) 유사도 행렬을 다시 만듭니다.
+     * 연속 하락 캐시 갱신(2시) 과 같은 기준일(오늘) 구간이라 화면 기본 기간 조회가 행렬 1행 읽기로 끝납니다.
+     * cron = "초 분 시 일 월 요일"
+     */
+    @Scheduled(cron = "${stock.similarity.matrix-cron:0 30 2 * * ?}")
+    public void rebuildCorrelationMatrices() {
+        if (!similarityEngine.isReady()) {
+            logger.warn("스케줄러 건너뜀: 가격 데이터가 아직 메모리에 적재되지 않았습니다.");
+            return;
+        }
+        logger.info("스케줄러 실행: 표준 구간 상관 행렬 생성 시작");
+        try {
+            similarityEngine.rebuildStandardMatrices(LocalDate.now());
+        } catch (Exception e) {
+            logger.error("스케줄러 상관 행렬 생성 중 오류 발생", e);
+        }
+        logger.info("스케줄러 완료: 표준 구간 상관 행렬 생성 종료");
+    }
+}
@@ -3,20 +3,18 @@ package com.mybaselink.app.batch;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.stock.downward.DownwardStreakScanner;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * Python 스크립트를 호출하여 연속 하락 종목 조회 및 차트 반환 서비스 (배치용)
@@ -27,15 +25,20 @@ public class LastCloseDownwardBatchService {
     private static final Logger logger = LoggerFactory.getLogger(LastCloseDownwardBatchService.class);
 
     private final ObjectMapper mapper = new ObjectMapper();
+    private final DownwardStreakScanner downwardStreakScanner;
+    private final PythonProcessRunner pythonProcessRunner;
 
-    // Python 실행 경로
-    private final String pythonExe = "C:\\Users\\dragon\\AppData\\Local\\Programs\\Python\\Python310\\python.exe";
-
-    // Python 스크립트 경로
+    // Python 스크립트 경로 (상주 워커 풀에서 실행)
     private final String scriptPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\find_last_close_downward.py";
+    private final String pythonDir = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python";
+
+    public LastCloseDownwardBatchService(DownwardStreakScanner downwardStreakScanner, PythonProcessRunner pythonProcessRunner) {
+        this.downwardStreakScanner = downwardStreakScanner;
+        this.pythonProcessRunner = pythonProcessRunner;
+    }
 
     /**
-     * 스케줄러용: 항상 Python을 호출하여 캐시를 갱신
+     * 스케줄러용: 항상 새로 계산하여 캐시를 갱신 (가격 데이터 적재 전에는 Python 호출)
      * @param start 조회 시작 날짜 (YYYY-MM-DD)
      * @param end 조회 종료 날짜 (YYYY-MM-DD)
      * @param topN 상위 N개 종목
@@ -43,11 +46,12 @@ public class LastCloseDownwardBatchService {
      */
     @CachePut(value = "lastCloseDownwardCache", key = "#start + '-' + #end + '-' + #topN")
     public List<Map<String, Object>> refreshAndPutLastCloseDownward(String start, String end, int topN) {
+        if (downwardStreakScanner.isReady()) {
+            logger.info("캐시 갱신 (CachePut): 연속 하락 종목 조회. 기간: {} ~ {}, 상위 {}개", start, end, topN);
+            return downwardStreakScanner.scan(start, end, topN);
+        }
         try {
-            String[] command = {
-                    pythonExe,
-                    "-u",
-                    scriptPath,
+            String[] args = {
                     "--base_symbol", "ALL",
                     "--start_date", start,
                     "--end_date", end,
@@ -55,7 +59,7 @@ public class LastCloseDownwardBatchService {
             };
             logger.info("캐시 갱신 (CachePut): Python 스크립트를 호출하여 연속 하락 종목 조회. 기간: {} ~ {}, 상위 {}개", start, end, topN);
 
-            JsonNode pythonResult = executePythonScript(command);
+            JsonNode pythonResult = executePythonScript(args);
             if (pythonResult != null) {
                 if (pythonResult.has("error")) {
                     String errorMsg = pythonResult.get("error").asText();
@@ -79,65 +83,15 @@ public class LastCloseDownwardBatchService {
     }
 
     /**
-     * Python 스크립트 실행 및 JSON 파싱
+     * Python 스크립트 실행 (공용 실행기, 표준 출력 JSON 스트리밍 파싱)
      */
-    private JsonNode executePythonScript(String[] command)
-            throws IOException, InterruptedException, ExecutionException, TimeoutException {
-
-        File scriptDir = new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python");
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.directory(scriptDir);
-        pb.environment().put("PYTHONIOENCODING", "utf-8");
-
-        Process process = pb.start();
-
-        // 표준 에러(로그)를 실시간으로 읽는 별도 스레드
-        ExecutorService errorExecutor = Executors.newSingleThreadExecutor();
-        Future<?> errorFuture = errorExecutor.submit(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
-                reader.lines().forEach(line -> logger.error("[Python ERR] {}", line));
-            } catch (IOException e) {
-                logger.error("Error reading Python stderr stream", e);
-            }
-        });
-
-        // 표준 출력(JSON 결과)을 읽는 스레드
-        ExecutorService outputExecutor = Executors.newSingleThreadExecutor();
-        Future<String> outputFuture = outputExecutor.submit(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            } catch (IOException e) {
-                logger.error("Error reading Python stdout stream", e);
-                return "";
-            }
-        });
-
-        String pythonOutput = null;
-        try {
-            boolean finished = process.waitFor(600, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                throw new TimeoutException("Python 프로세스가 시간 내 종료되지 않았습니다.");
-            }
-
-            pythonOutput = outputFuture.get();
+    private JsonNode executePythonScript(String[] args)
+            throws IOException, InterruptedException, TimeoutException {
 
-            int exitCode = process.exitValue();
-            if (exitCode != 0) {
-                throw new RuntimeException("Python 스크립트 종료 코드: " + exitCode + ". Python 출력: " + pythonOutput);
-            }
-        } catch (TimeoutException e) {
-            process.destroyForcibly();
-            throw e;
-        } finally {
-            errorExecutor.shutdown();
-            outputExecutor.shutdown();
-        }
-
-        if (pythonOutput == null || pythonOutput.trim().isEmpty()) {
+        JsonNode result = pythonProcessRunner.runJson(null, new File(pythonDir), scriptPath, List.of(args), 600, JsonNode.class);
+        if (result == null) {
             throw new RuntimeException("Python 스크립트 출력이 없습니다.");
         }
-
-        return mapper.readTree(pythonOutput);
+        return result;
     }
 }
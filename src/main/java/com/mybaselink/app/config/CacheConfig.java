@@ -1,6 +1,8 @@
 package com.mybaselink.app.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybaselink.app.stock.chart.ChartSeriesService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -25,9 +27,17 @@ public class CacheConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
-        CaffeineCacheManager manager = new CaffeineCacheManager("jwtTokens");
+    public CacheManager cacheManager(Caffeine<Object, Object> caffeine,
+                                     @Value("${stock.chart.series-cache-max-points:500000}") long seriesMaxPoints) {
+        // 정적 캐시 이름만 허용되므로 @Cacheable/@CachePut 에서 쓰는 이름을 등록
+        CaffeineCacheManager manager = new CaffeineCacheManager("jwtTokens", "lastCloseDownwardCache");
         manager.setCaffeine(caffeine);
+        // 차트 시계열은 항목 하나가 최대 4000점 × 5열이라 항목 수(10000) 대신 점 개수 합으로 제한
+        manager.registerCustomCache(ChartSeriesService.CACHE_NAME, Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .maximumWeight(Math.max(1, seriesMaxPoints))
+                .weigher((Object key, Object value) -> 1 + ChartSeriesService.points(value))
+                .build());
         return manager;
     }
 }
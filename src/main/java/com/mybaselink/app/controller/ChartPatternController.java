@@ -39,10 +39,26 @@ public class ChartPatternController {
         ));
     }
 
+    // 다중 패턴 분석 시작 (patterns: 쉼표 구분 또는 all, 결과는 result.patterns[패턴명], 지정한 패턴은 이름순)
+    @PostMapping("/patterns/multi/start")
+    public ResponseEntity<Map<String, Object>> startMultiPatternTask(@RequestParam String start,
+                                                                     @RequestParam String end,
+                                                                     @RequestParam(defaultValue = "all") String patterns,
+                                                                     @RequestParam(defaultValue = "10") int topN) {
+        String taskId = UUID.randomUUID().toString();
+        logger.info("📊 다중 차트 패턴 분석 요청 수신: taskId={}, patterns={}, 기간={}~{}", taskId, patterns, start, end);
+        chartPatternService.startMultiPatternTask(taskId, start, end, patterns, topN);
+        return ResponseEntity.accepted().body(Map.of(
+                "taskId", taskId,
+                "message", "다중 차트 패턴 분석 작업을 시작했습니다."
+        ));
+    }
+
     // 상태 조회
     @GetMapping("/task/status/{taskId}")
     public ResponseEntity<TaskStatusService.TaskStatus> getTaskStatus(@PathVariable String taskId) {
         TaskStatusService.TaskStatus status = taskStatusService.getTaskStatus(taskId);
+        if (status == null) return ResponseEntity.notFound().build();
         return ResponseEntity.ok(status);
     }
 
@@ -0,0 +1,48 @@
+package com.mybaselink.app.controller;
+
+import com.mybaselink.app.stock.chart.ChartImageService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 차트 PNG 응답 공통 처리 (image/png + ETag + Cache-Control)
+ * - If-None-Match 가 데이터 지문과 같으면 본문 없이 304 (PNG 는 캐시에서 읽지도, 렌더링하지도 않음)
+ * - 가격 데이터 적재 전에는 503, 잘못된 종목/기간은 400
+ */
+final class ChartPngResponses {
+
+    private ChartPngResponses() {
+    }
+
+    static ResponseEntity<?> of(ChartImageService service, WebRequest request,
+                                Supplier<ChartImageService.ChartImage> chart) {
+        if (!service.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "가격 데이터가 아직 메모리에 적재되지 않았습니다."));
+        }
+        try {
+            ChartImageService.ChartImage image = chart.get(); // 지문만 계산
+            if (request.checkNotModified(image.etag())) {
+                return null; // 304 (헤더는 WebRequest 가 설정)
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .cacheControl(CacheControl.maxAge(service.maxAgeSeconds(), TimeUnit.SECONDS))
+                    .eTag(image.etag())
+                    .body(image.png());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "차트 생성 실패: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mybaselink.app.controller;
+
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.service.TaskStatusService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 분석 작업 스케줄러 조회·취소 (대기 순번, 종류별 부하·거절·지연 통계, 작업 상태 저장소 현황, 공통 취소)
+ */
+@RestController
+@RequestMapping("/api/krx/jobs")
+public class JobController {
+
+    private final JobScheduler jobScheduler;
+    private final TaskStatusService taskStatusService;
+
+    public JobController(JobScheduler jobScheduler, TaskStatusService taskStatusService) {
+        this.jobScheduler = jobScheduler;
+        this.taskStatusService = taskStatusService;
+    }
+
+    /**
+     * 종류별 동시 실행 수·실행/대기 건수·제출/거절/완료(성공·실패·취소) 누적·평균 대기/실행 시간·최근 p50/p95 지연
+     * GET /api/krx/jobs/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(jobScheduler.stats());
+    }
+
+    /**
+     * 대기 순번 (0 = 실행 중, -1 = 대기열에 없음)
+     * GET /api/krx/jobs/position?taskId=...
+     */
+    @GetMapping("/position")
+    public ResponseEntity<Map<String, Object>> position(@RequestParam String taskId) {
+        return ResponseEntity.ok(Map.of("taskId", taskId, "queuePosition", jobScheduler.position(taskId)));
+    }
+
+    /**
+     * 작업 상태 저장소 현황 (작업 수·진행 중 수·결과+로그 추정 크기·만료/초과 제거 누적)
+     * GET /api/krx/jobs/task-store
+     */
+    @GetMapping("/task-store")
+    public ResponseEntity<Map<String, Object>> taskStore() {
+        return ResponseEntity.ok(taskStatusService.stats());
+    }
+
+    /**
+     * 작업 취소 (작업 종류 무관: 대기 중이면 대기열에서 제거, 실행 중이면 Python 종료, 합류 요청이면 분리)
+     * POST /api/krx/jobs/cancel?taskId=...
+     */
+    @PostMapping("/cancel")
+    public ResponseEntity<Map<String, Object>> cancel(@RequestParam String taskId) {
+        if (jobScheduler.cancel(taskId)) {
+            return ResponseEntity.ok(Map.of("taskId", taskId, "status", "CANCELLED"));
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("taskId", taskId, "error", "취소할 작업을 찾을 수 없습니다."));
+    }
+}
@@ -0,0 +1,32 @@
+package com.mybaselink.app.controller;
+
+import com.mybaselink.app.job.JobRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 작업 대기열 초과 공통 응답 (429 Too Many Requests + Retry-After)
+ * - 클라이언트는 retryAfterSeconds 후 다시 요청
+ */
+@RestControllerAdvice
+public class JobRejectedAdvice {
+
+    @ExceptionHandler(JobRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handle(JobRejectedException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        body.put("jobType", e.getType().name());
+        body.put("queued", e.getQueued());
+        body.put("queueCapacity", e.getCapacity());
+        body.put("retryAfterSeconds", e.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+}
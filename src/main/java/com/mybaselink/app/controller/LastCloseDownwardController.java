@@ -3,17 +3,20 @@ package com.mybaselink.app.controller;
 
 import com.mybaselink.app.service.LastCloseDownwardService;
 import com.mybaselink.app.service.TaskStatusService;
+import com.mybaselink.app.stock.chart.ChartImageService;
+import com.mybaselink.app.stock.chart.ChartSeriesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 비동기 작업 처리를 위한 컨트롤러
@@ -25,14 +28,16 @@ public class LastCloseDownwardController {
     private static final Logger logger = LoggerFactory.getLogger(LastCloseDownwardController.class);
     private final LastCloseDownwardService lastCloseDownwardService;
     private final TaskStatusService taskStatusService;
-    
-    // 인메모리 활성 작업 추적 (단일 서버 환경용)
-    private final AtomicReference<String> activeTaskId = new AtomicReference<>(null);
+    private final ChartImageService chartImageService;
+    private final ChartSeriesService chartSeriesService;
 
     @Autowired
-    public LastCloseDownwardController(LastCloseDownwardService lastCloseDownwardService, TaskStatusService taskStatusService) {
+    public LastCloseDownwardController(LastCloseDownwardService lastCloseDownwardService, TaskStatusService taskStatusService,
+                                       ChartImageService chartImageService, ChartSeriesService chartSeriesService) {
         this.lastCloseDownwardService = lastCloseDownwardService;
         this.taskStatusService = taskStatusService;
+        this.chartImageService = chartImageService;
+        this.chartSeriesService = chartSeriesService;
     }
 
     /**
@@ -46,12 +51,9 @@ public class LastCloseDownwardController {
             @RequestParam(defaultValue = "10") int topN
     ) {
         String newTaskId = UUID.randomUUID().toString();
-        if (activeTaskId.compareAndSet(null, newTaskId)) {
-            lastCloseDownwardService.startLastCloseDownwardTask(newTaskId, start, end, topN);
-            return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
-        } else {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "다른 분석 작업이 진행 중입니다. 잠시 후 다시 시도해주세요."));
-        }
+        // 실행 슬롯이 모두 차 있으면 대기열에서 차례를 기다림 (대기열까지 가득 차면 429)
+        lastCloseDownwardService.startLastCloseDownwardTask(newTaskId, start, end, topN);
+        return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
     }
 
     /**
@@ -65,11 +67,50 @@ public class LastCloseDownwardController {
             @RequestParam String end
     ) {
         String newTaskId = UUID.randomUUID().toString();
-        if (activeTaskId.compareAndSet(null, newTaskId)) {
-            lastCloseDownwardService.startFetchChartTask(newTaskId, baseSymbol, start, end);
-            return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
-        } else {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "다른 분석 작업이 진행 중입니다. 잠시 후 다시 시도해주세요."));
+        // 실행 슬롯이 모두 차 있으면 대기열에서 차례를 기다림 (대기열까지 가득 차면 429)
+        lastCloseDownwardService.startFetchChartTask(newTaskId, baseSymbol, start, end);
+        return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
+    }
+
+    /**
+     * 개별 종목 차트 PNG (가격 데이터 적재 후 사용, 작업 잠금 없이 즉시 응답)
+     * GET /api/krx/last-close-downward/chart.png?baseSymbol=005930&start=2023-01-01&end=2024-01-01
+     */
+    @GetMapping("/last-close-downward/chart.png")
+    public ResponseEntity<?> chartPng(
+            @RequestParam String baseSymbol,
+            @RequestParam String start,
+            @RequestParam String end,
+            WebRequest request
+    ) {
+        return ChartPngResponses.of(chartImageService, request,
+                () -> chartImageService.closeChart(baseSymbol, start, end));
+    }
+
+    /**
+     * 개별 종목 차트 시계열 (LTTB/구간 집계로 width 개 이하로 줄여서 반환, 브라우저에서 직접 그림)
+     * GET /api/krx/last-close-downward/chart/series?baseSymbol=005930&start=2005-01-01&end=2024-01-01&width=800&type=close
+     */
+    @GetMapping("/last-close-downward/chart/series")
+    public ResponseEntity<?> chartSeries(
+            @RequestParam String baseSymbol,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "800") int width,
+            @RequestParam(defaultValue = "close") String type
+    ) {
+        if (!chartSeriesService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "가격 데이터가 아직 메모리에 적재되지 않았습니다."));
+        }
+        try {
+            return ResponseEntity.ok(chartSeriesService.series(baseSymbol, start, end, width, type));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("차트 시계열 조회 실패: {}", baseSymbol, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "차트 시계열 조회 실패: " + e.getMessage()));
         }
     }
 
@@ -80,8 +121,10 @@ public class LastCloseDownwardController {
     @GetMapping("/task/status")
     public ResponseEntity<?> getTaskStatus(@RequestParam String taskId) {
         TaskStatusService.TaskStatus status = taskStatusService.getTaskStatus(taskId);
-        if ("COMPLETED".equals(status.getStatus()) || "FAILED".equals(status.getStatus())) {
-            activeTaskId.compareAndSet(taskId, null);
+        if (status == null) {
+            // 없는 작업이거나 보관 시간이 지나 정리된 작업
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("taskId", taskId, "status", "NOT_FOUND", "error", "작업을 찾을 수 없습니다."));
         }
 
         // HashMap을 사용하여 null이 가능한 Map을 생성
@@ -90,6 +133,7 @@ public class LastCloseDownwardController {
         responseMap.put("status", status.getStatus());
         responseMap.put("result", status.getResult());
         responseMap.put("error", status.getErrorMessage());
+        responseMap.put("timing", status.getTiming());
 
         return ResponseEntity.ok(responseMap);
     }
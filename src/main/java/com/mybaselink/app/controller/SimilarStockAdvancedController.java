@@ -43,6 +43,27 @@ public class SimilarStockAdvancedController {
         ));
     }
 
+    /**
+     * 과거 구간 유사 검색 요청 (비동기)
+     * - 전 종목의 최근 years 년 이력 중 기준 구간과 가장 닮은 구간 (상태 조회는 /similar-advanced/task/status)
+     */
+    @GetMapping("/similar-advanced/history/request")
+    public ResponseEntity<?> requestHistorySearch(
+            @RequestParam String companyCode,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "10") int years,
+            @RequestParam(defaultValue = "10") int nMatches
+    ) {
+        String taskId = UUID.randomUUID().toString();
+        logger.info("📊 과거 구간 유사 검색 요청 수신: {}", taskId);
+        service.startHistorySearchTask(taskId, companyCode, start, end, years, nMatches);
+        return ResponseEntity.accepted().body(Map.of(
+                "taskId", taskId,
+                "message", "과거 구간 유사 검색 작업을 시작했습니다."
+        ));
+    }
+
     /**
      * 작업 취소
      */
@@ -71,6 +92,7 @@ public class SimilarStockAdvancedController {
         response.put("status", status != null ? status.getStatus() : "UNKNOWN");
         response.put("result", status != null && status.getResult() != null ? status.getResult() : Collections.emptyList());
         response.put("error", status != null && status.getErrorMessage() != null ? status.getErrorMessage() : "");
+        if (status != null) response.put("timing", status.getTiming());
 
         logger.info("📡 작업 상태 조회 [{}]: {}", taskId, response.get("status"));
         return ResponseEntity.ok(response);
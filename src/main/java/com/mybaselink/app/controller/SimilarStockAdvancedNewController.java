@@ -1,22 +1,74 @@
 package com.mybaselink.app.controller;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import com.mybaselink.app.service.SimilarStockAdvancedNewService;
+import com.mybaselink.app.service.TaskStatusService;
+import com.mybaselink.app.stock.chart.ChartImageService;
 
 @RestController
 @RequestMapping("/api/krx")
 public class SimilarStockAdvancedNewController {
 
     private final SimilarStockAdvancedNewService service;
+    private final ChartImageService chartImageService;
+    private final TaskStatusService taskStatusService;
 
-    public SimilarStockAdvancedNewController(SimilarStockAdvancedNewService service) {
+    public SimilarStockAdvancedNewController(SimilarStockAdvancedNewService service, ChartImageService chartImageService,
+                                             TaskStatusService taskStatusService) {
         this.service = service;
+        this.chartImageService = chartImageService;
+        this.taskStatusService = taskStatusService;
+    }
+
+    // 유사 종목 분석 요청 (비동기, 작업 스케줄러 대기열에서 실행 → taskId 로 상태 조회)
+    @GetMapping("/similar-advanced-new/request")
+    public ResponseEntity<Map<String, Object>> requestSimilarStocks(
+            @RequestParam String companyCode,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "10") int nSimilarStocks,
+            @RequestParam(defaultValue = "cosine") String method,
+            @RequestParam(required = false) Integer window
+    ) {
+        String taskId = UUID.randomUUID().toString();
+        service.startSimilarStockTask(taskId, companyCode, start, end, nSimilarStocks, method, window);
+        return ResponseEntity.accepted().body(Map.of("taskId", taskId));
+    }
+
+    // 작업 상태 조회 (result = 유사 종목 목록, timing = 대기·실행 소요)
+    @GetMapping("/similar-advanced-new/task/status")
+    public ResponseEntity<Map<String, Object>> getTaskStatus(@RequestParam String taskId) {
+        TaskStatusService.TaskStatus status = taskStatusService.getTaskStatus(taskId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("taskId", taskId, "status", "NOT_FOUND", "error", "작업을 찾을 수 없습니다."));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("taskId", taskId);
+        response.put("status", status.getStatus());
+        response.put("result", status.getResult());
+        response.put("error", status.getErrorMessage());
+        response.put("timing", status.getTiming());
+        return ResponseEntity.ok(response);
+    }
+
+    // 작업 취소
+    @PostMapping("/similar-advanced-new/task/cancel")
+    public ResponseEntity<Map<String, Object>> cancelTask(@RequestParam String taskId) {
+        if (service.cancelTask(taskId)) {
+            return ResponseEntity.ok(Map.of("taskId", taskId, "status", "CANCELLED"));
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "취소할 작업을 찾을 수 없습니다."));
     }
 
     // 유사 종목 분석
@@ -26,10 +78,11 @@ public class SimilarStockAdvancedNewController {
             @RequestParam String start,
             @RequestParam String end,
             @RequestParam(defaultValue = "10") int nSimilarStocks,
-            @RequestParam(defaultValue = "cosine") String method
+            @RequestParam(defaultValue = "cosine") String method,
+            @RequestParam(required = false) Integer window
     ) {
         try {
-            List<Map<String,Object>> results = service.fetchSimilar(companyCode, start, end, nSimilarStocks, method);
+            List<Map<String,Object>> results = service.fetchSimilar(companyCode, start, end, nSimilarStocks, method, window);
             return ResponseEntity.ok(Map.of(
                     "base_symbol", companyCode,
                     "similar_stocks", results
@@ -63,4 +116,17 @@ public class SimilarStockAdvancedNewController {
                     .body(Map.of("error", "차트 조회 중 오류 발생: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // 두 종목 비교 차트 PNG (image/png, ETag/Cache-Control 포함)
+    @GetMapping("/similar-advanced-new/chart.png")
+    public ResponseEntity<?> getChartPng(
+            @RequestParam String baseSymbol,
+            @RequestParam String compareSymbol,
+            @RequestParam String start,
+            @RequestParam String end,
+            WebRequest request
+    ) {
+        return ChartPngResponses.of(chartImageService, request,
+                () -> chartImageService.compareChart(baseSymbol, compareSymbol, start, end));
+    }
+}
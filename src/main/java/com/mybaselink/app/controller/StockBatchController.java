@@ -1,6 +1,8 @@
 package com.mybaselink.app.controller;
 
+import com.mybaselink.app.job.JobRejectedException;
 import com.mybaselink.app.service.StockBatchService;
+import com.mybaselink.app.service.TaskEventService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
@@ -15,9 +17,11 @@ public class StockBatchController {
 
     private static final Logger log = LoggerFactory.getLogger(StockBatchController.class);
     private final StockBatchService stockBatchService;
+    private final TaskEventService taskEventService;
 
-    public StockBatchController(StockBatchService stockBatchService) {
+    public StockBatchController(StockBatchService stockBatchService, TaskEventService taskEventService) {
         this.stockBatchService = stockBatchService;
+        this.taskEventService = taskEventService;
     }
 
     /**
@@ -32,6 +36,10 @@ public class StockBatchController {
         try {
             stockBatchService.startUpdate(taskId, force, workers);
             return ResponseEntity.accepted().body(Map.of("taskId", taskId));
+        } catch (JobRejectedException e) {
+            // ✅ 다른 업데이트 진행 중 → 공통 처리에서 429 + Retry-After
+            log.warn("[{}] 선점 실패: {}", taskId, e.getMessage());
+            throw e;
         } catch (IllegalStateException e) {
             // ✅ 선점 중일 때
             log.warn("[{}] 선점 실패: {}", taskId, e.getMessage());
@@ -44,11 +52,24 @@ public class StockBatchController {
     }
 
     /**
-     * 상태: GET /api/stock/batch/status/{taskId}
+     * 상태: GET /api/stock/batch/status/{taskId}?sinceSeq=0
+     * - sinceSeq: 이미 받은 마지막 로그 순번 → 그 이후 로그만 응답
      */
     @GetMapping("/status/{taskId}")
-    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String taskId) {
-        return ResponseEntity.ok(stockBatchService.getStatusWithLogs(taskId));
+    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String taskId,
+                                                         @RequestParam(defaultValue = "0") long sinceSeq) {
+        return ResponseEntity.ok(stockBatchService.getStatusWithLogs(taskId, sinceSeq));
+    }
+
+    /**
+     * 진행률·로그 SSE 스트림 (폴링 대체, 재연결 시 Last-Event-ID 부터 이어받음)
+     * GET /api/stock/batch/events/{taskId}?sinceSeq=0
+     */
+    @GetMapping("/events/{taskId}")
+    public ResponseEntity<?> events(@PathVariable String taskId,
+                                    @RequestParam(defaultValue = "0") long sinceSeq,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return TaskEventController.open(taskEventService, taskId, sinceSeq, lastEventId);
     }
 
     /**
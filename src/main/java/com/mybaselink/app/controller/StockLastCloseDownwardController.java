@@ -12,7 +12,6 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 비동기 작업 처리를 위한 컨트롤러
@@ -24,9 +23,6 @@ public class StockLastCloseDownwardController {
     private static final Logger logger = LoggerFactory.getLogger(StockLastCloseDownwardController.class);
     private final LastCloseDownwardService lastCloseDownwardService;
     private final TaskStatusService taskStatusService;
-    
-    // 인메모리 활성 작업 추적 (단일 서버 환경용)
-    private final AtomicReference<String> activeTaskId = new AtomicReference<>(null);
 
     @Autowired
     public StockLastCloseDownwardController(LastCloseDownwardService lastCloseDownwardService, TaskStatusService taskStatusService) {
@@ -45,12 +41,9 @@ public class StockLastCloseDownwardController {
             @RequestParam(defaultValue = "10") int topN
     ) {
         String newTaskId = UUID.randomUUID().toString();
-        if (activeTaskId.compareAndSet(null, newTaskId)) {
-            lastCloseDownwardService.startLastCloseDownwardTask(newTaskId, start, end, topN);
-            return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
-        } else {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "다른 분석 작업이 진행 중입니다. 잠시 후 다시 시도해주세요."));
-        }
+        // 실행 슬롯이 모두 차 있으면 대기열에서 차례를 기다림 (대기열까지 가득 차면 429)
+        lastCloseDownwardService.startLastCloseDownwardTask(newTaskId, start, end, topN);
+        return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
     }
 
     /**
@@ -64,12 +57,9 @@ public class StockLastCloseDownwardController {
             @RequestParam String end
     ) {
         String newTaskId = UUID.randomUUID().toString();
-        if (activeTaskId.compareAndSet(null, newTaskId)) {
-            lastCloseDownwardService.startFetchChartTask(newTaskId, baseSymbol, start, end);
-            return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
-        } else {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "다른 분석 작업이 진행 중입니다. 잠시 후 다시 시도해주세요."));
-        }
+        // 실행 슬롯이 모두 차 있으면 대기열에서 차례를 기다림 (대기열까지 가득 차면 429)
+        lastCloseDownwardService.startFetchChartTask(newTaskId, baseSymbol, start, end);
+        return ResponseEntity.accepted().body(Map.of("taskId", newTaskId));
     }
 
     /**
@@ -79,8 +69,10 @@ public class StockLastCloseDownwardController {
     @GetMapping("/task/status")
     public ResponseEntity<?> getTaskStatus(@RequestParam String taskId) {
         TaskStatusService.TaskStatus status = taskStatusService.getTaskStatus(taskId);
-        if ("COMPLETED".equals(status.getStatus()) || "FAILED".equals(status.getStatus())) {
-            activeTaskId.compareAndSet(taskId, null);
+        if (status == null) {
+            // 없는 작업이거나 보관 시간이 지나 정리된 작업
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("taskId", taskId, "status", "NOT_FOUND", "error", "작업을 찾을 수 없습니다."));
         }
 
         // HashMap을 사용하여 null이 가능한 Map을 생성
@@ -89,6 +81,7 @@ public class StockLastCloseDownwardController {
         responseMap.put("status", status.getStatus());
         responseMap.put("result", status.getResult());
         responseMap.put("error", status.getErrorMessage());
+        responseMap.put("timing", status.getTiming());
 
         return ResponseEntity.ok(responseMap);
     }
@@ -0,0 +1,49 @@
+package com.mybaselink.app.controller;
+
+import com.mybaselink.app.service.TaskEventService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * 분석 작업 진행률 SSE 스트림 (유사 종목·차트 패턴·연속 하락·차트 생성 공용)
+ */
+@RestController
+@RequestMapping("/api/krx/task")
+public class TaskEventController {
+
+    private final TaskEventService taskEventService;
+
+    public TaskEventController(TaskEventService taskEventService) {
+        this.taskEventService = taskEventService;
+    }
+
+    /**
+     * 작업 이벤트 스트림 (status / log / gone)
+     * GET /api/krx/task/events?taskId=...&sinceSeq=0
+     * - 재연결 시 브라우저가 보내는 Last-Event-ID(마지막 로그 순번)부터 이어받음
+     */
+    @GetMapping("/events")
+    public ResponseEntity<?> events(@RequestParam String taskId,
+                                    @RequestParam(defaultValue = "0") long sinceSeq,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return open(taskEventService, taskId, sinceSeq, lastEventId);
+    }
+
+    /** StockBatchController 와 공용: Last-Event-ID 와 sinceSeq 중 큰 값부터 스트림 열기 */
+    static ResponseEntity<?> open(TaskEventService service, String taskId, long sinceSeq, String lastEventId) {
+        SseEmitter emitter = service.open(taskId, TaskEventService.resumeSeq(sinceSeq, lastEventId));
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("taskId", taskId, "error", "작업을 찾을 수 없습니다."));
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,200 @@
+package com.mybaselink.app.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * 🗂 JobRecordEntity
+ *
+ * 분석·배치 작업 영속 기록 엔티티
+ * ---------------------------------------------
+ * ✅ DB 테이블명: job_records
+ * ✅ 기능:
+ *   - 작업 종류·파라미터(공유 키)·상태 전이 시각(등록/시작/종료) 저장
+ *   - 끝난 작업 결과는 JSON 을 gzip 압축해 저장 (재기동 후에도 결과 조회·재사용)
+ *   - 같은 작업에 합류한 요청은 결과 없이 sharedJobId 로 실제 작업 행을 가리킴
+ *   - id 를 직접 지정하므로 Persistable 로 새 행 여부를 알림 (저장 전 SELECT 없이 INSERT)
+ */
+@Entity
+@Table(name = "job_records",
+       indexes = {
+           @Index(name = "idx_job_record_key", columnList = "job_type, job_key, status"),
+           @Index(name = "idx_job_record_status", columnList = "status"),
+           @Index(name = "idx_job_record_updated", columnList = "updated_at")
+       })
+public class JobRecordEntity implements Persistable<String> {
+
+    /** 작업 id (요청 taskId 또는 공유 작업 id flight-...) */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /** 작업 종류 (JobType) */
+    @Column(name = "job_type", nullable = false, length = 32)
+    private String jobType;
+
+    /** 정규화된 작업 파라미터 (JobScheduler.flightKey) */
+    @Column(name = "job_key", length = 1000)
+    private String jobKey;
+
+    /** 합류한 공유 작업 id (합류 요청 행만) */
+    @Column(name = "shared_job_id", length = 64)
+    private String sharedJobId;
+
+    /** QUEUED, IN_PROGRESS, COMPLETED, FAILED, CANCELLED (합류 요청 행은 분리 전까지 null) */
+    @Column(length = 16)
+    private String status;
+
+    /** 실패·취소 사유 */
+    @Column(name = "error_message", columnDefinition = "text")
+    private String errorMessage;
+
+    /** 결과 JSON (gzip) */
+    @Column(name = "result_gz", columnDefinition = "bytea")
+    private byte[] resultGz;
+
+    /** 압축 전 결과 크기 (bytes) */
+    @Column(name = "result_size")
+    private Integer resultSize;
+
+    /** 등록 시각 */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /** 실행 시작 시각 */
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    /** 종료 시각 */
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    /** 마지막 기록 시각 */
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    /** 아직 DB 에 없는 행 (조회·저장 후 false) */
+    @Transient
+    private boolean isNew = true;
+
+    // ============================================================
+    // ✅ 기본 생성자
+    // ============================================================
+
+    public JobRecordEntity() {}
+
+    // ============================================================
+    // ✅ Getter / Setter
+    // ============================================================
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /** 이미 저장된 행으로 표시 */
+    @PostLoad
+    @PostPersist
+    public void markNotNew() {
+        this.isNew = false;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public void setJobType(String jobType) {
+        this.jobType = jobType;
+    }
+
+    public String getJobKey() {
+        return jobKey;
+    }
+
+    public void setJobKey(String jobKey) {
+        this.jobKey = jobKey;
+    }
+
+    public String getSharedJobId() {
+        return sharedJobId;
+    }
+
+    public void setSharedJobId(String sharedJobId) {
+        this.sharedJobId = sharedJobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public byte[] getResultGz() {
+        return resultGz;
+    }
+
+    public void setResultGz(byte[] resultGz) {
+        this.resultGz = resultGz;
+    }
+
+    public Integer getResultSize() {
+        return resultSize;
+    }
+
+    public void setResultSize(Integer resultSize) {
+        this.resultSize = resultSize;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
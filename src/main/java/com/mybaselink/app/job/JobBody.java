@@ -0,0 +1,15 @@
+package com.mybaselink.app.job;
+
+/**
+ * JobBody
+ * --------------------------------------------------------
+ * 작업 스케줄러에서 실행할 분석 본문
+ * - 반환값이 그대로 COMPLETED 결과가 됨 (목록·Map 등 작업별 타입)
+ * - 예외를 던지면 FAILED (취소된 뒤면 CANCELLED 유지)
+ * --------------------------------------------------------
+ */
+@FunctionalInterface
+public interface JobBody<R> {
+
+    R run(JobContext ctx) throws Exception;
+}
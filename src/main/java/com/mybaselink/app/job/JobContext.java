@@ -0,0 +1,39 @@
+package com.mybaselink.app.job;
+
+import com.mybaselink.app.service.TaskStatusService;
+
+/**
+ * JobContext
+ * --------------------------------------------------------
+ * 실행 중인 작업 1건의 정보 (JobBody 에 전달)
+ * - id(): 실제 실행 id (공유 작업이면 flight-...) → Python 실행기 작업 키로 사용해야 취소 시 프로세스가 종료됨
+ * - isCancelled(): 긴 반복 안에서 취소 여부 확인용
+ *   Java 엔진(SimilarityEngine·DtwSearch·ChartPatternScanner)에는 ctx::isCancelled 로 넘기면 종목마다 확인해
+ *   CancellationException 으로 중단 → 스케줄러가 CANCELLED 로 처리 (Python 실행은 id() 로 프로세스 종료)
+ * --------------------------------------------------------
+ */
+public final class JobContext {
+
+    private final String id;
+    private final JobType type;
+    private final TaskStatusService taskStatusService;
+
+    JobContext(String id, JobType type, TaskStatusService taskStatusService) {
+        this.id = id;
+        this.type = type;
+        this.taskStatusService = taskStatusService;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public JobType type() {
+        return type;
+    }
+
+    public boolean isCancelled() {
+        TaskStatusService.TaskStatus status = taskStatusService.getTaskStatus(id);
+        return status != null && JobState.CANCELLED.name().equals(status.getStatus());
+    }
+}
@@ -0,0 +1,38 @@
+package com.mybaselink.app.job;
+
+/**
+ * 작업 대기열이 가득 차 받을 수 없을 때 (컨트롤러 공통 처리에서 429 + Retry-After 로 응답)
+ */
+public class JobRejectedException extends RuntimeException {
+
+    private final JobType type;
+    private final int queued;
+    private final int capacity;
+    private final long retryAfterSeconds;
+
+    public JobRejectedException(JobType type, int queued, int capacity, long retryAfterSeconds) {
+        super(type.queueable()
+                ? type.label() + " 대기열이 가득 찼습니다 (대기 " + queued + "/" + capacity + "). 잠시 후 다시 시도하세요."
+                : "다른 " + type.label() + " 작업이 진행 중입니다. 잠시 후 다시 시도하세요.");
+        this.type = type;
+        this.queued = queued;
+        this.capacity = capacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
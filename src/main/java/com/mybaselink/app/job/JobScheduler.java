@@ -0,0 +1,569 @@
+package com.mybaselink.app.job;
+
+import com.mybaselink.app.service.JobStoreService;
+import com.mybaselink.app.service.TaskStatusService;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * JobScheduler
+ * --------------------------------------------------------
+ * 분석 작업 공용 스케줄러 (서비스별 AtomicBoolean 단일 실행 락 대체)
+ * - 작업 종류(JobType)별로 동시 실행 수 제한 + 고정 크기 대기열
+ *   → 다른 사용자의 분석이 돌고 있어도 거절하지 않고 차례를 기다림
+ * - 대기 중인 작업은 상태 QUEUED, result.queuePosition = 대기 순번(1부터), 앞 작업이 시작될 때마다 갱신
+ * - 대기열까지 가득 차면 JobRejectedException (대기 수·예상 대기 시간 포함) → 429 + Retry-After
+ * - 종류별 제출·거절·완료 건수와 평균 대기·실행 시간을 집계 (stats(), /api/krx/jobs/stats)
+ * - cancel(): 대기 중이면 대기열에서 제거, 실행 중이면 CANCELLED + Python 프로세스 종료, 합류 요청이면 분리
+ *   어느 경우든 해당 taskId 는 바로 CANCELLED (JobState 규칙상 늦게 온 완료·실패는 무시)
+ * - submitShared(JobBody): 분석 작업 공통 생명주기 (IN_PROGRESS → 반환값으로 COMPLETED / 예외면 FAILED)
+ * - 작업마다 대기·실행·전체 소요를 기록해 종류별 p50/p95 제공 (종단 간 지연 측정)
+ * - submitShared(): 같은 종류·같은 파라미터의 작업이 이미 대기·실행 중이면 새로 돌리지 않고 합류 (single-flight)
+ *   → 계산은 공유 작업 id(flight-...)로 1번만, 요청한 taskId 들은 같은 상태 객체로 진행률·결과를 받음
+ *   진행 중인 작업이 없으면 저장된 완료 결과(JobStoreService.findReusable)를 먼저 찾아 재계산 없이 바로 완료
+ * - 등록·시작·종료·취소 전이를 작업 기록 저장소에 남김 (재기동 후 결과 조회·미완료 작업 중단 표시)
+ * --------------------------------------------------------
+ */
+@Component
+public class JobScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(JobScheduler.class);
+
+    public static final String QUEUED = JobState.QUEUED.name();
+    private static final String CANCELLED_MESSAGE = "사용자에 의해 취소됨";
+
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 5;
+    private static final long MAX_RETRY_AFTER_SECONDS = 600;
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    /** 종류별로 보관할 최근 작업 소요 표본 수 (p50/p95 계산용) */
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final TaskStatusService taskStatusService;
+    private final PythonProcessRunner pythonProcessRunner;
+    private final JobStoreService jobStoreService;
+    private final Map<JobType, Lane> lanes = new EnumMap<>(JobType.class);
+    /** 작업 id → 대기 중인 작업 (취소·순번 조회용) */
+    private final Map<String, Job> queuedJobs = new ConcurrentHashMap<>();
+    /** 실행 중인 작업 id */
+    private final Map<String, JobType> runningJobs = new ConcurrentHashMap<>();
+    /** 공유 키 → 진행 중인 공유 작업 (flights 자체로 동기화) */
+    private final Map<String, Flight> flights = new HashMap<>();
+    /** 요청 작업 id → 합류한 공유 작업 */
+    private final Map<String, Flight> attached = new ConcurrentHashMap<>();
+
+    public JobScheduler(TaskStatusService taskStatusService, PythonProcessRunner pythonProcessRunner,
+                        JobStoreService jobStoreService,
+                        @Value("${job.concurrency:}") String concurrency,
+                        @Value("${job.queue-capacity:20}") int queueCapacity) {
+        this.taskStatusService = taskStatusService;
+        this.pythonProcessRunner = pythonProcessRunner;
+        this.jobStoreService = jobStoreService;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Map<JobType, Integer> overrides = parseConcurrency(concurrency);
+        for (JobType type : JobType.values()) {
+            int limit = overrides.getOrDefault(type, type.defaultConcurrency(cores));
+            int capacity = type.queueable() ? Math.max(1, queueCapacity) : 0;
+            lanes.put(type, new Lane(type, limit, capacity));
+            log.info("작업 스케줄러: {} 동시 실행 {}, 대기열 {}", type, limit, capacity);
+        }
+    }
+
+    /** "SIMILARITY=4,CHART=8" 형식 (없는 종류는 코어 수 기준 기본값) */
+    private static Map<JobType, Integer> parseConcurrency(String spec) {
+        Map<JobType, Integer> out = new EnumMap<>(JobType.class);
+        if (spec == null || spec.isBlank()) return out;
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("job.concurrency 형식 오류: " + part);
+            }
+            out.put(JobType.valueOf(kv[0].trim().toUpperCase()), Math.max(1, Integer.parseInt(kv[1].trim())));
+        }
+        return out;
+    }
+
+    /**
+     * 작업 제출 (빈 실행 슬롯이 있으면 바로 시작, 없으면 대기열에서 순서 대기)
+     * @throws JobRejectedException 대기열이 가득 찼을 때 (대기열 없는 종류는 실행 중일 때)
+     */
+    public void submit(JobType type, String taskId, Runnable body) {
+        submit(type, taskId, null, body);
+    }
+
+    /**
+     * 작업 제출 (params: 작업 기록에 남길 정규화된 파라미터, flightKey)
+     * @throws JobRejectedException 대기열이 가득 찼을 때 (대기열 없는 종류는 실행 중일 때)
+     */
+    public void submit(JobType type, String taskId, String params, Runnable body) {
+        enqueue(type, taskId, params, body, false);
+    }
+
+    private void enqueue(JobType type, String taskId, String params, Runnable body, boolean shared) {
+        Lane lane = lanes.get(type);
+        Job job = new Job(taskId, lane, body, shared);
+        lane.submitted.incrementAndGet();
+        jobStoreService.queued(type, taskId, params);
+
+        // 시작 전에 먼저 QUEUED 로 표시 (작업이 곧바로 시작되면 작업 쪽 IN_PROGRESS 가 덮어씀)
+        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus(QUEUED, queuedResult(type, 0), null));
+        queuedJobs.put(taskId, job);
+        try {
+            lane.executor.execute(job);
+            // 순번은 대기열에 실제로 들어간 위치 (동시 제출끼리 같은 순번을 받지 않도록 lane 잠금 아래에서 계산)
+            synchronized (lane) {
+                int position = queueIndex(lane, job);
+                if (!job.started && position > 0) {
+                    taskStatusService.setTaskStatus(taskId,
+                            new TaskStatusService.TaskStatus(QUEUED, queuedResult(type, position), null));
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            queuedJobs.remove(taskId, job);
+            taskStatusService.removeTask(taskId);
+            jobStoreService.discard(taskId);
+            long rejected = lane.rejected.incrementAndGet();
+            long retryAfter = lane.retryAfterSeconds();
+            log.warn("[{}] {} 거절: 실행 {}/{}, 대기 {}/{}, 누적 거절 {}건, 재시도 권장 {}초", taskId, type,
+                    lane.executor.getActiveCount(), lane.limit, lane.queue.size(), lane.capacity, rejected, retryAfter);
+            throw new JobRejectedException(type, lane.queue.size(), lane.capacity, retryAfter);
+        }
+    }
+
+    /**
+     * 분석 작업 제출 (공유 + 공통 생명주기)
+     * - 시작 시 IN_PROGRESS, body 반환값으로 COMPLETED, 예외면 FAILED (메시지 = 예외 메시지)
+     * - 취소된 작업은 CANCELLED 유지 (Python 실행은 ctx.id() 를 작업 키로 넘겨야 취소 시 종료됨)
+     * - 같은 종류·같은 키 요청은 하나의 실행을 공유 (submitFlight)
+     * @throws JobRejectedException 새로 실행해야 하는데 대기열이 가득 찼을 때
+     */
+    public <R> void submitShared(JobType type, String taskId, String key, JobBody<R> body) {
+        submitFlight(type, taskId, key, runId -> runBody(type, runId, body));
+    }
+
+    private <R> void runBody(JobType type, String runId, JobBody<R> body) {
+        JobContext ctx = new JobContext(runId, type, taskStatusService);
+        if (!taskStatusService.setTaskStatus(runId,
+                new TaskStatusService.TaskStatus(JobState.IN_PROGRESS.name(), null, null))) {
+            return; // 시작 전에 취소됨
+        }
+        try {
+            R result = body.run(ctx);
+            taskStatusService.setTaskStatus(runId, new TaskStatusService.TaskStatus(JobState.COMPLETED.name(), result, null));
+        } catch (CancellationException e) {
+            taskStatusService.setTaskStatus(runId, new TaskStatusService.TaskStatus(JobState.CANCELLED.name(), null, CANCELLED_MESSAGE));
+        } catch (Exception e) {
+            if (ctx.isCancelled()) return;
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            taskStatusService.setTaskStatus(runId, new TaskStatusService.TaskStatus(JobState.FAILED.name(), null, message));
+            log.error("[{}] {} 작업 실패: {}", runId, type, message, e);
+        }
+    }
+
+    /**
+     * 같은 작업 공유 제출 (single-flight)
+     * - 같은 종류·같은 키의 작업이 대기 중이거나 실행 중이면 새로 실행하지 않고 합류
+     * - 합류한 taskId 는 공유 작업과 같은 상태 객체를 보므로 대기 순번·진행률·결과가 그대로 보임
+     * - 진행 중인 작업이 없고 저장된 완료 결과가 있으면 실행 없이 그 결과로 바로 COMPLETED
+     * @param key  정규화된 작업 파라미터 (flightKey)
+     * @param body 공유 작업 id 를 받아 실행 (상태 갱신·Python 취소 키로 사용)
+     * @throws JobRejectedException 새로 실행해야 하는데 대기열이 가득 찼을 때
+     */
+    private void submitFlight(JobType type, String taskId, String key, Consumer<String> body) {
+        String flightKey = type.name() + "|" + key;
+        boolean inFlight;
+        synchronized (flights) {
+            inFlight = flights.containsKey(flightKey);
+        }
+        // DB 조회는 잠금 밖에서 (그 사이 같은 작업이 새로 시작되면 저장 결과를 그대로 씀)
+        JobStoreService.StoredJob stored = inFlight ? null : jobStoreService.findReusable(type, key);
+        if (stored != null) {
+            lanes.get(type).reused.incrementAndGet();
+            taskStatusService.setTaskStatus(taskId, stored.status());
+            jobStoreService.linked(type, taskId, key, stored.jobId());
+            log.info("[{}] 저장된 {} 결과 재사용 ({} 완료, 작업 {})", taskId, type, stored.finishedAt(), stored.jobId());
+            return;
+        }
+        synchronized (flights) {
+            Flight flight = flights.get(flightKey);
+            if (flight == null) {
+                Flight created = new Flight(flightKey, "flight-" + UUID.randomUUID());
+                enqueue(type, created.id, key, () -> runShared(created, body), true);
+                flights.put(flightKey, created);
+                flight = created;
+            } else {
+                lanes.get(type).coalesced.incrementAndGet();
+                log.info("[{}] 같은 {} 작업 진행 중 → {} 에 합류 (요청 {}건)", taskId, type, flight.id,
+                        flight.requesters.size() + 1);
+            }
+            flight.requesters.add(taskId);
+            attached.put(taskId, flight);
+            taskStatusService.share(taskId, flight.id);
+            jobStoreService.linked(type, taskId, key, flight.id);
+        }
+    }
+
+    /** 공유 키: 파라미터 앞뒤 공백 제거, 날짜(yyyy-MM-dd)는 yyyyMMdd 로 통일해 "|" 로 연결 */
+    public static String flightKey(Object... parts) {
+        StringJoiner key = new StringJoiner("|");
+        for (Object part : parts) {
+            String s = part == null ? "" : String.valueOf(part).trim();
+            key.add(ISO_DATE.matcher(s).matches() ? s.replace("-", "") : s);
+        }
+        return key.toString();
+    }
+
+    /** 공유 작업 실행 (공유 작업 id 상태는 종료 기록 후 Job 에서 정리) */
+    private void runShared(Flight flight, Consumer<String> body) {
+        try {
+            body.accept(flight.id);
+        } finally {
+            synchronized (flights) {
+                flights.remove(flight.key, flight);
+                flight.requesters.forEach(id -> attached.remove(id, flight));
+            }
+        }
+    }
+
+    /**
+     * 작업 취소 (성공하면 taskId 상태는 CANCELLED)
+     * - 공유 작업에 합류한 요청이면 분리 (마지막 요청이면 공유 작업 자체를 취소) → true
+     * - 대기 중인 작업이면 대기열에서 제거 → true
+     * - 실행 중인 작업이면 CANCELLED 표시 + Python 프로세스 종료 → true
+     * - 없거나 이미 끝난 작업이면 false
+     */
+    public boolean cancel(String taskId) {
+        Flight flight = attached.get(taskId);
+        if (flight != null) return leave(taskId, flight);
+        if (cancelQueued(taskId)) {
+            markCancelled(taskId);
+            return true;
+        }
+        return cancelRunning(taskId);
+    }
+
+    private boolean cancelRunning(String taskId) {
+        if (!runningJobs.containsKey(taskId) || !markCancelled(taskId)) return false;
+        if (pythonProcessRunner.cancel(taskId)) {
+            log.warn("[{}] 실행 중인 작업 취소 → Python 프로세스 종료", taskId);
+        } else {
+            log.warn("[{}] 실행 중인 작업 취소 (결과는 버림)", taskId);
+        }
+        return true;
+    }
+
+    private boolean markCancelled(String taskId) {
+        return taskStatusService.setTaskStatus(taskId,
+                new TaskStatusService.TaskStatus(JobState.CANCELLED.name(), null, CANCELLED_MESSAGE));
+    }
+
+    private boolean leave(String taskId, Flight flight) {
+        synchronized (flights) {
+            if (!attached.remove(taskId, flight)) return false;
+            flight.requesters.remove(taskId);
+            taskStatusService.unshare(taskId);
+            // 공유 작업이 방금 끝났으면 (정리 전) 취소하지 않고 끝난 결과 유지
+            if (!markCancelled(taskId)) return false;
+            jobStoreService.detached(taskId);
+            if (!flight.requesters.isEmpty()) {
+                log.info("[{}] 공유 작업 {} 에서 분리 (남은 요청 {}건)", taskId, flight.id, flight.requesters.size());
+                return true;
+            }
+            // 새 요청이 취소 중인 작업에 합류하지 않도록 먼저 제거
+            flights.remove(flight.key, flight);
+        }
+        if (cancelQueued(flight.id)) {
+            taskStatusService.removeTask(flight.id);
+        } else {
+            cancelRunning(flight.id);
+        }
+        log.warn("[{}] 마지막 요청 취소 → 공유 작업 {} 취소", taskId, flight.id);
+        return true;
+    }
+
+    private boolean cancelQueued(String taskId) {
+        Job job = queuedJobs.get(taskId);
+        if (job == null) return false;
+        synchronized (job.lane) {
+            if (job.started || !job.lane.executor.remove(job)) return false;
+            queuedJobs.remove(taskId, job);
+        }
+        jobStoreService.finished(taskId, JobState.CANCELLED.name(), null, CANCELLED_MESSAGE);
+        job.lane.cancelled.incrementAndGet();
+        log.info("[{}] 대기 중인 {} 작업 취소", taskId, job.lane.type);
+        publishPositions(job.lane);
+        return true;
+    }
+
+    /** 대기 순번 (실행 중 0, 대기 중 1부터, 모르는 작업 -1) */
+    public int position(String taskId) {
+        Flight flight = attached.get(taskId);
+        if (flight != null) taskId = flight.id;
+        if (runningJobs.containsKey(taskId)) return 0;
+        Job job = queuedJobs.get(taskId);
+        if (job == null) return -1;
+        return queueIndex(job.lane, job);
+    }
+
+    /** 대기열 안 위치 (1부터, 없으면 0) */
+    private static int queueIndex(Lane lane, Job job) {
+        int i = 1;
+        for (Runnable r : lane.queue) {
+            if (r == job) return i;
+            i++;
+        }
+        return 0;
+    }
+
+    /** 종류별 실행 중인 작업 수 */
+    public int running(JobType type) {
+        return lanes.get(type).executor.getActiveCount();
+    }
+
+    /** 종류별 부하·거절 통계 */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Lane lane : lanes.values()) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("label", lane.type.label());
+            s.put("concurrency", lane.limit);
+            s.put("running", lane.executor.getActiveCount());
+            s.put("queued", lane.queue.size());
+            s.put("queueCapacity", lane.capacity);
+            s.put("submitted", lane.submitted.get());
+            s.put("rejected", lane.rejected.get());
+            s.put("coalesced", lane.coalesced.get());
+            s.put("reused", lane.reused.get());
+            s.put("completed", lane.completed.get());
+            s.put("succeeded", lane.succeeded.get());
+            s.put("failed", lane.failed.get());
+            s.put("cancelled", lane.cancelled.get());
+            s.put("avgWaitMs", Math.round(lane.avgWaitMs));
+            s.put("avgRunMs", Math.round(lane.avgRunMs));
+            s.put("latencyMs", lane.latency.summary());
+            out.put(lane.type.name(), s);
+        }
+        return out;
+    }
+
+    private static Map<String, Object> queuedResult(JobType type, int position) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobType", type.name());
+        result.put("queuePosition", position);
+        result.put("message", position > 0 ? type.label() + " 대기 중 (" + position + "번째)" : type.label() + " 시작 대기");
+        return result;
+    }
+
+    /** 대기열 순번 다시 계산해 QUEUED 상태에 반영 */
+    private void publishPositions(Lane lane) {
+        int i = 1;
+        for (Runnable r : lane.queue) {
+            if (!(r instanceof Job job)) continue;
+            int position = i++;
+            synchronized (lane) {
+                if (job.started) continue;
+                TaskStatusService.TaskStatus current = taskStatusService.getTaskStatus(job.taskId);
+                if (current != null && !QUEUED.equals(current.getStatus())) continue;
+                taskStatusService.setTaskStatus(job.taskId,
+                        new TaskStatusService.TaskStatus(QUEUED, queuedResult(lane.type, position), null));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.executor.shutdownNow());
+    }
+
+    // ==================================
+    // 내부 구조
+    // ==================================
+
+    /** 작업 종류별 실행 슬롯 + 대기열 + 통계 */
+    private static final class Lane {
+        final JobType type;
+        final int limit;
+        final int capacity;
+        final BlockingQueue<Runnable> queue;
+        final ThreadPoolExecutor executor;
+
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        /** 같은 작업에 합류해 새로 실행하지 않은 요청 수 */
+        final AtomicLong coalesced = new AtomicLong();
+        /** 저장된 완료 결과를 재사용해 실행하지 않은 요청 수 */
+        final AtomicLong reused = new AtomicLong();
+        /** 실행을 마친 작업 수 (결과 무관) + 끝난 상태별 */
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        /** 지수 이동 평균 (ms) */
+        volatile double avgWaitMs;
+        volatile double avgRunMs;
+        /** 최근 작업의 대기·실행·전체 소요 */
+        final LatencyWindow latency = new LatencyWindow(LATENCY_SAMPLES);
+
+        Lane(JobType type, int limit, int capacity) {
+            this.type = type;
+            this.limit = limit;
+            this.capacity = capacity;
+            this.queue = capacity > 0 ? new LinkedBlockingQueue<>(capacity) : new SynchronousQueue<>();
+            AtomicInteger seq = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(limit, limit, 60, TimeUnit.SECONDS, queue, r -> {
+                Thread t = new Thread(r, "job-" + type.name().toLowerCase() + "-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        synchronized void record(long waitMs, long runMs, String finalStatus) {
+            completed.incrementAndGet();
+            JobState state = JobState.of(finalStatus);
+            if (state == JobState.COMPLETED) succeeded.incrementAndGet();
+            else if (state == JobState.CANCELLED) cancelled.incrementAndGet();
+            else failed.incrementAndGet();
+            latency.add(waitMs, runMs);
+            boolean first = completed.get() == 1;
+            avgWaitMs = first ? waitMs : avgWaitMs * 0.8 + waitMs * 0.2;
+            avgRunMs = first ? runMs : avgRunMs * 0.8 + runMs * 0.2;
+        }
+
+        /** 예상 대기 시간: 앞선 작업 수 / 동시 실행 수 × 평균 실행 시간 */
+        long retryAfterSeconds() {
+            if (completed.get() == 0) return DEFAULT_RETRY_AFTER_SECONDS;
+            double waves = (double) (queue.size() + 1) / limit;
+            long seconds = (long) Math.ceil(waves * avgRunMs / 1000.0);
+            return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, seconds));
+        }
+    }
+
+    /** 최근 N건 작업의 대기·실행·전체 소요 (원형 버퍼, 자기 자신으로 동기화) */
+    private static final class LatencyWindow {
+        final long[] wait;
+        final long[] run;
+        int next;
+        int size;
+
+        LatencyWindow(int capacity) {
+            this.wait = new long[capacity];
+            this.run = new long[capacity];
+        }
+
+        synchronized void add(long waitMs, long runMs) {
+            wait[next] = waitMs;
+            run[next] = runMs;
+            next = (next + 1) % wait.length;
+            size = Math.min(size + 1, wait.length);
+        }
+
+        /** {samples, wait/run/total 별 p50·p95·max} */
+        synchronized Map<String, Object> summary() {
+            long[] w = Arrays.copyOf(wait, size);
+            long[] r = Arrays.copyOf(run, size);
+            long[] t = new long[size];
+            for (int i = 0; i < size; i++) t[i] = w[i] + r[i];
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("samples", size);
+            out.put("wait", percentiles(w));
+            out.put("run", percentiles(r));
+            out.put("total", percentiles(t));
+            return out;
+        }
+
+        private static Map<String, Object> percentiles(long[] values) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            if (values.length == 0) return out;
+            Arrays.sort(values);
+            out.put("p50", values[(int) Math.ceil(values.length * 0.50) - 1]);
+            out.put("p95", values[(int) Math.ceil(values.length * 0.95) - 1]);
+            out.put("max", values[values.length - 1]);
+            return out;
+        }
+    }
+
+    /** 같은 파라미터 요청들이 공유하는 작업 1건 */
+    private static final class Flight {
+        final String key;
+        final String id;
+        /** flights 잠금 아래에서만 변경 */
+        final Set<String> requesters = new LinkedHashSet<>();
+
+        Flight(String key, String id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    /** 대기열에 들어가는 작업 1건 */
+    private final class Job implements Runnable {
+        final String taskId;
+        final Lane lane;
+        final Runnable body;
+        /** 공유 작업이면 종료 후 공유 작업 id 상태 정리 (요청 taskId 들은 같은 상태 객체를 계속 가리킴) */
+        final boolean shared;
+        final long enqueuedAt = System.currentTimeMillis();
+        /** lane 잠금 아래에서만 변경 (순번 갱신과 시작 경쟁 방지) */
+        boolean started;
+
+        Job(String taskId, Lane lane, Runnable body, boolean shared) {
+            this.taskId = taskId;
+            this.lane = lane;
+            this.body = body;
+            this.shared = shared;
+        }
+
+        @Override
+        public void run() {
+            synchronized (lane) {
+                started = true;
+                queuedJobs.remove(taskId, this);
+            }
+            runningJobs.put(taskId, lane.type);
+            jobStoreService.started(taskId);
+            long startedAt = System.currentTimeMillis();
+            publishPositions(lane);
+            try {
+                body.run();
+            } catch (Throwable t) {
+                log.error("[{}] {} 작업 처리 중 처리되지 않은 오류", taskId, lane.type, t);
+            } finally {
+                runningJobs.remove(taskId);
+                TaskStatusService.TaskStatus last = taskStatusService.getTaskStatus(taskId);
+                String finalStatus = last == null ? null : last.getStatus();
+                jobStoreService.finished(taskId, last);
+                if (shared) taskStatusService.removeTask(taskId);
+                long waitMs = startedAt - enqueuedAt;
+                long runMs = System.currentTimeMillis() - startedAt;
+                lane.record(waitMs, runMs, finalStatus);
+                log.info("[{}] {} 작업 종료: {} (대기 {}ms, 실행 {}ms)", taskId, lane.type, finalStatus, waitMs, runMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mybaselink.app.job;
+
+/**
+ * JobState
+ * --------------------------------------------------------
+ * 작업 생명주기 상태 + 허용 전이
+ * - QUEUED → IN_PROGRESS / 끝 (대기 중 취소, 저장 결과 재사용)
+ * - IN_PROGRESS → IN_PROGRESS (진행률) / 끝
+ * - 끝난 상태(COMPLETED/FAILED/CANCELLED)에서는 더 바뀌지 않음
+ *   → 취소 후 늦게 도착한 완료·실패가 CANCELLED 를 덮어쓰지 않음
+ * --------------------------------------------------------
+ */
+public enum JobState {
+
+    QUEUED,
+    IN_PROGRESS,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean finished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+
+    /** next 로 바뀔 수 있는지 (같은 상태 유지는 진행 중일 때만 허용) */
+    public boolean canMoveTo(JobState next) {
+        if (next == null || finished()) return false;
+        if (this == IN_PROGRESS) return next != QUEUED;
+        return true;
+    }
+
+    /** 상태 문자열 → JobState (null·알 수 없는 값은 null) */
+    public static JobState of(String status) {
+        if (status == null) return null;
+        try {
+            return valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** 끝난 상태 문자열인지 */
+    public static boolean isFinished(String status) {
+        JobState state = of(status);
+        return state != null && state.finished();
+    }
+}
@@ -0,0 +1,44 @@
+package com.mybaselink.app.job;
+
+/**
+ * JobType
+ * --------------------------------------------------------
+ * 분석 작업 종류별 기본 동시 실행 수 / 대기열 사용 여부
+ * - 동시 실행 수는 CPU 코어 수 기준 (job.concurrency 로 종류별 재지정)
+ * - 전 종목 스캔(유사도·패턴·연속 하락)은 내부에서도 병렬이라 코어 절반
+ * - 차트 1장은 가벼워 코어 수만큼
+ * - 전체 종목 업데이트는 단독 실행, 대기열 없이 즉시 거절 (같은 작업을 두 번 쌓을 이유가 없음)
+ * --------------------------------------------------------
+ */
+public enum JobType {
+
+    SIMILARITY("유사 종목 분석", 2, true),
+    PATTERN("차트 패턴 분석", 2, true),
+    DOWNWARD("연속 하락 분석", 2, true),
+    CHART("차트 생성", 1, true),
+    STOCK_UPDATE("전체 종목 업데이트", 0, false);
+
+    private final String label;
+    /** 코어 수를 나눌 값 (0 이면 1개 고정) */
+    private final int coresPerSlot;
+    private final boolean queueable;
+
+    JobType(String label, int coresPerSlot, boolean queueable) {
+        this.label = label;
+        this.coresPerSlot = coresPerSlot;
+        this.queueable = queueable;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public boolean queueable() {
+        return queueable;
+    }
+
+    /** 코어 수 기준 기본 동시 실행 수 */
+    int defaultConcurrency(int cores) {
+        return coresPerSlot == 0 ? 1 : Math.max(1, cores / coresPerSlot);
+    }
+}
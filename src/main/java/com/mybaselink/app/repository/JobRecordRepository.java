@@ -0,0 +1,62 @@
+package com.mybaselink.app.repository;
+
+import com.mybaselink.app.entity.JobRecordEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * 🗂 JobRecordRepository
+ *
+ * 작업 기록 저장 및 조회 (재기동 복구·결과 재사용)
+ */
+@Repository
+public interface JobRecordRepository extends JpaRepository<JobRecordEntity, String> {
+
+    /** 같은 종류·같은 파라미터로 since 이후 끝난 작업 중 가장 최근 1건 */
+    Optional<JobRecordEntity> findFirstByJobTypeAndJobKeyAndStatusAndFinishedAtAfterOrderByFinishedAtDesc(
+            String jobType, String jobKey, String status, Instant since);
+
+    /** 종류별 마지막으로 끝난 작업 (예: 마지막 시세 업데이트 완료 시각) */
+    Optional<JobRecordEntity> findFirstByJobTypeAndStatusOrderByFinishedAtDesc(String jobType, String status);
+
+    /** 이전 프로세스에서 끝나지 못한 작업을 실패로 표시 */
+    @Modifying
+    @Query("update JobRecordEntity j set j.status = 'FAILED', j.errorMessage = :message, "
+            + "j.finishedAt = :now, j.updatedAt = :now "
+            + "where j.status in ('QUEUED', 'IN_PROGRESS') and j.createdAt < :bootAt")
+    int markOrphaned(@Param("message") String message, @Param("now") Instant now, @Param("bootAt") Instant bootAt);
+
+    /** 이미 저장된 작업의 상태 전이 반영 (결과 열은 그대로) */
+    @Transactional
+    @Modifying
+    @Query("update JobRecordEntity j set j.status = :status, j.errorMessage = :errorMessage, "
+            + "j.startedAt = :startedAt, j.finishedAt = :finishedAt, j.updatedAt = :updatedAt "
+            + "where j.id = :id")
+    int updateState(@Param("id") String id, @Param("status") String status,
+                    @Param("errorMessage") String errorMessage, @Param("startedAt") Instant startedAt,
+                    @Param("finishedAt") Instant finishedAt, @Param("updatedAt") Instant updatedAt);
+
+    /** 이미 저장된 작업의 종료 반영 (결과까지 기록) */
+    @Transactional
+    @Modifying
+    @Query("update JobRecordEntity j set j.status = :status, j.errorMessage = :errorMessage, "
+            + "j.startedAt = :startedAt, j.finishedAt = :finishedAt, j.updatedAt = :updatedAt, "
+            + "j.resultGz = :resultGz, j.resultSize = :resultSize "
+            + "where j.id = :id")
+    int updateFinished(@Param("id") String id, @Param("status") String status,
+                       @Param("errorMessage") String errorMessage, @Param("startedAt") Instant startedAt,
+                       @Param("finishedAt") Instant finishedAt, @Param("updatedAt") Instant updatedAt,
+                       @Param("resultGz") byte[] resultGz, @Param("resultSize") Integer resultSize);
+
+    /** 보관 기간 지난 기록 일괄 삭제 (행을 읽지 않고 한 문장으로 삭제) */
+    @Modifying
+    @Query("delete from JobRecordEntity j where j.updatedAt < :cutoff")
+    int deleteUpdatedBefore(@Param("cutoff") Instant cutoff);
+}
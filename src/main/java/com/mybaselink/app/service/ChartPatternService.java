@@ -2,17 +2,17 @@
 package com.mybaselink.app.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.job.JobContext;
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.stock.pattern.ChartPatternScanner;
+import com.mybaselink.app.stock.pattern.PatternDetector;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
 import org.slf4j.*;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,54 +20,84 @@ public class ChartPatternService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChartPatternService.class);
 
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final TaskStatusService taskStatusService;
+    private final ChartPatternScanner chartPatternScanner;
+    private final PythonProcessRunner pythonProcessRunner;
 
-    private final String pythonExe = "C:\\Users\\dragon\\AppData\\Local\\Programs\\Python\\Python310\\python.exe";
     private final String scriptPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\stock\\py\\find_chart_patterns.py";
+    private final String pythonDir = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python";
 
-    // 단일 실행 선점 + 프로세스 레지스트리(취소/강제종료용)
-    private final AtomicBoolean pythonScriptLock = new AtomicBoolean(false);
-    private final ConcurrentMap<String, Process> runningProcesses = new ConcurrentHashMap<>();
+    // 동시 실행 수·대기열은 작업 스케줄러(PATTERN), 실행 중 취소/강제종료는 Python 실행기가 작업 id 로 처리
+    private final JobScheduler jobScheduler;
 
-    public ChartPatternService(TaskStatusService taskStatusService) {
-        this.taskStatusService = taskStatusService;
+    public ChartPatternService(ChartPatternScanner chartPatternScanner, PythonProcessRunner pythonProcessRunner,
+                               JobScheduler jobScheduler) {
+        this.chartPatternScanner = chartPatternScanner;
+        this.pythonProcessRunner = pythonProcessRunner;
+        this.jobScheduler = jobScheduler;
     }
 
     // =========================
     // 패턴 분석 시작 (비동기)
     // =========================
-    @Async
     public void startChartPatternTask(String taskId, String start, String end, String pattern, int topN) {
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", null, null));
+        jobScheduler.submitShared(JobType.PATTERN, taskId,
+                JobScheduler.flightKey("pattern", patternKey(pattern), start, end, topN), ctx -> {
+            List<Map<String, Object>> results = executePatternScan(ctx, start, end, pattern, topN);
+            logger.info("[{}] 패턴 분석 완료 ({} 건)", ctx.id(), results.size());
+            return results;
+        });
+    }
 
-        if (!pythonScriptLock.compareAndSet(false, true)) {
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, "다른 분석이 진행 중입니다."));
-            return;
-        }
+    // =========================
+    // 다중 패턴 분석 시작 (비동기)
+    // =========================
+    public void startMultiPatternTask(String taskId, String start, String end, String patterns, int topN) {
+        // 실행을 공유하는 요청끼리 결과 순서가 같도록 요청 문자열 대신 정규화한 목록(이름순)으로 스캔
+        String key = patternKey(patterns);
+        jobScheduler.submitShared(JobType.PATTERN, taskId,
+                JobScheduler.flightKey("multi-pattern", key, start, end, topN), ctx -> {
+            Map<String, List<Map<String, Object>>> results = executeMultiPatternScan(ctx, start, end, key, topN);
+            Map<String, Object> resultMap = new HashMap<>();
+            resultMap.put("patterns", results);
+            logger.info("[{}] 다중 패턴 분석 완료 ({})", ctx.id(), results.keySet());
+            return resultMap;
+        });
+    }
 
-        try {
-            List<Map<String, Object>> results = executePatternScan(taskId, start, end, pattern, topN);
-            //taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", results, null));
-            logger.info("[{}] 패턴 분석 완료 ({} 건)", taskId, results.size());
-        } catch (Exception e) {
-            // 취소로 이미 상태가 변경된 경우는 로그만
-            if (!"CANCELLED".equalsIgnoreCase(taskStatusService.getTaskStatus(taskId).getStatus())) {
-                taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, e.getMessage()));
-            }
-            logger.error("[{}] 패턴 분석 실패: {}", taskId, e.getMessage(), e);
-        } finally {
-            pythonScriptLock.set(false);
-            runningProcesses.remove(taskId);
+    // 공유 키용 패턴 목록: 소문자, 중복 제거, 이름순 (빈 값·"all" 은 all)
+    static String patternKey(String patterns) {
+        if (patterns == null || patterns.isBlank() || "all".equalsIgnoreCase(patterns.trim())) return "all";
+        return Arrays.stream(patterns.split(","))
+                .map(p -> p.trim().toLowerCase(Locale.ROOT))
+                .filter(p -> !p.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    // 다중 패턴 스캔 (종목당 1회 적재, 가격 데이터 적재 전에는 패턴별로 Python 실행)
+    public Map<String, List<Map<String, Object>>> executeMultiPatternScan(JobContext ctx, String start, String end,
+                                                                          String patterns, int topN) throws Exception {
+        if (chartPatternScanner.isReady()) {
+            return chartPatternScanner.scanMulti(start, end, patterns, topN, ctx::isCancelled);
+        }
+        Map<String, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        for (PatternDetector detector : chartPatternScanner.resolve(patterns)) {
+            results.put(detector.name(), executePatternScan(ctx, start, end, detector.name(), topN));
+            if (ctx.isCancelled()) break;
         }
+        return results;
     }
 
-    // 실제 파이썬 실행 (패턴 스캔)
-    public List<Map<String, Object>> executePatternScan(String taskId, String start, String end, String pattern, int topN)
+    // 패턴 스캔 (가격 데이터 적재 전에는 Python 실행, 취소는 Java 스캔이면 종목마다 확인·Python 이면 프로세스 종료)
+    public List<Map<String, Object>> executePatternScan(JobContext ctx, String start, String end, String pattern, int topN)
             throws Exception {
+        if (chartPatternScanner.isReady()) {
+            return chartPatternScanner.scan(start, end, pattern, topN, ctx::isCancelled);
+        }
+        String taskId = ctx.id();
 
-        String[] command = {
-                pythonExe, "-u", scriptPath,
+        String[] args = {
                 // find_chart_patterns.py 는 --start/--end 와 --start_date/--end_date 둘 다 지원
                 "--start", start,
                 "--end", end,
@@ -76,78 +106,22 @@ public class ChartPatternService {
                 "--workers", String.valueOf(Math.max(2, Runtime.getRuntime().availableProcessors()))
         };
 
-        JsonNode result = runPythonAndGetJson(taskId, command);
-
-        // 스크립트는 리스트(JSON 배열)를 반환
-        if (result != null && result.isArray()) {
-            return mapper.convertValue(result, new TypeReference<List<Map<String, Object>>>() {});
-        }
-        return List.of();
-    }
-
-    // 공통 파이썬 실행부
-    private JsonNode runPythonAndGetJson(String taskId, String[] command)
-            throws IOException, InterruptedException, ExecutionException, TimeoutException {
-
-        logger.info("[{}] Python 실행: {}", taskId, Arrays.toString(command));
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.environment().put("PYTHONIOENCODING", "utf-8");
-        pb.directory(new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python"));
-        Process process = pb.start();
-        runningProcesses.put(taskId, process);
-
-        ExecutorService executor = Executors.newFixedThreadPool(2);
-
-        Future<String> out = executor.submit(() -> {
-            try (BufferedReader r = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                return r.lines().collect(Collectors.joining("\n"));
-            }
-        });
-        Future<Void> err = executor.submit(() -> {
-            try (BufferedReader r = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
-                r.lines().forEach(line -> logger.info("[Python][{}] {}", taskId, line));
-            }
-            return null;
-        });
-
-        String stdout = null;
-        try {
-            stdout = out.get(180, TimeUnit.SECONDS);
-            err.get(180, TimeUnit.SECONDS);
-
-            boolean finished = process.waitFor(180, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                throw new TimeoutException("Python 실행 시간 초과");
-            }
-        } finally {
-            executor.shutdown();
-        }
-
-        int exit = process.exitValue();
-        runningProcesses.remove(taskId);
-
-        if (exit != 0) {
-            throw new RuntimeException("Python 비정상 종료(exit=" + exit + ")");
-        }
-        if (stdout == null || stdout.isBlank()) {
+        // 스크립트는 리스트(JSON 배열)를 반환 → 스트리밍 파싱으로 바로 목록 변환 (오류는 stderr 로 출력)
+        logger.info("[{}] Python 실행: {} {}", taskId, scriptPath, Arrays.toString(args));
+        List<Map<String, Object>> result = pythonProcessRunner.runJson(taskId, new File(pythonDir), scriptPath,
+                List.of(args), 180, new TypeReference<List<Map<String, Object>>>() {});
+        if (result == null) {
             throw new RuntimeException("Python 출력이 비어 있습니다.");
         }
-        return mapper.readTree(stdout);
+        return result;
     }
 
     // =========================
-    // 취소 (프로세스 강제 종료)
+    // 취소 (대기열 제거 또는 워커 강제 종료, 상태는 CANCELLED)
     // =========================
     public boolean cancelTask(String taskId) {
-        Process p = runningProcesses.remove(taskId);
-        if (p != null && p.isAlive()) {
-            logger.warn("[{}] 취소 요청 수신 → Python 프로세스 강제 종료", taskId);
-            p.destroyForcibly();
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("CANCELLED", null, "사용자에 의해 취소됨"));
-            pythonScriptLock.set(false);
-            return true;
-        }
-        return false;
+        if (!jobScheduler.cancel(taskId)) return false;
+        logger.warn("[{}] 패턴 분석 취소", taskId);
+        return true;
     }
 }
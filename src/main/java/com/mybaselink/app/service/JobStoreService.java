@@ -0,0 +1,457 @@
+package com.mybaselink.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.entity.JobRecordEntity;
+import com.mybaselink.app.job.JobState;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.repository.JobRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JobStoreService
+ * --------------------------------------------------------
+ * 작업 기록 영속 저장소 (PostgreSQL job_records)
+ * - 작업 파라미터(공유 키)·상태 전이(QUEUED → IN_PROGRESS → 끝)·결과(JSON gzip)를 기록
+ * - 쓰기는 메모리에 모았다가 job.store.flush-ms 마다 한 번에 저장 (진행률·로그 줄마다 쓰지 않음)
+ *   결과 압축도 저장 스레드에서 처리 → 작업 스레드는 DB·압축을 기다리지 않음
+ * - 기동 시: 이전 프로세스에서 끝나지 못한 작업(QUEUED/IN_PROGRESS)을 FAILED("서버 재시작으로 중단됨")로 표시
+ * - load(): 메모리에 없는 작업의 끝난 상태·결과를 DB 에서 복원 (재기동 후 결과 조회)
+ * - findReusable(): 같은 종류·같은 파라미터의 완료 결과가 job.store.reuse-minutes 이내이고
+ *   그 뒤로 시세 업데이트(STOCK_UPDATE)가 완료되지 않았으면 재계산 없이 재사용
+ * - 보관 기간(job.store.retention-days) 지난 기록은 매일 삭제
+ * --------------------------------------------------------
+ */
+@Service
+public class JobStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStoreService.class);
+
+    private static final String ORPHANED_MESSAGE = "서버 재시작으로 중단됨";
+
+    private final JobRecordRepository jobRecordRepository;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Duration reuseWindow;
+    private final Duration retention;
+    /** 이 프로세스 기동 시각 (이전 프로세스 기록만 중단 처리) */
+    private final Instant bootAt = Instant.now();
+
+    /** 저장 전이거나 아직 끝나지 않은 작업 기록 */
+    private final Map<String, PendingRecord> live = new ConcurrentHashMap<>();
+    /** 다음 저장 때 쓸 작업 id */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    /** 마지막 시세 업데이트 완료 시각 (이보다 먼저 끝난 결과는 재사용하지 않음) */
+    private volatile Instant dataUpdatedAt = Instant.EPOCH;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public JobStoreService(JobRecordRepository jobRecordRepository,
+                           @Value("${job.store.reuse-minutes:360}") long reuseMinutes,
+                           @Value("${job.store.retention-days:14}") long retentionDays) {
+        this.jobRecordRepository = jobRecordRepository;
+        this.reuseWindow = Duration.ofMinutes(Math.max(0, reuseMinutes));
+        this.retention = Duration.ofDays(Math.max(1, retentionDays));
+    }
+
+    // ==================================
+    // 상태 전이 기록 (메모리에만 반영, 저장은 flush)
+    // ==================================
+
+    /** 작업 등록 (대기열 진입) */
+    public void queued(JobType type, String jobId, String jobKey) {
+        Instant now = Instant.now();
+        JobRecordEntity row = new JobRecordEntity();
+        row.setId(jobId);
+        row.setJobType(type.name());
+        row.setJobKey(jobKey);
+        row.setStatus("QUEUED");
+        row.setCreatedAt(now);
+        row.setUpdatedAt(now);
+        live.put(jobId, new PendingRecord(row));
+        dirty.add(jobId);
+    }
+
+    /** 공유 작업(또는 저장된 결과)에 합류한 요청 기록 */
+    public void linked(JobType type, String taskId, String jobKey, String sharedJobId) {
+        Instant now = Instant.now();
+        JobRecordEntity row = new JobRecordEntity();
+        row.setId(taskId);
+        row.setJobType(type.name());
+        row.setJobKey(jobKey);
+        row.setSharedJobId(sharedJobId);
+        row.setCreatedAt(now);
+        row.setUpdatedAt(now);
+        live.put(taskId, new PendingRecord(row));
+        dirty.add(taskId);
+    }
+
+    /** 실행 시작 */
+    public void started(String jobId) {
+        update(jobId, row -> {
+            row.setStatus("IN_PROGRESS");
+            row.setStartedAt(Instant.now());
+        }, null);
+    }
+
+    /** 공유 작업에서 분리된 요청 (취소) */
+    public void detached(String taskId) {
+        finished(taskId, "CANCELLED", null, "사용자에 의해 취소됨");
+    }
+
+    /** 작업 종료: 끝난 상태가 아니면 완료 표시 없이 끝난 것으로 기록 */
+    public void finished(String jobId, TaskStatusService.TaskStatus status) {
+        if (status == null || !JobState.isFinished(status.getStatus())) {
+            finished(jobId, "FAILED", null, "완료 상태 없이 작업 종료");
+            return;
+        }
+        finished(jobId, status.getStatus(), status.getResult(), status.getErrorMessage());
+    }
+
+    public void finished(String jobId, String status, Object result, String errorMessage) {
+        Instant now = Instant.now();
+        update(jobId, row -> {
+            row.setStatus(status);
+            row.setErrorMessage(errorMessage);
+            row.setFinishedAt(now);
+            if ("STOCK_UPDATE".equals(row.getJobType()) && "COMPLETED".equals(status)) dataUpdatedAt = now;
+        }, result);
+    }
+
+    /** 제출이 거절된 작업: 저장 전이면 기록하지 않음 */
+    public void discard(String jobId) {
+        live.remove(jobId);
+        dirty.remove(jobId);
+    }
+
+    private void update(String jobId, Consumer<JobRecordEntity> change, Object result) {
+        PendingRecord p = jobId == null ? null : live.get(jobId);
+        if (p == null) return;
+        synchronized (p) {
+            change.accept(p.row);
+            p.row.setUpdatedAt(Instant.now());
+            if (result != null) p.result = result;
+            p.version++;
+        }
+        dirty.add(jobId);
+    }
+
+    // ==================================
+    // 조회 (재기동 후 결과·재사용)
+    // ==================================
+
+    /**
+     * DB 에 기록된 끝난 작업 상태 복원 (합류 요청이면 공유 작업 결과)
+     * @return 없거나 아직 끝나지 않은 작업이면 null
+     */
+    public TaskStatusService.TaskStatus load(String taskId) {
+        if (taskId == null) return null;
+        try {
+            JobRecordEntity row = jobRecordRepository.findById(taskId).orElse(null);
+            if (row != null && row.getStatus() == null && row.getSharedJobId() != null) {
+                row = jobRecordRepository.findById(row.getSharedJobId()).orElse(null);
+            }
+            if (row == null || !JobState.isFinished(row.getStatus())) return null;
+            restored.incrementAndGet();
+            TaskStatusService.TaskStatus status =
+                    new TaskStatusService.TaskStatus(row.getStatus(), decompress(row.getResultGz()), row.getErrorMessage());
+            status.restoreTiming(row.getCreatedAt(), row.getStartedAt(), row.getFinishedAt());
+            return status;
+        } catch (Exception e) {
+            log.warn("[{}] 작업 기록 조회 실패: {}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 재사용 가능한 완료 결과 (재사용 시간 이내, 이후 시세 업데이트 없음)
+     * @return 없으면 null
+     */
+    public StoredJob findReusable(JobType type, String jobKey) {
+        if (reuseWindow.isZero() || jobKey == null) return null;
+        Instant since = Instant.now().minus(reuseWindow);
+        if (dataUpdatedAt.isAfter(since)) since = dataUpdatedAt;
+        try {
+            JobRecordEntity row = jobRecordRepository
+                    .findFirstByJobTypeAndJobKeyAndStatusAndFinishedAtAfterOrderByFinishedAtDesc(type.name(), jobKey, "COMPLETED", since)
+                    .orElse(null);
+            if (row == null || row.getResultGz() == null) return null;
+            Object result = decompress(row.getResultGz());
+            if (result == null) return null;
+            reused.incrementAndGet();
+            return new StoredJob(row.getId(), row.getFinishedAt(), new TaskStatusService.TaskStatus(JobState.COMPLETED.name(), result, null));
+        } catch (Exception e) {
+            log.warn("[{}] 저장된 결과 조회 실패: {}", type, e.getMessage());
+            return null;
+        }
+    }
+
+    /** 저장소 현황 */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("pending", dirty.size());
+        out.put("live", live.size());
+        out.put("written", written.get());
+        out.put("restored", restored.get());
+        out.put("reused", reused.get());
+        out.put("failedFlushes", failedFlushes.get());
+        out.put("reuseMinutes", reuseWindow.toMinutes());
+        out.put("dataUpdatedAt", dataUpdatedAt.toString());
+        return out;
+    }
+
+    // ==================================
+    // 저장·복구·정리
+    // ==================================
+
+    /**
+     * 모인 변경을 한 번에 저장 (실패하면 다음 주기에 다시 시도)
+     * - 처음 저장하는 기록은 INSERT 로 묶어 저장 (기존 행 조회 없음)
+     * - 이미 저장된 기록은 상태 열만 UPDATE, 결과는 끝난 상태가 처음 저장될 때 한 번만 기록
+     */
+    @Scheduled(fixedDelayString = "${job.store.flush-ms:2000}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+        List<String> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+
+        List<JobRecordEntity> inserts = new ArrayList<>();
+        List<JobRecordEntity> updates = new ArrayList<>();
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (String id : ids) {
+            PendingRecord p = live.get(id);
+            if (p == null) continue;
+            Object result;
+            synchronized (p) {
+                result = p.result;
+                p.result = null;
+            }
+            if (result != null) {
+                Compressed c = compress(id, result);
+                synchronized (p) {
+                    p.compressed = c;
+                }
+            }
+            synchronized (p) {
+                JobRecordEntity row = copy(p.row);
+                if (p.compressed != null) {
+                    row.setResultGz(p.compressed.gz());
+                    row.setResultSize(p.compressed.size());
+                }
+                if (p.stored) {
+                    row.markNotNew();
+                    updates.add(row);
+                } else {
+                    inserts.add(row);
+                }
+                versions.put(id, p.version);
+            }
+        }
+        if (versions.isEmpty()) return;
+
+        List<JobRecordEntity> saved = new ArrayList<>(versions.size());
+        try {
+            if (!inserts.isEmpty()) {
+                jobRecordRepository.saveAll(inserts);
+                saved.addAll(inserts);
+            }
+            for (JobRecordEntity row : updates) {
+                if (row.getResultGz() != null) {
+                    jobRecordRepository.updateFinished(row.getId(), row.getStatus(), row.getErrorMessage(),
+                            row.getStartedAt(), row.getFinishedAt(), row.getUpdatedAt(),
+                            row.getResultGz(), row.getResultSize());
+                } else {
+                    jobRecordRepository.updateState(row.getId(), row.getStatus(), row.getErrorMessage(),
+                            row.getStartedAt(), row.getFinishedAt(), row.getUpdatedAt());
+                }
+                saved.add(row);
+            }
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            log.warn("작업 기록 저장 실패 ({}건, 다음 주기에 재시도): {}", versions.size() - saved.size(), e.getMessage());
+        }
+        written.addAndGet(saved.size());
+
+        // 저장된 기록은 다음부터 UPDATE, 기록한 결과는 메모리에서 해제
+        Set<String> savedIds = new HashSet<>();
+        for (JobRecordEntity row : saved) {
+            savedIds.add(row.getId());
+            PendingRecord p = live.get(row.getId());
+            if (p == null) continue;
+            synchronized (p) {
+                p.stored = true;
+                if (p.compressed != null && p.compressed.gz() == row.getResultGz()) p.compressed = null;
+            }
+        }
+        for (String id : versions.keySet()) {
+            if (!savedIds.contains(id)) dirty.add(id);
+        }
+        // 끝난 작업은 저장 후 메모리에서 제거 (저장 중에 다시 바뀐 기록은 유지)
+        for (Map.Entry<String, Long> e : versions.entrySet()) {
+            if (!savedIds.contains(e.getKey())) continue;
+            PendingRecord p = live.get(e.getKey());
+            if (p == null) continue;
+            synchronized (p) {
+                if (p.version == e.getValue() && p.finished()) live.remove(e.getKey(), p);
+            }
+        }
+        // 합류 요청 기록은 공유 작업이 끝날 때까지 유지 (그 사이 분리되면 취소로 다시 기록)
+        live.entrySet().removeIf(e -> e.getValue().linkedTo() != null
+                && !live.containsKey(e.getValue().linkedTo()) && !dirty.contains(e.getKey()));
+    }
+
+    /** 기동 완료: 이전 프로세스의 미완료 작업을 중단으로 표시, 마지막 시세 업데이트 시각 확인 */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recoverOnStartup() {
+        try {
+            Instant now = Instant.now();
+            int orphaned = jobRecordRepository.markOrphaned(ORPHANED_MESSAGE, now, bootAt);
+            jobRecordRepository.findFirstByJobTypeAndStatusOrderByFinishedAtDesc(JobType.STOCK_UPDATE.name(), "COMPLETED")
+                    .map(JobRecordEntity::getFinishedAt)
+                    .ifPresent(t -> { if (t.isAfter(dataUpdatedAt)) dataUpdatedAt = t; });
+            if (orphaned > 0) {
+                log.warn("작업 기록 복구: 재시작 전 끝나지 못한 작업 {}건을 중단으로 표시", orphaned);
+            }
+        } catch (Exception e) {
+            log.error("작업 기록 복구 실패", e);
+        }
+    }
+
+    /** 매일 새벽 보관 기간 지난 기록 삭제 */
+    @Scheduled(cron = "${job.store.purge-cron:0 40 3 * * ?}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = jobRecordRepository.deleteUpdatedBefore(Instant.now().minus(retention));
+        log.info("작업 기록 정리: {}일 지난 기록 {}건 삭제", retention.toDays(), deleted);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Compressed compress(String jobId, Object result) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CountingStream counter = new CountingStream(new GZIPOutputStream(bytes));
+            mapper.writeValue(counter, result); // 스트림까지 닫아 gzip 마무리
+            return new Compressed(bytes.toByteArray(), (int) Math.min(Integer.MAX_VALUE, counter.count));
+        } catch (IOException e) {
+            log.warn("[{}] 결과 직렬화 실패 (결과 없이 기록): {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    /** 결과 복원 (JSON 객체는 Map, 배열은 List) */
+    private Object decompress(byte[] gz) throws IOException {
+        if (gz == null || gz.length == 0) return null;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            return mapper.readValue(in, Object.class);
+        }
+    }
+
+    private static JobRecordEntity copy(JobRecordEntity src) {
+        JobRecordEntity row = new JobRecordEntity();
+        row.setId(src.getId());
+        row.setJobType(src.getJobType());
+        row.setJobKey(src.getJobKey());
+        row.setSharedJobId(src.getSharedJobId());
+        row.setStatus(src.getStatus());
+        row.setErrorMessage(src.getErrorMessage());
+        row.setCreatedAt(src.getCreatedAt());
+        row.setStartedAt(src.getStartedAt());
+        row.setFinishedAt(src.getFinishedAt());
+        row.setUpdatedAt(src.getUpdatedAt());
+        return row;
+    }
+
+    // ==================================
+    // 내부 구조
+    // ==================================
+
+    /** 저장된 완료 결과 (jobId = 결과를 만든 작업 id) */
+    public record StoredJob(String jobId, Instant finishedAt, TaskStatusService.TaskStatus status) {}
+
+    /** 저장 대기 기록 (자기 자신으로 동기화) */
+    private static final class PendingRecord {
+        final JobRecordEntity row;
+        /** 아직 압축하지 않은 결과 */
+        Object result;
+        /** 압축했지만 아직 기록하지 않은 결과 */
+        Compressed compressed;
+        /** DB 에 행이 있음 (이후 저장은 UPDATE) */
+        boolean stored;
+        long version;
+
+        PendingRecord(JobRecordEntity row) {
+            this.row = row;
+        }
+
+        boolean finished() {
+            return JobState.isFinished(row.getStatus());
+        }
+
+        /** 분리되지 않은 합류 요청이면 공유 작업 id */
+        synchronized String linkedTo() {
+            return row.getStatus() == null ? row.getSharedJobId() : null;
+        }
+    }
+
+    private record Compressed(byte[] gz, int size) {}
+
+    /** 직렬화 크기 측정용 */
+    private static final class CountingStream extends OutputStream {
+        final OutputStream out;
+        long count;
+
+        CountingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
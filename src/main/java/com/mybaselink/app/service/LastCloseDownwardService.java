@@ -4,23 +4,22 @@ package com.mybaselink.app.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.stock.chart.ChartImageService;
+import com.mybaselink.app.stock.downward.DownwardStreakScanner;
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 /**
  * Python 스크립트를 호출하여 연속 하락 종목 조회 및 차트 반환 서비스 (비동기 처리)
@@ -30,92 +29,69 @@ public class LastCloseDownwardService {
 
     private static final Logger logger = LoggerFactory.getLogger(LastCloseDownwardService.class);
     private final ObjectMapper mapper = new ObjectMapper();
-    private final TaskStatusService taskStatusService;
+    private final DownwardStreakScanner downwardStreakScanner;
+    private final ChartImageService chartImageService;
+    private final PythonProcessRunner pythonProcessRunner;
+    private final JobScheduler jobScheduler;
 
-    // Python 실행 경로
-    private final String pythonExe = "C:\\Users\\dragon\\AppData\\Local\\Programs\\Python\\Python310\\python.exe";
-
-    // Python 스크립트 경로
+    // Python 스크립트 경로 (상주 워커 풀에서 실행)
     private final String scriptPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\find_last_close_downward.py";
-    
-    // 인메모리 락 (단일 서버 환경용)
-    private final AtomicBoolean pythonScriptLock = new AtomicBoolean(false);
-
-    public LastCloseDownwardService(TaskStatusService taskStatusService) {
-        this.taskStatusService = taskStatusService;
+    private final String pythonDir = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python";
+
+    public LastCloseDownwardService(DownwardStreakScanner downwardStreakScanner,
+                                    ChartImageService chartImageService, PythonProcessRunner pythonProcessRunner,
+                                    JobScheduler jobScheduler) {
+        this.downwardStreakScanner = downwardStreakScanner;
+        this.chartImageService = chartImageService;
+        this.pythonProcessRunner = pythonProcessRunner;
+        this.jobScheduler = jobScheduler;
     }
 
     /**
-     * 비동기 작업 시작: 연속 하락 종목 조회
+     * 비동기 작업 시작: 연속 하락 종목 조회 (작업 스케줄러 DOWNWARD 대기열에서 차례로 실행, 같은 조건 요청은 진행 중인 작업에 합류)
      * @param taskId 작업 ID
      */
-    @Async
     public void startLastCloseDownwardTask(String taskId, String start, String end, int topN) {
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", null, null));
-        if (pythonScriptLock.compareAndSet(false, true)) { // 락 획득 시도
-            try {
-                List<Map<String, Object>> results = getCachedLastCloseDownward(start, end, topN);
-                //taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", results, null));
-            } catch (Exception e) {
-                String errorMsg = "비동기 작업 처리 중 오류: " + e.getMessage();
-                taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, errorMsg));
-                logger.error("비동기 작업 실패: taskId={}", taskId, e);
-            } finally {
-                pythonScriptLock.set(false); // 락 해제
-            }
-        } else {
-            String errorMsg = "작업 잠금 획득 실패 (다른 작업 진행 중)";
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, errorMsg));
-            logger.warn(errorMsg);
-        }
+        jobScheduler.submitShared(JobType.DOWNWARD, taskId,
+                JobScheduler.flightKey("last-close-downward", start, end, topN),
+                ctx -> getCachedLastCloseDownward(ctx.id(), start, end, topN));
     }
 
     /**
-     * 비동기 작업 시작: 개별 종목 차트
+     * 비동기 작업 시작: 개별 종목 차트 (작업 스케줄러 CHART 대기열에서 차례로 실행, 같은 조건 요청은 진행 중인 작업에 합류)
      * @param taskId 작업 ID
      */
-    @Async
     public void startFetchChartTask(String taskId, String baseSymbol, String start, String end) {
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", null, null));
-        if (pythonScriptLock.compareAndSet(false, true)) { // 락 획득 시도
-            try {
-                String base64Image = fetchChart(baseSymbol, start, end);
-                
-                // HashMap을 사용하여 null이 가능한 Map 생성
-                Map<String, Object> resultMap = new HashMap<>();
-                resultMap.put("image_data", base64Image);
-                
-                taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", resultMap, null));
-            } catch (Exception e) {
-                String errorMsg = "비동기 작업 처리 중 오류: " + e.getMessage();
-                taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, errorMsg));
-                logger.error("비동기 작업 실패: taskId={}", taskId, e);
-            } finally {
-                pythonScriptLock.set(false); // 락 해제
-            }
-        } else {
-            String errorMsg = "작업 잠금 획득 실패 (다른 작업 진행 중)";
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, errorMsg));
-            logger.warn(errorMsg);
-        }
+        jobScheduler.submitShared(JobType.CHART, taskId,
+                JobScheduler.flightKey("close-chart", baseSymbol, start, end), ctx -> {
+            // HashMap을 사용하여 null이 가능한 Map 생성
+            Map<String, Object> resultMap = new HashMap<>();
+            resultMap.put("image_data", fetchChart(ctx.id(), baseSymbol, start, end));
+            return resultMap;
+        });
     }
 
     @Cacheable(value = "lastCloseDownwardCache", key = "#start + '-' + #end + '-' + #topN", sync = true)
-    public List<Map<String, Object>> getCachedLastCloseDownward(String start, String end, int topN) {
+    public List<Map<String, Object>> getCachedLastCloseDownward(String jobId, String start, String end, int topN) {
         logger.info("캐시 조회 또는 실행: lastCloseDownwardCache, key='{}'", start + "-" + end + "-" + topN);
-        return executePythonForDownwardList(start, end, topN);
+        return executePythonForDownwardList(jobId, start, end, topN);
     }
 
-    @Cacheable(value = "chartImageCache", key = "#baseSymbol + '-' + #start + '-' + #end", sync = true)
-    public String fetchChart(String baseSymbol, String start, String end) {
-        return executePythonForChart(baseSymbol, start, end);
+    // 종목 차트 base64 (가격 데이터 적재 후에는 Java 렌더러 + 디스크 PNG 캐시, 적재 전에는 Python 호출)
+    public String fetchChart(String jobId, String baseSymbol, String start, String end) {
+        if (chartImageService.isReady()) {
+            return chartImageService.closeChart(baseSymbol, start, end).base64();
+        }
+        return executePythonForChart(jobId, baseSymbol, start, end);
     }
 
-    // Python 호출 로직 (연속 하락 종목 리스트)
-    private List<Map<String, Object>> executePythonForDownwardList(String start, String end, int topN) {
+    // 연속 하락 종목 리스트 (가격 데이터 적재 전에는 Python 호출)
+    private List<Map<String, Object>> executePythonForDownwardList(String jobId, String start, String end, int topN) {
+        if (downwardStreakScanner.isReady()) {
+            return downwardStreakScanner.scan(start, end, topN);
+        }
         try {
-            String[] command = {
-                    pythonExe, "-u", scriptPath,
+            String[] args = {
                     "--base_symbol", "ALL",
                     "--start_date", start,
                     "--end_date", end,
@@ -123,7 +99,7 @@ public class LastCloseDownwardService {
             };
             logger.info("Python 스크립트 실행 시작: 연속 하락 종목 조회");
 
-            JsonNode pythonResult = executePythonScript(command);
+            JsonNode pythonResult = executePythonScript(jobId, args);
             
             if (pythonResult != null) {
                 if (pythonResult.has("error")) {
@@ -148,10 +124,9 @@ public class LastCloseDownwardService {
     }
 
     // Python 호출 로직 (차트 생성)
-    private String executePythonForChart(String baseSymbol, String start, String end) {
+    private String executePythonForChart(String jobId, String baseSymbol, String start, String end) {
         try {
-            String[] command = {
-                    pythonExe, "-u", scriptPath,
+            String[] args = {
                     "--base_symbol", baseSymbol,
                     "--start_date", start,
                     "--end_date", end,
@@ -159,7 +134,7 @@ public class LastCloseDownwardService {
             };
             logger.info("종목 {} 차트 생성 시작. 기간: {} ~ {}", baseSymbol, start, end);
 
-            JsonNode pythonResult = executePythonScript(command);
+            JsonNode pythonResult = executePythonScript(jobId, args);
             
             if (pythonResult != null) {
                 if (pythonResult.has("error")) {
@@ -185,68 +160,15 @@ public class LastCloseDownwardService {
         }
     }
 
-    // Python 스크립트 실행 및 JSON 파싱
-    private JsonNode executePythonScript(String[] command)
-            throws IOException, InterruptedException, ExecutionException, TimeoutException {
-
-        File scriptDir = new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python");
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.directory(scriptDir);
-        pb.environment().put("PYTHONIOENCODING", "utf-8");
+    // Python 스크립트 실행 (공용 실행기, 표준 출력 JSON 스트리밍 파싱, jobId 로 취소 시 워커 종료)
+    private JsonNode executePythonScript(String jobId, String[] args)
+            throws IOException, InterruptedException, TimeoutException {
 
-        Process process = pb.start();
-
-        ExecutorService errorExecutor = Executors.newSingleThreadExecutor();
-        Future<?> errorFuture = errorExecutor.submit(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
-                reader.lines().forEach(line -> logger.error("[Python ERR] {}", line));
-            } catch (IOException e) {
-                logger.error("Error reading Python stderr stream", e);
-            }
-        });
-
-        ExecutorService outputExecutor = Executors.newSingleThreadExecutor();
-        Future<String> outputFuture = outputExecutor.submit(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            } catch (IOException e) {
-                logger.error("Error reading Python stdout stream", e);
-                return "";
-            }
-        });
-
-        String pythonOutput = null;
-        try {
-            boolean finished = process.waitFor(600, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                throw new TimeoutException("Python 프로세스가 시간 내 종료되지 않았습니다.");
-            }
-
-            pythonOutput = outputFuture.get();
-
-            int exitCode = process.exitValue();
-            if (exitCode != 0) {
-                throw new RuntimeException("Python 스크립트 종료 코드: " + exitCode + ". Python 출력: " + pythonOutput);
-            }
-        } catch (TimeoutException e) {
-            process.destroyForcibly();
-            throw e;
-        } finally {
-            errorExecutor.shutdown();
-            outputExecutor.shutdown();
-        }
-        
-        if (pythonOutput == null || pythonOutput.trim().isEmpty()){
+        JsonNode result = pythonProcessRunner.runJson(jobId, new File(pythonDir), scriptPath, List.of(args), 600, JsonNode.class);
+        if (result == null) {
             logger.warn("파이썬 스크립트가 빈 문자열을 반환했습니다. 빈 JSON 배열로 처리합니다.");
-            return mapper.readTree("[]");
-        }
-        
-        try {
-            return mapper.readTree(pythonOutput);
-        } catch (IOException e) {
-            logger.error("JSON 파싱 중 오류 발생. 파이썬 출력: {}", pythonOutput, e);
-            throw new RuntimeException("파이썬 스크립트의 JSON 결과를 파싱할 수 없습니다.");
+            return mapper.createArrayNode();
         }
+        return result;
     }
 }
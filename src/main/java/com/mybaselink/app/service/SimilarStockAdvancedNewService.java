@@ -3,36 +3,107 @@ package com.mybaselink.app.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.stock.chart.ChartImageService;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
+import com.mybaselink.app.stock.similarity.SimilarityEngine;
+import com.mybaselink.app.stock.similarity.metric.SimilarityMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
 
 @Service
 public class SimilarStockAdvancedNewService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SimilarStockAdvancedNewService.class);
     private final ObjectMapper mapper = new ObjectMapper();
+    private final SimilarityEngine similarityEngine;
+    private final SimilarityMetrics similarityMetrics;
+    private final ChartImageService chartImageService;
+    private final PythonProcessRunner pythonProcessRunner;
+    private final JobScheduler jobScheduler;
 
-    private final String pythonExe = "C:\\Users\\dragon\\AppData\\Local\\Programs\\Python\\Python310\\python.exe";
     private final String scriptPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\find_similar_new_full.py";
-    
+    private final String pythonDir = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python";
+
+    public SimilarStockAdvancedNewService(SimilarityEngine similarityEngine, SimilarityMetrics similarityMetrics,
+                                          ChartImageService chartImageService, PythonProcessRunner pythonProcessRunner,
+                                          JobScheduler jobScheduler) {
+        this.similarityEngine = similarityEngine;
+        this.similarityMetrics = similarityMetrics;
+        this.chartImageService = chartImageService;
+        this.pythonProcessRunner = pythonProcessRunner;
+        this.jobScheduler = jobScheduler;
+    }
+
+    /**
+     * 유사 종목 분석 (비동기, 작업 스케줄러 SIMILARITY 대기열에서 차례로 실행, 같은 조건 요청은 진행 중인 작업에 합류)
+     * - 결과: 유사 종목 목록 (상태 조회는 /similar-advanced-new/task/status)
+     */
+    public void startSimilarStockTask(String taskId, String companyCode, String start, String end, int nSimilarStocks,
+                                      String method, Integer window) {
+        // 공유 키: method 는 소문자(기본 cosine), window 는 dtw 에서만 결과에 영향
+        String metric = method == null ? "cosine" : method.trim().toLowerCase(Locale.ROOT);
+        jobScheduler.submitShared(JobType.SIMILARITY, taskId,
+                JobScheduler.flightKey("similar-new", companyCode, start, end, nSimilarStocks, metric,
+                        "dtw".equals(metric) ? window : null),
+                ctx -> fetchSimilar(ctx.id(), ctx::isCancelled, companyCode, start, end, nSimilarStocks, method, window));
+    }
+
+    /** 작업 취소 (대기 중이면 대기열에서 제거, 실행 중이면 Python 종료, 상태는 CANCELLED) */
+    public boolean cancelTask(String taskId) {
+        if (!jobScheduler.cancel(taskId)) return false;
+        logger.warn("유사 종목 분석 취소됨: {}", taskId);
+        return true;
+    }
+
     public List<Map<String, Object>> fetchSimilar(String companyCode, String start, String end, int nSimilarStocks, String method) {
+        return fetchSimilar(companyCode, start, end, nSimilarStocks, method, null);
+    }
+
+    /**
+     * @param window dtw 전용 Sakoe-Chiba 창 폭 (null 이면 기준 구간 길이의 비율로 결정)
+     */
+    public List<Map<String, Object>> fetchSimilar(String companyCode, String start, String end, int nSimilarStocks,
+                                                  String method, Integer window) {
+        return fetchSimilar(null, () -> false, companyCode, start, end, nSimilarStocks, method, window);
+    }
+
+    /**
+     * @param taskId    Python 실행 작업 키 (취소 시 프로세스 종료용, 동기 호출이면 null)
+     * @param cancelled Java 엔진 취소 확인 (작업이면 JobContext::isCancelled)
+     */
+    public List<Map<String, Object>> fetchSimilar(String taskId, BooleanSupplier cancelled, String companyCode,
+                                                  String start, String end, int nSimilarStocks, String method,
+                                                  Integer window) {
+        // 가격 데이터가 메모리에 적재되어 있으면 Java 유사도 커널로 즉시 계산 (종목마다 취소 확인)
+        if (similarityEngine.isReady()) {
+            if ("dtw".equalsIgnoreCase(method == null ? "" : method.trim())) {
+                return similarityEngine.findSimilarDtw(companyCode, start, end, nSimilarStocks,
+                        window != null ? window : -1, cancelled);
+            }
+            return similarityEngine.findSimilar(companyCode, start, end, nSimilarStocks, similarityMetrics.get(method),
+                    cancelled);
+        }
+
+        // 적재 전(기동 직후 등)에는 기존 Python 스크립트로 처리
         try {
-            String[] command = {
-                    pythonExe,
-                    "-u",
-                    scriptPath,
+            String[] args = {
                     "--base_symbol", companyCode,
                     "--start_date", start,
                     "--end_date", end,
                     "--n_similar", String.valueOf(nSimilarStocks),
                     "--method", method
             };
-            JsonNode pythonResult = executePythonScript(command);
+            JsonNode pythonResult = executePythonScript(taskId, args);
 
             if (pythonResult.has("error")) {
                 throw new RuntimeException(pythonResult.get("error").asText());
@@ -44,17 +115,18 @@ public class SimilarStockAdvancedNewService {
     }
 
     public String fetchChart(String baseSymbol, String compareSymbol, String start, String end) {
+        // 가격 데이터가 메모리에 적재되어 있으면 Java 렌더러로 바로 생성 (디스크 PNG 캐시 사용)
+        if (chartImageService.isReady()) {
+            return chartImageService.compareChart(baseSymbol, compareSymbol, start, end).base64();
+        }
         try {
-            String[] command = {
-                    pythonExe,
-                    "-u",
-                    scriptPath,
+            String[] args = {
                     "--base_symbol", baseSymbol,
                     "--compare_symbol", compareSymbol,
                     "--start_date", start,
                     "--end_date", end
             };
-            JsonNode pythonResult = executePythonScript(command);
+            JsonNode pythonResult = executePythonScript(null, args);
 
             if (pythonResult.has("error")) {
                 throw new RuntimeException(pythonResult.get("error").asText());
@@ -65,51 +137,12 @@ public class SimilarStockAdvancedNewService {
         }
     }
 
-    private JsonNode executePythonScript(String[] command) throws IOException, InterruptedException, ExecutionException, TimeoutException {
-        ProcessBuilder pb = new ProcessBuilder(command);
-        File scriptDir = new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python");
-        pb.environment().put("PYTHONIOENCODING", "utf-8");
-
-        Process process = pb.start();
-        ExecutorService executor = Executors.newFixedThreadPool(2);
-
-        Future<String> outputFuture = executor.submit(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            }
-        });
-
-        Future<Void> errorFuture = executor.submit(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
-                reader.lines().forEach(line -> System.err.println("[Python ERR] " + line));
-            }
-            return null;
-        });
-
-        String pythonOutput = outputFuture.get(180, TimeUnit.SECONDS);
-        errorFuture.get(180, TimeUnit.SECONDS);
-
-        boolean finished = process.waitFor(180, TimeUnit.SECONDS);
-        if (!finished) {
-            process.destroyForcibly();
-            throw new TimeoutException("Python 프로세스가 시간 내 종료되지 않았습니다.");
-        }
-
-        int exitCode = process.exitValue();
-        if (exitCode != 0) {
-            String msg = "Python 실행 실패 (exitCode=" + exitCode + ")";
-            if (pythonOutput != null && !pythonOutput.isBlank()) {
-                msg += ": " + pythonOutput.split("\n")[0];
-            }
-            throw new RuntimeException(msg);
-        }
-
-        if (pythonOutput == null || pythonOutput.isBlank()) {
+    private JsonNode executePythonScript(String taskId, String[] args)
+            throws IOException, InterruptedException, TimeoutException {
+        JsonNode result = pythonProcessRunner.runJson(taskId, new File(pythonDir), scriptPath, List.of(args), 180, JsonNode.class);
+        if (result == null) {
             throw new RuntimeException("Python 출력이 없습니다.");
         }
-
-        System.out.println(pythonOutput); // 로그
-        executor.shutdown();
-        return mapper.readTree(pythonOutput);
+        return result;
     }
 }
\ No newline at end of file
@@ -3,66 +3,91 @@ package com.mybaselink.app.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.job.JobContext;
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.stock.chart.ChartImageService;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
+import com.mybaselink.app.stock.similarity.SimilarityEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 @Service
 public class SimilarStockAdvancedService {
 
     private static final Logger logger = LoggerFactory.getLogger(SimilarStockAdvancedService.class);
     private final ObjectMapper mapper = new ObjectMapper();
-    private final TaskStatusService taskStatusService;
+    private final SimilarityEngine similarityEngine;
+    private final ChartImageService chartImageService;
+    private final PythonProcessRunner pythonProcessRunner;
+    private final JobScheduler jobScheduler;
 
-    private final String pythonExe = "C:\\Users\\dragon\\AppData\\Local\\Programs\\Python\\Python310\\python.exe";
     private final String scriptPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\stock\\py\\find_similar_full.py";
+    private final String pythonDir = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python";
 
-    private final AtomicBoolean pythonScriptLock = new AtomicBoolean(false);
-    private final ConcurrentMap<String, Process> runningProcesses = new ConcurrentHashMap<>();
 
-    public SimilarStockAdvancedService(TaskStatusService taskStatusService) {
-        this.taskStatusService = taskStatusService;
+    public SimilarStockAdvancedService(SimilarityEngine similarityEngine, ChartImageService chartImageService,
+                                       PythonProcessRunner pythonProcessRunner, JobScheduler jobScheduler) {
+        this.similarityEngine = similarityEngine;
+        this.chartImageService = chartImageService;
+        this.pythonProcessRunner = pythonProcessRunner;
+        this.jobScheduler = jobScheduler;
     }
 
-    @Async
+    /**
+     * 유사 종목 분석 (작업 스케줄러 SIMILARITY 대기열에서 차례로 실행, 같은 조건 요청은 진행 중인 작업에 합류)
+     * - 결과: 유사 종목 목록 (COMPLETED 결과로 그대로 전달)
+     */
     public void startSimilarStockTask(String taskId, String companyCode, String start, String end, int nSimilarStocks) {
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", null, null));
+        jobScheduler.submitShared(JobType.SIMILARITY, taskId,
+                JobScheduler.flightKey("similar", companyCode, start, end, nSimilarStocks),
+                ctx -> fetchSimilar(ctx, companyCode, start, end, nSimilarStocks));
+    }
 
-        if (pythonScriptLock.compareAndSet(false, true)) {
-            try {
-                List<Map<String, Object>> results = fetchSimilar(taskId, companyCode, start, end, nSimilarStocks);
-                //taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", results, null));
-            } catch (Exception e) {
-                if ("CANCELLED".equalsIgnoreCase(taskStatusService.getTaskStatus(taskId).getStatus())) return;
-                taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, e.getMessage()));
-                logger.error("유사 종목 분석 실패: {}", e.getMessage());
-            } finally {
-                pythonScriptLock.set(false);
-                runningProcesses.remove(taskId);
+    /**
+     * 과거 구간 유사 검색 (비동기)
+     * - 전 종목의 최근 years 년 이력에서 기준 구간과 가장 닮은 구간 검색 (Java 엔진 전용, Python 대체 경로 없음)
+     * - 작업 스케줄러 SIMILARITY 대기열에서 차례로 실행, 같은 조건 요청은 진행 중인 작업에 합류
+     */
+    public void startHistorySearchTask(String taskId, String companyCode, String start, String end,
+                                       int years, int nMatches) {
+        jobScheduler.submitShared(JobType.SIMILARITY, taskId,
+                JobScheduler.flightKey("history", companyCode, start, end, years, nMatches), ctx -> {
+            if (!similarityEngine.isReady()) {
+                throw new IllegalStateException("가격 데이터가 아직 메모리에 적재되지 않았습니다.");
             }
-        } else {
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, "다른 분석이 진행 중입니다."));
-        }
+            List<Map<String, Object>> matches = similarityEngine.findSimilarWindows(companyCode, start, end, years, nMatches,
+                    ctx::isCancelled);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("base_symbol", companyCode);
+            result.put("start", start);
+            result.put("end", end);
+            result.put("years", years);
+            result.put("matches", matches);
+            return result;
+        });
     }
 
-    public List<Map<String, Object>> fetchSimilar(String taskId, String companyCode, String start, String end, int nSimilarStocks)
+    public List<Map<String, Object>> fetchSimilar(JobContext ctx, String companyCode, String start, String end, int nSimilarStocks)
             throws Exception {
-        String[] command = {
-                pythonExe, "-u", scriptPath,
+        // 가격 데이터가 메모리에 적재되어 있으면 Java 엔진으로 즉시 계산 (종목마다 취소 확인)
+        if (similarityEngine.isReady()) {
+            return similarityEngine.findSimilar(companyCode, start, end, nSimilarStocks, ctx::isCancelled);
+        }
+
+        // 적재 전(기동 직후 등)에는 기존 Python 스크립트로 처리
+        String[] args = {
                 "--base_symbol", companyCode,
                 "--start_date", start,
                 "--end_date", end,
                 "--n_similar", String.valueOf(nSimilarStocks)
         };
-        JsonNode result = executePythonScript(taskId, command);
+        JsonNode result = executePythonScript(ctx.id(), args);
         if (result != null && result.has("similar_stocks")) {
             return mapper.convertValue(result.get("similar_stocks"), new TypeReference<List<Map<String, Object>>>(){});
         }
@@ -70,68 +95,31 @@ public class SimilarStockAdvancedService {
     }
 
     public String fetchChartSingle(String taskId, String symbol, String start, String end) throws Exception {
-        String[] command = {
-                pythonExe, "-u", scriptPath,
+        if (chartImageService.isReady()) {
+            return chartImageService.closeChart(symbol, start, end).base64();
+        }
+        String[] args = {
                 "--base_symbol", symbol,
                 "--start_date", start,
                 "--end_date", end
         };
-        JsonNode result = executePythonScript(taskId, command);
+        JsonNode result = executePythonScript(taskId, args);
         if (result != null && result.has("image_data")) {
             return result.get("image_data").asText();
         }
         return null;
     }
 
-    private JsonNode executePythonScript(String taskId, String[] command)
-            throws IOException, InterruptedException, ExecutionException, TimeoutException {
-
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.environment().put("PYTHONIOENCODING", "utf-8");
-        pb.directory(new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python"));
-        Process process = pb.start();
-        runningProcesses.put(taskId, process);
+    private JsonNode executePythonScript(String taskId, String[] args)
+            throws IOException, InterruptedException, TimeoutException {
 
-        ExecutorService executor = Executors.newFixedThreadPool(2);
-        Future<String> outputFuture = executor.submit(() -> {
-            try (BufferedReader r = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                return r.lines().collect(Collectors.joining("\n"));
-            }
-        });
-
-        Future<Void> errFuture = executor.submit(() -> {
-            try (BufferedReader r = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
-                r.lines().forEach(line -> logger.info("[Python][{}] {}", taskId, line));
-            }
-            return null;
-        });
-
-        String output = null;
-        try {
-            output = outputFuture.get(180, TimeUnit.SECONDS);
-            errFuture.get(180, TimeUnit.SECONDS);
-            boolean finished = process.waitFor(180, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                throw new TimeoutException("Python 실행 시간 초과");
-            }
-        } finally {
-            executor.shutdown();
-        }
-
-        int exitCode = process.exitValue();
-        if (exitCode != 0) throw new RuntimeException("Python 비정상 종료: " + exitCode);
-        return mapper.readTree(output);
+        return pythonProcessRunner.runJson(taskId, new File(pythonDir), scriptPath, List.of(args), 180, JsonNode.class);
     }
 
+    /** 작업 취소 (대기 중이면 대기열에서 제거, 실행 중이면 Python 종료, 상태는 CANCELLED) */
     public boolean cancelTask(String taskId) {
-        Process p = runningProcesses.remove(taskId);
-        if (p != null && p.isAlive()) {
-            p.destroyForcibly();
-            //taskStatusService.markCancelled(taskId);
-            logger.warn("Python 프로세스 강제 종료됨: {}", taskId);
-            return true;
-        }
-        return false;
+        if (!jobScheduler.cancel(taskId)) return false;
+        logger.warn("유사 종목 분석 취소됨: {}", taskId);
+        return true;
     }
 }
@@ -1,18 +1,20 @@
 package com.mybaselink.app.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.job.JobRejectedException;
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,31 +24,27 @@ public class StockBatchService {
     private static final Logger log = LoggerFactory.getLogger(StockBatchService.class);
     private final ObjectMapper mapper = new ObjectMapper();
     private final TaskStatusService taskStatusService;
+    private final PriceStore priceStore;
+    private final PythonProcessRunner pythonProcessRunner;
+    private final JobScheduler jobScheduler;
 
-    // Python 실행 환경
+    // Python 실행 환경 (실행 파일은 공용 실행기의 python.executable.path)
     // ✅ @Value 어노테이션으로 프로퍼티 값 주입
-    @Value("${python.executable.path:}")
-    private String pythonExe;
-    
     @Value("${python.update_stock_listing.path:}")
     private String stockUpdateScriptPath;
     
     @Value("${python.working.dir:}")
     private String pythonWorkingDir;
 
-    // 단일 선점
-    private final AtomicBoolean activeLock = new AtomicBoolean(false);
-    private final ConcurrentMap<String, Process> runningProcesses = new ConcurrentHashMap<>();
-
-    // 로그 버퍼
-    private final ConcurrentMap<String, List<LogLine>> taskLogs = new ConcurrentHashMap<>();
-    private static final int MAX_LOG_LINES = 5000;
-
     // 진행 상태
     private final ConcurrentMap<String, ProgressState> progressStates = new ConcurrentHashMap<>();
 
-    public StockBatchService(TaskStatusService taskStatusService) {
+    public StockBatchService(TaskStatusService taskStatusService, PriceStore priceStore,
+                             PythonProcessRunner pythonProcessRunner, JobScheduler jobScheduler) {
         this.taskStatusService = taskStatusService;
+        this.priceStore = priceStore;
+        this.pythonProcessRunner = pythonProcessRunner;
+        this.jobScheduler = jobScheduler;
     }
 
     private static final class ProgressState {
@@ -55,16 +53,17 @@ public class StockBatchService {
         volatile int dataTotal = 0;
     }
 
-    @Async
+    /**
+     * 전체 종목 업데이트 시작 (작업 스케줄러 STOCK_UPDATE: 단독 실행, 대기열 없음)
+     * @throws JobRejectedException 다른 업데이트가 진행 중일 때 → 컨트롤러에서 429
+     */
     public void startUpdate(String taskId, boolean force, int workers) {
-        // ✅ 선점 실패는 곧바로 예외 → 컨트롤러에서 409로 보냄
-        if (!activeLock.compareAndSet(false, true)) {
-            throw new IllegalStateException("다른 사용자가 업데이트 중입니다. 잠시 후 다시 시도하세요.");
-        }
+        jobScheduler.submit(JobType.STOCK_UPDATE, taskId, JobScheduler.flightKey("force", force, "workers", workers),
+                () -> runUpdate(taskId, force, workers));
+    }
 
-        Process process = null;
+    private void runUpdate(String taskId, boolean force, int workers) {
         try {
-            taskLogs.put(taskId, new CopyOnWriteArrayList<>());
             ProgressState state = new ProgressState();
             progressStates.put(taskId, state);
 
@@ -76,9 +75,8 @@ public class StockBatchService {
             first.put("dataTotal", state.dataTotal);
             taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", first, null));
 
-            // Python 명령어
+            // Python 명령어 (python 실행 파일은 공용 실행기가 붙임)
             List<String> cmd = new ArrayList<>();
-            cmd.add(pythonExe);
             cmd.add("-u"); // 무버퍼
             cmd.add(stockUpdateScriptPath);
             cmd.add("--workers");
@@ -87,27 +85,13 @@ public class StockBatchService {
 
             log.info("[{}] Python 실행: {}", taskId, cmd);
 
-            ProcessBuilder pb = new ProcessBuilder(cmd);
-            pb.directory(new File(pythonWorkingDir));
-            pb.redirectErrorStream(true);
-            pb.environment().put("PYTHONUNBUFFERED", "1");
-            pb.environment().put("PYTHONIOENCODING", "utf-8");
-
-            process = pb.start();
-            runningProcesses.put(taskId, process);
-
             Pattern pProg = Pattern.compile("\\[PROGRESS\\]\\s*([0-9]+(?:\\.[0-9]+)?)\\s*(.*)");
             Pattern pLog  = Pattern.compile("\\[LOG\\]\\s*(.*)");
             Pattern pCnt  = Pattern.compile("종목\\s*저장\\s*(\\d+)\\s*/\\s*(\\d+)");
 
-            // ✅ 실시간 읽기 스레드
-            final Process pRef = process;
-            ExecutorService ioPool = Executors.newSingleThreadExecutor();
-            ioPool.submit(() -> {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(pRef.getInputStream(), StandardCharsets.UTF_8))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
+            // ✅ 실시간 읽기 (공용 실행기가 출력 줄 단위로 전달, 타임아웃 60분)
+            PythonProcessRunner.PythonResult<Void> result = pythonProcessRunner.runProcess(taskId, cmd,
+                    new File(pythonWorkingDir), Duration.ofMinutes(60).toSeconds(), line -> {
                         final String L = line.trim();
                         log.info("[PYTHON][{}] {}", taskId, L);
 
@@ -146,47 +130,46 @@ public class StockBatchService {
 
                             taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", res, null));
                         }
-                    }
-                } catch (IOException e) {
-                    log.error("[{}] Python 출력 읽기 오류", taskId, e);
-                }
-            });
-
-            // 타임아웃 60분
-            boolean finished = process.waitFor(Duration.ofMinutes(60).toSeconds(), TimeUnit.SECONDS);
-            ioPool.shutdownNow();
-
-            if (!finished) {
-                process.destroyForcibly();
-                setFailed(taskId, "Python 실행 시간 초과");
-                return;
-            }
+                    });
 
-            int exit = process.exitValue();
+            int exit = result.exitCode();
             if (exit != 0) {
-                setFailed(taskId, "Python 비정상 종료 (" + exit + ")");
+                String last = result.lastStderr();
+                setFailed(taskId, "Python 비정상 종료 (" + exit + ")" + (last != null ? ": " + last : ""));
                 return;
             }
 
+            reloadPriceStore(taskId);
             setCompleted(taskId);
 
+        } catch (TimeoutException e) {
+            setFailed(taskId, "Python 실행 시간 초과");
+        } catch (CancellationException e) {
+            // cancelTask 에서 이미 CANCELLED 처리
+            log.info("[{}] 사용자 취소로 Python 종료", taskId);
         } catch (Exception e) {
             log.error("[{}] StockBatch 실행 중 오류", taskId, e);
             setFailed(taskId, e.getMessage());
         } finally {
-            if (process != null && process.isAlive()) {
-                try { process.destroyForcibly(); } catch (Exception ignore) {}
-            }
-            runningProcesses.remove(taskId);
-            activeLock.set(false);
-            log.info("[{}] 🔓 Lock 해제 완료", taskId);
+            log.info("[{}] 업데이트 작업 종료", taskId);
         }
     }
 
+    // 로그는 작업 상태에 보관 (SSE 구독자에게 바로 전달)
     private void appendLog(String taskId, String line) {
-        List<LogLine> list = taskLogs.computeIfAbsent(taskId, k -> new CopyOnWriteArrayList<>());
-        list.add(new LogLine(list.size() + 1, line));
-        if (list.size() > MAX_LOG_LINES) list.remove(0);
+        taskStatusService.appendLog(taskId, line);
+    }
+
+    // 새 parquet 반영: 메모리 가격 저장소 스냅샷 교체 (실패해도 배치는 성공 처리)
+    private void reloadPriceStore(String taskId) {
+        appendLog(taskId, "가격 데이터 메모리 적재 중...");
+        try {
+            priceStore.reload();
+            appendLog(taskId, "가격 데이터 메모리 적재 완료");
+        } catch (Exception e) {
+            log.error("[{}] PriceStore 재적재 실패", taskId, e);
+            appendLog(taskId, "⚠️ 가격 데이터 메모리 적재 실패: " + e.getMessage());
+        }
     }
 
     private void setCompleted(String taskId) {
@@ -198,24 +181,28 @@ public class StockBatchService {
         res.put("krxPct", st.krxPct);
         res.put("dataSaved", st.dataSaved);
         res.put("dataTotal", st.dataTotal);
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", res, null));
+        // 로그 먼저 (끝난 상태가 전송되면 SSE 스트림이 닫힘)
         appendLog(taskId, "[PROGRESS] 100.0 ✅ 전체 완료");
         appendLog(taskId, "✅ 업데이트 완료");
+        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", res, null));
     }
 
     private void setFailed(String taskId, String err) {
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, err));
         appendLog(taskId, "❌ 실패: " + err);
+        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, err));
     }
 
-    /** ✅ 상태 조회 */
-    public Map<String, Object> getStatusWithLogs(String taskId) {
+    /**
+     * ✅ 상태 조회
+     * @param sinceSeq 이미 받은 마지막 로그 순번 (이후 로그만 반환, 0 이면 보관 중인 전체)
+     */
+    public Map<String, Object> getStatusWithLogs(String taskId, long sinceSeq) {
         TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(taskId);
         Map<String, Object> body = new LinkedHashMap<>();
 
-        // 작업이 없는데 lock 중이면 → "다른 사용자가 업데이트 중입니다."
+        // 작업이 없는데 다른 업데이트가 실행 중이면 → "다른 사용자가 업데이트 중입니다."
         if (s == null) {
-            if (activeLock.get()) {
+            if (jobScheduler.running(JobType.STOCK_UPDATE) > 0) {
                 body.put("status", "FAILED");
                 body.put("message", "다른 사용자가 업데이트 중입니다. 잠시 후 다시 시도하세요.");
             } else {
@@ -227,7 +214,7 @@ public class StockBatchService {
 
         body.put("status", s.getStatus());
         Map<String, Object> result = new HashMap<>();
-        if (s.getResult() != null) result.putAll(s.getResult());
+        if (s.getResult() instanceof Map<?, ?> m) m.forEach((k, v) -> result.put(String.valueOf(k), v));
 
         ProgressState st = progressStates.get(taskId);
         if (st != null) {
@@ -239,16 +226,15 @@ public class StockBatchService {
         body.put("result", result);
         if (s.getErrorMessage() != null)
             body.put("errorMessage", s.getErrorMessage());
-        body.put("logs", taskLogs.getOrDefault(taskId, Collections.emptyList()));
+        body.put("logs", s.logsSince(sinceSeq));
+        body.put("lastSeq", s.getLogSeq());
 
         return body;
     }
 
     public void cancelTask(String taskId) {
-        Process p = runningProcesses.get(taskId);
-        if (p != null && p.isAlive()) {
+        if (pythonProcessRunner.cancel(taskId)) {
             log.warn("[{}] 사용자 요청으로 프로세스 종료", taskId);
-            try { p.destroyForcibly(); } catch (Exception ignore) {}
             appendLog(taskId, "⏹ 사용자 요청으로 취소됨");
             ProgressState st = progressStates.getOrDefault(taskId, new ProgressState());
             Map<String, Object> res = new HashMap<>();
@@ -262,8 +248,5 @@ public class StockBatchService {
             taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("CANCELLED",
                     Map.of("message", "취소됨"), "실행 중인 작업이 없습니다."));
         }
-        activeLock.set(false);
     }
-
-    public record LogLine(int seq, String line) {}
 }
@@ -2,6 +2,9 @@ package com.mybaselink.app.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -12,34 +15,28 @@ import java.util.stream.Collectors;
 @Service
 public class StockService {
 
+    private static final Logger logger = LoggerFactory.getLogger(StockService.class);
     private final ObjectMapper mapper = new ObjectMapper();
-    private final String pythonExe = "C:\\Users\\dragon\\AppData\\Local\\Programs\\Python\\Python310\\python.exe";
+    private final PythonProcessRunner pythonProcessRunner;
     private final String scriptPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\krx_list_fetch.py";
     private final String jsonPath = "D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python\\data\\krx_list_full.json";
 
+    public StockService(PythonProcessRunner pythonProcessRunner) {
+        this.pythonProcessRunner = pythonProcessRunner;
+    }
+
     public List<Map<String, String>> fetchKrxList() {
         try {
-            ProcessBuilder pb = new ProcessBuilder(pythonExe, scriptPath);
-            pb.directory(new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python"));
-            pb.redirectErrorStream(true);
-
-            Process process = pb.start();
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    System.out.println(line);
-                }
-            }
-
-            process.waitFor();
+            PythonProcessRunner.PythonResult<String> result = pythonProcessRunner.runText(null,
+                    new File("D:\\project\\dev_boot_project\\workspace\\MyBaseLink\\python"), scriptPath, List.of(), 600);
+            if (result.value() != null) result.value().lines().forEach(line -> logger.debug("krx_list_fetch: {}", line));
 
             File file = new File(jsonPath);
             if (!file.exists()) return List.of();
 
             return mapper.readValue(file, new TypeReference<>(){});
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("KRX 종목 목록 조회 실패", e);
             return List.of();
         }
     }
@@ -0,0 +1,189 @@
+package com.mybaselink.app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TaskEventService
+ * --------------------------------------------------------
+ * 작업 진행률 SSE 스트림 (상태 폴링 대체)
+ * - 이벤트 "status": 상태 + 바뀐 결과 항목만 (full=true 면 결과 전체) / "log": 새 로그 줄 {seq, line}
+ * - 연결 직후 현재 상태 전체 + sinceSeq 이후 로그를 먼저 보내고 이후 변경분만 전송
+ * - 이벤트 id = 마지막으로 보낸 로그 순번 → 브라우저 자동 재연결 시 Last-Event-ID 로 이어받기
+ * - 끝난 상태(COMPLETED/FAILED/CANCELLED) 전송 후 스트림 종료
+ * - 구독자마다 전송 대기열 + 가상 스레드 1개 (느린 클라이언트가 Python 출력 읽기 스레드를 막지 않음)
+ *   대기열이 넘치면 비우고 현재 상태로 다시 맞춤, 조용할 때는 주기적으로 ping 주석 전송
+ * --------------------------------------------------------
+ */
+@Service
+public class TaskEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventService.class);
+
+    /** 대기열 초과 시 넣는 재동기화 표시 */
+    private static final TaskStatusService.TaskEvent RESYNC = new TaskStatusService.TaskEvent("resync", 0, Map.of());
+
+    private final TaskStatusService taskStatusService;
+    private final long timeoutMs;
+    private final long heartbeatMs;
+    private final int maxPending;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger open = new AtomicInteger();
+
+    public TaskEventService(TaskStatusService taskStatusService,
+                            @Value("${task.events.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${task.events.heartbeat-ms:15000}") long heartbeatMs,
+                            @Value("${task.events.max-pending:1000}") int maxPending) {
+        this.taskStatusService = taskStatusService;
+        this.timeoutMs = timeoutMs;
+        this.heartbeatMs = Math.max(1000, heartbeatMs);
+        this.maxPending = Math.max(16, maxPending);
+    }
+
+    /**
+     * 작업 이벤트 스트림 열기
+     * @param sinceSeq 이미 받은 마지막 로그 순번 (처음이면 0)
+     * @return 없는(또는 만료된) 작업이면 null
+     */
+    public SseEmitter open(String taskId, long sinceSeq) {
+        return open(taskId, sinceSeq, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter open(String taskId, long sinceSeq, SseEmitter emitter) {
+        Subscriber sub = new Subscriber(taskId, emitter, sinceSeq);
+        Runnable unsubscribe = taskStatusService.subscribe(taskId, sub::offer);
+        if (unsubscribe == null) return null;
+        sub.unsubscribe = unsubscribe;
+        emitter.onCompletion(sub::close);
+        emitter.onTimeout(sub::close);
+        emitter.onError(e -> sub.close());
+        open.incrementAndGet();
+        senders.execute(sub);
+        return emitter;
+    }
+
+    /** 이어받을 로그 순번: sinceSeq 와 Last-Event-ID(숫자가 아니면 무시) 중 큰 값 */
+    public static long resumeSeq(long sinceSeq, String lastEventId) {
+        long since = sinceSeq;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                since = Math.max(since, Long.parseLong(lastEventId.trim()));
+            } catch (NumberFormatException ignore) {}
+        }
+        return since;
+    }
+
+    /** 열린 스트림 수 */
+    public int openStreams() {
+        return open.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /** 구독자 1명: 이벤트 대기열을 비우며 SSE 로 전송 */
+    private final class Subscriber implements Runnable {
+        final String taskId;
+        final SseEmitter emitter;
+        final BlockingQueue<TaskStatusService.TaskEvent> queue = new ArrayBlockingQueue<>(maxPending);
+        volatile Runnable unsubscribe;
+        volatile boolean closed;
+        long lastLogSeq;
+        long lastStatusSeq = -1;
+
+        Subscriber(String taskId, SseEmitter emitter, long sinceSeq) {
+            this.taskId = taskId;
+            this.emitter = emitter;
+            this.lastLogSeq = Math.max(0, sinceSeq);
+        }
+
+        void offer(TaskStatusService.TaskEvent event) {
+            if (closed || queue.offer(event)) return;
+            // 클라이언트가 따라오지 못함 → 밀린 이벤트를 버리고 현재 상태로 다시 맞춤
+            queue.clear();
+            queue.offer(RESYNC);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!resync()) return;
+                while (!closed) {
+                    TaskStatusService.TaskEvent event = queue.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else if (event == RESYNC) {
+                        if (!resync()) return;
+                    } else if (send(event)) {
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("[{}] 작업 이벤트 스트림 끊김: {}", taskId, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        /** 현재 상태 + 밀린 로그 전송 (작업이 사라졌으면 false) */
+        private boolean resync() throws IOException {
+            List<TaskStatusService.TaskEvent> events = taskStatusService.snapshot(taskId, lastLogSeq);
+            if (events == null) {
+                emitter.send(SseEmitter.event().name("gone").data(Map.of("taskId", taskId)));
+                emitter.complete();
+                return false;
+            }
+            for (TaskStatusService.TaskEvent event : events) {
+                if (send(event)) return false;
+            }
+            return true;
+        }
+
+        /** 이벤트 1건 전송 (이미 보낸 것은 건너뜀), 끝난 상태를 보냈으면 스트림 종료 후 true */
+        private boolean send(TaskStatusService.TaskEvent event) throws IOException {
+            if ("log".equals(event.type())) {
+                if (event.seq() <= lastLogSeq) return false;
+                lastLogSeq = event.seq();
+            } else {
+                if (event.seq() <= lastStatusSeq) return false;
+                lastStatusSeq = event.seq();
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(lastLogSeq))
+                    .name(event.type())
+                    .data(event.data()));
+            if (event.finished()) {
+                emitter.complete();
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void close() {
+            if (closed) return;
+            closed = true;
+            open.decrementAndGet();
+            Runnable u = unsubscribe;
+            if (u != null) u.run();
+        }
+    }
+}
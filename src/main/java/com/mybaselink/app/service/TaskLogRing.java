@@ -0,0 +1,72 @@
+package com.mybaselink.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TaskLogRing
+ * --------------------------------------------------------
+ * 작업 로그 고정 크기 원형 버퍼 (잠금 없음)
+ * - 순번은 1부터 단조 증가, 슬롯 = 순번 & (용량-1) → 가득 차면 가장 오래된 줄을 덮어씀
+ *   (배열 복사·앞쪽 삭제 없이 추가 1건이 O(1))
+ * - since(n): 순번 n 이후 줄만 반환 (덮어써진 줄은 건너뜀, 아직 다 쓰이지 않은 줄에서 멈춰 순번 역전 없음)
+ * - 추정 크기(bytes)는 슬롯 배열(참조 8바이트 기준) + 보관 중인 줄, 추가·덮어쓰기 때 함께 갱신
+ * --------------------------------------------------------
+ */
+final class TaskLogRing {
+
+    private final int mask;
+    private final AtomicReferenceArray<TaskStatusService.LogEntry> slots;
+    private final long slotBytes;
+    private final AtomicLong lastSeq = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /** @param capacity 보관 줄 수 (2의 거듭제곱으로 올림) */
+    TaskLogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.slotBytes = 16 + 16 + 8L * size;   // AtomicReferenceArray 객체 + 내부 Object[]
+    }
+
+    /** 줄 추가 후 항목 반환 */
+    TaskStatusService.LogEntry append(String line) {
+        long seq = lastSeq.incrementAndGet();
+        TaskStatusService.LogEntry entry = new TaskStatusService.LogEntry(seq, line);
+        TaskStatusService.LogEntry old = slots.getAndSet((int) (seq & mask), entry);
+        bytes.addAndGet(sizeOf(entry) - (old == null ? 0 : sizeOf(old)));
+        return entry;
+    }
+
+    /** 순번 sinceSeq 이후 줄 (오래된 순) */
+    List<TaskStatusService.LogEntry> since(long sinceSeq) {
+        long hi = lastSeq.get();
+        long lo = Math.max(sinceSeq + 1, hi - mask);
+        List<TaskStatusService.LogEntry> out = new ArrayList<>((int) Math.max(0, hi - lo + 1));
+        for (long seq = lo; seq <= hi; seq++) {
+            TaskStatusService.LogEntry e = slots.get((int) (seq & mask));
+            if (e == null || e.seq < seq) break;   // 다른 스레드가 아직 쓰는 중
+            if (e.seq == seq) out.add(e);          // e.seq > seq 면 읽는 사이 덮어써짐
+        }
+        return out;
+    }
+
+    long lastSeq() {
+        return lastSeq.get();
+    }
+
+    /** 보관 가능한 줄 수 */
+    int capacity() {
+        return mask + 1;
+    }
+
+    long bytes() {
+        return slotBytes + bytes.get();
+    }
+
+    private static long sizeOf(TaskStatusService.LogEntry e) {
+        return 40 + e.line.length();
+    }
+}
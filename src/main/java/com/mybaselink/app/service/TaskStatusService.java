@@ -1,48 +1,171 @@
 package com.mybaselink.app.service;
 
+import com.mybaselink.app.job.JobState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * ✅ TaskStatusService (싱글턴 공유형, 실시간 진행률 + 로그 완전반영)
- * 모든 스레드(Async 포함)에서 동일 인스턴스 접근 가능하도록 static 캐시 사용
+ * --------------------------------------------------------
+ * 크기·수명 제한 작업 상태 저장소
+ * - 끝난 작업(COMPLETED/FAILED/CANCELLED)은 마지막 갱신 후 task.status.ttl-minutes 가 지나면 제거
+ * - 진행 중(IN_PROGRESS/QUEUED) 작업은 제거하지 않음
+ *   (예외: task.status.stale-hours 동안 갱신이 없으면 버려진 작업으로 보고 제거 — 예전에는 영구 보관,
+ *    작업 자체는 취소하지 않으므로 이후 완료돼도 메모리 상태는 없고 작업 기록 저장소에서 복원)
+ * - 작업 수(task.status.max-entries)·결과+로그 추정 크기(task.status.max-result-mb) 상한 초과 시
+ *   끝난 작업부터 오래된 순으로 제거
+ * - 결과 크기는 setResult 시점에 Map/List/배열/레코드/문자열을 따라가며 추정 (stats() 로 확인,
+ *   추정할 수 없는 타입은 타입별로 한 번 경고 로그)
+ * - subscribe(): 상태 변경(바뀐 결과 항목만)·새 로그 줄을 TaskEvent 로 실시간 전달 (SSE 진행률 스트림용)
+ * - 메모리에 없는 작업은 작업 기록 저장소(JobStoreService)에서 끝난 상태·결과를 복원 (재기동·만료 후 조회)
+ * - 상태 전이는 JobState 규칙을 따름: 끝난 작업은 더 바뀌지 않음 (취소 후 늦은 완료·실패 무시)
+ * - 결과는 작업별 타입 그대로 보관 (목록·Map 등), 작업마다 대기·시작·종료 시각 기록 (getTiming)
+ *   타입은 JobBody<R> 까지만 검사되고 상태 객체에는 Object 로 남음 → 읽을 때 getResult(Class) 로 확인
+ * --------------------------------------------------------
  */
 @Service
 public class TaskStatusService {
 
     private static final Logger log = LoggerFactory.getLogger(TaskStatusService.class);
 
-    // ✅ 모든 쓰레드 공유되는 전역 상태 저장소
-    private static final Map<String, TaskStatus> TASK_MAP = new ConcurrentHashMap<>();
+    /** 작업당 보관 로그 줄 수 (원형 버퍼, 가득 차면 가장 오래된 줄부터 덮어씀, 예전 목록 상한 3000줄 이내의 2의 거듭제곱) */
+    static final int LOG_CAPACITY = 2048;
 
-    /** 상태 설정 */
-    public void setTaskStatus(String taskId, TaskStatus status) {
-        if (taskId == null || status == null) return;
-        TaskStatus existing = TASK_MAP.get(taskId);
+    /** 크기를 추정할 수 없어 이미 경고한 결과 타입 */
+    private static final Set<Class<?>> unknownTypes = ConcurrentHashMap.newKeySet();
+
+    // ✅ 모든 쓰레드 공유되는 상태 저장소 (같은 작업에 합류한 taskId 들은 같은 TaskStatus 객체를 가리킴)
+    private final Map<String, TaskStatus> tasks = new ConcurrentHashMap<>();
+
+    private final JobStoreService jobStoreService;
+
+    private final Duration ttl;
+    private final Duration staleAfter;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+
+    public TaskStatusService(JobStoreService jobStoreService,
+                             @Value("${task.status.ttl-minutes:30}") long ttlMinutes,
+                             @Value("${task.status.stale-hours:6}") long staleHours,
+                             @Value("${task.status.max-entries:2000}") int maxEntries,
+                             @Value("${task.status.max-result-mb:256}") int maxResultMb) {
+        this.jobStoreService = jobStoreService;
+        this.ttl = Duration.ofMinutes(Math.max(1, ttlMinutes));
+        this.staleAfter = Duration.ofHours(Math.max(1, staleHours));
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxResultMb) * 1024L * 1024L;
+    }
+
+    /**
+     * 상태 설정
+     * @return 반영 여부 (이미 끝난 작업의 상태를 바꾸려 하면 false)
+     */
+    public boolean setTaskStatus(String taskId, TaskStatus status) {
+        if (taskId == null || status == null) return false;
+        TaskStatus existing = tasks.get(taskId);
         if (existing != null) {
-            existing.setStatus(status.getStatus());
-            existing.setResult(status.getResult());
-            existing.setErrorMessage(status.getErrorMessage());
-            existing.setUpdatedAt(Instant.now());
-        } else {
-            TASK_MAP.put(taskId, status);
+            if (existing.update(status.getStatus(), status.getResult(), status.getErrorMessage())) return true;
+            log.debug("[{}] 끝난 작업 상태 변경 무시: {} → {}", taskId, existing.getStatus(), status.getStatus());
+            return false;
         }
+        tasks.put(taskId, status);
+        if (tasks.size() > maxEntries) enforceBounds();
+        return true;
     }
 
-    /** 상태 조회 */
+    /** 상태 조회 (만료된 작업은 제거 후 null, 메모리에 없으면 저장된 끝난 작업 복원) */
     public TaskStatus getTaskStatus(String taskId) {
-        return TASK_MAP.get(taskId);
+        if (taskId == null) return null;
+        TaskStatus status = tasks.get(taskId);
+        if (status == null) return restore(taskId);
+        if (isExpired(status, Instant.now())) {
+            tasks.remove(taskId, status);
+            expired.incrementAndGet();
+            return null;
+        }
+        return status;
+    }
+
+    /** 작업 기록 저장소에서 끝난 작업 복원 (복원한 상태는 다시 TTL 동안 메모리에 보관) */
+    private TaskStatus restore(String taskId) {
+        TaskStatus stored = jobStoreService.load(taskId);
+        if (stored == null) return null;
+        TaskStatus existing = tasks.putIfAbsent(taskId, stored);
+        if (existing != null) return existing;
+        restored.incrementAndGet();
+        if (tasks.size() > maxEntries) enforceBounds();
+        return stored;
+    }
+
+    /** 상태 공유: taskId 가 sourceId 와 같은 상태 객체를 보도록 연결 (같은 작업 합류, 이후 갱신이 양쪽에 보임) */
+    public void share(String taskId, String sourceId) {
+        TaskStatus source = tasks.get(sourceId);
+        if (taskId == null || source == null) return;
+        tasks.put(taskId, source);
+    }
+
+    /** 공유 해제: 현재 상태를 복사한 독립 상태로 교체 (이후 갱신은 이 taskId 에만 반영, 이 taskId 의 구독도 옮김) */
+    public void unshare(String taskId) {
+        if (taskId == null) return;
+        tasks.computeIfPresent(taskId, (k, v) -> {
+            TaskStatus copy = v.copy();
+            for (TaskListener l : v.listeners) {
+                if (l.taskId.equals(taskId)) {
+                    v.listeners.remove(l);
+                    copy.listeners.add(l);
+                }
+            }
+            return copy;
+        });
+    }
+
+    /**
+     * 상태 변경·로그 구독
+     * @return 구독 해제 (없는 작업이면 null)
+     */
+    public Runnable subscribe(String taskId, Consumer<TaskEvent> listener) {
+        TaskStatus status = getTaskStatus(taskId);
+        if (status == null) return null;
+        TaskListener l = new TaskListener(taskId, listener);
+        status.listeners.add(l);
+        return () -> {
+            status.listeners.remove(l);
+            TaskStatus current = tasks.get(taskId);
+            if (current != null) current.listeners.remove(l);
+        };
+    }
+
+    /**
+     * 현재 상태(결과 전체) + sinceSeq 이후 로그 (구독 직후·재연결 시 따라잡기용)
+     * @return 없는 작업이면 null
+     */
+    public List<TaskEvent> snapshot(String taskId, long sinceSeq) {
+        TaskStatus status = getTaskStatus(taskId);
+        return status == null ? null : status.snapshot(sinceSeq);
     }
 
     /** 로그 추가 */
     public void appendLog(String taskId, String line) {
         if (taskId == null || line == null) return;
-        TASK_MAP.compute(taskId, (k, v) -> {
+        tasks.compute(taskId, (k, v) -> {
             if (v == null) v = new TaskStatus("IN_PROGRESS", null, null);
             v.addLog(line);
             return v;
@@ -51,58 +174,357 @@ public class TaskStatusService {
 
     /** 전체 상태 보기 (디버그용) */
     public Map<String, TaskStatus> getAllTasks() {
-        return TASK_MAP;
+        return Collections.unmodifiableMap(tasks);
     }
 
     /** 상태 제거 */
     public void removeTask(String taskId) {
-        TASK_MAP.remove(taskId);
+        tasks.remove(taskId);
+    }
+
+    /** 저장소 현황 (작업 수, 진행 중 수, 추정 크기, 만료·초과 제거·복원 누적, 작업 기록 저장소) */
+    public Map<String, Object> stats() {
+        Set<TaskStatus> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(tasks.values());
+        long bytes = 0;
+        int pinned = 0;
+        for (TaskStatus s : distinct) {
+            bytes += s.estimatedBytes();
+            if (!s.finished()) pinned++;
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("entries", tasks.size());
+        out.put("inProgress", pinned);
+        out.put("estimatedBytes", bytes);
+        out.put("maxEntries", maxEntries);
+        out.put("maxBytes", maxBytes);
+        out.put("ttlMinutes", ttl.toMinutes());
+        out.put("expired", expired.get());
+        out.put("evicted", evicted.get());
+        out.put("restored", restored.get());
+        out.put("store", jobStoreService.stats());
+        return out;
+    }
+
+    /** 주기 정리: 만료 제거 후 상한 확인 */
+    @Scheduled(fixedDelayString = "${task.status.sweep-ms:60000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        int before = tasks.size();
+        tasks.entrySet().removeIf(e -> isExpired(e.getValue(), now));
+        int removed = before - tasks.size();
+        if (removed > 0) {
+            expired.addAndGet(removed);
+            log.info("작업 상태 만료 정리: {}건 제거 (남은 {}건)", removed, tasks.size());
+        }
+        enforceBounds();
+    }
+
+    private boolean isExpired(TaskStatus status, Instant now) {
+        Duration limit = status.finished() ? ttl : staleAfter;
+        return status.getUpdatedAt().plus(limit).isBefore(now);
+    }
+
+    /** 작업 수·추정 크기 상한 초과 시 끝난 작업부터 오래된 순으로 제거 (진행 중 작업은 유지) */
+    private synchronized void enforceBounds() {
+        Map<TaskStatus, Boolean> seen = new IdentityHashMap<>();
+        long bytes = 0;
+        for (TaskStatus s : tasks.values()) {
+            if (seen.put(s, Boolean.TRUE) == null) bytes += s.estimatedBytes();
+        }
+        if (tasks.size() <= maxEntries && bytes <= maxBytes) return;
+
+        List<Map.Entry<String, TaskStatus>> finished = new ArrayList<>();
+        for (Map.Entry<String, TaskStatus> e : tasks.entrySet()) {
+            if (e.getValue().finished()) finished.add(e);
+        }
+        finished.sort(Comparator.comparing(e -> e.getValue().getUpdatedAt()));
+
+        int removed = 0;
+        for (Map.Entry<String, TaskStatus> e : finished) {
+            if (tasks.size() <= maxEntries && bytes <= maxBytes) break;
+            if (!tasks.remove(e.getKey(), e.getValue())) continue;
+            removed++;
+            if (!tasks.containsValue(e.getValue())) bytes -= e.getValue().estimatedBytes();
+        }
+        if (removed > 0) {
+            evicted.addAndGet(removed);
+            log.info("작업 상태 상한 초과 정리: {}건 제거 (남은 {}건, 추정 {}KB)", removed, tasks.size(), bytes / 1024);
+        }
+        if (tasks.size() > maxEntries || bytes > maxBytes) {
+            log.warn("작업 상태 상한 초과: 진행 중 작업만 남아 더 제거할 수 없음 ({}건, 추정 {}KB)", tasks.size(), bytes / 1024);
+        }
+    }
+
+    /**
+     * 결과 객체 추정 크기 (문자열은 compact string 기준 문자당 1바이트, Map/List/배열/레코드는 재귀)
+     * - 그 밖의 타입(DTO 등)은 객체 머리 크기만 세고 타입별로 한 번 경고 → 상한이 실제보다 느슨해질 수 있음
+     */
+    static long estimateBytes(Object value) {
+        if (value == null) return 0;
+        if (value instanceof CharSequence s) return 40 + s.length();
+        if (value instanceof Map<?, ?> m) {
+            long n = 48 + 32L * m.size();
+            for (Map.Entry<?, ?> e : m.entrySet()) n += estimateBytes(e.getKey()) + estimateBytes(e.getValue());
+            return n;
+        }
+        if (value instanceof Collection<?> c) {
+            long n = 40 + 8L * c.size();
+            for (Object o : c) n += estimateBytes(o);
+            return n;
+        }
+        if (value instanceof Object[] a) {
+            long n = 16 + 8L * a.length;
+            for (Object o : a) n += estimateBytes(o);
+            return n;
+        }
+        if (value instanceof byte[] b) return 16 + b.length;
+        if (value instanceof boolean[] b) return 16 + b.length;
+        if (value instanceof short[] a) return 16 + 2L * a.length;
+        if (value instanceof char[] a) return 16 + 2L * a.length;
+        if (value instanceof int[] a) return 16 + 4L * a.length;
+        if (value instanceof float[] a) return 16 + 4L * a.length;
+        if (value instanceof long[] a) return 16 + 8L * a.length;
+        if (value instanceof double[] a) return 16 + 8L * a.length;
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum<?> || value instanceof TemporalAccessor) return 24;
+        if (value instanceof Record r) return estimateRecordBytes(r);
+        if (unknownTypes.add(value.getClass())) {
+            log.warn("작업 결과 크기 추정 불가 타입: {} (16 bytes 로 계산, 결과 크기 상한이 느슨해질 수 있음)",
+                    value.getClass().getName());
+        }
+        return 16;
+    }
+
+    /** 레코드는 구성 요소를 따라가며 추정 (접근 불가면 경고 후 머리 크기만) */
+    private static long estimateRecordBytes(Record r) {
+        long n = 16;
+        try {
+            for (RecordComponent c : r.getClass().getRecordComponents()) {
+                Method accessor = c.getAccessor();
+                if (!accessor.canAccess(r)) accessor.setAccessible(true);
+                n += 8 + estimateBytes(accessor.invoke(r));
+            }
+            return n;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (unknownTypes.add(r.getClass())) {
+                log.warn("작업 결과 레코드 크기 추정 실패: {} ({})", r.getClass().getName(), e.toString());
+            }
+            return n;
+        }
     }
 
     // ==================================
     // 내부 데이터 구조
     // ==================================
+
+    /**
+     * 상태 이벤트
+     * @param type "status" (data: status, result, error, full) 또는 "log" (data: seq, line)
+     * @param seq  status 는 상태 버전, log 는 로그 순번
+     * @param data full=false 인 status 의 result 는 직전 상태 대비 바뀐 항목만
+     */
+    public record TaskEvent(String type, long seq, Map<String, Object> data) {
+
+        public boolean finished() {
+            return "status".equals(type) && JobState.isFinished(String.valueOf(data.get("status")));
+        }
+    }
+
+    private record TaskListener(String taskId, Consumer<TaskEvent> consumer) {}
+
     public static class TaskStatus {
-        private String status; // IN_PROGRESS, COMPLETED, FAILED, CANCELLED
-        private Map<String, Object> result;
+        private volatile String status; // JobState: QUEUED, IN_PROGRESS, COMPLETED, FAILED, CANCELLED
+        /** 작업별 결과 (진행 중에는 진행률 Map, 완료 후에는 작업 결과 타입 그대로) */
+        private volatile Object result;
         private String errorMessage;
-        private Instant updatedAt;
-        private final List<LogEntry> logs = Collections.synchronizedList(new ArrayList<>());
-        private int logSeq = 0;
+        private volatile Instant updatedAt;
+        /** 로그 원형 버퍼 (첫 로그 때 생성, 로그 없는 작업은 메모리 사용 없음) */
+        private volatile TaskLogRing logs;
+        /** 결과 추정 크기 (bytes) */
+        private volatile long resultBytes;
+        /** 구독자 (같은 작업에 합류한 taskId 들의 구독이 한 객체에 모임) */
+        private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+        private long statusVersion = 0;
+        private Object publishedResult;
+        /** 작업 시각: 등록(대기 시작)·실행 시작·종료 */
+        private volatile Instant queuedAt;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
 
-        public TaskStatus(String status, Map<String, Object> result, String errorMessage) {
+        public TaskStatus(String status, Object result, String errorMessage) {
             this.status = status;
             this.result = result;
+            this.resultBytes = estimateBytes(result);
             this.errorMessage = errorMessage;
             this.updatedAt = Instant.now();
+            this.publishedResult = result;
+            JobState state = JobState.of(status);
+            this.queuedAt = updatedAt;
+            if (state != null && state != JobState.QUEUED) this.startedAt = updatedAt;
+            if (state != null && state.finished()) this.finishedAt = updatedAt;
+        }
+
+        /** 같은 상태·결과·시각을 가진 독립 복사본 (구독자는 옮기지 않음) */
+        synchronized TaskStatus copy() {
+            TaskStatus copy = new TaskStatus(status, result, errorMessage);
+            copy.statusVersion = statusVersion; // 옮겨 간 구독자가 이후 상태 이벤트를 건너뛰지 않도록
+            copy.restoreTiming(queuedAt, startedAt, finishedAt);
+            return copy;
+        }
+
+        /**
+         * 상태 갱신 + 구독자에게 바뀐 결과 항목 전달 (상태 자체가 바뀌면 결과 전체)
+         * @return JobState 전이 규칙에 맞지 않아(끝난 작업 등) 무시했으면 false
+         */
+        synchronized boolean update(String status, Object result, String errorMessage) {
+            JobState from = JobState.of(this.status);
+            JobState to = JobState.of(status);
+            if (from != null && to != null && !from.canMoveTo(to)) return false;
+
+            boolean full = !Objects.equals(this.status, status)
+                    || !(publishedResult instanceof Map) || !(result instanceof Map);
+            Instant now = Instant.now();
+            if (to == JobState.IN_PROGRESS && startedAt == null) startedAt = now;
+            if (to != null && to.finished()) finishedAt = now;
+            this.status = status;
+            setResult(result);
+            this.errorMessage = errorMessage;
+            this.updatedAt = now;
+            statusVersion++;
+            Object previous = publishedResult;
+            publishedResult = result;
+            if (listeners.isEmpty()) return true;
+
+            Object changed = result;
+            if (!full) {
+                Map<?, ?> before = (Map<?, ?>) previous;
+                Map<Object, Object> delta = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) result).entrySet()) {
+                    if (!Objects.equals(before.get(e.getKey()), e.getValue())) delta.put(e.getKey(), e.getValue());
+                }
+                changed = delta;
+            }
+            publish(new TaskEvent("status", statusVersion, statusData(changed, full)));
+            return true;
+        }
+
+        private Map<String, Object> statusData(Object result, boolean full) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("status", status);
+            data.put("result", result);
+            data.put("error", errorMessage);
+            data.put("full", full);
+            data.put("timing", getTiming());
+            return data;
+        }
+
+        synchronized List<TaskEvent> snapshot(long sinceSeq) {
+            List<TaskEvent> events = new ArrayList<>();
+            events.add(new TaskEvent("status", statusVersion, statusData(result, true)));
+            for (LogEntry e : logsSince(sinceSeq)) events.add(logEvent(e));
+            return events;
         }
 
-        public synchronized void addLog(String line) {
-            logSeq++;
-            logs.add(new LogEntry(logSeq, line));
-            if (logs.size() > 3000) logs.subList(0, 1000).clear(); // 오래된 로그 제거
+        private static TaskEvent logEvent(LogEntry e) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("seq", e.seq);
+            data.put("line", e.line);
+            return new TaskEvent("log", e.seq, data);
+        }
+
+        private void publish(TaskEvent event) {
+            for (TaskListener l : listeners) {
+                try {
+                    l.consumer.accept(event);
+                } catch (Exception ex) {
+                    log.warn("작업 이벤트 전달 실패 [{}]: {}", l.taskId, ex.getMessage());
+                }
+            }
+        }
+
+        /** 로그 추가 (잠금 없음, Python 출력 읽기 스레드에서 줄마다 호출) */
+        public void addLog(String line) {
+            LogEntry entry = ring().append(line);
+            updatedAt = Instant.now();
+            if (!listeners.isEmpty()) publish(logEvent(entry));
+        }
+
+        /** 순번 sinceSeq 이후 로그 (0 이면 보관 중인 전체) */
+        public List<LogEntry> logsSince(long sinceSeq) {
+            TaskLogRing ring = logs;
+            return ring == null ? List.of() : ring.since(sinceSeq);
+        }
+
+        private TaskLogRing ring() {
+            TaskLogRing ring = logs;
+            if (ring != null) return ring;
+            synchronized (this) {
+                if (logs == null) logs = new TaskLogRing(LOG_CAPACITY);
+                return logs;
+            }
         }
 
         // === getters ===
         public String getStatus() { return status; }
-        public Map<String, Object> getResult() { return result; }
+        public Object getResult() { return result; }
+        /** 결과를 type 으로 (타입이 다르거나 없으면 null) */
+        public <T> T getResult(Class<T> type) { return type.isInstance(result) ? type.cast(result) : null; }
         public String getErrorMessage() { return errorMessage; }
         public Instant getUpdatedAt() { return updatedAt; }
-        public List<LogEntry> getLogs() { return logs; }
-        public int getLogSeq() { return logSeq; }
+        public List<LogEntry> getLogs() { return logsSince(0); }
+        public long getLogSeq() {
+            TaskLogRing ring = logs;
+            return ring == null ? 0 : ring.lastSeq();
+        }
+
+        /** 작업 시각 (ISO-8601) + 대기·실행·전체 소요(ms, 아직 없으면 null) */
+        public Map<String, Object> getTiming() {
+            Instant q = queuedAt, s = startedAt, f = finishedAt;
+            Map<String, Object> timing = new LinkedHashMap<>();
+            timing.put("queuedAt", q == null ? null : q.toString());
+            timing.put("startedAt", s == null ? null : s.toString());
+            timing.put("finishedAt", f == null ? null : f.toString());
+            timing.put("waitMs", millisBetween(q, s));
+            timing.put("runMs", millisBetween(s, f));
+            timing.put("totalMs", millisBetween(q, f));
+            return timing;
+        }
+
+        private static Long millisBetween(Instant from, Instant to) {
+            return from == null || to == null ? null : Duration.between(from, to).toMillis();
+        }
 
         // === setters ===
         public void setStatus(String status) { this.status = status; }
-        public void setResult(Map<String, Object> result) { this.result = result; }
+        public void setResult(Object result) {
+            this.result = result;
+            this.resultBytes = estimateBytes(result);
+        }
         public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
         public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+        /** 저장소에서 복원한 작업 시각 반영 */
+        void restoreTiming(Instant queuedAt, Instant startedAt, Instant finishedAt) {
+            this.queuedAt = queuedAt;
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+        }
+
+        /** 끝난 작업인지 (만료·상한 정리 대상) */
+        boolean finished() { return JobState.isFinished(status); }
+
+        long estimatedBytes() {
+            TaskLogRing ring = logs;
+            return resultBytes + (ring == null ? 0 : ring.bytes()) + 64;
+        }
     }
 
     /** 개별 로그 항목 */
     public static class LogEntry {
-        public final int seq;
+        public final long seq;
         public final String line;
-        public LogEntry(int seq, String line) {
+        public LogEntry(long seq, String line) {
             this.seq = seq;
             this.line = line;
         }
@@ -0,0 +1,155 @@
+package com.mybaselink.app.stock.chart;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ChartImageCache
+ * --------------------------------------------------------
+ * 렌더링한 차트 PNG 를 디스크에 보관하는 용량 제한 캐시
+ * - 파일 이름 = 캐시 키 (ChartImageService 가 데이터 지문을 포함해 생성)
+ * - 조회 시 수정 시각을 갱신해 LRU 순서로 사용, 한도 초과 시 오래된 파일부터 90% 까지 삭제
+ * - 쓰기는 임시 파일 → 원자적 이동 (동시 요청이 같은 키를 써도 깨진 파일 없음)
+ * - 재기동 후 첫 사용 시 디렉터리를 한 번 훑어 용량 색인 복원
+ * - 디스크 오류는 경고만 남기고 무시 (캐시 미스와 동일하게 처리)
+ * --------------------------------------------------------
+ */
+@Component
+public class ChartImageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ChartImageCache.class);
+
+    private static final String SUFFIX = ".png";
+
+    private final Path dir;
+    private final long maxBytes;
+
+    /** 파일 이름 → 크기 (bytes) */
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private volatile boolean indexed = false;
+
+    public ChartImageCache(@Value("${stock.chart.cache-dir:}") String cacheDir,
+                           @Value("${stock.chart.cache-max-mb:256}") long maxMb) {
+        this.dir = (cacheDir == null || cacheDir.isBlank())
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "mybaselink-chart-cache")
+                : Paths.get(cacheDir);
+        this.maxBytes = Math.max(1, maxMb) * 1024 * 1024;
+    }
+
+    /** 캐시된 PNG (없으면 null) */
+    public byte[] get(String key) {
+        ensureIndexed();
+        String name = key + SUFFIX;
+        Path file = dir.resolve(name);
+        try {
+            byte[] png = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return png;
+        } catch (NoSuchFileException e) {
+            forget(name);
+            return null;
+        } catch (IOException e) {
+            log.warn("차트 캐시 읽기 실패: {} ({})", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] png) {
+        ensureIndexed();
+        String name = key + SUFFIX;
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "chart", ".tmp");
+            try {
+                Files.write(tmp, png);
+                Files.move(tmp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            log.warn("차트 캐시 쓰기 실패: {} ({})", name, e.getMessage());
+            return;
+        }
+        Long old = sizes.put(name, (long) png.length);
+        totalBytes.addAndGet(png.length - (old != null ? old : 0));
+        if (totalBytes.get() > maxBytes) evict();
+    }
+
+    public long totalBytes() {
+        return totalBytes.get();
+    }
+
+    private void forget(String name) {
+        Long old = sizes.remove(name);
+        if (old != null) totalBytes.addAndGet(-old);
+    }
+
+    /** 수정 시각이 오래된 파일부터 한도의 90% 이하가 될 때까지 삭제 */
+    private synchronized void evict() {
+        long target = maxBytes / 10 * 9;
+        if (totalBytes.get() <= target) return;
+
+        record Entry(String name, long modified) {}
+        List<Entry> entries = new ArrayList<>(sizes.size());
+        for (String name : sizes.keySet()) {
+            try {
+                entries.add(new Entry(name, Files.getLastModifiedTime(dir.resolve(name)).toMillis()));
+            } catch (IOException e) {
+                forget(name);
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::modified));
+
+        int removed = 0;
+        for (Entry e : entries) {
+            if (totalBytes.get() <= target) break;
+            try {
+                Files.deleteIfExists(dir.resolve(e.name()));
+                forget(e.name());
+                removed++;
+            } catch (IOException ex) {
+                log.warn("차트 캐시 삭제 실패: {} ({})", e.name(), ex.getMessage());
+            }
+        }
+        log.info("차트 캐시 정리: {}개 삭제, 현재 {} bytes / 한도 {} bytes", removed, totalBytes.get(), maxBytes);
+    }
+
+    private void ensureIndexed() {
+        if (indexed) return;
+        synchronized (this) {
+            if (indexed) return;
+            if (Files.isDirectory(dir)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+                    for (Path f : files) {
+                        long size = Files.size(f);
+                        sizes.put(f.getFileName().toString(), size);
+                        totalBytes.addAndGet(size);
+                    }
+                } catch (IOException e) {
+                    log.warn("차트 캐시 디렉터리 조회 실패: {} ({})", dir, e.getMessage());
+                }
+            }
+            indexed = true;
+            log.info("차트 캐시 디렉터리: {} ({}개, {} bytes)", dir, sizes.size(), totalBytes.get());
+        }
+        if (totalBytes.get() > maxBytes) evict();
+    }
+}
@@ -0,0 +1,196 @@
+package com.mybaselink.app.stock.chart;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * ChartImageService
+ * --------------------------------------------------------
+ * PriceStore 종가로 차트 PNG 를 만들고 디스크 캐시(ChartImageCache)에 보관
+ * - 캐시 키 = 차트 종류 + 종목 + 기간 + 데이터 지문
+ *   (지문: 구간 날짜·종가·종목명 해시, 배치 업데이트로 값이 바뀌면 자동으로 다른 키)
+ * - 지문은 스냅샷 버전과 달리 재기동해도 그대로이므로 디스크 캐시와 ETag 를 계속 재사용
+ * - 렌더링 방식이 바뀌면 RENDER_VERSION 을 올려 기존 파일/ETag 무효화
+ * - ChartImage 는 지문(ETag)만 먼저 계산하고 PNG 는 png() 를 처음 부를 때 캐시 조회·렌더링
+ *   (If-None-Match 가 맞으면 디스크 읽기·렌더링 없이 304)
+ * --------------------------------------------------------
+ */
+@Service
+public class ChartImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChartImageService.class);
+
+    static final int RENDER_VERSION = 1;
+    static final int MIN_COMMON_DAYS = 5;
+
+    private final PriceStore priceStore;
+    private final ChartRenderer renderer;
+    private final ChartImageCache cache;
+    private final long maxAgeSeconds;
+
+    public ChartImageService(PriceStore priceStore, ChartRenderer renderer, ChartImageCache cache,
+                             @Value("${stock.chart.max-age-seconds:3600}") long maxAgeSeconds) {
+        this.priceStore = priceStore;
+        this.renderer = renderer;
+        this.cache = cache;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /** ETag (데이터 지문) + PNG 바이트 (처음 요청할 때 한 번만 캐시 조회·렌더링) */
+    public static final class ChartImage {
+        private final String etag;
+        private Supplier<byte[]> loader;
+        private byte[] png;
+
+        ChartImage(String etag, Supplier<byte[]> loader) {
+            this.etag = etag;
+            this.loader = loader;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public synchronized byte[] png() {
+            if (png == null) {
+                png = loader.get();
+                loader = null;
+            }
+            return png;
+        }
+
+        public String base64() {
+            return Base64.getEncoder().encodeToString(png());
+        }
+    }
+
+    public boolean isReady() {
+        return priceStore.isReady();
+    }
+
+    /** 브라우저 캐시 유지 시간 (Cache-Control max-age) */
+    public long maxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    /** 단일 종목 종가 차트 */
+    public ChartImage closeChart(String symbol, String start, String end) {
+        PriceStoreSnapshot snap = snapshot();
+        int i = indexOf(snap, symbol);
+        String from = PriceSeries.toIsoDate(PriceSeries.toEpochDay(start));
+        String to = PriceSeries.toIsoDate(PriceSeries.toEpochDay(end));
+        int lo = snap.lowerBound(i, PriceSeries.toEpochDay(from));
+        int hi = snap.upperBound(i, PriceSeries.toEpochDay(to));
+        if (hi <= lo) {
+            throw new IllegalArgumentException("종목(" + symbol + ")의 지정 구간 데이터가 비어 있습니다. 기간을 다시 지정하세요.");
+        }
+        int[] dates = new int[hi - lo];
+        double[] close = new double[hi - lo];
+        snap.copyDates(lo, hi, dates, 0);
+        snap.copyClose(lo, hi, close, 0);
+
+        String name = snap.name(i).isEmpty() ? symbol : snap.name(i);
+        String etag = fingerprint(dates, name, close, null);
+        String key = "close_" + safe(symbol) + "_" + from + "_" + to + "_" + etag;
+        return cached(key, etag, () ->
+                renderer.renderClose(name + " 종가 차트 (" + from + " ~ " + to + ")", name, dates, close));
+    }
+
+    /** 두 종목 종가 비교 차트 (공통 거래일만, 5일 미만이면 오류) */
+    public ChartImage compareChart(String baseSymbol, String compareSymbol, String start, String end) {
+        PriceStoreSnapshot snap = snapshot();
+        int a = indexOf(snap, baseSymbol);
+        int b = indexOf(snap, compareSymbol);
+        String from = PriceSeries.toIsoDate(PriceSeries.toEpochDay(start));
+        String to = PriceSeries.toIsoDate(PriceSeries.toEpochDay(end));
+        int startDay = PriceSeries.toEpochDay(from), endDay = PriceSeries.toEpochDay(to);
+        int aLo = snap.lowerBound(a, startDay), aHi = snap.upperBound(a, endDay);
+        int bLo = snap.lowerBound(b, startDay), bHi = snap.upperBound(b, endDay);
+        if (aHi <= aLo || bHi <= bLo) {
+            throw new IllegalArgumentException("차트 생성 대상 구간 데이터가 비어 있습니다. 기간을 다시 지정하세요.");
+        }
+
+        // 두 종목의 정렬된 날짜 병합 → 공통 거래일
+        int cap = Math.min(aHi - aLo, bHi - bLo);
+        int[] dates = new int[cap];
+        double[] base = new double[cap], cmp = new double[cap];
+        int n = 0;
+        for (int x = aLo, y = bLo; x < aHi && y < bHi; ) {
+            int dx = snap.date(x), dy = snap.date(y);
+            if (dx < dy) x++;
+            else if (dx > dy) y++;
+            else {
+                dates[n] = dx;
+                base[n] = snap.close(x++);
+                cmp[n++] = snap.close(y++);
+            }
+        }
+        if (n < MIN_COMMON_DAYS) {
+            throw new IllegalArgumentException("두 종목의 공통 구간이 너무 짧습니다.");
+        }
+        int[] d = Arrays.copyOf(dates, n);
+        double[] bv = Arrays.copyOf(base, n), cv = Arrays.copyOf(cmp, n);
+
+        String etag = fingerprint(d, baseSymbol + "|" + compareSymbol, bv, cv);
+        String key = "compare_" + safe(baseSymbol) + "_" + safe(compareSymbol) + "_" + from + "_" + to + "_" + etag;
+        return cached(key, etag, () -> renderer.renderCompare(
+                baseSymbol + " vs " + compareSymbol + " (" + from + " ~ " + to + ")",
+                d, baseSymbol, bv, compareSymbol, cv));
+    }
+
+    private ChartImage cached(String key, String etag, Supplier<byte[]> render) {
+        return new ChartImage(etag, () -> {
+            byte[] png = cache.get(key);
+            if (png == null) {
+                long t0 = System.currentTimeMillis();
+                png = render.get();
+                cache.put(key, png);
+                log.info("차트 렌더링: {} ({} bytes, {}ms)", key, png.length, System.currentTimeMillis() - t0);
+            }
+            return png;
+        });
+    }
+
+    private PriceStoreSnapshot snapshot() {
+        PriceStoreSnapshot snap = priceStore.current();
+        if (snap == null) {
+            throw new IllegalStateException("가격 데이터가 아직 메모리에 적재되지 않았습니다.");
+        }
+        return snap;
+    }
+
+    private static int indexOf(PriceStoreSnapshot snap, String symbol) {
+        int i = snap.indexOf(symbol);
+        if (i < 0) {
+            throw new IllegalArgumentException("종목(" + symbol + ") 데이터가 없습니다. 먼저 종목 데이터를 업데이트하세요.");
+        }
+        return i;
+    }
+
+    /** 파일 이름에 쓸 수 없는 문자 치환 */
+    private static String safe(String s) {
+        return s.replaceAll("[^0-9A-Za-z]", "_");
+    }
+
+    /** 날짜·종가·이름 FNV 방식 64bit 해시 (16자리 hex) */
+    static String fingerprint(int[] dates, String label, double[] a, double[] b) {
+        long h = 0xcbf29ce484222325L ^ RENDER_VERSION;
+        for (byte x : label.getBytes(StandardCharsets.UTF_8)) h = (h ^ x) * 0x100000001b3L;
+        for (int d : dates) h = (h ^ d) * 0x100000001b3L;
+        for (double v : a) h = (h ^ Double.doubleToLongBits(v)) * 0x100000001b3L;
+        if (b != null) {
+            for (double v : b) h = (h ^ Double.doubleToLongBits(v)) * 0x100000001b3L;
+        }
+        return String.format("%016x", h);
+    }
+}
@@ -0,0 +1,250 @@
+package com.mybaselink.app.stock.chart;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ChartRenderer
+ * --------------------------------------------------------
+ * 종가 선 차트를 Java2D(headless)로 직접 그려 PNG 바이트로 반환
+ * - find_last_close_downward.py / find_similar_full.py 의 matplotlib 차트와 같은 구성
+ *   (제목, x축 날짜, y축 종가, 격자, 비교 차트는 범례)
+ * - x축은 거래일 순번 기준 (주말·휴장일 공백 없음)
+ * - 한글 폰트는 Malgun Gothic → AppleGothic → NanumGothic 순으로 찾고 없으면 SansSerif
+ * - 상태가 없으므로 여러 스레드에서 동시에 호출 가능
+ * --------------------------------------------------------
+ */
+@Component
+public class ChartRenderer {
+
+    static final int CLOSE_WIDTH = 1000, CLOSE_HEIGHT = 500;
+    static final int COMPARE_WIDTH = 1200, COMPARE_HEIGHT = 600;
+
+    private static final String[] KOREAN_FONTS = {"Malgun Gothic", "AppleGothic", "NanumGothic"};
+
+    // matplotlib 기본 색상 순서 (tab:blue, tab:orange)
+    private static final Color[] PALETTE = {new Color(0x1f77b4), new Color(0xff7f0e)};
+    private static final Color GRID = new Color(0xb0b0b0);
+
+    private static final int MARGIN_LEFT = 90, MARGIN_RIGHT = 30, MARGIN_TOP = 50, MARGIN_BOTTOM = 65;
+    private static final int Y_TICKS = 6, X_TICKS = 6;
+
+    private final String fontFamily;
+
+    public ChartRenderer() {
+        this.fontFamily = pickFont();
+    }
+
+    /** 선 1개 (범례 이름, 값, 선 두께) */
+    record Line(String label, double[] values, float width) {}
+
+    /**
+     * 단일 종목 종가 차트 (1000x500)
+     * @param dates epochDay 배열 (values 와 같은 길이)
+     */
+    public byte[] renderClose(String title, String label, int[] dates, double[] close) {
+        return render(CLOSE_WIDTH, CLOSE_HEIGHT, title, dates, List.of(new Line(label, close, 1.5f)), false);
+    }
+
+    /** 두 종목 종가 비교 차트 (1200x600, 공통 거래일 기준, 범례 포함) */
+    public byte[] renderCompare(String title, int[] dates, String baseLabel, double[] base,
+                                String compareLabel, double[] compare) {
+        return render(COMPARE_WIDTH, COMPARE_HEIGHT, title, dates,
+                List.of(new Line(baseLabel, base, 2.5f), new Line(compareLabel, compare, 1.6f)), true);
+    }
+
+    private byte[] render(int width, int height, String title, int[] dates, List<Line> lines, boolean legend) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+
+            int left = MARGIN_LEFT, right = width - MARGIN_RIGHT;
+            int top = MARGIN_TOP, bottom = height - MARGIN_BOTTOM;
+            int n = dates.length;
+
+            // y 범위 (결측 제외, 위아래 5% 여백)
+            double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY;
+            for (Line line : lines) {
+                for (double v : line.values()) {
+                    if (Double.isNaN(v)) continue;
+                    lo = Math.min(lo, v);
+                    hi = Math.max(hi, v);
+                }
+            }
+            if (lo > hi) {
+                lo = 0;
+                hi = 1;
+            } else if (lo == hi) {
+                lo -= 1;
+                hi += 1;
+            }
+            double pad = (hi - lo) * 0.05;
+            double yMin = lo - pad, yMax = hi + pad;
+
+            // x 위치는 거래일 순번, 좌우 2% 여백
+            double xPad = (right - left) * 0.02;
+            double xSpan = (right - left) - 2 * xPad;
+            double[] xs = new double[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = left + xPad + (n == 1 ? xSpan / 2 : xSpan * i / (n - 1));
+            }
+
+            // 격자 + y 눈금
+            Font tickFont = new Font(fontFamily, Font.PLAIN, 12);
+            g.setFont(tickFont);
+            FontMetrics fm = g.getFontMetrics();
+            DecimalFormat fmt = new DecimalFormat("#,##0.##");
+            double step = niceStep((yMax - yMin) / (Y_TICKS - 1));
+            g.setStroke(new BasicStroke(0.8f));
+            for (double t = Math.ceil(yMin / step) * step; t <= yMax; t += step) {
+                int y = (int) Math.round(toY(t, yMin, yMax, top, bottom));
+                g.setColor(GRID);
+                g.drawLine(left, y, right, y);
+                String s = fmt.format(Math.abs(t) < step * 1e-9 ? 0 : t);
+                g.setColor(Color.BLACK);
+                g.drawString(s, left - 8 - fm.stringWidth(s), y + fm.getAscent() / 2 - 1);
+            }
+
+            // 격자 + x 날짜 눈금
+            if (n > 0) {
+                int ticks = Math.min(X_TICKS, n);
+                int lastLabelEnd = Integer.MIN_VALUE;
+                for (int k = 0; k < ticks; k++) {
+                    int i = ticks == 1 ? 0 : (int) Math.round((double) k * (n - 1) / (ticks - 1));
+                    int x = (int) Math.round(xs[i]);
+                    g.setColor(GRID);
+                    g.drawLine(x, top, x, bottom);
+                    String s = PriceSeries.toIsoDate(dates[i]);
+                    int sx = x - fm.stringWidth(s) / 2;
+                    if (sx <= lastLabelEnd + 4) continue;
+                    g.setColor(Color.BLACK);
+                    g.drawString(s, sx, bottom + 6 + fm.getAscent());
+                    lastLabelEnd = sx + fm.stringWidth(s);
+                }
+            }
+
+            // 선 (결측 종가에서 끊김)
+            for (int l = 0; l < lines.size(); l++) {
+                Line line = lines.get(l);
+                Path2D.Double path = new Path2D.Double();
+                boolean pen = false;
+                for (int i = 0; i < n; i++) {
+                    double v = line.values()[i];
+                    if (Double.isNaN(v)) {
+                        pen = false;
+                        continue;
+                    }
+                    double y = toY(v, yMin, yMax, top, bottom);
+                    if (pen) path.lineTo(xs[i], y);
+                    else path.moveTo(xs[i], y);
+                    pen = true;
+                }
+                g.setColor(PALETTE[l % PALETTE.length]);
+                g.setStroke(new BasicStroke(line.width(), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                g.draw(path);
+            }
+
+            // 축 테두리
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke(1f));
+            g.drawRect(left, top, right - left, bottom - top);
+
+            // 제목 / 축 이름
+            g.setFont(new Font(fontFamily, Font.BOLD, 16));
+            fm = g.getFontMetrics();
+            g.drawString(title, (left + right - fm.stringWidth(title)) / 2, top - 16);
+
+            g.setFont(new Font(fontFamily, Font.PLAIN, 13));
+            fm = g.getFontMetrics();
+            g.drawString("날짜", (left + right - fm.stringWidth("날짜")) / 2, height - 14);
+            AffineTransform saved = g.getTransform();
+            g.rotate(-Math.PI / 2);
+            g.drawString("종가", -(top + bottom + fm.stringWidth("종가")) / 2, 20);
+            g.setTransform(saved);
+
+            if (legend) drawLegend(g, lines, left + 10, top + 10);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try {
+            ImageIO.write(img, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("차트 PNG 인코딩 실패", e);
+        }
+        return out.toByteArray();
+    }
+
+    private void drawLegend(Graphics2D g, List<Line> lines, int x, int y) {
+        g.setFont(new Font(fontFamily, Font.PLAIN, 12));
+        FontMetrics fm = g.getFontMetrics();
+        int rowH = fm.getHeight() + 4, swatch = 28;
+        int textW = 0;
+        for (Line line : lines) textW = Math.max(textW, fm.stringWidth(line.label()));
+        int w = 8 + swatch + 6 + textW + 8, h = rowH * lines.size() + 8;
+
+        g.setColor(new Color(255, 255, 255, 220));
+        g.fillRect(x, y, w, h);
+        g.setColor(GRID);
+        g.setStroke(new BasicStroke(1f));
+        g.drawRect(x, y, w, h);
+        for (int l = 0; l < lines.size(); l++) {
+            int cy = y + 4 + rowH * l + rowH / 2;
+            g.setColor(PALETTE[l % PALETTE.length]);
+            g.setStroke(new BasicStroke(lines.get(l).width()));
+            g.drawLine(x + 8, cy, x + 8 + swatch, cy);
+            g.setColor(Color.BLACK);
+            g.drawString(lines.get(l).label(), x + 8 + swatch + 6, cy + fm.getAscent() / 2 - 1);
+        }
+    }
+
+    private static double toY(double v, double yMin, double yMax, int top, int bottom) {
+        return bottom - (v - yMin) / (yMax - yMin) * (bottom - top);
+    }
+
+    /** 1, 2, 2.5, 5 × 10^k 중 raw 이상인 가장 작은 간격 */
+    static double niceStep(double raw) {
+        double exp = Math.pow(10, Math.floor(Math.log10(raw)));
+        double f = raw / exp;
+        double nice = f <= 1 ? 1 : f <= 2 ? 2 : f <= 2.5 ? 2.5 : f <= 5 ? 5 : 10;
+        return nice * exp;
+    }
+
+    private static String pickFont() {
+        try {
+            Set<String> available = Set.copyOf(Arrays.asList(
+                    GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()));
+            for (String f : KOREAN_FONTS) {
+                if (available.contains(f)) return f;
+            }
+        } catch (Exception ignored) {
+            // 폰트 목록 조회 실패 시 논리 폰트 사용
+        }
+        return Font.SANS_SERIF;
+    }
+}
@@ -0,0 +1,152 @@
+package com.mybaselink.app.stock.chart;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ChartSeriesService
+ * --------------------------------------------------------
+ * 브라우저 차트용 종가/OHLC 시계열을 화면 폭에 맞게 줄여서 반환
+ * - close: LTTB 로 width 개 점 선택 (꼭짓점 유지)
+ * - ohlc : 봉을 width 개 구간으로 묶어 시가=첫 시가, 고가=최고, 저가=최저, 종가=마지막 종가
+ *          (LTTB 는 한 값만 고르므로 봉 차트는 구간 집계가 고가/저가를 잃지 않음)
+ * - 결측 종가 행은 제외, 봉의 시가/고가/저가가 결측이면 null (JSON 에 NaN 을 쓰지 않음)
+ * - 결과는 "chartSeriesCache" 에 (종목, 기간, 폭, 종류, 스냅샷 버전) 키로 보관 (점 개수 합으로 용량 제한)
+ * - 응답은 컬럼 배열 형식: {symbol, name, type, total, points, dates[], close[] (+ open/high/low)}
+ * --------------------------------------------------------
+ */
+@Service
+public class ChartSeriesService {
+
+    public static final String CACHE_NAME = "chartSeriesCache";
+
+    static final int MIN_WIDTH = 10;
+    static final int MAX_WIDTH = 4000;
+
+    private final PriceStore priceStore;
+    private final CacheManager cacheManager;
+
+    public ChartSeriesService(PriceStore priceStore, CacheManager cacheManager) {
+        this.priceStore = priceStore;
+        this.cacheManager = cacheManager;
+    }
+
+    public boolean isReady() {
+        return priceStore.isReady();
+    }
+
+    /**
+     * @param width 차트 가로 픽셀 수 (반환 점/봉 개수 상한, 10 ~ 4000 으로 보정)
+     * @param type  "close" 또는 "ohlc"
+     */
+    public Map<String, Object> series(String symbol, String start, String end, int width, String type) {
+        PriceStoreSnapshot snap = priceStore.current();
+        if (snap == null) {
+            throw new IllegalStateException("가격 데이터가 아직 메모리에 적재되지 않았습니다.");
+        }
+        boolean ohlc;
+        if (type == null || type.isBlank() || "close".equalsIgnoreCase(type)) ohlc = false;
+        else if ("ohlc".equalsIgnoreCase(type)) ohlc = true;
+        else throw new IllegalArgumentException("지원하지 않는 시계열 종류입니다: " + type + " (close, ohlc)");
+        int i = snap.indexOf(symbol);
+        if (i < 0) {
+            throw new IllegalArgumentException("종목(" + symbol + ") 데이터가 없습니다. 먼저 종목 데이터를 업데이트하세요.");
+        }
+        int w = Math.max(MIN_WIDTH, Math.min(MAX_WIDTH, width));
+        int startDay = PriceSeries.toEpochDay(start);
+        int endDay = PriceSeries.toEpochDay(end);
+
+        String key = symbol + "-" + startDay + "-" + endDay + "-" + w + "-" + (ohlc ? "ohlc" : "close")
+                + "-v" + snap.getVersion();
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) return build(snap, i, startDay, endDay, w, ohlc);
+        return cache.get(key, () -> build(snap, i, startDay, endDay, w, ohlc));
+    }
+
+    /** 캐시 가중치: 응답의 점/봉 개수 */
+    public static int points(Object cached) {
+        return cached instanceof Map<?, ?> m && m.get("points") instanceof Integer p ? p : 0;
+    }
+
+    private Map<String, Object> build(PriceStoreSnapshot snap, int i, int startDay, int endDay,
+                                      int width, boolean ohlc) {
+        int from = snap.lowerBound(i, startDay);
+        int to = snap.upperBound(i, endDay);
+
+        // 결측 종가 제외한 행 번호
+        int[] rows = new int[Math.max(0, to - from)];
+        int n = 0;
+        for (int r = from; r < to; r++) {
+            if (!Double.isNaN(snap.close(r))) rows[n++] = r;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("symbol", snap.symbol(i));
+        result.put("name", snap.name(i));
+        result.put("type", ohlc ? "ohlc" : "close");
+        result.put("total", n);
+        if (ohlc) putOhlc(result, snap, rows, n, width);
+        else putClose(result, snap, rows, n, width);
+        return result;
+    }
+
+    private static void putClose(Map<String, Object> result, PriceStoreSnapshot snap, int[] rows, int n, int width) {
+        double[] x = new double[n], y = new double[n];
+        for (int k = 0; k < n; k++) {
+            x[k] = snap.date(rows[k]);
+            y[k] = snap.close(rows[k]);
+        }
+        int[] picked = Lttb.select(x, y, n, width);
+        List<String> dates = new ArrayList<>(picked.length);
+        double[] close = new double[picked.length];
+        for (int k = 0; k < picked.length; k++) {
+            dates.add(PriceSeries.toIsoDate((int) x[picked[k]]));
+            close[k] = y[picked[k]];
+        }
+        result.put("points", picked.length);
+        result.put("dates", dates);
+        result.put("close", close);
+    }
+
+    private static void putOhlc(Map<String, Object> result, PriceStoreSnapshot snap, int[] rows, int n, int width) {
+        int buckets = Math.min(width, n);
+        List<String> dates = new ArrayList<>(buckets);
+        Double[] open = new Double[buckets], high = new Double[buckets], low = new Double[buckets];
+        double[] close = new double[buckets];
+        for (int b = 0; b < buckets; b++) {
+            int lo = (int) ((long) b * n / buckets);
+            int hi = (int) ((long) (b + 1) * n / buckets);
+            double h = Double.NaN, l = Double.NaN;
+            for (int k = lo; k < hi; k++) {
+                int r = rows[k];
+                double rh = snap.high(r), rl = snap.low(r);
+                if (!Double.isNaN(rh) && (Double.isNaN(h) || rh > h)) h = rh;
+                if (!Double.isNaN(rl) && (Double.isNaN(l) || rl < l)) l = rl;
+            }
+            dates.add(PriceSeries.toIsoDate(snap.date(rows[lo])));
+            open[b] = orNull(snap.open(rows[lo]));
+            high[b] = orNull(h);
+            low[b] = orNull(l);
+            close[b] = snap.close(rows[hi - 1]);
+        }
+        result.put("points", buckets);
+        result.put("dates", dates);
+        result.put("open", open);
+        result.put("high", high);
+        result.put("low", low);
+        result.put("close", close);
+    }
+
+    private static Double orNull(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mybaselink.app.stock.chart;
+
+/**
+ * Lttb
+ * --------------------------------------------------------
+ * Largest-Triangle-Three-Buckets 다운샘플링
+ * - 첫/마지막 점은 항상 유지, 나머지를 (threshold - 2) 개 버킷으로 나눠 버킷마다 1점 선택
+ * - 선택 기준: 직전 선택점 · 후보 · 다음 버킷 평균점이 이루는 삼각형 넓이가 최대인 점
+ *   (급등락 꼭짓점이 남아 선 모양이 원본과 거의 같음)
+ * - x 는 오름차순이어야 함 (결측은 호출 측에서 미리 제거)
+ * --------------------------------------------------------
+ */
+final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * @param threshold 남길 점 개수 (3 미만이거나 n 이상이면 전체 유지)
+     * @return 선택된 원본 인덱스 (오름차순)
+     */
+    static int[] select(double[] x, double[] y, int n, int threshold) {
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+        int[] picked = new int[threshold];
+        int k = 0;
+        picked[k++] = 0;
+
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int b = 0; b < threshold - 2; b++) {
+            // 다음 버킷 평균점
+            int avgFrom = (int) Math.floor((b + 1) * every) + 1;
+            int avgTo = Math.min((int) Math.floor((b + 2) * every) + 1, n);
+            double avgX = 0, avgY = 0;
+            for (int j = avgFrom; j < avgTo; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int cnt = avgTo - avgFrom;
+            avgX /= cnt;
+            avgY /= cnt;
+
+            // 현재 버킷에서 삼각형 넓이 최대인 점
+            int from = (int) Math.floor(b * every) + 1;
+            int to = (int) Math.floor((b + 1) * every) + 1;
+            double ax = x[a], ay = y[a];
+            double best = -1;
+            int next = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((ax - avgX) * (y[j] - ay) - (ax - x[j]) * (avgY - ay));
+                if (area > best) {
+                    best = area;
+                    next = j;
+                }
+            }
+            picked[k++] = next;
+            a = next;
+        }
+        picked[k] = n - 1;
+        return picked;
+    }
+}
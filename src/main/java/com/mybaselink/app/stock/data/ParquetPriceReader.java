@@ -0,0 +1,296 @@
+package com.mybaselink.app.stock.data;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ParquetPriceReader
+ * --------------------------------------------------------
+ * update_stock_listing.py 가 저장한 {symbol}.parquet 를 Python 없이 직접 읽어
+ * 원시 배열 기반 {@link PriceSeries} 로 변환
+ * - pandas DatetimeIndex("Date") 는 INT64 TIMESTAMP(ms/us/ns), INT96, DATE, 문자열 모두 지원
+ * - TIMESTAMP 주석이 없는 INT64 날짜는 첫 값의 크기로 단위(ms/us/ns)를 정하고, 어느 단위로도 1971~2199년이 아니면 오류
+ * - 가격 컬럼은 DOUBLE/FLOAT/INT64/INT32 모두 double 로 변환, 결측은 NaN
+ * --------------------------------------------------------
+ */
+@Component
+public class ParquetPriceReader {
+
+    private static final Logger log = LoggerFactory.getLogger(ParquetPriceReader.class);
+
+    private static final long JULIAN_EPOCH_OFFSET_DAYS = 2_440_588L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+    /** 단위 추정 시 허용하는 날짜 범위 (1971-01-01 ~ 2199-12-31, 단위 간 1000배 차이보다 좁아 겹치지 않음) */
+    private static final long MIN_INFER_DAY = LocalDate.of(1971, 1, 1).toEpochDay();
+    private static final long MAX_INFER_DAY = LocalDate.of(2200, 1, 1).toEpochDay();
+    private static final int INITIAL_CAPACITY = 4096;
+
+    @Value("${stock.data.dir:}")
+    private String dataDir;
+
+    @Value("${python.working.dir:}")
+    private String pythonWorkingDir;
+
+    private final Configuration conf = new Configuration();
+
+    /** parquet 파일 디렉터리 (stock.data.dir → python.working.dir/stock_data 순) */
+    public Path resolveDataDir() {
+        if (StringUtils.hasText(dataDir)) {
+            return Paths.get(dataDir);
+        }
+        if (StringUtils.hasText(pythonWorkingDir)) {
+            return Paths.get(pythonWorkingDir, "stock_data");
+        }
+        return Paths.get("stock_data");
+    }
+
+    /**
+     * 종목 코드로 parquet 로드
+     * @return 파일이 없으면 null (find_similar_full.py 의 load_parquet 와 동일)
+     */
+    public PriceSeries read(String symbol) throws IOException {
+        Path file = resolveDataDir().resolve(symbol + ".parquet");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        return read(file, symbol);
+    }
+
+    /** 지정 파일 로드 */
+    public PriceSeries read(Path file, String symbol) throws IOException {
+        org.apache.hadoop.fs.Path hPath = new org.apache.hadoop.fs.Path(file.toAbsolutePath().toUri());
+
+        int[] dates = new int[INITIAL_CAPACITY];
+        double[] open = new double[INITIAL_CAPACITY];
+        double[] high = new double[INITIAL_CAPACITY];
+        double[] low = new double[INITIAL_CAPACITY];
+        double[] close = new double[INITIAL_CAPACITY];
+        long[] volume = new long[INITIAL_CAPACITY];
+        int n = 0;
+
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), hPath).withConf(conf).build()) {
+            Layout layout = null;
+            Group g;
+            while ((g = reader.read()) != null) {
+                if (layout == null) {
+                    layout = Layout.of(g.getType(), file);
+                }
+                if (g.getFieldRepetitionCount(layout.date) == 0) {
+                    continue; // 날짜 없는 행은 무시
+                }
+                if (layout.dateKind == Kind.INT64_UNANNOTATED) {
+                    long perDay = unitsPerDay(g.getLong(layout.date, 0));
+                    layout.dateKind = perDay == MILLIS_PER_DAY ? Kind.TS_MILLIS
+                            : perDay == MICROS_PER_DAY ? Kind.TS_MICROS : Kind.TS_NANOS;
+                    log.warn("{} Date 컬럼에 TIMESTAMP 단위 주석이 없어 값 크기로 {} 로 해석", symbol, layout.dateKind);
+                }
+                if (n == dates.length) {
+                    int cap = n * 2;
+                    dates = Arrays.copyOf(dates, cap);
+                    open = Arrays.copyOf(open, cap);
+                    high = Arrays.copyOf(high, cap);
+                    low = Arrays.copyOf(low, cap);
+                    close = Arrays.copyOf(close, cap);
+                    volume = Arrays.copyOf(volume, cap);
+                }
+                dates[n] = readEpochDay(g, layout.date, layout.dateKind);
+                open[n] = readDouble(g, layout.open, layout.openKind);
+                high[n] = readDouble(g, layout.high, layout.highKind);
+                low[n] = readDouble(g, layout.low, layout.lowKind);
+                close[n] = readDouble(g, layout.close, layout.closeKind);
+                volume[n] = readLong(g, layout.volume, layout.volumeKind);
+                n++;
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException(symbol + " parquet 스키마 오류: " + e.getMessage(), e);
+        }
+
+        log.debug("parquet 로드: {} ({}행)", symbol, n);
+        return PriceSeries.sorted(symbol,
+                Arrays.copyOf(dates, n), Arrays.copyOf(open, n), Arrays.copyOf(high, n),
+                Arrays.copyOf(low, n), Arrays.copyOf(close, n), Arrays.copyOf(volume, n));
+    }
+
+    // ==================================
+    // 값 변환
+    // ==================================
+    private static double readDouble(Group g, int field, Kind kind) {
+        if (field < 0 || g.getFieldRepetitionCount(field) == 0) return Double.NaN;
+        return switch (kind) {
+            case DOUBLE -> g.getDouble(field, 0);
+            case FLOAT -> g.getFloat(field, 0);
+            case INT64 -> g.getLong(field, 0);
+            case INT32 -> g.getInteger(field, 0);
+            default -> Double.NaN;
+        };
+    }
+
+    private static long readLong(Group g, int field, Kind kind) {
+        if (field < 0 || g.getFieldRepetitionCount(field) == 0) return 0L;
+        return switch (kind) {
+            case INT64 -> g.getLong(field, 0);
+            case INT32 -> g.getInteger(field, 0);
+            case DOUBLE -> {
+                double v = g.getDouble(field, 0);
+                yield Double.isNaN(v) ? 0L : (long) v;
+            }
+            case FLOAT -> {
+                float v = g.getFloat(field, 0);
+                yield Float.isNaN(v) ? 0L : (long) v;
+            }
+            default -> 0L;
+        };
+    }
+
+    private static int readEpochDay(Group g, int field, Kind kind) {
+        return switch (kind) {
+            case TS_MILLIS -> (int) Math.floorDiv(g.getLong(field, 0), MILLIS_PER_DAY);
+            case TS_MICROS -> (int) Math.floorDiv(g.getLong(field, 0), MICROS_PER_DAY);
+            case TS_NANOS -> (int) Math.floorDiv(g.getLong(field, 0), NANOS_PER_DAY);
+            case DATE -> g.getInteger(field, 0);
+            case INT96 -> {
+                // INT96: [nanos-of-day(8, LE)][julian day(4, LE)]
+                ByteBuffer buf = g.getInt96(field, 0).toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+                int julianDay = buf.getInt(buf.position() + 8);
+                yield (int) (julianDay - JULIAN_EPOCH_OFFSET_DAYS);
+            }
+            case STRING -> {
+                Binary b = g.getBinary(field, 0);
+                String s = b.toStringUsingUTF8();
+                yield (int) LocalDate.parse(s.length() > 10 ? s.substring(0, 10) : s).toEpochDay();
+            }
+            default -> throw new IllegalStateException("지원하지 않는 날짜 형식");
+        };
+    }
+
+    /**
+     * 단위 주석 없는 INT64 날짜 값의 하루 단위 수 (ms/us/ns 중 1971~2199년이 되는 단위)
+     * @throws IllegalStateException 어느 단위로도 범위를 벗어남
+     */
+    static long unitsPerDay(long raw) {
+        for (long perDay : new long[]{MILLIS_PER_DAY, MICROS_PER_DAY, NANOS_PER_DAY}) {
+            long day = Math.floorDiv(raw, perDay);
+            if (day >= MIN_INFER_DAY && day < MAX_INFER_DAY) return perDay;
+        }
+        throw new IllegalStateException("Date 컬럼(INT64)에 TIMESTAMP 단위가 없고 값(" + raw + ")으로도 단위를 정할 수 없습니다");
+    }
+
+    // ==================================
+    // 스키마 해석 (파일당 1회)
+    // ==================================
+    private enum Kind {
+        DOUBLE, FLOAT, INT64, INT32, TS_MILLIS, TS_MICROS, TS_NANOS, INT64_UNANNOTATED, DATE, INT96, STRING, UNSUPPORTED
+    }
+
+    private static final class Layout {
+        int date, open, high, low, close, volume;
+        Kind dateKind, openKind, highKind, lowKind, closeKind, volumeKind;
+
+        static Layout of(GroupType schema, Path file) {
+            Layout l = new Layout();
+            l.date = indexOf(schema, "Date", "date", "__index_level_0__");
+            if (l.date < 0) {
+                throw new IllegalStateException("Date 컬럼이 없습니다: " + file);
+            }
+            l.close = indexOf(schema, "Close");
+            if (l.close < 0) {
+                throw new IllegalStateException("Close 컬럼이 없습니다: " + file);
+            }
+            l.open = indexOf(schema, "Open");
+            l.high = indexOf(schema, "High");
+            l.low = indexOf(schema, "Low");
+            l.volume = indexOf(schema, "Volume");
+
+            l.dateKind = dateKind(schema.getType(l.date));
+            if (l.dateKind == Kind.UNSUPPORTED) {
+                throw new IllegalStateException("Date 컬럼 형식을 해석할 수 없습니다: " + schema.getType(l.date));
+            }
+            l.closeKind = numericKind(schema, l.close);
+            l.openKind = numericKind(schema, l.open);
+            l.highKind = numericKind(schema, l.high);
+            l.lowKind = numericKind(schema, l.low);
+            l.volumeKind = numericKind(schema, l.volume);
+            return l;
+        }
+
+        private static int indexOf(GroupType schema, String... names) {
+            for (String name : names) {
+                for (int i = 0; i < schema.getFieldCount(); i++) {
+                    if (schema.getFieldName(i).toLowerCase(Locale.ROOT).equals(name.toLowerCase(Locale.ROOT))) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static Kind numericKind(GroupType schema, int field) {
+            if (field < 0) return Kind.UNSUPPORTED;
+            Type t = schema.getType(field);
+            if (!t.isPrimitive()) return Kind.UNSUPPORTED;
+            return switch (t.asPrimitiveType().getPrimitiveTypeName()) {
+                case DOUBLE -> Kind.DOUBLE;
+                case FLOAT -> Kind.FLOAT;
+                case INT64 -> Kind.INT64;
+                case INT32 -> Kind.INT32;
+                default -> Kind.UNSUPPORTED;
+            };
+        }
+
+        private static Kind dateKind(Type t) {
+            if (!t.isPrimitive()) return Kind.UNSUPPORTED;
+            PrimitiveType p = t.asPrimitiveType();
+            LogicalTypeAnnotation ann = p.getLogicalTypeAnnotation();
+            switch (p.getPrimitiveTypeName()) {
+                case INT64:
+                    if (ann instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation ts) {
+                        return switch (ts.getUnit()) {
+                            case MILLIS -> Kind.TS_MILLIS;
+                            case MICROS -> Kind.TS_MICROS;
+                            case NANOS -> Kind.TS_NANOS;
+                            default -> throw new IllegalStateException("지원하지 않는 TIMESTAMP 단위: " + ts.getUnit());
+                        };
+                    }
+                    if (ann != null) {
+                        throw new IllegalStateException("Date 컬럼(INT64) 형식을 해석할 수 없습니다: " + t);
+                    }
+                    return Kind.INT64_UNANNOTATED; // 첫 값으로 단위 결정
+                case INT32:
+                    if (ann != null && !(ann instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation)) {
+                        throw new IllegalStateException("Date 컬럼(INT32) 형식을 해석할 수 없습니다: " + t);
+                    }
+                    return Kind.DATE;
+                case INT96:
+                    return Kind.INT96;
+                case BINARY:
+                    return Kind.STRING;
+                default:
+                    return Kind.UNSUPPORTED;
+            }
+        }
+    }
+}
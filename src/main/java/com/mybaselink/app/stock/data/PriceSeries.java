@@ -0,0 +1,117 @@
+package com.mybaselink.app.stock.data;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * 단일 종목 일봉(OHLCV) 시계열
+ * --------------------------------------------------------
+ * - 날짜는 epoch day(int), 가격은 double, 거래량은 long 배열로 보관
+ * - 날짜 오름차순 정렬 보장
+ * - 성능을 위해 내부 배열을 그대로 노출하므로 호출부에서 수정 금지
+ * --------------------------------------------------------
+ */
+public final class PriceSeries {
+
+    private final String symbol;
+    private final int[] dates;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    public PriceSeries(String symbol, int[] dates, double[] open, double[] high,
+                       double[] low, double[] close, long[] volume) {
+        int n = dates.length;
+        if (open.length != n || high.length != n || low.length != n || close.length != n || volume.length != n) {
+            throw new IllegalArgumentException("컬럼 길이가 일치하지 않습니다: " + symbol);
+        }
+        this.symbol = symbol;
+        this.dates = dates;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public String getSymbol() { return symbol; }
+    public int length() { return dates.length; }
+    public int[] getDates() { return dates; }
+    public double[] getOpen() { return open; }
+    public double[] getHigh() { return high; }
+    public double[] getLow() { return low; }
+    public double[] getClose() { return close; }
+    public long[] getVolume() { return volume; }
+
+    /** date >= epochDay 인 첫 인덱스 (없으면 length) */
+    public int lowerBound(int epochDay) {
+        return lowerBound(dates, 0, dates.length, epochDay);
+    }
+
+    /** date > epochDay 인 첫 인덱스 (없으면 length) */
+    public int upperBound(int epochDay) {
+        return lowerBound(dates, 0, dates.length, epochDay + 1);
+    }
+
+    /** [from, to) 구간에서 a[i] >= key 인 첫 인덱스 */
+    public static int lowerBound(int[] a, int from, int to, int key) {
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** "YYYY-MM-DD" → epoch day */
+    public static int toEpochDay(String isoDate) {
+        return (int) LocalDate.parse(isoDate.trim()).toEpochDay();
+    }
+
+    /** epoch day → "YYYY-MM-DD" */
+    public static String toIsoDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    /**
+     * 날짜 기준 정렬 및 중복 날짜 제거(마지막 값 우선)
+     * - parquet 인덱스가 정렬되어 있으면 그대로 반환
+     */
+    static PriceSeries sorted(String symbol, int[] dates, double[] open, double[] high,
+                              double[] low, double[] close, long[] volume) {
+        int n = dates.length;
+        boolean ordered = true;
+        for (int i = 1; i < n && ordered; i++) {
+            ordered = dates[i - 1] < dates[i];
+        }
+        if (ordered) {
+            return new PriceSeries(symbol, dates, open, high, low, close, volume);
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        // 안정 정렬 → 같은 날짜는 뒤쪽 행이 마지막에 위치
+        Arrays.sort(order, (a, b) -> Integer.compare(dates[a], dates[b]));
+
+        int[] d = new int[n];
+        double[] o = new double[n], h = new double[n], l = new double[n], c = new double[n];
+        long[] v = new long[n];
+        int m = 0;
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            if (m > 0 && d[m - 1] == dates[i]) m--; // 중복 날짜 덮어쓰기
+            d[m] = dates[i];
+            o[m] = open[i];
+            h[m] = high[i];
+            l[m] = low[i];
+            c[m] = close[i];
+            v[m] = volume[i];
+            m++;
+        }
+        return new PriceSeries(symbol, Arrays.copyOf(d, m), Arrays.copyOf(o, m), Arrays.copyOf(h, m),
+                Arrays.copyOf(l, m), Arrays.copyOf(c, m), Arrays.copyOf(v, m));
+    }
+}
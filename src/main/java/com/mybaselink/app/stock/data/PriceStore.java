@@ -0,0 +1,149 @@
+package com.mybaselink.app.stock.data;
+
+import com.mybaselink.app.service.StockListService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * PriceStore
+ * --------------------------------------------------------
+ * stock_listing.json 의 전 종목 일봉을 off-heap 컬럼 블록으로 상주시키는 저장소
+ * - 애플리케이션 기동 시 1회 적재
+ * - StockBatchService 업데이트 완료 후 reload() 로 새 스냅샷을 만들어 원자적으로 교체
+ * - 조회 측은 current() 로 받은 스냅샷만 사용 (교체 중에도 일관된 데이터)
+ * - 메모리: 새 스냅샷은 이전 스냅샷이 아직 참조되는 동안 만들어지고, 이전 블록은 GC 가 버퍼를 회수할 때 해제됨
+ *   → 재적재 중 direct 메모리는 데이터 크기(행 수 × 52 bytes)의 최대 2배
+ *   → -XX:MaxDirectMemorySize 는 적재 로그의 off-heap 크기 × 2 이상으로 지정
+ * --------------------------------------------------------
+ */
+@Component
+public class PriceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStore.class);
+
+    private final ParquetPriceReader reader;
+    private final StockListService stockListService;
+
+    private final AtomicReference<PriceStoreSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionSeq = new AtomicLong();
+
+    public PriceStore(ParquetPriceReader reader, StockListService stockListService) {
+        this.reader = reader;
+        this.stockListService = stockListService;
+    }
+
+    /** 기동 완료 후 최초 적재 (데이터 디렉터리가 없으면 건너뜀) */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!Files.isDirectory(reader.resolveDataDir())) {
+            log.warn("가격 데이터 디렉터리가 없어 PriceStore 적재를 건너뜁니다: {}", reader.resolveDataDir());
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("PriceStore 최초 적재 실패", e);
+        }
+    }
+
+    /** 현재 스냅샷 (아직 적재 전이면 null) */
+    public PriceStoreSnapshot current() {
+        return current.get();
+    }
+
+    public boolean isReady() {
+        return current.get() != null;
+    }
+
+    /**
+     * 전 종목 parquet 를 다시 읽어 새 스냅샷으로 교체
+     * - 동시에 여러 번 호출되어도 적재는 한 번에 하나씩
+     * - 교체 직후에도 이전 스냅샷을 쓰는 조회가 끝나고 GC 가 회수할 때까지 두 블록이 함께 남음 (direct 메모리 최대 2배)
+     */
+    public synchronized PriceStoreSnapshot reload() throws IOException {
+        long t0 = System.currentTimeMillis();
+        Map<String, String> listing = loadListing();
+
+        List<String> codes = new ArrayList<>(listing.keySet());
+        PriceSeries[] loaded = new PriceSeries[codes.size()];
+
+        // parquet 읽기는 I/O 위주 → 코어 수보다 넉넉한 전용 풀에서 병렬 처리
+        ForkJoinPool pool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        try {
+            pool.submit(() -> IntStream.range(0, codes.size()).parallel().forEach(i -> {
+                String code = codes.get(i);
+                try {
+                    loaded[i] = reader.read(code);
+                } catch (Exception e) {
+                    log.warn("{} parquet 로드 실패: {}", code, e.getMessage());
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PriceStore 적재 중단", e);
+        } catch (Exception e) {
+            throw new IOException("PriceStore 적재 실패: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<PriceSeries> series = new ArrayList<>(codes.size());
+        List<String> names = new ArrayList<>(codes.size());
+        for (int i = 0; i < codes.size(); i++) {
+            if (loaded[i] != null && loaded[i].length() > 0) {
+                series.add(loaded[i]);
+                names.add(listing.get(codes.get(i)));
+            }
+        }
+
+        PriceStoreSnapshot snapshot = new PriceStoreSnapshot(versionSeq.incrementAndGet(), series, names);
+        PriceStoreSnapshot previous = current.getAndSet(snapshot);
+        log.info("✅ PriceStore 적재 완료: 종목 {}개, {}행, {}MB off-heap, {}ms (이전 버전 {})",
+                snapshot.symbolCount(), snapshot.rowCount(), snapshot.offHeapBytes() / (1024 * 1024),
+                System.currentTimeMillis() - t0, previous != null ? previous.getVersion() : "-");
+        return snapshot;
+    }
+
+    /** 종목코드 → 종목명 (stock_listing.json, 실패 시 parquet 파일 목록) */
+    private Map<String, String> loadListing() throws IOException {
+        Map<String, String> listing = new LinkedHashMap<>();
+        try {
+            for (Map<String, Object> row : stockListService.getStockList()) {
+                Object code = row.get("Code");
+                if (code == null) continue;
+                Object name = row.get("Name");
+                listing.put(String.valueOf(code), name != null ? String.valueOf(name) : "");
+            }
+        } catch (Exception e) {
+            log.warn("stock_listing.json 로드 실패, parquet 파일 목록으로 대체: {}", e.getMessage());
+        }
+        if (!listing.isEmpty()) {
+            return listing;
+        }
+
+        Path dir = reader.resolveDataDir();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(f -> f.endsWith(".parquet"))
+                    .sorted()
+                    .forEach(f -> listing.put(f.substring(0, f.length() - ".parquet".length()), ""));
+        }
+        return listing;
+    }
+}
@@ -0,0 +1,225 @@
+package com.mybaselink.app.stock.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * PriceStore 의 불변 스냅샷
+ * --------------------------------------------------------
+ * - 전 종목 일봉을 하나의 off-heap(direct) 블록에 컬럼 단위로 연속 배치
+ *   [close][open][high][low][volatility][volume][date]
+ * - volatility 는 적재 시 계산하는 랭킹용 파생 컬럼 (배치 업데이트 후 reload 때마다 갱신)
+ * - 종목별 행 범위는 offsets[i] ~ offsets[i+1] (날짜 오름차순)
+ * - 생성 후 변경되지 않으므로 여러 스레드에서 동시 조회 가능
+ * --------------------------------------------------------
+ */
+public final class PriceStoreSnapshot {
+
+    /** volatility 컬럼 창 크기 (거래일) */
+    public static final int VOLATILITY_WINDOW = 60;
+
+    private final long version;
+    private final Instant loadedAt;
+    private final String[] symbols;
+    private final String[] names;
+    private final Map<String, Integer> symbolIndex;
+    private final int[] offsets;
+
+    private final ByteBuffer block;
+    private final DoubleBuffer close;
+    private final DoubleBuffer open;
+    private final DoubleBuffer high;
+    private final DoubleBuffer low;
+    private final DoubleBuffer volatility;
+    private final LongBuffer volume;
+    private final IntBuffer dates;
+
+    /**
+     * @param series 적재할 종목 시계열 (빈 시계열 제외)
+     * @param names  종목명 (series 와 같은 순서)
+     */
+    PriceStoreSnapshot(long version, List<PriceSeries> series, List<String> names) {
+        int n = series.size();
+        this.version = version;
+        this.loadedAt = Instant.now();
+        this.symbols = new String[n];
+        this.names = new String[n];
+        this.symbolIndex = new HashMap<>(n * 2);
+        this.offsets = new int[n + 1];
+
+        long rows = 0;
+        for (int i = 0; i < n; i++) {
+            PriceSeries s = series.get(i);
+            symbols[i] = s.getSymbol();
+            this.names[i] = names.get(i) != null ? names.get(i) : "";
+            symbolIndex.put(s.getSymbol(), i);
+            offsets[i] = (int) rows;
+            rows += s.length();
+        }
+        offsets[n] = (int) rows;
+
+        // 8바이트 컬럼(close/open/high/low/volatility/volume)을 앞에, 4바이트 date 를 마지막에 두어 정렬 유지
+        long bytes = rows * (Double.BYTES * 5L + Long.BYTES + Integer.BYTES);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("가격 데이터가 단일 블록 한도(2GB)를 초과합니다: " + bytes + " bytes");
+        }
+        int r = (int) rows;
+        this.block = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        int pos = 0;
+        this.close = slice(pos, r * Double.BYTES).asDoubleBuffer();
+        pos += r * Double.BYTES;
+        this.open = slice(pos, r * Double.BYTES).asDoubleBuffer();
+        pos += r * Double.BYTES;
+        this.high = slice(pos, r * Double.BYTES).asDoubleBuffer();
+        pos += r * Double.BYTES;
+        this.low = slice(pos, r * Double.BYTES).asDoubleBuffer();
+        pos += r * Double.BYTES;
+        this.volatility = slice(pos, r * Double.BYTES).asDoubleBuffer();
+        pos += r * Double.BYTES;
+        this.volume = slice(pos, r * Long.BYTES).asLongBuffer();
+        pos += r * Long.BYTES;
+        this.dates = slice(pos, r * Integer.BYTES).asIntBuffer();
+
+        for (int i = 0; i < n; i++) {
+            PriceSeries s = series.get(i);
+            int off = offsets[i];
+            int len = s.length();
+            close.put(off, s.getClose(), 0, len);
+            open.put(off, s.getOpen(), 0, len);
+            high.put(off, s.getHigh(), 0, len);
+            low.put(off, s.getLow(), 0, len);
+            volume.put(off, s.getVolume(), 0, len);
+            dates.put(off, s.getDates(), 0, len);
+        }
+        IntStream.range(0, n).parallel().forEach(i -> fillVolatility(series.get(i).getClose(), offsets[i]));
+    }
+
+    /**
+     * 각 행에서 끝나는 최근 VOLATILITY_WINDOW 개 종가의 모표준편차 (np.std)
+     * - 창이 종목 시작 이전으로 넘어가거나 결측 종가가 포함되면 NaN
+     * - 창을 한 칸 밀 때 들어오는 값/나가는 값으로 평균과 편차 제곱합(M2)을 갱신 → 종목당 O(n)
+     *   (x, x² 누적합을 직접 빼는 방식은 가격 규모에서 상쇄 오차가 커서 평균 기준 갱신식 사용)
+     * - 누적 오차가 쌓이지 않도록 창 크기만큼 밀 때마다, 그리고 결측이 빠진 직후에는 창 전체로 다시 계산
+     */
+    private void fillVolatility(double[] c, int off) {
+        int w = VOLATILITY_WINDOW;
+        int nanCount = 0;
+        boolean valid = false;  // 직전 행의 mean/m2 가 유효한 창 기준인지
+        int slides = 0;
+        double mean = 0, m2 = 0;
+        for (int k = 0; k < c.length; k++) {
+            if (Double.isNaN(c[k])) nanCount++;
+            if (k >= w && Double.isNaN(c[k - w])) nanCount--;
+            if (k < w - 1 || nanCount > 0) {
+                volatility.put(off + k, Double.NaN);
+                valid = false;
+                continue;
+            }
+            if (valid && slides < w) {
+                double in = c[k], out = c[k - w];
+                double delta = in - out;
+                double next = mean + delta / w;
+                m2 += delta * (in - next + out - mean);
+                mean = next;
+                slides++;
+            } else {
+                mean = 0;
+                for (int j = k - w + 1; j <= k; j++) mean += c[j];
+                mean /= w;
+                m2 = 0;
+                for (int j = k - w + 1; j <= k; j++) {
+                    double d = c[j] - mean;
+                    m2 += d * d;
+                }
+                valid = true;
+                slides = 0;
+            }
+            volatility.put(off + k, Math.sqrt(Math.max(0, m2) / w));
+        }
+    }
+
+    private ByteBuffer slice(int index, int length) {
+        return block.slice(index, length).order(ByteOrder.nativeOrder());
+    }
+
+    // ==================================
+    // 메타 정보
+    // ==================================
+    public long getVersion() { return version; }
+    public Instant getLoadedAt() { return loadedAt; }
+    public int symbolCount() { return symbols.length; }
+    public int rowCount() { return offsets[symbols.length]; }
+    public long offHeapBytes() { return block.capacity(); }
+    public String symbol(int i) { return symbols[i]; }
+    public String name(int i) { return names[i]; }
+
+    /** 종목 코드 → 인덱스 (없으면 -1) */
+    public int indexOf(String symbol) {
+        Integer i = symbolIndex.get(symbol);
+        return i != null ? i : -1;
+    }
+
+    // ==================================
+    // 행 범위 / 값 조회 (row 는 전체 블록 기준 절대 인덱스)
+    // ==================================
+    public int rowStart(int i) { return offsets[i]; }
+    public int rowEnd(int i) { return offsets[i + 1]; }
+
+    public int date(int row) { return dates.get(row); }
+    public double close(int row) { return close.get(row); }
+    public double open(int row) { return open.get(row); }
+    public double high(int row) { return high.get(row); }
+    public double low(int row) { return low.get(row); }
+    /** row 에서 끝나는 최근 VOLATILITY_WINDOW 개 종가 표준편차 (계산 불가 시 NaN) */
+    public double volatility(int row) { return volatility.get(row); }
+    public long volume(int row) { return volume.get(row); }
+
+    /** 종목 i 에서 date >= epochDay 인 첫 row (없으면 rowEnd) */
+    public int lowerBound(int i, int epochDay) {
+        int lo = offsets[i], hi = offsets[i + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates.get(mid) < epochDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** 종목 i 에서 date > epochDay 인 첫 row (없으면 rowEnd) */
+    public int upperBound(int i, int epochDay) {
+        return lowerBound(i, epochDay + 1);
+    }
+
+    /** [from, to) 행의 종가를 dst[off..] 로 복사 */
+    public void copyClose(int from, int to, double[] dst, int off) {
+        close.get(from, dst, off, to - from);
+    }
+
+    /** [from, to) 행의 날짜를 dst[off..] 로 복사 */
+    public void copyDates(int from, int to, int[] dst, int off) {
+        dates.get(from, dst, off, to - from);
+    }
+
+    /** 종목 i 의 전체 시계열을 힙 배열로 복사 (단일 종목 처리용) */
+    public PriceSeries series(int i) {
+        int from = offsets[i], len = offsets[i + 1] - from;
+        int[] d = new int[len];
+        double[] o = new double[len], h = new double[len], l = new double[len], c = new double[len];
+        long[] v = new long[len];
+        dates.get(from, d, 0, len);
+        open.get(from, o, 0, len);
+        high.get(from, h, 0, len);
+        low.get(from, l, 0, len);
+        close.get(from, c, 0, len);
+        volume.get(from, v, 0, len);
+        return new PriceSeries(symbols[i], d, o, h, l, c, v);
+    }
+}
@@ -0,0 +1,183 @@
+package com.mybaselink.app.stock.downward;
+
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * DownRunIndex
+ * --------------------------------------------------------
+ * 스냅샷 1개에 대한 종목별 하락 구간(run) 색인
+ * - 전일 대비 종가 하락이 이어지는 구간을 [시작 행, 끝 행, 하락 일수] 로 run-length 인코딩
+ * - 종목별 run 하락 일수 위에 최댓값 세그먼트 트리 → 임의 [start, end] 최장 연속 하락을 O(log n) 으로 조회
+ * - 결측 종가(NaN)는 연속을 끊지 않으므로 run 내부에 NaN 이 낀 경우만 표시해 두고 부분 조회 시 직접 셈
+ * 행 번호는 스냅샷 전체 기준 절대 인덱스, 하락 여부는 행 r 의 종가와 r-1 의 종가 비교 (r 에 귀속)
+ * --------------------------------------------------------
+ */
+final class DownRunIndex {
+
+    private final long version;
+    private final Runs[] runs;
+
+    private DownRunIndex(long version, Runs[] runs) {
+        this.version = version;
+        this.runs = runs;
+    }
+
+    /** 색인을 만든 스냅샷 버전 (조회 시 같은 버전의 스냅샷을 넘겨야 함) */
+    long version() {
+        return version;
+    }
+
+    /** 전 종목 색인 생성 (종목 단위 병렬) */
+    static DownRunIndex build(PriceStoreSnapshot snap) {
+        Runs[] runs = new Runs[snap.symbolCount()];
+        IntStream.range(0, runs.length).parallel().forEach(i -> runs[i] = Runs.of(snap, i));
+        return new DownRunIndex(snap.getVersion(), runs);
+    }
+
+    /**
+     * 종목 i 의 [fromRow, toRow) 행에서 최장 연속 하락 일수
+     * - 첫 행(fromRow)의 하락 여부는 구간 밖 전일과의 비교이므로 제외
+     */
+    int longestRun(PriceStoreSnapshot snap, int i, int fromRow, int toRow) {
+        Runs r = runs[i];
+        int a = fromRow + 1, b = toRow - 1;
+        if (a > b || r.count == 0) return 0;
+
+        int sa = r.firstEndingAtOrAfter(a);
+        int sb = r.lastStartingAtOrBefore(b);
+        if (sa > sb) return 0;
+        if (sa == sb) return r.partial(snap, sa, a, b);
+
+        int best = Math.max(r.partial(snap, sa, a, b), r.partial(snap, sb, a, b));
+        if (sb - sa > 1) best = Math.max(best, r.max(sa + 1, sb - 1));
+        return best;
+    }
+
+    // ==================================
+    // 종목 1개의 run 목록 + 세그먼트 트리
+    // ==================================
+    private static final class Runs {
+        private static final int[] EMPTY = new int[0];
+
+        final int count;
+        final int[] start;   // run 첫 하락 행
+        final int[] end;     // run 마지막 하락 행
+        final int[] tree;    // [count, 2*count) 잎 = run 하락 일수, 내부 노드 = 자식 최댓값
+        final BitSet dirty;  // 내부에 NaN 이 낀 run (없으면 null)
+
+        private Runs(int count, int[] start, int[] end, int[] tree, BitSet dirty) {
+            this.count = count;
+            this.start = start;
+            this.end = end;
+            this.tree = tree;
+            this.dirty = dirty;
+        }
+
+        static Runs of(PriceStoreSnapshot snap, int i) {
+            int lo = snap.rowStart(i), hi = snap.rowEnd(i);
+            int cap = Math.max(4, (hi - lo) / 4);
+            int[] start = new int[cap], end = new int[cap], len = new int[cap];
+            BitSet dirty = null;
+            int n = 0;
+
+            int runStart = -1, runEnd = -1, runLen = 0;
+            boolean nanPending = false, runDirty = false;
+            double prev = hi > lo ? snap.close(lo) : Double.NaN;
+            for (int row = lo + 1; row <= hi; row++) {
+                double diff = Double.NaN;
+                boolean last = row == hi;
+                if (!last) {
+                    double cur = snap.close(row);
+                    diff = cur - prev;
+                    prev = cur;
+                }
+                if (!last && diff < 0) {
+                    if (runStart < 0) {
+                        runStart = row;
+                        runLen = 0;
+                        runDirty = false;
+                    } else if (nanPending) {
+                        runDirty = true;
+                    }
+                    nanPending = false;
+                    runEnd = row;
+                    runLen++;
+                } else if (!last && !(diff >= 0)) {
+                    nanPending = runStart >= 0;
+                } else if (runStart >= 0) {
+                    // 보합/상승 또는 종목 끝 → run 종료
+                    if (n == start.length) {
+                        start = Arrays.copyOf(start, n * 2);
+                        end = Arrays.copyOf(end, n * 2);
+                        len = Arrays.copyOf(len, n * 2);
+                    }
+                    start[n] = runStart;
+                    end[n] = runEnd;
+                    len[n] = runLen;
+                    if (runDirty) {
+                        if (dirty == null) dirty = new BitSet();
+                        dirty.set(n);
+                    }
+                    n++;
+                    runStart = -1;
+                    nanPending = false;
+                }
+            }
+
+            if (n == 0) return new Runs(0, EMPTY, EMPTY, EMPTY, null);
+            int[] tree = new int[2 * n];
+            System.arraycopy(len, 0, tree, n, n);
+            for (int p = n - 1; p > 0; p--) tree[p] = Math.max(tree[2 * p], tree[2 * p + 1]);
+            return new Runs(n, Arrays.copyOf(start, n), Arrays.copyOf(end, n), tree, dirty);
+        }
+
+        /** end[k] >= row 인 첫 k (없으면 count) */
+        int firstEndingAtOrAfter(int row) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (end[mid] < row) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** start[k] <= row 인 마지막 k (없으면 -1) */
+        int lastStartingAtOrBefore(int row) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start[mid] <= row) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo - 1;
+        }
+
+        /** run k 중 [a, b] 에 걸친 부분의 하락 일수 */
+        int partial(PriceStoreSnapshot snap, int k, int a, int b) {
+            int x = Math.max(a, start[k]), y = Math.min(b, end[k]);
+            if (x > y) return 0;
+            if (x == start[k] && y == end[k]) return tree[count + k];
+            if (dirty == null || !dirty.get(k)) return y - x + 1;
+            int c = 0;
+            for (int row = x; row <= y; row++) {
+                if (snap.close(row) - snap.close(row - 1) < 0) c++;
+            }
+            return c;
+        }
+
+        /** run [l, r] 구간 하락 일수 최댓값 */
+        int max(int l, int r) {
+            int best = 0;
+            for (l += count, r += count + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) best = Math.max(best, tree[l++]);
+                if ((r & 1) == 1) best = Math.max(best, tree[--r]);
+            }
+            return best;
+        }
+    }
+}
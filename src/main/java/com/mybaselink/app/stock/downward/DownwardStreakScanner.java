@@ -0,0 +1,92 @@
+package com.mybaselink.app.stock.downward;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.rank.TopKCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * DownwardStreakScanner
+ * --------------------------------------------------------
+ * find_last_close_downward.py 의 연속 하락 종목 조회를 PriceStore 위에서 직접 수행
+ * - 종목별 [start, end] 구간의 최장 연속 하락 일수(전일 대비 종가 하락) 계산
+ * - 보합/상승은 연속을 끊고, 첫 행과 결측 종가는 세지도 끊지도 않음 (pandas diff 규칙)
+ * - 구간 내 2행 미만 종목은 제외
+ * - 스냅샷 버전별 DownRunIndex 로 임의 기간을 종목당 O(log n) 에 조회 (재스캔 없음)
+ * - 종목 단위 병렬 처리 후 상위 N (동점 시 종목 목록 순서 우선)
+ * - 결과 형식: [{ticker, name, streak}, ...] (내림차순)
+ * --------------------------------------------------------
+ */
+@Component
+public class DownwardStreakScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(DownwardStreakScanner.class);
+
+    private final PriceStore priceStore;
+
+    /** 최근 스냅샷 버전의 하락 구간 색인 (버전이 바뀌면 첫 조회 때 다시 생성) */
+    private final AtomicReference<DownRunIndex> index = new AtomicReference<>();
+
+    public DownwardStreakScanner(PriceStore priceStore) {
+        this.priceStore = priceStore;
+    }
+
+    public boolean isReady() {
+        return priceStore.isReady();
+    }
+
+    public List<Map<String, Object>> scan(String start, String end, int topN) {
+        PriceStoreSnapshot snap = priceStore.current();
+        if (snap == null) {
+            throw new IllegalStateException("가격 데이터가 아직 메모리에 적재되지 않았습니다.");
+        }
+        int startDay = PriceSeries.toEpochDay(start);
+        int endDay = PriceSeries.toEpochDay(end);
+
+        long t0 = System.currentTimeMillis();
+        DownRunIndex runs = indexFor(snap);
+        TopKCollector top = TopKCollector.collect(snap.symbolCount(), topN, i -> {
+            int from = snap.lowerBound(i, startDay);
+            int to = snap.upperBound(i, endDay);
+            return (to - from < 2) ? Double.NaN : runs.longestRun(snap, i, from, to);
+        });
+
+        int[] idx = top.indices();
+        double[] streaks = top.scores();
+        List<Map<String, Object>> results = new ArrayList<>(idx.length);
+        for (int j = 0; j < idx.length; j++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("ticker", snap.symbol(idx[j]));
+            row.put("name", snap.name(idx[j]));
+            row.put("streak", (int) streaks[j]);
+            results.add(row);
+        }
+        log.info("연속 하락 종목 조회 완료: {}~{}, 상위 {}건, {}ms", start, end, results.size(),
+                System.currentTimeMillis() - t0);
+        return results;
+    }
+
+    private DownRunIndex indexFor(PriceStoreSnapshot snap) {
+        DownRunIndex idx = index.get();
+        if (idx != null && idx.version() == snap.getVersion()) return idx;
+        synchronized (index) {
+            idx = index.get();
+            if (idx == null || idx.version() != snap.getVersion()) {
+                long t0 = System.currentTimeMillis();
+                idx = DownRunIndex.build(snap);
+                index.set(idx);
+                log.info("하락 구간 색인 생성: 스냅샷 버전 {}, {}ms", snap.getVersion(), System.currentTimeMillis() - t0);
+            }
+            return idx;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.mybaselink.app.stock.pattern;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.rank.TopKCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * ChartPatternScanner
+ * --------------------------------------------------------
+ * find_chart_patterns.py 의 전 종목 패턴 스캔을 PriceStore 위에서 직접 수행
+ * - 종목별 [start, end] 종가를 PatternWindow 에 한 번 적재(극점 1회 계산) 후 검출기 적용
+ * - 결측 종가가 있거나 30개 미만인 종목은 제외
+ * - 검출 종목은 최근 60개 종가 표준편차(변동성) 내림차순 상위 N
+ *   구간이 60개 이상이면 스냅샷의 volatility 컬럼을 그대로 사용, 미만이면 구간 종가로 직접 계산
+ * - 결과 형식: [{symbol, name, patterns: [pattern]}, ...]
+ * - 여러 패턴 동시 요청 시 종목당 한 번만 적재하고 패턴별 상위 N 을 따로 수집
+ * - cancelled(JobContext::isCancelled)는 종목마다 확인, 취소된 작업이면 CancellationException 으로 중단
+ * --------------------------------------------------------
+ */
+@Component
+public class ChartPatternScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(ChartPatternScanner.class);
+
+    static final int MIN_LENGTH = 30;
+    static final int VOLATILITY_WINDOW = PriceStoreSnapshot.VOLATILITY_WINDOW;
+
+    private final PriceStore priceStore;
+    private final PatternDetectors detectors;
+
+    private final ThreadLocal<PatternWindow> windows = ThreadLocal.withInitial(PatternWindow::new);
+
+    public ChartPatternScanner(PriceStore priceStore, PatternDetectors detectors) {
+        this.priceStore = priceStore;
+        this.detectors = detectors;
+    }
+
+    public boolean isReady() {
+        return priceStore.isReady();
+    }
+
+    public List<Map<String, Object>> scan(String start, String end, String pattern, int topN) {
+        return scan(start, end, pattern, topN, () -> false);
+    }
+
+    public List<Map<String, Object>> scan(String start, String end, String pattern, int topN, BooleanSupplier cancelled) {
+        return scan(start, end, List.of(detectors.get(pattern)), topN, cancelled).values().iterator().next();
+    }
+
+    /**
+     * 여러 패턴을 한 번에 스캔 (종목당 적재·극점 계산 1회, 모든 검출기 적용)
+     * @param patterns 쉼표 구분 패턴 목록, 비었거나 "all" 이면 전체
+     * @return 패턴명 → 상위 N 결과 (요청 순서 유지)
+     */
+    public Map<String, List<Map<String, Object>>> scanMulti(String start, String end, String patterns, int topN) {
+        return scanMulti(start, end, patterns, topN, () -> false);
+    }
+
+    public Map<String, List<Map<String, Object>>> scanMulti(String start, String end, String patterns, int topN,
+                                                            BooleanSupplier cancelled) {
+        return scan(start, end, resolve(patterns), topN, cancelled);
+    }
+
+    /** 쉼표 구분 패턴 목록 → 검출기 (중복 제거, "all" 은 전체) */
+    public List<PatternDetector> resolve(String patterns) {
+        if (patterns == null || patterns.isBlank() || "all".equalsIgnoreCase(patterns.trim())) {
+            return detectors.names().stream().map(detectors::get).toList();
+        }
+        Map<String, PatternDetector> unique = new LinkedHashMap<>();
+        for (String p : patterns.split(",")) {
+            if (p.isBlank()) continue;
+            PatternDetector d = detectors.get(p);
+            unique.put(d.name(), d);
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("패턴을 하나 이상 지정하세요.");
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private Map<String, List<Map<String, Object>>> scan(String start, String end, List<PatternDetector> list, int topN,
+                                                        BooleanSupplier cancelled) {
+        PriceStoreSnapshot snap = priceStore.current();
+        if (snap == null) {
+            throw new IllegalStateException("가격 데이터가 아직 메모리에 적재되지 않았습니다.");
+        }
+        int startDay = PriceSeries.toEpochDay(start);
+        int endDay = PriceSeries.toEpochDay(end);
+        PatternDetector[] ds = list.toArray(new PatternDetector[0]);
+
+        long t0 = System.currentTimeMillis();
+        int count = snap.symbolCount();
+        int chunks = Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors() * 4));
+        TopKCollector[] tops = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    TopKCollector[] local = newCollectors(ds.length, topN);
+                    PatternWindow w = windows.get();
+                    for (int i = c; i < count; i += chunks) {
+                        if (cancelled.getAsBoolean()) {
+                            throw new CancellationException("차트 패턴 스캔 취소됨");
+                        }
+                        int from = snap.lowerBound(i, startDay);
+                        int to = snap.upperBound(i, endDay);
+                        if (to - from < MIN_LENGTH || !w.load(snap, from, to)) continue;
+                        double score = Double.NaN;
+                        for (int j = 0; j < ds.length; j++) {
+                            if (!ds[j].matches(w)) continue;
+                            if (Double.isNaN(score)) {
+                                score = (to - from >= VOLATILITY_WINDOW)
+                                        ? snap.volatility(to - 1)
+                                        : w.recentStd(VOLATILITY_WINDOW);
+                            }
+                            local[j].offer(score, i);
+                        }
+                    }
+                    return local;
+                })
+                .reduce(newCollectors(ds.length, topN), (a, b) -> {
+                    TopKCollector[] m = newCollectors(ds.length, topN);
+                    for (int j = 0; j < ds.length; j++) {
+                        m[j].merge(a[j]);
+                        m[j].merge(b[j]);
+                    }
+                    return m;
+                });
+
+        Map<String, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        for (int j = 0; j < ds.length; j++) {
+            int[] idx = tops[j].indices();
+            List<Map<String, Object>> rows = new ArrayList<>(idx.length);
+            for (int i : idx) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("symbol", snap.symbol(i));
+                row.put("name", snap.name(i));
+                row.put("patterns", List.of(ds[j].name()));
+                rows.add(row);
+            }
+            results.put(ds[j].name(), rows);
+        }
+        log.info("차트 패턴 스캔 완료({}): {}~{}, {}ms", results.keySet(), start, end, System.currentTimeMillis() - t0);
+        return results;
+    }
+
+    private static TopKCollector[] newCollectors(int n, int topN) {
+        TopKCollector[] c = new TopKCollector[n];
+        for (int j = 0; j < n; j++) c[j] = new TopKCollector(topN);
+        return c;
+    }
+}
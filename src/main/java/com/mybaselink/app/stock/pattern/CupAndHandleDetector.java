@@ -0,0 +1,38 @@
+package com.mybaselink.app.stock.pattern;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * cup_and_handle (간단 휴리스틱)
+ * - 40개 이상, 뒤쪽 절반의 마지막 종가가 뒤쪽 절반 중앙값 이상 (U자 회복)
+ * - 마지막 max(5, n/10) 구간 고점 대비 마지막 종가 되돌림 2~8% (핸들)
+ * 스크립트의 "최저가 <= 25분위수" 조건은 항상 성립하므로 계산하지 않음
+ */
+@Component
+public class CupAndHandleDetector implements PatternDetector {
+
+    @Override
+    public String name() {
+        return "cup_and_handle";
+    }
+
+    @Override
+    public boolean matches(PatternWindow w) {
+        int n = w.length();
+        if (n < 40) return false;
+
+        int half = n / 2;
+        int m = n - half;
+        double last = w.close(n - 1);
+        double[] right = w.copyTail(half);
+        Arrays.sort(right, 0, m);
+        double median = (m % 2 == 1) ? right[m / 2] : (right[m / 2 - 1] + right[m / 2]) / 2.0;
+        if (last < median) return false;
+
+        double tailMax = w.max(n - Math.max(5, n / 10), n - 1);
+        double drop = (tailMax - last) / Math.max(tailMax, 1e-9);
+        return drop >= 0.02 && drop <= 0.08;
+    }
+}
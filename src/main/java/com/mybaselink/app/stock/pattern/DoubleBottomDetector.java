@@ -0,0 +1,28 @@
+package com.mybaselink.app.stock.pattern;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * double_bottom: 이웃한 두 저점 높이 차 3% 이내, 사이 고점이 높은 저점보다 5% 이상 높음
+ */
+@Component
+public class DoubleBottomDetector implements PatternDetector {
+
+    @Override
+    public String name() {
+        return "double_bottom";
+    }
+
+    @Override
+    public boolean matches(PatternWindow w) {
+        for (int k = 0; k + 1 < w.troughCount(); k++) {
+            int t1 = w.trough(k), t2 = w.trough(k + 1);
+            double v1 = w.close(t1), v2 = w.close(t2);
+            if (v1 == 0) continue;
+            if (Math.abs(v1 - v2) / Math.max(v1, 1e-9) <= 0.03 && w.max(t1, t2) > Math.max(v1, v2) * 1.05) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
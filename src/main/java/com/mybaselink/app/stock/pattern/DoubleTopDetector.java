@@ -0,0 +1,28 @@
+package com.mybaselink.app.stock.pattern;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * double_top: 이웃한 두 고점 높이 차 3% 이내, 사이 저점이 낮은 고점보다 5% 이상 낮음
+ */
+@Component
+public class DoubleTopDetector implements PatternDetector {
+
+    @Override
+    public String name() {
+        return "double_top";
+    }
+
+    @Override
+    public boolean matches(PatternWindow w) {
+        for (int k = 0; k + 1 < w.peakCount(); k++) {
+            int p1 = w.peak(k), p2 = w.peak(k + 1);
+            double v1 = w.close(p1), v2 = w.close(p2);
+            if (v1 == 0) continue;
+            if (Math.abs(v1 - v2) / v1 <= 0.03 && w.min(p1, p2) < Math.min(v1, v2) * 0.95) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mybaselink.app.stock.pattern;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * head_and_shoulders: 연속 세 고점 중 가운데(머리)가 양쪽보다 3% 이상 높고,
+ * 양어깨 높이 차가 머리 대비 10% 미만
+ */
+@Component
+public class HeadAndShouldersDetector implements PatternDetector {
+
+    @Override
+    public String name() {
+        return "head_and_shoulders";
+    }
+
+    @Override
+    public boolean matches(PatternWindow w) {
+        for (int k = 0; k + 2 < w.peakCount(); k++) {
+            double l = w.close(w.peak(k)), h = w.close(w.peak(k + 1)), r = w.close(w.peak(k + 2));
+            if (h > l * 1.03 && h > r * 1.03 && Math.abs(l - r) / Math.max(h, 1e-9) < 0.1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mybaselink.app.stock.pattern;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * inverse_head_and_shoulders: 연속 세 저점 중 가운데(머리)가 양쪽보다 3% 이상 낮고,
+ * 양어깨 높이 차가 머리 대비 10% 미만
+ */
+@Component
+public class InverseHeadAndShouldersDetector implements PatternDetector {
+
+    @Override
+    public String name() {
+        return "inverse_head_and_shoulders";
+    }
+
+    @Override
+    public boolean matches(PatternWindow w) {
+        for (int k = 0; k + 2 < w.troughCount(); k++) {
+            double l = w.close(w.trough(k)), h = w.close(w.trough(k + 1)), r = w.close(w.trough(k + 2));
+            if (h < l * 0.97 && h < r * 0.97 && Math.abs(l - r) / Math.max(h, 1e-9) < 0.1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package com.mybaselink.app.stock.pattern;
+
+/**
+ * 차트 패턴 검출기 SPI
+ * --------------------------------------------------------
+ * - name() 은 API 의 pattern 파라미터 값
+ * - 입력 구간은 결측 없는 종가 30개 이상 (미만이면 호출되지 않음)
+ * - 극점은 PatternWindow 에서 미리 계산된 값을 사용, 검출 중 메모리 할당 금지
+ * - 구현체는 @Component 로 등록하면 PatternDetectors 에 자동 등록
+ * --------------------------------------------------------
+ */
+public interface PatternDetector {
+
+    /** pattern 파라미터 값 */
+    String name();
+
+    boolean matches(PatternWindow w);
+}
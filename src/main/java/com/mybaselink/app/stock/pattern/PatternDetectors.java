@@ -0,0 +1,37 @@
+package com.mybaselink.app.stock.pattern;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 등록된 PatternDetector 조회 (pattern 파라미터 → 구현체)
+ */
+@Component
+public class PatternDetectors {
+
+    private final Map<String, PatternDetector> detectors = new LinkedHashMap<>();
+
+    public PatternDetectors(List<PatternDetector> registered) {
+        for (PatternDetector d : registered) {
+            detectors.put(d.name().toLowerCase(Locale.ROOT), d);
+        }
+    }
+
+    /** @throws IllegalArgumentException 지원하지 않는 pattern */
+    public PatternDetector get(String pattern) {
+        PatternDetector d = pattern == null ? null : detectors.get(pattern.trim().toLowerCase(Locale.ROOT));
+        if (d == null) {
+            throw new IllegalArgumentException("지원하지 않는 패턴입니다: " + pattern + " (지원: " + detectors.keySet() + ")");
+        }
+        return d;
+    }
+
+    public Set<String> names() {
+        return detectors.keySet();
+    }
+}
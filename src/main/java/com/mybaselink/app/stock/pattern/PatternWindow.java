@@ -0,0 +1,94 @@
+package com.mybaselink.app.stock.pattern;
+
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+
+/**
+ * 패턴 검출 대상 구간 (종목 1개, 스레드별 재사용)
+ * --------------------------------------------------------
+ * - [start, end] 종가를 원시 배열로 복사하고 로컬 극점(peak/trough)을 한 번만 계산
+ * - 모든 PatternDetector 가 같은 극점 목록을 공유
+ * - 극점 규칙은 find_chart_patterns.py local_extrema 와 동일 (양 이웃보다 엄격히 크거나 작음)
+ * --------------------------------------------------------
+ */
+public final class PatternWindow {
+
+    private double[] close = new double[0];
+    private int[] peaks = new int[0];
+    private int[] troughs = new int[0];
+    private double[] work = new double[0];
+    private int length;
+    private int peakCount;
+    private int troughCount;
+
+    /**
+     * 종목 i 의 [fromRow, toRow) 종가 적재
+     * @return 비어 있거나 결측 종가가 있으면 false (스크립트와 동일하게 검출 대상 제외)
+     */
+    boolean load(PriceStoreSnapshot snap, int fromRow, int toRow) {
+        int n = toRow - fromRow;
+        if (n <= 0) return false;
+        if (close.length < n) {
+            close = new double[n];
+            peaks = new int[n];
+            troughs = new int[n];
+        }
+        snap.copyClose(fromRow, toRow, close, 0);
+        for (int k = 0; k < n; k++) {
+            if (Double.isNaN(close[k])) return false;
+        }
+        length = n;
+
+        peakCount = 0;
+        troughCount = 0;
+        for (int k = 1; k < n - 1; k++) {
+            double c = close[k], l = close[k - 1], r = close[k + 1];
+            if (c > l && c > r) peaks[peakCount++] = k;
+            if (c < l && c < r) troughs[troughCount++] = k;
+        }
+        return true;
+    }
+
+    public int length() { return length; }
+    public double close(int k) { return close[k]; }
+    public int peakCount() { return peakCount; }
+    public int peak(int k) { return peaks[k]; }
+    public int troughCount() { return troughCount; }
+    public int trough(int k) { return troughs[k]; }
+
+    /** close[from..to] (양끝 포함) 최솟값 */
+    public double min(int from, int to) {
+        double m = close[from];
+        for (int k = from + 1; k <= to; k++) m = Math.min(m, close[k]);
+        return m;
+    }
+
+    /** close[from..to] (양끝 포함) 최댓값 */
+    public double max(int from, int to) {
+        double m = close[from];
+        for (int k = from + 1; k <= to; k++) m = Math.max(m, close[k]);
+        return m;
+    }
+
+    /** close[from..length) 를 복사한 작업 배열 (정렬 등 파괴적 계산용) */
+    double[] copyTail(int from) {
+        int n = length - from;
+        if (work.length < n) work = new double[Math.max(n, close.length)];
+        System.arraycopy(close, from, work, 0, n);
+        return work;
+    }
+
+    /** 마지막 min(window, length) 종가의 모표준편차 (np.std) */
+    double recentStd(int window) {
+        int from = length - Math.min(window, length);
+        int n = length - from;
+        double mean = 0;
+        for (int k = from; k < length; k++) mean += close[k];
+        mean /= n;
+        double ss = 0;
+        for (int k = from; k < length; k++) {
+            double d = close[k] - mean;
+            ss += d * d;
+        }
+        return Math.sqrt(ss / n);
+    }
+}
@@ -0,0 +1,276 @@
+package com.mybaselink.app.stock.python;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * PythonProcessRunner
+ * --------------------------------------------------------
+ * 서비스 공용 Python 실행기
+ * - runJson: 상주 워커(PythonWorkerPool)에서 스크립트 실행 → 표준 출력을 Jackson 스트리밍 파서로 바로 역직렬화
+ *   (출력을 문자열로 모았다가 readTree 하지 않아 base64 차트 같은 큰 출력도 결과 객체 한 벌만 메모리에 남음)
+ * - runProcess: 별도 프로세스로 실행하며 출력 줄을 실시간 전달 (진행률을 내보내는 장시간 배치용)
+ * - 표준 출력 상한(python.runner.max-output-mb, 인코딩된 바이트 기준) 초과 시 읽지 않고 실패 처리
+ * - 표준 에러는 작업별 최근 N줄(python.runner.stderr-lines) 원형 버퍼로 보관 → 결과·오류 메시지에 포함
+ * - 출력 읽기 스레드와 제한 시간 감시 스케줄러는 모든 실행이 공유 (호출마다 스레드 풀을 만들지 않음)
+ * --------------------------------------------------------
+ */
+@Component
+public class PythonProcessRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonProcessRunner.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String pythonExe;
+    private final long maxOutputBytes;
+    private final int stderrLines;
+
+    private final ExecutorService readers = Executors.newCachedThreadPool(daemon("python-io-"));
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(daemon("python-watchdog-"));
+    private final PythonWorkerPool workers;
+    /** 작업 id → runProcess 로 실행 중인 프로세스 (취소용) */
+    private final Map<String, Process> processes = new ConcurrentHashMap<>();
+
+    /**
+     * 실행 결과
+     * @param exitCode 종료 코드 (!= 0 이면 sys.exit(n) 또는 처리되지 않은 예외)
+     * @param value    표준 출력 읽기 결과 (exit 0 이 아니거나 출력이 비어 있으면 null)
+     * @param stderr   이 작업의 최근 표준 에러 줄 (runProcess 는 병합된 출력의 최근 줄)
+     */
+    public record PythonResult<T>(int exitCode, T value, List<String> stderr) {
+
+        /** 마지막 표준 에러 줄 (처리되지 않은 예외면 예외 메시지 줄, 없으면 null) */
+        public String lastStderr() {
+            for (int i = stderr.size() - 1; i >= 0; i--) {
+                if (!stderr.get(i).isBlank()) return stderr.get(i).trim();
+            }
+            return null;
+        }
+    }
+
+    public PythonProcessRunner(@Value("${python.executable.path:python}") String pythonExe,
+                               @Value("${python.worker.script:}") String workerScript,
+                               @Value("${python.worker.size:2}") int size,
+                               @Value("${python.worker.max-jobs:50}") int maxJobs,
+                               @Value("${python.worker.startup-timeout-seconds:60}") long startupTimeoutSeconds,
+                               @Value("${python.worker.preload:pandas,numpy,matplotlib.pyplot}") String preload,
+                               @Value("${python.runner.max-output-mb:64}") int maxOutputMb,
+                               @Value("${python.runner.stderr-lines:200}") int stderrLines) {
+        this.pythonExe = pythonExe;
+        this.maxOutputBytes = Math.max(1, maxOutputMb) * 1024L * 1024L;
+        this.stderrLines = Math.max(1, stderrLines);
+        if (workerScript == null || workerScript.isBlank()) {
+            throw new IllegalStateException("python.worker.script 가 설정되지 않았습니다 (python_worker.py 경로).");
+        }
+        this.workers = new PythonWorkerPool(mapper, pythonExe, workerScript, size, maxJobs, startupTimeoutSeconds,
+                preload, this.stderrLines, readers, watchdog);
+    }
+
+    /**
+     * 상주 워커에서 스크립트 실행 후 표준 출력(JSON 1개)을 type 으로 역직렬화
+     * @return 역직렬화 결과 (출력이 비어 있으면 null)
+     * @throws IllegalStateException 종료 코드가 0 이 아닐 때 (메시지에 마지막 stderr 줄 포함)
+     */
+    public <T> T runJson(String jobId, File directory, String script, List<String> args, long timeoutSeconds,
+                         Class<T> type) throws IOException, InterruptedException, TimeoutException {
+        return runJson(jobId, directory, script, args, timeoutSeconds, mapper.constructType(type));
+    }
+
+    public <T> T runJson(String jobId, File directory, String script, List<String> args, long timeoutSeconds,
+                         TypeReference<T> type) throws IOException, InterruptedException, TimeoutException {
+        return runJson(jobId, directory, script, args, timeoutSeconds, mapper.getTypeFactory().constructType(type));
+    }
+
+    private <T> T runJson(String jobId, File directory, String script, List<String> args, long timeoutSeconds,
+                          JavaType type) throws IOException, InterruptedException, TimeoutException {
+        PythonResult<T> result = workers.run(jobId, directory, script, args, timeoutSeconds, maxOutputBytes,
+                out -> readJson(out, type));
+        if (result.exitCode() != 0) throw failure(result);
+        return result.value();
+    }
+
+    /** 상주 워커에서 스크립트 실행 후 표준 출력을 문자열로 (로그성 출력용, 종료 코드는 호출 측이 판단) */
+    public PythonResult<String> runText(String jobId, File directory, String script, List<String> args,
+                                        long timeoutSeconds) throws IOException, InterruptedException, TimeoutException {
+        return workers.run(jobId, directory, script, args, timeoutSeconds, maxOutputBytes,
+                out -> new String(out.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 별도 프로세스로 실행하며 출력 줄(표준 에러 병합)을 onLine 으로 실시간 전달
+     * - 출력 누적 크기가 상한을 넘으면 프로세스 종료 후 IOException
+     * - cancel(jobId) 로 종료되면 CancellationException
+     * @param command python 실행 파일을 제외한 인수 ("-u", 스크립트 경로, 스크립트 인수 ...)
+     */
+    public PythonResult<Void> runProcess(String jobId, List<String> command, File directory, long timeoutSeconds,
+                                         Consumer<String> onLine) throws IOException, InterruptedException, TimeoutException {
+        List<String> cmd = new ArrayList<>(command.size() + 1);
+        cmd.add(pythonExe);
+        cmd.addAll(command);
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        if (directory != null) pb.directory(directory);
+        pb.redirectErrorStream(true);
+        pb.environment().put("PYTHONUNBUFFERED", "1");
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+
+        Process process = pb.start();
+        if (jobId != null) processes.put(jobId, process);
+        StderrRing tail = new StderrRing(stderrLines);
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        ScheduledFuture<?> guard = watchdog.schedule(() -> {
+            timedOut.set(true);
+            destroy(process);
+        }, timeoutSeconds, TimeUnit.SECONDS);
+        try {
+            // 상한은 디코딩 전 바이트로 셈 (줄바꿈 없는 긴 출력도 상한에서 끊김, 초과 시 finally 에서 프로세스 종료)
+            InputStream out = new CappedInputStream(process.getInputStream(), maxOutputBytes);
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(out, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    tail.add(line);
+                    onLine.accept(line);
+                }
+            } catch (IOException e) {
+                // 시간 초과·취소로 프로세스를 종료하면 읽던 스트림이 닫혀 IOException 이 날 수 있음 → 원래 사유로 보고
+                checkStopped(jobId, process, timedOut);
+                throw e;
+            }
+            int exit = process.waitFor();
+            checkStopped(jobId, process, timedOut);
+            return new PythonResult<>(exit, null, tail.since(0));
+        } finally {
+            guard.cancel(false);
+            if (jobId != null) processes.remove(jobId, process);
+            if (process.isAlive()) destroy(process);
+        }
+    }
+
+    /** 시간 초과 → TimeoutException, cancel(jobId) 로 종료 → CancellationException */
+    private void checkStopped(String jobId, Process process, AtomicBoolean timedOut) throws TimeoutException {
+        if (timedOut.get()) throw new TimeoutException("Python 실행 시간 초과");
+        if (jobId != null && processes.get(jobId) != process) {
+            throw new CancellationException("Python 작업이 취소되었습니다.");
+        }
+    }
+
+    /** 작업 취소 (상주 워커 또는 별도 프로세스 강제 종료) */
+    public boolean cancel(String jobId) {
+        if (jobId == null) return false;
+        if (workers.cancel(jobId)) return true;
+        Process process = processes.remove(jobId);
+        if (process == null) return false;
+        log.warn("[{}] 취소 요청 → Python 프로세스 강제 종료", jobId);
+        destroy(process);
+        return true;
+    }
+
+    /** 실행 중인 작업인지 */
+    public boolean isRunning(String jobId) {
+        return workers.isRunning(jobId) || processes.containsKey(jobId);
+    }
+
+    /** 표준 출력 JSON 1개를 스트리밍 파싱 (빈 출력이면 null) */
+    private <T> T readJson(InputStream out, JavaType type) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(out)) {
+            if (parser.nextToken() == null) return null;
+            return mapper.readValue(parser, type);
+        }
+    }
+
+    private static IllegalStateException failure(PythonResult<?> result) {
+        String last = result.lastStderr();
+        return new IllegalStateException("Python 비정상 종료(exit=" + result.exitCode() + ")"
+                + (last != null ? ": " + last : ""));
+    }
+
+    /** 읽은 바이트가 상한을 넘으면 IOException 을 던지는 스트림 */
+    private static final class CappedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        CappedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Python 출력이 상한(" + limit + " bytes)을 초과했습니다.");
+            }
+        }
+    }
+
+    private static void destroy(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** 쉬고 있는 워커 상태 확인 */
+    @Scheduled(fixedDelayString = "${python.worker.health-check-ms:60000}")
+    public void healthCheck() {
+        workers.healthCheck();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        processes.values().forEach(PythonProcessRunner::destroy);
+        watchdog.shutdownNow();
+        readers.shutdownNow();
+    }
+}
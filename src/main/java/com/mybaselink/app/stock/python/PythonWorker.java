@@ -0,0 +1,300 @@
+package com.mybaselink.app.stock.python;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PythonWorker
+ * --------------------------------------------------------
+ * python_worker.py 상주 프로세스 1개
+ * - 요청 1줄 쓰기 → 응답 헤더 1줄 + 본문(size 바이트) 읽기 (한 번에 작업 1개, 풀이 배타적으로 대여)
+ * - 본문은 문자열로 모으지 않고 길이 제한 스트림 그대로 OutputReader 에 넘김 (Jackson 스트리밍 파싱)
+ * - 응답은 호출 스레드가 직접 읽고, 제한 시간은 공용 감시 스케줄러가 프로세스를 종료시켜 끊음
+ * - 표준 에러(스크립트 로그)는 공용 읽기 스레드가 로그 + 원형 버퍼(StderrRing)로 보냄
+ * --------------------------------------------------------
+ */
+final class PythonWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonWorker.class);
+
+    /** 워커가 요청 처리 후 표준 에러에 쓰는 표식 (이 줄까지 읽히면 해당 작업의 stderr 수집 완료) */
+    private static final String DONE_MARK = "\u0000done:";
+    private static final long STDERR_FLUSH_MILLIS = 1000;
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    /** 응답 본문 읽기 (exit 0 일 때만 호출, out 은 본문 길이까지만 읽히고 close 해도 워커 스트림은 유지) */
+    @FunctionalInterface
+    interface OutputReader<T> {
+        T read(InputStream out) throws IOException;
+    }
+
+    /** 응답 헤더 + 본문 읽기 결과 + 이 작업 동안의 stderr */
+    record Reply<T>(JsonNode header, T value, List<String> stderr) {
+    }
+
+    private final int no;
+    private final Process process;
+    private final BufferedWriter stdin;
+    private final InputStream stdout;
+    private final ObjectMapper mapper;
+    private final ScheduledExecutorService watchdog;
+    private final StderrRing stderr;
+
+    private final Object doneLock = new Object();
+    private String lastDone;
+
+    private volatile String currentJob;
+    private volatile boolean timedOut;
+    private int jobs;
+
+    private PythonWorker(int no, Process process, ObjectMapper mapper, ScheduledExecutorService watchdog, int stderrLines) {
+        this.no = no;
+        this.process = process;
+        this.mapper = mapper;
+        this.watchdog = watchdog;
+        this.stderr = new StderrRing(stderrLines);
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.stdout = new BufferedInputStream(process.getInputStream(), 64 * 1024);
+    }
+
+    /** 프로세스 시작 후 {"ready": true} 응답까지 대기 */
+    static PythonWorker start(int no, ProcessBuilder pb, ObjectMapper mapper, long startupTimeoutSeconds,
+                              ExecutorService readers, ScheduledExecutorService watchdog, int stderrLines)
+            throws IOException, TimeoutException {
+        PythonWorker worker = new PythonWorker(no, pb.start(), mapper, watchdog, stderrLines);
+        readers.execute(worker::pumpStderr);
+        ScheduledFuture<?> guard = worker.guard(startupTimeoutSeconds);
+        try {
+            JsonNode ready = worker.readHeader();
+            if (!ready.path("ready").asBoolean(false)) {
+                throw new IOException("Python 워커 기동 응답이 올바르지 않습니다: " + ready);
+            }
+            log.info("Python 워커 #{} 기동 (pid {})", no, ready.path("pid").asLong(worker.process.pid()));
+            return worker;
+        } catch (IOException e) {
+            worker.kill();
+            if (worker.timedOut) throw new TimeoutException("Python 워커 기동 시간 초과");
+            throw e;
+        } finally {
+            guard.cancel(false);
+        }
+    }
+
+    private void pumpStderr() {
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.startsWith(DONE_MARK)) {
+                    synchronized (doneLock) {
+                        lastDone = line.substring(DONE_MARK.length());
+                        doneLock.notifyAll();
+                    }
+                    continue;
+                }
+                String job = currentJob;
+                stderr.add(line);
+                log.info("[Python][{}] {}", job != null ? job : "worker-" + no, line);
+            }
+        } catch (IOException ignored) {
+            // 프로세스 종료
+        }
+    }
+
+    /**
+     * 요청 1건 전송 후 같은 id 응답 대기
+     * @param maxOutputBytes 본문 상한 (초과 시 읽지 않고 IOException → 호출 측이 워커 폐기)
+     * @param reader         본문 읽기 (null 이면 건너뜀)
+     */
+    <T> Reply<T> call(String jobId, JsonNode request, long timeoutSeconds, long maxOutputBytes, OutputReader<T> reader)
+            throws IOException, InterruptedException, TimeoutException {
+        currentJob = jobId;
+        long mark = stderr.mark();
+        ScheduledFuture<?> guard = guard(timeoutSeconds);
+        try {
+            stdin.write(mapper.writeValueAsString(request));
+            stdin.newLine();
+            stdin.flush();
+
+            JsonNode header;
+            while (true) {
+                header = readHeader();
+                if (jobId.equals(header.path("id").asText(null))) break;
+                log.warn("Python 워커 #{} 응답 id 불일치 (기대 {}): {}", no, jobId, header);
+                new Payload(stdout, header.path("size").asLong(0)).drain();
+            }
+
+            long size = header.path("size").asLong(0);
+            if (size > maxOutputBytes) {
+                throw new IOException("Python 출력이 상한(" + maxOutputBytes + " bytes)을 초과했습니다 (" + size + " bytes)");
+            }
+            T value = null;
+            Payload body = new Payload(stdout, size);
+            if (reader != null && header.path("exit").asInt(1) == 0) value = reader.read(body);
+            body.drain();
+
+            awaitStderr(jobId);
+            return new Reply<>(header, value, stderr.since(mark));
+        } catch (IOException e) {
+            if (timedOut) throw new TimeoutException("Python 워커 응답 시간 초과");
+            throw e;
+        } finally {
+            guard.cancel(false);
+            currentJob = null;
+        }
+    }
+
+    /** 제한 시간이 지나면 프로세스를 종료시켜 막혀 있는 읽기를 끊음 */
+    private ScheduledFuture<?> guard(long timeoutSeconds) {
+        timedOut = false;
+        return watchdog.schedule(() -> {
+            timedOut = true;
+            kill();
+        }, timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /** 응답 헤더 1줄 (본문 크기 포함, 본문이 있으면 헤더 뒤에 size 바이트 + 줄바꿈) */
+    private JsonNode readHeader() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = stdout.read()) != '\n') {
+            if (b < 0) throw new IOException("Python 워커가 종료되었습니다 (exit=" + exitValueOrNull() + ")");
+            if (line.size() >= MAX_HEADER_BYTES) throw new IOException("Python 워커 응답 헤더가 너무 깁니다.");
+            line.write(b);
+        }
+        return mapper.readTree(line.toByteArray());
+    }
+
+    /** 작업 stderr 가 모두 읽힐 때까지 잠시 대기 (표식을 못 보면 그때까지 읽힌 줄만 사용) */
+    private void awaitStderr(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + STDERR_FLUSH_MILLIS;
+        synchronized (doneLock) {
+            while (!jobId.equals(lastDone)) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) return;
+                doneLock.wait(left);
+            }
+        }
+    }
+
+    private Integer exitValueOrNull() {
+        try {
+            process.waitFor(1, TimeUnit.SECONDS);
+            return process.isAlive() ? null : process.exitValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    int no() {
+        return no;
+    }
+
+    int jobs() {
+        return jobs;
+    }
+
+    void countJob() {
+        jobs++;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /** 정상 종료 요청 (표준 입력 닫기 → 워커 루프 종료), 유예 후에도 살아 있으면 강제 종료 */
+    void retire() {
+        try {
+            stdin.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) kill();
+        } catch (IOException e) {
+            kill();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            kill();
+        }
+    }
+
+    /** 강제 종료 (스크립트가 띄운 자식 프로세스 포함) */
+    void kill() {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /** 응답 본문: size 바이트 + 줄바꿈 1개까지만 읽히는 스트림 (close 는 원 스트림을 닫지 않음) */
+    private static final class Payload extends InputStream {
+        private final InputStream in;
+        private long left;
+        private boolean terminated;
+
+        Payload(InputStream in, long size) {
+            this.in = in;
+            this.left = Math.max(0, size);
+            this.terminated = size <= 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (left <= 0) return -1;
+            int b = in.read();
+            if (b < 0) throw new EOFException("Python 출력이 중간에 끊겼습니다.");
+            left--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (left <= 0) return -1;
+            int n = in.read(buf, off, (int) Math.min(len, left));
+            if (n < 0) throw new EOFException("Python 출력이 중간에 끊겼습니다.");
+            left -= n;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), left);
+        }
+
+        /** 읽지 않은 나머지와 끝 줄바꿈 버림 (다음 응답 헤더 위치로 이동) */
+        void drain() throws IOException {
+            while (left > 0) {
+                long skipped = in.skip(left);
+                if (skipped <= 0) {
+                    if (in.read() < 0) throw new EOFException("Python 출력이 중간에 끊겼습니다.");
+                    skipped = 1;
+                }
+                left -= skipped;
+            }
+            if (!terminated) {
+                terminated = true;
+                if (in.read() != '\n') throw new IOException("Python 워커 응답 형식 오류 (본문 끝 줄바꿈 없음)");
+            }
+        }
+
+        @Override
+        public void close() {
+            // 워커 표준 출력은 다음 응답에 계속 사용
+        }
+    }
+}
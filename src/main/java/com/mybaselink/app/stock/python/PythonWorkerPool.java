@@ -0,0 +1,207 @@
+package com.mybaselink.app.stock.python;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PythonWorkerPool
+ * --------------------------------------------------------
+ * 상주 Python 워커(python_worker.py) 풀 (PythonProcessRunner 내부용)
+ * - 요청마다 인터프리터를 새로 띄우지 않고 pandas/matplotlib 등을 미리 import 한 워커에서 스크립트 실행
+ *   → 기동·import 비용(수 초)이 첫 기동 1회로 줄어 작업 시작이 밀리초 단위
+ * - 워커 수 상한 = python.worker.size, 모두 사용 중이면 작업 제한 시간 안에서 대기
+ * - 워커는 필요할 때 기동, max-jobs 건 처리 후 교체 (스크립트 전역 상태·메모리 누적 방지)
+ * - 작업 제한 시간 초과·취소·출력 상한 초과 시 해당 워커(자식 프로세스 포함)를 강제 종료하고 폐기
+ * - 주기적으로 쉬고 있는 워커에 ping → 응답 없으면 폐기 (다음 작업 때 새로 기동)
+ * --------------------------------------------------------
+ */
+final class PythonWorkerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonWorkerPool.class);
+
+    private static final long PING_TIMEOUT_SECONDS = 5;
+
+    private final ObjectMapper mapper;
+    private final String pythonExe;
+    private final String workerScript;
+    private final String preload;
+    private final int maxJobs;
+    private final long startupTimeoutSeconds;
+    private final int stderrLines;
+    private final ExecutorService readers;
+    private final ScheduledExecutorService watchdog;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PythonWorker> idle = new ConcurrentLinkedDeque<>();
+    /** 작업 id → 실행 중인 워커 (취소용) */
+    private final Map<String, PythonWorker> running = new ConcurrentHashMap<>();
+    private final AtomicInteger workerSeq = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    PythonWorkerPool(ObjectMapper mapper, String pythonExe, String workerScript, int size, int maxJobs,
+                     long startupTimeoutSeconds, String preload, int stderrLines,
+                     ExecutorService readers, ScheduledExecutorService watchdog) {
+        this.mapper = mapper;
+        this.pythonExe = pythonExe;
+        this.workerScript = workerScript;
+        this.permits = new Semaphore(Math.max(1, size), true);
+        this.maxJobs = Math.max(1, maxJobs);
+        this.startupTimeoutSeconds = Math.max(1, startupTimeoutSeconds);
+        this.preload = preload == null ? "" : preload;
+        this.stderrLines = stderrLines;
+        this.readers = readers;
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * 스크립트 1건 실행
+     * @param jobId          작업 id (로그·취소 키, 보통 taskId)
+     * @param directory      작업 디렉터리 (null 이면 워커 기본 디렉터리)
+     * @param script         실행할 .py 경로
+     * @param args           명령행 인수 (sys.argv[1:])
+     * @param timeoutSeconds 워커 대기 + 실행 제한 시간
+     * @param maxOutputBytes 표준 출력 상한
+     * @param reader         표준 출력 읽기 (exit 0 일 때만 호출)
+     */
+    <T> PythonProcessRunner.PythonResult<T> run(String jobId, File directory, String script, List<String> args,
+                                                long timeoutSeconds, long maxOutputBytes,
+                                                PythonWorker.OutputReader<T> reader)
+            throws IOException, InterruptedException, TimeoutException {
+        String id = (jobId == null || jobId.isBlank()) ? UUID.randomUUID().toString() : jobId;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        if (!permits.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+            throw new TimeoutException("Python 워커 대기 시간 초과 (모든 워커 사용 중)");
+        }
+        PythonWorker worker = null;
+        boolean healthy = false;
+        try {
+            worker = borrow();
+            running.put(id, worker);
+
+            ObjectNode request = mapper.createObjectNode();
+            request.put("id", id);
+            request.put("op", "run");
+            request.put("script", script);
+            request.putPOJO("args", args);
+            if (directory != null) request.put("cwd", directory.getAbsolutePath());
+
+            long left = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(deadline - System.currentTimeMillis()));
+            long t0 = System.currentTimeMillis();
+            PythonWorker.Reply<T> reply;
+            try {
+                reply = worker.call(id, request, left, maxOutputBytes, reader);
+            } catch (IOException e) {
+                if (running.get(id) != worker) throw new CancellationException("Python 작업이 취소되었습니다.");
+                throw e;
+            }
+            worker.countJob();
+            healthy = true;
+            int exit = reply.header().path("exit").asInt(1);
+            log.info("[{}] Python 워커 #{} 실행 완료: {} (exit={}, {} bytes, {}ms)", id, worker.no(),
+                    new File(script).getName(), exit, reply.header().path("size").asLong(0),
+                    System.currentTimeMillis() - t0);
+            if (reply.header().has("error")) {
+                throw new IOException("Python 워커 오류: " + reply.header().get("error").asText());
+            }
+            return new PythonProcessRunner.PythonResult<>(exit, reply.value(), reply.stderr());
+        } finally {
+            if (worker != null) {
+                running.remove(id, worker);
+                release(worker, healthy);
+            }
+            permits.release();
+        }
+    }
+
+    /** 작업 취소: 실행 중인 워커를 강제 종료 (대기 중인 run() 은 CancellationException) */
+    boolean cancel(String jobId) {
+        PythonWorker worker = running.remove(jobId);
+        if (worker == null) return false;
+        log.warn("[{}] 취소 요청 → Python 워커 #{} 강제 종료", jobId, worker.no());
+        worker.kill();
+        return true;
+    }
+
+    /** 실행 중인 작업인지 */
+    boolean isRunning(String jobId) {
+        return running.containsKey(jobId);
+    }
+
+    private PythonWorker borrow() throws IOException, TimeoutException {
+        PythonWorker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            if (worker.isAlive()) return worker;
+            log.warn("Python 워커 #{} 가 종료되어 폐기합니다.", worker.no());
+        }
+        return spawn();
+    }
+
+    private void release(PythonWorker worker, boolean healthy) {
+        if (!healthy || !worker.isAlive()) {
+            worker.kill();
+        } else if (closed || worker.jobs() >= maxJobs) {
+            log.info("Python 워커 #{} 교체 ({}건 처리)", worker.no(), worker.jobs());
+            worker.retire();
+        } else {
+            idle.addFirst(worker);
+        }
+    }
+
+    private PythonWorker spawn() throws IOException, TimeoutException {
+        if (closed) throw new IllegalStateException("Python 워커 풀이 종료되었습니다.");
+        File script = new File(workerScript);
+        ProcessBuilder pb = new ProcessBuilder(pythonExe, "-u", script.getAbsolutePath());
+        if (script.getParentFile() != null) pb.directory(script.getParentFile());
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+        pb.environment().put("PYTHONUNBUFFERED", "1");
+        pb.environment().put("PY_WORKER_PRELOAD", preload);
+        return PythonWorker.start(workerSeq.incrementAndGet(), pb, mapper, startupTimeoutSeconds,
+                readers, watchdog, stderrLines);
+    }
+
+    /** 쉬고 있는 워커 상태 확인 (ping 무응답·종료 시 폐기, 작업과 같은 허가를 받아 워커 수 상한 유지) */
+    void healthCheck() {
+        int count = idle.size();
+        for (int k = 0; k < count && permits.tryAcquire(); k++) {
+            PythonWorker worker = idle.pollLast();
+            try {
+                if (worker == null) break;
+                String id = "ping-" + worker.no();
+                ObjectNode ping = mapper.createObjectNode();
+                ping.put("id", id);
+                ping.put("op", "ping");
+                worker.call(id, ping, PING_TIMEOUT_SECONDS, 0, null);
+                idle.addLast(worker);
+            } catch (Exception e) {
+                log.warn("Python 워커 #{} 상태 확인 실패 → 폐기 ({})", worker.no(), e.getMessage());
+                worker.kill();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    void shutdown() {
+        closed = true;
+        PythonWorker worker;
+        while ((worker = idle.pollFirst()) != null) worker.retire();
+        running.values().forEach(PythonWorker::kill);
+    }
+}
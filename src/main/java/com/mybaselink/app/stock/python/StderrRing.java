@@ -0,0 +1,40 @@
+package com.mybaselink.app.stock.python;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StderrRing
+ * --------------------------------------------------------
+ * Python 표준 에러 최근 N줄 보관 (고정 크기 원형 버퍼)
+ * - 줄 수가 많아도 메모리 일정, 오래된 줄부터 덮어씀
+ * - mark() 이후 줄만 꺼내 작업별 stderr 꼬리로 사용 (상주 워커는 작업마다 mark)
+ * --------------------------------------------------------
+ */
+final class StderrRing {
+
+    private final String[] lines;
+    private long total;
+
+    StderrRing(int capacity) {
+        this.lines = new String[Math.max(1, capacity)];
+    }
+
+    synchronized void add(String line) {
+        lines[(int) (total % lines.length)] = line;
+        total++;
+    }
+
+    /** 지금까지 들어온 줄 수 (since() 기준점) */
+    synchronized long mark() {
+        return total;
+    }
+
+    /** mark 이후 들어온 줄 중 버퍼에 남아 있는 것 (오래된 순) */
+    synchronized List<String> since(long mark) {
+        long from = Math.max(mark, total - lines.length);
+        List<String> out = new ArrayList<>((int) Math.max(0, total - from));
+        for (long k = from; k < total; k++) out.add(lines[(int) (k % lines.length)]);
+        return out;
+    }
+}
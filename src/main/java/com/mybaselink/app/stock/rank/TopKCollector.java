@@ -0,0 +1,145 @@
+package com.mybaselink.app.stock.rank;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * TopKCollector
+ * --------------------------------------------------------
+ * 점수 상위 K 개만 유지하는 고정 크기 최소 힙 (원시 배열, 후보별 객체 할당 없음)
+ * - 점수가 클수록 상위, 같은 점수면 인덱스가 작은 쪽 우선 (정렬 후 슬라이스와 동일한 결과)
+ * - NaN 점수는 무시
+ * - 단일 스레드 전용: 병렬 스캔은 워커별 수집기를 만든 뒤 merge()
+ * 결과 Map 변환은 호출부에서 indices() 로 받은 K 개에 대해서만 수행
+ * --------------------------------------------------------
+ */
+public final class TopKCollector {
+
+    private final int k;
+    private final double[] score;
+    private final int[] index;
+    private int size;
+
+    public TopKCollector(int k) {
+        this.k = Math.max(1, k);
+        this.score = new double[this.k];
+        this.index = new int[this.k];
+    }
+
+    public int capacity() { return k; }
+    public int size() { return size; }
+    public boolean isFull() { return size == k; }
+
+    /** 채택 기준 점수 (가득 찼을 때 K번째 점수, 아니면 -Inf) */
+    public double threshold() {
+        return isFull() ? score[0] : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * 후보 제출
+     * @return 상위 K 에 들어가면 true
+     */
+    public boolean offer(double s, int idx) {
+        if (Double.isNaN(s)) return false;
+        if (size < k) {
+            siftUp(size++, s, idx);
+            return true;
+        }
+        if (!better(s, idx, score[0], index[0])) return false;
+        siftDown(0, s, idx);
+        return true;
+    }
+
+    /** 다른 수집기의 후보를 모두 합침 */
+    public void merge(TopKCollector other) {
+        for (int j = 0; j < other.size; j++) offer(other.score[j], other.index[j]);
+    }
+
+    /** 상위 K 인덱스 (점수 내림차순) */
+    public int[] indices() {
+        int[] order = order();
+        int[] out = new int[size];
+        for (int j = 0; j < size; j++) out[j] = index[order[j]];
+        return out;
+    }
+
+    /** 상위 K 점수 (indices() 와 같은 순서) */
+    public double[] scores() {
+        int[] order = order();
+        double[] out = new double[size];
+        for (int j = 0; j < size; j++) out[j] = score[order[j]];
+        return out;
+    }
+
+    /**
+     * 0 ~ count-1 전체를 병렬로 채점하여 상위 K 수집
+     * - scorer 는 여러 스레드에서 동시에 호출됨 (작업 버퍼는 ThreadLocal 등으로 분리)
+     */
+    public static TopKCollector collect(int count, int k, IntToDoubleFunction scorer) {
+        int chunks = Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors() * 4));
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    TopKCollector local = new TopKCollector(k);
+                    for (int i = c; i < count; i += chunks) {
+                        local.offer(scorer.applyAsDouble(i), i);
+                    }
+                    return local;
+                })
+                .reduce(new TopKCollector(k), (a, b) -> {
+                    TopKCollector m = new TopKCollector(k);
+                    m.merge(a);
+                    m.merge(b);
+                    return m;
+                });
+    }
+
+    // ==================================
+    // 힙 연산 (루트 = 가장 약한 후보)
+    // ==================================
+
+    /** (s1, i1) 이 (s2, i2) 보다 상위인지 */
+    private static boolean better(double s1, int i1, double s2, int i2) {
+        return s1 > s2 || (s1 == s2 && i1 < i2);
+    }
+
+    private void siftUp(int c, double s, int idx) {
+        while (c > 0) {
+            int parent = (c - 1) >>> 1;
+            if (!better(score[parent], index[parent], s, idx)) break;
+            score[c] = score[parent];
+            index[c] = index[parent];
+            c = parent;
+        }
+        score[c] = s;
+        index[c] = idx;
+    }
+
+    private void siftDown(int c, double s, int idx) {
+        while (true) {
+            int l = 2 * c + 1;
+            if (l >= size) break;
+            int r = l + 1;
+            int weak = (r < size && better(score[l], index[l], score[r], index[r])) ? r : l;
+            if (!better(s, idx, score[weak], index[weak])) break;
+            score[c] = score[weak];
+            index[c] = index[weak];
+            c = weak;
+        }
+        score[c] = s;
+        index[c] = idx;
+    }
+
+    /** 힙 위치를 점수 내림차순으로 정렬 (K 개뿐이므로 삽입 정렬) */
+    private int[] order() {
+        int[] order = new int[size];
+        for (int j = 0; j < size; j++) {
+            int p = j;
+            while (p > 0 && better(score[j], index[j], score[order[p - 1]], index[order[p - 1]])) {
+                order[p] = order[p - 1];
+                p--;
+            }
+            order[p] = j;
+        }
+        return order;
+    }
+}
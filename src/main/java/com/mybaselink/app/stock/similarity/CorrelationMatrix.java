@@ -0,0 +1,94 @@
+package com.mybaselink.app.stock.similarity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * CorrelationMatrix
+ * --------------------------------------------------------
+ * 표준 구간 1개에 대한 전 종목 × 전 종목 유사도 행렬 (float32, 메모리 매핑 읽기 전용)
+ * - 행 i = 종목 i 를 기준으로 한 findSimilar 점수 (자기 자신·조건 미달은 NaN)
+ * - 파일 형식 (little-endian)
+ *   [0]  int   MAGIC ("CORR")
+ *   [4]  int   FORMAT
+ *   [8]  int   구간 시작일 (epochDay)
+ *   [12] int   구간 종료일 (epochDay)
+ *   [16] int   종목 수 n
+ *   [20] int   예약
+ *   [24] long  구간 데이터 지문 (종목 순서 + 구간 날짜/종가, 스냅샷과 일치할 때만 사용)
+ *   [32] float n × n (행 우선)
+ * --------------------------------------------------------
+ */
+final class CorrelationMatrix {
+
+    static final int MAGIC = 0x434F5252;
+    static final int FORMAT = 1;
+    static final int HEADER = 32;
+
+    final Path file;
+    final int startDay;
+    final int endDay;
+    final int count;
+    final long fingerprint;
+    private final FloatBuffer data;
+
+    private CorrelationMatrix(Path file, int startDay, int endDay, int count, long fingerprint, FloatBuffer data) {
+        this.file = file;
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.count = count;
+        this.fingerprint = fingerprint;
+        this.data = data;
+    }
+
+    /** 행 i 전체 (n 개) */
+    float[] row(int i) {
+        float[] out = new float[count];
+        data.get((int) ((long) i * count), out, 0, count);
+        return out;
+    }
+
+    static CorrelationMatrix open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER) throw new IOException("헤더가 없습니다: " + file);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT) {
+                throw new IOException("상관 행렬 파일 형식이 아닙니다: " + file);
+            }
+            int count = buf.getInt(16);
+            if (count < 0 || size != HEADER + 4L * count * count) {
+                throw new IOException("상관 행렬 파일 크기가 맞지 않습니다: " + file);
+            }
+            FloatBuffer data = buf.slice(HEADER, (int) (size - HEADER)).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return new CorrelationMatrix(file, buf.getInt(8), buf.getInt(12), count, buf.getLong(24), data);
+        }
+    }
+
+    static void write(Path file, int startDay, int endDay, int count, long fingerprint, float[] values)
+            throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT).putInt(startDay).putInt(endDay).putInt(count).putInt(0)
+                    .putLong(fingerprint).flip();
+            while (header.hasRemaining()) ch.write(header);
+
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            int total = count * count;
+            for (int p = 0; p < total; ) {
+                chunk.clear();
+                while (p < total && chunk.remaining() >= 4) chunk.putFloat(values[p++]);
+                chunk.flip();
+                while (chunk.hasRemaining()) ch.write(chunk);
+            }
+        }
+    }
+}
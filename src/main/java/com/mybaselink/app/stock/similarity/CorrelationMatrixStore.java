@@ -0,0 +1,125 @@
+package com.mybaselink.app.stock.similarity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * CorrelationMatrixStore
+ * --------------------------------------------------------
+ * 표준 구간(1/3/6개월) 유사도 행렬 파일 보관소
+ * - 파일 이름: corr_{시작일}_{종료일}_{지문}.f32 (같은 구간이라도 데이터가 바뀌면 새 파일)
+ * - 쓰기는 임시 파일 → 원자적 이동, 이후 메모리 매핑으로 열어 행 단위 조회
+ * - 새 행렬 저장 시 목록에서 빠진 이전 파일은 삭제 시도
+ *   (매핑 해제 전에는 Windows 에서 삭제가 실패할 수 있어 다음 저장 때 다시 시도)
+ * - 재기동 후 첫 조회 때 디렉터리를 한 번 훑어 기존 파일 복원
+ * - 디스크 오류는 경고만 남기고 무시 (조회 측은 실시간 계산으로 처리)
+ * --------------------------------------------------------
+ */
+@Component
+public class CorrelationMatrixStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CorrelationMatrixStore.class);
+
+    private static final String PREFIX = "corr_";
+    private static final String SUFFIX = ".f32";
+
+    private final Path dir;
+    private final List<CorrelationMatrix> matrices = new CopyOnWriteArrayList<>();
+    private volatile boolean loaded = false;
+
+    public CorrelationMatrixStore(@Value("${stock.similarity.matrix-dir:}") String matrixDir) {
+        this.dir = (matrixDir == null || matrixDir.isBlank())
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "mybaselink-corr-matrix")
+                : Paths.get(matrixDir);
+    }
+
+    /** 구간이 같은 행렬이 있는지 (지문 계산 전 사전 확인용) */
+    boolean covers(int startDay, int endDay) {
+        ensureLoaded();
+        for (CorrelationMatrix m : matrices) {
+            if (m.startDay == startDay && m.endDay == endDay) return true;
+        }
+        return false;
+    }
+
+    /** 구간과 데이터 지문이 모두 같은 행렬 (없으면 null) */
+    CorrelationMatrix find(int startDay, int endDay, long fingerprint) {
+        ensureLoaded();
+        for (CorrelationMatrix m : matrices) {
+            if (m.startDay == startDay && m.endDay == endDay && m.fingerprint == fingerprint) return m;
+        }
+        return null;
+    }
+
+    /** 행렬 저장 후 같은 구간의 이전 행렬 교체 */
+    void save(int startDay, int endDay, int count, long fingerprint, float[] values) {
+        ensureLoaded();
+        Path file = dir.resolve(PREFIX + startDay + "_" + endDay + "_" + String.format("%016x", fingerprint) + SUFFIX);
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "corr", ".tmp");
+            try {
+                CorrelationMatrix.write(tmp, startDay, endDay, count, fingerprint, values);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            CorrelationMatrix opened = CorrelationMatrix.open(file);
+            matrices.removeIf(m -> m.startDay == startDay && m.endDay == endDay);
+            matrices.add(opened);
+        } catch (IOException e) {
+            log.warn("상관 행렬 저장 실패: {} ({})", file, e.getMessage());
+        }
+    }
+
+    /** 지정 구간({시작일, 종료일}) 목록에 없는 행렬과 목록에서 빠진 파일 정리 */
+    void retain(List<int[]> windows) {
+        matrices.removeIf(m -> windows.stream().noneMatch(w -> w[0] == m.startDay && w[1] == m.endDay));
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path f : files) {
+                if (matrices.stream().anyMatch(m -> m.file.equals(f))) continue;
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException e) {
+                    log.debug("이전 상관 행렬 삭제 보류: {} ({})", f, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("상관 행렬 디렉터리 정리 실패: {} ({})", dir, e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            if (Files.isDirectory(dir)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+                    for (Path f : files) {
+                        try {
+                            matrices.add(CorrelationMatrix.open(f));
+                        } catch (IOException e) {
+                            log.warn("상관 행렬 파일 무시: {} ({})", f, e.getMessage());
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("상관 행렬 디렉터리 읽기 실패: {} ({})", dir, e.getMessage());
+                }
+                log.info("상관 행렬 복원: {} ({}개)", dir, matrices.size());
+            }
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.rank.TopKCollector;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * DtwSearch
+ * --------------------------------------------------------
+ * 전 종목 대상 DTW 상위 K 검색 (한 번의 요청 = 인스턴스 1개)
+ * - Sakoe-Chiba 창(|i - j| <= window) 으로 제한한 DTW
+ * - 하한 단계적 적용: LB_Kim(양 끝점) → LB_Keogh(기준 종목 포락선)
+ * - DTW 계산 중 (행 최솟값 + 남은 LB_Keogh) 가 현재 K번째 거리를 넘으면 조기 중단
+ * - 가지치기는 K번째 거리 '초과' 기준: 같은 거리는 TopKCollector 가 인덱스 작은 쪽 우선으로 판정
+ *   (유클리드 등 다른 상위 K 경로와 동점 처리 일치)
+ * - K번째 거리는 워커 간 공유 (어느 워커의 K번째든 전체 K번째의 상한이므로 최솟값 사용)
+ * 거리는 모두 제곱 누적 비용, 유사도 변환은 1 / (1 + sqrt(거리))
+ * 워커의 상위 K 는 TopKCollector 에 -거리 를 점수로 보관
+ * 후보마다 cancelled 를 확인해 취소된 작업이면 CancellationException 으로 중단
+ * --------------------------------------------------------
+ */
+final class DtwSearch {
+
+    private final double[] query;
+    private final int length;
+    private final int window;
+    private final int k;
+    private final double[] upper;
+    private final double[] lower;
+    private final BooleanSupplier cancelled;
+
+    /** 전체 워커 기준 K번째 거리 (double bits, 단조 감소) */
+    private final AtomicLong bestSoFar = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+
+    final LongAdder prunedByKim = new LongAdder();
+    final LongAdder prunedByKeogh = new LongAdder();
+    final LongAdder abandoned = new LongAdder();
+    final LongAdder computed = new LongAdder();
+
+    DtwSearch(double[] query, int length, int window, int k) {
+        this(query, length, window, k, SimilarityEngine.NOT_CANCELLED);
+    }
+
+    DtwSearch(double[] query, int length, int window, int k, BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        this.query = query;
+        this.length = length;
+        this.window = Math.max(0, Math.min(window, length - 1));
+        this.k = Math.max(1, k);
+        this.upper = new double[length];
+        this.lower = new double[length];
+        buildEnvelope();
+    }
+
+    int window() {
+        return window;
+    }
+
+    /** 기준 종목의 창 폭 포락선 U/L (단조 덱, O(n)) */
+    private void buildEnvelope() {
+        int[] maxQ = new int[length];
+        int[] minQ = new int[length];
+        int maxHead = 0, maxTail = 0, minHead = 0, minTail = 0;
+        int next = 0;
+        for (int i = 0; i < length; i++) {
+            int right = Math.min(length - 1, i + window);
+            while (next <= right) {
+                while (maxTail > maxHead && query[maxQ[maxTail - 1]] <= query[next]) maxTail--;
+                maxQ[maxTail++] = next;
+                while (minTail > minHead && query[minQ[minTail - 1]] >= query[next]) minTail--;
+                minQ[minTail++] = next;
+                next++;
+            }
+            int left = i - window;
+            while (maxQ[maxHead] < left) maxHead++;
+            while (minQ[minHead] < left) minHead++;
+            upper[i] = query[maxQ[maxHead]];
+            lower[i] = query[minQ[minHead]];
+        }
+    }
+
+    double threshold() {
+        return Double.longBitsToDouble(bestSoFar.get());
+    }
+
+    /** 워커의 K번째 거리로 공유 임계값을 낮춤 */
+    void publish(double kth) {
+        long bits = Double.doubleToLongBits(kth);
+        long cur;
+        while (kth < Double.longBitsToDouble(cur = bestSoFar.get())) {
+            if (bestSoFar.compareAndSet(cur, bits)) return;
+        }
+    }
+
+    // ==================================
+    // 워커 (스레드 1개 전용, 작업 버퍼 재사용)
+    // ==================================
+    Worker newWorker() {
+        return new Worker();
+    }
+
+    final class Worker {
+        final double[] candidate = new double[length];
+        private final double[] cb = new double[length + 1];
+        private double[] prev = new double[length];
+        private double[] cur = new double[length];
+
+        final TopKCollector best = new TopKCollector(k);
+
+        /**
+         * candidate[0..length) 에 정렬된 비교 종목 평가
+         * @return 상위 K 후보로 채택되면 true
+         */
+        boolean offer(int index) {
+            SimilarityEngine.checkCancelled(cancelled);
+            double bsf = Math.min(threshold(), -best.threshold());
+
+            double lb = lbKim();
+            if (lb > bsf) {
+                prunedByKim.increment();
+                return false;
+            }
+            lb = lbKeogh(bsf);
+            if (lb > bsf) {
+                prunedByKeogh.increment();
+                return false;
+            }
+            double d = banded(bsf);
+            if (d > bsf) {
+                abandoned.increment();
+                return false;
+            }
+            computed.increment();
+            best.offer(-d, index);
+            if (best.isFull()) publish(-best.threshold());
+            return true;
+        }
+
+        /** 양 끝점은 항상 정렬 경로에 포함 */
+        private double lbKim() {
+            double d0 = query[0] - candidate[0];
+            if (length == 1) return d0 * d0;
+            double d1 = query[length - 1] - candidate[length - 1];
+            return d0 * d0 + d1 * d1;
+        }
+
+        /**
+         * 비교 종목이 기준 포락선을 벗어난 만큼의 제곱합
+         * - cb[j] = j 이후 기여분 누적 (DTW 조기 중단용), bsf 초과 시 즉시 반환
+         */
+        private double lbKeogh(double bsf) {
+            double sum = 0;
+            for (int j = 0; j < length; j++) {
+                double c = candidate[j], e = 0;
+                if (c > upper[j]) e = c - upper[j];
+                else if (c < lower[j]) e = lower[j] - c;
+                cb[j] = e * e;
+                sum += cb[j];
+                if (sum > bsf) return sum;
+            }
+            cb[length] = 0;
+            for (int j = length - 1; j >= 0; j--) cb[j] += cb[j + 1];
+            return sum;
+        }
+
+        /** Sakoe-Chiba 창 DTW, 하한이 bsf 를 넘으면 +Inf */
+        private double banded(double bsf) {
+            double[] p = prev, c = cur;
+            Arrays.fill(p, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < length; i++) {
+                int jFrom = Math.max(0, i - window);
+                int jTo = Math.min(length - 1, i + window);
+                if (jFrom > 0) c[jFrom - 1] = Double.POSITIVE_INFINITY;
+                double qi = query[i];
+                double rowMin = Double.POSITIVE_INFINITY;
+                for (int j = jFrom; j <= jTo; j++) {
+                    double d = qi - candidate[j];
+                    double step;
+                    if (i == 0 && j == 0) {
+                        step = 0;
+                    } else {
+                        step = p[j];
+                        if (j > 0) step = Math.min(step, Math.min(p[j - 1], c[j - 1]));
+                    }
+                    double v = d * d + step;
+                    c[j] = v;
+                    if (v < rowMin) rowMin = v;
+                }
+                if (jTo + 1 < length) c[jTo + 1] = Double.POSITIVE_INFINITY;
+
+                // 남은 열(jTo 이후)은 반드시 한 번 이상 지나가므로 LB_Keogh 기여분을 더해도 하한
+                if (rowMin + cb[jTo + 1] > bsf) {
+                    prev = p;
+                    cur = c;
+                    return Double.POSITIVE_INFINITY;
+                }
+                double[] t = p;
+                p = c;
+                c = t;
+            }
+            prev = p;
+            cur = c;
+            return p[length - 1];
+        }
+    }
+}
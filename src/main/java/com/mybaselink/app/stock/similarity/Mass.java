@@ -0,0 +1,153 @@
+package com.mybaselink.app.stock.similarity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mass
+ * --------------------------------------------------------
+ * MASS(Mueen's Algorithm for Similarity Search) 용 슬라이딩 내적
+ * - QT[i] = Σ_k q[k] · t[i + k]  (i = 0 .. n - m)
+ * - 질의를 뒤집어 시계열과 합성곱 → FFT 크기 N(2의 거듭제곱 >= n + m) 에서 O(N log N)
+ * - 질의가 짧아 직접 계산(O(n·m))이 더 싸면 직접 계산
+ * - 질의 FFT 는 크기 N 별로 한 번만 계산 (Query 인스턴스에 보관, 여러 스레드 공유)
+ * 작업 버퍼는 Scratch 로 스레드마다 재사용
+ * --------------------------------------------------------
+ */
+final class Mass {
+
+    private Mass() {
+    }
+
+    /** 크기별 회전 인자 (cos, sin) */
+    private static final Map<Integer, double[][]> TWIDDLES = new ConcurrentHashMap<>();
+
+    /** 질의 1개 (z-정규화된 값) + 크기별 FFT 캐시 */
+    static final class Query {
+        final double[] q;
+        final int m;
+        private final Map<Integer, double[][]> spectra = new ConcurrentHashMap<>();
+
+        Query(double[] q) {
+            this.q = q;
+            this.m = q.length;
+        }
+
+        /** 뒤집은 질의의 크기 n FFT (re, im) */
+        double[][] spectrum(int n) {
+            return spectra.computeIfAbsent(n, size -> {
+                double[] re = new double[size], im = new double[size];
+                for (int k = 0; k < m; k++) re[k] = q[m - 1 - k];
+                fft(re, im, false);
+                return new double[][]{re, im};
+            });
+        }
+    }
+
+    /** 스레드별 작업 버퍼 */
+    static final class Scratch {
+        double[] re = new double[0];
+        double[] im = new double[0];
+
+        void ensure(int n) {
+            if (re.length < n) {
+                re = new double[n];
+                im = new double[n];
+            }
+        }
+    }
+
+    /**
+     * t[0..n) 에 대한 슬라이딩 내적을 out[0 .. n - m] 에 기록
+     * - t 에 결측이 있으면 0 으로 취급 (해당 창은 호출 측에서 제외)
+     */
+    static void slidingDot(Query query, double[] t, int n, double[] out, Scratch s) {
+        int m = query.m;
+        int size = Integer.highestOneBit(Math.max(1, n + m - 2)) << 1;   // 2의 거듭제곱 >= n + m - 1
+        int log2 = Integer.numberOfTrailingZeros(size);
+
+        if ((long) m * (n - m + 1) <= 6L * size * log2) {
+            double[] q = query.q;
+            for (int i = 0; i + m <= n; i++) {
+                double acc = 0;
+                for (int k = 0; k < m; k++) {
+                    double v = t[i + k];
+                    if (!Double.isNaN(v)) acc += q[k] * v;
+                }
+                out[i] = acc;
+            }
+            return;
+        }
+
+        s.ensure(size);
+        double[] re = s.re, im = s.im;
+        for (int k = 0; k < size; k++) {
+            re[k] = (k < n && !Double.isNaN(t[k])) ? t[k] : 0;
+            im[k] = 0;
+        }
+        fft(re, im, size, false);
+        double[][] qs = query.spectrum(size);
+        double[] qr = qs[0], qi = qs[1];
+        for (int k = 0; k < size; k++) {
+            double a = re[k], b = im[k];
+            re[k] = a * qr[k] - b * qi[k];
+            im[k] = a * qi[k] + b * qr[k];
+        }
+        fft(re, im, size, true);
+        for (int i = 0; i + m <= n; i++) out[i] = re[m - 1 + i];
+    }
+
+    static void fft(double[] re, double[] im, boolean inverse) {
+        fft(re, im, re.length, inverse);
+    }
+
+    /** 제자리 radix-2 FFT (n 은 2의 거듭제곱, inverse 면 1/n 배) */
+    static void fft(double[] re, double[] im, int n, boolean inverse) {
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        double[][] tw = TWIDDLES.computeIfAbsent(n, Mass::twiddles);
+        double[] cos = tw[0], sin = tw[1];
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1, step = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * step], wi = inverse ? sin[k * step] : -sin[k * step];
+                    int p = i + k, q = p + half;
+                    double xr = re[q] * wr - im[q] * wi;
+                    double xi = re[q] * wi + im[q] * wr;
+                    re[q] = re[p] - xr;
+                    im[q] = im[p] - xi;
+                    re[p] += xr;
+                    im[p] += xi;
+                }
+            }
+        }
+        if (inverse) {
+            for (int i = 0; i < n; i++) {
+                re[i] /= n;
+                im[i] /= n;
+            }
+        }
+    }
+
+    private static double[][] twiddles(int n) {
+        double[] cos = new double[n / 2], sin = new double[n / 2];
+        for (int k = 0; k < n / 2; k++) {
+            double a = 2 * Math.PI * k / n;
+            cos[k] = Math.cos(a);
+            sin[k] = Math.sin(a);
+        }
+        return new double[][]{cos, sin};
+    }
+}
@@ -0,0 +1,648 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.rank.TopKCollector;
+import com.mybaselink.app.stock.similarity.metric.CosineMetric;
+import com.mybaselink.app.stock.similarity.metric.MetricScratch;
+import com.mybaselink.app.stock.similarity.metric.SimilarityMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * SimilarityEngine
+ * --------------------------------------------------------
+ * find_similar_full.py 의 유사 종목 분석을 PriceStore 위에서 직접 수행
+ * - 기준/비교 종목의 공통 날짜(교집합)만 사용
+ * - 공통 구간 길이 >= max(30, 기준 구간 길이 * 0.5)
+ * - 양쪽 모두 z-정규화 후 코사인 유사도 (결측/분산 0 제외)
+ * - 결과 형식: [{ticker, name, cosine_similarity}, ...] (내림차순)
+ * find_similar_new_full.py 의 method 별 분석도 지원 (SimilarityMetric)
+ * - 비교 종목을 기준 날짜로 재색인 후 선형 보간 (선행 결측 시 제외)
+ * - 결과 형식: [{ticker, name, similarity}, ...] (내림차순)
+ * - dtw 는 전 종목 대상 검색 전용 경로 사용 (DtwSearch: Sakoe-Chiba 창 + 하한 가지치기)
+ * 상관 계열(cosine/pearson)은 SimilarityIndex 상한으로 후보를 정렬·가지치기 후 상위 후보만 정확 계산
+ * - 상한 내림차순으로 처리하다 상한이 현재 K번째 점수 미만이 되면 종료 (결과는 전수 계산과 동일)
+ * 표준 구간(1/3/6개월)은 야간 배치가 만든 유사도 행렬(CorrelationMatrixStore)에서 행 1개 읽기 + 상위 K
+ * - 구간과 데이터 지문이 같을 때만 사용, 그 밖의 구간은 실시간 계산 (지문은 같은 구간의 행렬이 있을 때만 계산)
+ * - 행렬은 float 로 저장하므로 실시간 계산 점수도 float 로 반올림 (어느 경로든 같은 값·같은 순위)
+ * 과거 구간 유사 검색(findSimilarWindows)은 종목별 전 이력을 MASS 거리 프로파일로 훑음 (WindowSearch)
+ * 작업 스케줄러에서 실행할 때는 cancelled(JobContext::isCancelled)를 넘기면 종목마다 확인해 CancellationException 으로 중단
+ * --------------------------------------------------------
+ */
+@Component
+public class SimilarityEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarityEngine.class);
+
+    static final int MIN_OVERLAP = 30;
+
+    /** 과거 구간 검색의 최소 기준 구간 길이 (거래일) */
+    static final int MIN_WINDOW = 5;
+
+    /** 상한 비교 여유 (블록 합계 반올림 오차로 경계 후보를 잘못 제외하지 않도록) */
+    static final double BOUND_SLACK = 1e-6;
+
+    private final PriceStore priceStore;
+
+    /** DTW 창 폭 기본값 (기준 구간 길이 대비 비율) */
+    @Value("${stock.similarity.dtw-window-ratio:0.1}")
+    private double dtwWindowRatio = 0.1;
+
+    /** 비교 구간 스크래치 버퍼 (스레드별 재사용) */
+    private final ThreadLocal<double[][]> scratch = ThreadLocal.withInitial(() -> new double[2][0]);
+    private final ThreadLocal<MetricScratch> metricScratch = ThreadLocal.withInitial(MetricScratch::new);
+
+    /** 최근 스냅샷 버전의 유사도 색인 (버전이 바뀌면 첫 조회 때 다시 생성) */
+    private final AtomicReference<SimilarityIndex> index = new AtomicReference<>();
+
+    /** 표준 구간 유사도 행렬 (야간 배치로 생성, 구간·데이터가 같을 때만 사용) */
+    private final CorrelationMatrixStore matrixStore;
+
+    /** 표준 구간 (기준일로부터 N개월) */
+    @Value("${stock.similarity.matrix-months:1,3,6}")
+    private int[] matrixMonths = {1, 3, 6};
+
+    /** (스냅샷 버전, 구간) → 구간 데이터 지문 */
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+
+    public SimilarityEngine(PriceStore priceStore, CorrelationMatrixStore matrixStore) {
+        this.priceStore = priceStore;
+        this.matrixStore = matrixStore;
+    }
+
+    public boolean isReady() {
+        return priceStore.isReady();
+    }
+
+    /** 취소 확인 없음 (동기 호출·배치용) */
+    static final BooleanSupplier NOT_CANCELLED = () -> false;
+
+    public List<Map<String, Object>> findSimilar(String baseSymbol, String start, String end, int nSimilar) {
+        return findSimilar(baseSymbol, start, end, nSimilar, NOT_CANCELLED);
+    }
+
+    public List<Map<String, Object>> findSimilar(String baseSymbol, String start, String end, int nSimilar,
+                                                 BooleanSupplier cancelled) {
+        PriceStoreSnapshot snap = requireSnapshot();
+        BaseWindow base = BaseWindow.of(snap, baseSymbol, start, end);
+        if (ZNorm.std(base.close, base.length) == 0) {
+            throw new IllegalArgumentException("종목(" + baseSymbol + ")의 표준화가 불가능합니다. 데이터가 일정하거나 결측입니다.");
+        }
+
+        long t0 = System.currentTimeMillis();
+        // 지문은 전 종목 구간을 훑어야 하므로 같은 구간의 행렬이 있을 때만 계산 (임의 구간은 바로 실시간 계산)
+        CorrelationMatrix matrix = matrixStore.covers(base.startDay, base.endDay)
+                ? matrixStore.find(base.startDay, base.endDay, windowFingerprint(snap, base.startDay, base.endDay))
+                : null;
+        TopKCollector top;
+        if (matrix != null) {
+            float[] row = matrix.row(base.index);
+            top = TopKCollector.collect(snap.symbolCount(), nSimilar, i -> row[i]);
+        } else {
+            // 행렬 경로와 같은 정밀도 (float 반올림 차이는 BOUND_SLACK 안)
+            top = correlationSearch(snap, base, nSimilar, i -> (float) cosine(snap, i, base), cancelled);
+        }
+
+        List<Map<String, Object>> results = rows(snap, top, "cosine_similarity", DoubleUnaryOperator.identity());
+        log.info("유사 종목 분석 완료{}: {} {}~{}, 상위 {}건, {}ms", matrix != null ? "(사전 계산 행렬)" : "",
+                baseSymbol, start, end, results.size(), System.currentTimeMillis() - t0);
+        return results;
+    }
+
+    /**
+     * method 별 유사 종목 분석 (find_similar_new_full.py 대체)
+     * - 비교 종목은 기준 날짜로 재색인 후 선형 보간, 선행 결측이면 제외
+     */
+    public List<Map<String, Object>> findSimilar(String baseSymbol, String start, String end, int nSimilar,
+                                                 SimilarityMetric metric) {
+        return findSimilar(baseSymbol, start, end, nSimilar, metric, NOT_CANCELLED);
+    }
+
+    public List<Map<String, Object>> findSimilar(String baseSymbol, String start, String end, int nSimilar,
+                                                 SimilarityMetric metric, BooleanSupplier cancelled) {
+        PriceStoreSnapshot snap = requireSnapshot();
+        BaseWindow base = BaseWindow.of(snap, baseSymbol, start, end);
+
+        long t0 = System.currentTimeMillis();
+        TopKCollector top = metric.correlation()
+                ? correlationSearch(snap, base, nSimilar, i -> aligned(snap, i, base, metric), cancelled)
+                : TopKCollector.collect(snap.symbolCount(), nSimilar, i -> {
+                    checkCancelled(cancelled);
+                    return (i == base.index) ? Double.NaN : aligned(snap, i, base, metric);
+                });
+
+        List<Map<String, Object>> results = rows(snap, top, "similarity", DoubleUnaryOperator.identity());
+        log.info("유사 종목 분석 완료({}): {} {}~{}, 상위 {}건, {}ms", metric.name(), baseSymbol, start, end,
+                results.size(), System.currentTimeMillis() - t0);
+        return results;
+    }
+
+    /**
+     * DTW 유사 종목 분석 (전 종목, 창 제한 + 하한 가지치기)
+     * @param window Sakoe-Chiba 창 폭 (거래일 수), 음수면 기준 구간 길이 * dtw-window-ratio
+     */
+    public List<Map<String, Object>> findSimilarDtw(String baseSymbol, String start, String end, int nSimilar,
+                                                    int window) {
+        return findSimilarDtw(baseSymbol, start, end, nSimilar, window, NOT_CANCELLED);
+    }
+
+    public List<Map<String, Object>> findSimilarDtw(String baseSymbol, String start, String end, int nSimilar,
+                                                    int window, BooleanSupplier cancelled) {
+        PriceStoreSnapshot snap = requireSnapshot();
+        BaseWindow base = BaseWindow.of(snap, baseSymbol, start, end);
+        int w = window >= 0 ? window : Math.max(1, (int) Math.round(base.length * dtwWindowRatio));
+
+        long t0 = System.currentTimeMillis();
+        int count = snap.symbolCount();
+        int k = Math.max(1, nSimilar);
+        DtwSearch search = new DtwSearch(base.close, base.length, w, k, cancelled);
+
+        // 종목을 청크로 나눠 워커별 상위 K 유지, 임계값은 DtwSearch 가 워커 간 공유
+        int chunks = Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors() * 4));
+        List<DtwSearch.Worker> workers = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            DtwSearch.Worker worker = search.newWorker();
+            for (int i = c; i < count; i += chunks) {
+                if (i == base.index) continue;
+                if (base.alignTo(snap, i, worker.candidate)) worker.offer(i);
+            }
+            return worker;
+        }).toList();
+
+        TopKCollector merged = new TopKCollector(k);
+        for (DtwSearch.Worker worker : workers) merged.merge(worker.best);
+
+        // 점수 = -거리 → 유사도 1 / (1 + sqrt(거리)) 로 변환 (순서 동일)
+        List<Map<String, Object>> results = rows(snap, merged, "similarity", s -> 1.0 / (1.0 + Math.sqrt(-s)));
+        log.info("유사 종목 분석 완료(dtw, window={}): {} {}~{}, 상위 {}건, {}ms (LB_Kim {} / LB_Keogh {} / 조기중단 {} / 완료 {})",
+                search.window(), baseSymbol, start, end, results.size(), System.currentTimeMillis() - t0,
+                search.prunedByKim.sum(), search.prunedByKeogh.sum(), search.abandoned.sum(), search.computed.sum());
+        return results;
+    }
+
+    /**
+     * 과거 구간 유사 검색: 전 종목의 최근 years 년 이력 중 기준 구간과 가장 닮은 구간 (종목당 1개)
+     * - 거리 = z-정규화 유클리드 거리 (WindowSearch / Mass), 유사도 = 상관 = 1 - 거리² / 2m
+     * - 결과 형식: [{ticker, name, start, end, distance, similarity}, ...] (거리 오름차순)
+     * @param years 검색 기간 (기준 구간 종료일로부터 과거 년 수)
+     */
+    public List<Map<String, Object>> findSimilarWindows(String baseSymbol, String start, String end, int years,
+                                                        int nMatches) {
+        return findSimilarWindows(baseSymbol, start, end, years, nMatches, NOT_CANCELLED);
+    }
+
+    public List<Map<String, Object>> findSimilarWindows(String baseSymbol, String start, String end, int years,
+                                                        int nMatches, BooleanSupplier cancelled) {
+        PriceStoreSnapshot snap = requireSnapshot();
+        BaseWindow base = BaseWindow.of(snap, baseSymbol, start, end);
+        if (base.length < MIN_WINDOW) {
+            throw new IllegalArgumentException("기준 구간이 너무 짧습니다. 최소 " + MIN_WINDOW + " 거래일 이상 지정하세요.");
+        }
+        for (int j = 0; j < base.length; j++) {
+            if (Double.isNaN(base.close[j])) {
+                throw new IllegalArgumentException("종목(" + baseSymbol + ")의 기준 구간에 결측 종가가 있습니다.");
+            }
+        }
+        if (ZNorm.std(base.close, base.length) == 0) {
+            throw new IllegalArgumentException("종목(" + baseSymbol + ")의 표준화가 불가능합니다. 데이터가 일정하거나 결측입니다.");
+        }
+        if (years < 1) {
+            throw new IllegalArgumentException("검색 기간(years)은 1년 이상이어야 합니다.");
+        }
+
+        long t0 = System.currentTimeMillis();
+        int count = snap.symbolCount();
+        int fromDay = base.endDay - (int) Math.round(years * 365.25);
+        WindowSearch search = new WindowSearch(base.close, base.length, nMatches, fromDay, count, base.index,
+                snap.lowerBound(base.index, base.startDay), snap.upperBound(base.index, base.endDay));
+
+        int chunks = Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors() * 4));
+        List<WindowSearch.Worker> workers = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            WindowSearch.Worker worker = search.newWorker();
+            for (int i = c; i < count; i += chunks) {
+                checkCancelled(cancelled);
+                worker.scan(snap, i);
+            }
+            return worker;
+        }).toList();
+
+        TopKCollector merged = new TopKCollector(Math.max(1, nMatches));
+        for (WindowSearch.Worker worker : workers) merged.merge(worker.best);
+
+        int[] idx = merged.indices();
+        double[] scores = merged.scores();
+        List<Map<String, Object>> results = new ArrayList<>(idx.length);
+        for (int j = 0; j < idx.length; j++) {
+            int row = search.bestRow[idx[j]];
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("ticker", snap.symbol(idx[j]));
+            r.put("name", snap.name(idx[j]));
+            r.put("start", PriceSeries.toIsoDate(snap.date(row)));
+            r.put("end", PriceSeries.toIsoDate(snap.date(row + base.length - 1)));
+            r.put("distance", search.distance(scores[j]));
+            r.put("similarity", scores[j]);
+            results.add(r);
+        }
+        log.info("과거 구간 유사 검색 완료: {} {}~{} ({}거래일), 최근 {}년, 상위 {}건, {}ms", baseSymbol, start, end,
+                base.length, years, results.size(), System.currentTimeMillis() - t0);
+        return results;
+    }
+
+    // ==================================
+    // 표준 구간 유사도 행렬
+    // ==================================
+
+    /**
+     * 표준 구간(today - N개월 ~ today) 별 전 종목 유사도 행렬 생성·저장 (야간 배치)
+     * - 같은 구간·같은 데이터의 행렬이 이미 있으면 건너뜀
+     */
+    public void rebuildStandardMatrices(LocalDate today) {
+        PriceStoreSnapshot snap = requireSnapshot();
+        int endDay = (int) today.toEpochDay();
+        List<int[]> windows = new ArrayList<>();
+        for (int months : matrixMonths) {
+            int startDay = (int) today.minusMonths(months).toEpochDay();
+            windows.add(new int[]{startDay, endDay});
+            long fp = windowFingerprint(snap, startDay, endDay);
+            if (matrixStore.find(startDay, endDay, fp) != null) {
+                log.info("상관 행렬 최신 상태: {}개월 ({}~{})", months, PriceSeries.toIsoDate(startDay), today);
+                continue;
+            }
+            long t0 = System.currentTimeMillis();
+            float[] values = buildMatrix(snap, startDay, endDay);
+            matrixStore.save(startDay, endDay, snap.symbolCount(), fp, values);
+            log.info("상관 행렬 생성: {}개월 ({}~{}), {}종목, {}ms", months, PriceSeries.toIsoDate(startDay), today,
+                    snap.symbolCount(), System.currentTimeMillis() - t0);
+        }
+        matrixStore.retain(windows);
+    }
+
+    /**
+     * 구간 [startDay, endDay] 의 전 종목 × 전 종목 findSimilar 점수 (행 = 기준 종목)
+     * - 구간 날짜가 공통 거래일과 같고 결측·분산 0 이 없는 종목끼리는 z-정규화 벡터 내적 / 길이
+     *   (교집합 = 전체 구간이라 cosine() 과 같은 값)
+     * - 그 밖의 쌍은 cosine() 과 같은 교집합 계산
+     */
+    float[] buildMatrix(PriceStoreSnapshot snap, int startDay, int endDay) {
+        int count = snap.symbolCount();
+        SimilarityIndex idx = indexFor(snap);
+        BaseWindow[] windows = new BaseWindow[count];
+        long[] span = new long[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            windows[i] = BaseWindow.of(snap, i, startDay, endDay);
+            int from = snap.lowerBound(i, startDay), to = snap.upperBound(i, endDay);
+            span[i] = (windows[i] != null && idx.regular(i, from, to))
+                    ? ((long) windows[i].dates[0] << 32) | (windows[i].dates[windows[i].length - 1] & 0xffffffffL)
+                    : Long.MIN_VALUE;
+        });
+
+        // 가장 많은 종목이 가진 구간 (첫 날짜, 마지막 날짜) → 해당 종목은 z-정규화 벡터로 계산
+        Map<Long, Integer> spans = new HashMap<>();
+        for (long s : span) if (s != Long.MIN_VALUE) spans.merge(s, 1, Integer::sum);
+        long common = spans.entrySet().stream().max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey).orElse(Long.MIN_VALUE);
+        double[][] z = new double[count][];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            if (span[i] == common && common != Long.MIN_VALUE) z[i] = zNormalized(windows[i]);
+        });
+
+        float[] values = new float[count * count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int off = i * count;
+            BaseWindow base = windows[i];
+            if (base == null) {
+                Arrays.fill(values, off, off + count, Float.NaN);
+                return;
+            }
+            double[] x = new double[base.length], y = new double[base.length];
+            for (int j = 0; j < count; j++) {
+                double v;
+                if (j == i) {
+                    v = Double.NaN;
+                } else if (z[i] != null && z[j] != null) {
+                    v = base.length < base.minOverlap ? Double.NaN : dot(z[i], z[j]) / base.length;
+                } else {
+                    int n = base.intersect(snap, j, x, y);
+                    v = n < base.minOverlap ? Double.NaN : CosineMetric.centeredCosine(x, y, n);
+                }
+                values[off + j] = (float) v;
+            }
+        });
+        return values;
+    }
+
+    /** 결측·분산 0 이면 null */
+    private static double[] zNormalized(BaseWindow w) {
+        double mean = 0;
+        for (int k = 0; k < w.length; k++) mean += w.close[k];
+        mean /= w.length;
+        if (Double.isNaN(mean)) return null;
+        double std = ZNorm.std(w.close, w.length);
+        if (!(std > 0)) return null;
+        double[] z = new double[w.length];
+        for (int k = 0; k < w.length; k++) z[k] = (w.close[k] - mean) / std;
+        return z;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0;
+        for (int k = 0; k < a.length; k++) s += a[k] * b[k];
+        return s;
+    }
+
+    /** 종목 순서 + 구간 내 날짜/종가 FNV 방식 64bit 해시 (스냅샷 버전별 캐시) */
+    long windowFingerprint(PriceStoreSnapshot snap, int startDay, int endDay) {
+        String key = snap.getVersion() + ":" + startDay + ":" + endDay;
+        Long cached = fingerprints.get(key);
+        if (cached != null) return cached;
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < snap.symbolCount(); i++) {
+            for (byte b : snap.symbol(i).getBytes(StandardCharsets.UTF_8)) h = (h ^ b) * 0x100000001b3L;
+            int to = snap.upperBound(i, endDay);
+            for (int r = snap.lowerBound(i, startDay); r < to; r++) {
+                h = (h ^ snap.date(r)) * 0x100000001b3L;
+                h = (h ^ Double.doubleToLongBits(snap.close(r))) * 0x100000001b3L;
+            }
+            h = (h ^ -1L) * 0x100000001b3L;
+        }
+        if (fingerprints.size() > 64) fingerprints.clear();
+        fingerprints.put(key, h);
+        return h;
+    }
+
+    /**
+     * 상관 계열 상위 K 검색
+     * 1) 기준 구간과 날짜가 같은 종목은 색인으로 상관 상한 계산 (O(구간 / BLOCK)), 나머지는 상한 +Inf
+     * 2) 상한 내림차순으로 묶음 단위 병렬 정확 계산, 다음 상한이 K번째 점수 미만이면 중단
+     * 기준 구간에 결측/분산 0/달력 불일치가 있으면 전수 계산
+     */
+    private TopKCollector correlationSearch(PriceStoreSnapshot snap, BaseWindow base, int k,
+                                            IntToDoubleFunction scorer, BooleanSupplier cancelled) {
+        // 정확 계산 1건마다 취소 확인
+        IntToDoubleFunction exact = i -> {
+            checkCancelled(cancelled);
+            return scorer.applyAsDouble(i);
+        };
+        int count = snap.symbolCount();
+        SimilarityIndex idx = indexFor(snap);
+        SimilarityIndex.Query q = SimilarityIndex.query(base.close, base.length);
+        int baseFrom = snap.lowerBound(base.index, base.startDay);
+        int baseTo = snap.upperBound(base.index, base.endDay);
+        if (q == null || !idx.regular(base.index, baseFrom, baseTo)) {
+            return TopKCollector.collect(count, k, i -> (i == base.index) ? Double.NaN : exact.applyAsDouble(i));
+        }
+
+        int first = base.dates[0], last = base.dates[base.length - 1];
+        double[] bound = new double[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            if (i == base.index) {
+                bound[i] = Double.NaN;
+                return;
+            }
+            int from = snap.lowerBound(i, base.startDay);
+            int to = snap.upperBound(i, base.endDay);
+            boolean sameDates = to - from == base.length && snap.date(from) == first
+                    && snap.date(to - 1) == last && idx.regular(i, from, to);
+            bound[i] = sameDates ? idx.upperBound(snap, i, from, to, q) : Double.POSITIVE_INFINITY;
+        });
+        int[] order = IntStream.range(0, count).filter(i -> !Double.isNaN(bound[i])).boxed()
+                .sorted((a, b) -> Double.compare(bound[b], bound[a]))
+                .mapToInt(Integer::intValue).toArray();
+
+        TopKCollector top = new TopKCollector(k);
+        int batch = Math.max(64, Runtime.getRuntime().availableProcessors() * 16);
+        int pos = 0, scored = 0;
+        while (pos < order.length) {
+            double cut = top.threshold() - BOUND_SLACK;
+            if (top.isFull() && bound[order[pos]] < cut) break;
+            int from = pos, end = Math.min(order.length, pos + batch);
+            double[] s = new double[end - from];
+            IntStream.range(from, end).parallel().forEach(j -> s[j - from] =
+                    (top.isFull() && bound[order[j]] < cut) ? Double.NaN : exact.applyAsDouble(order[j]));
+            for (int j = from; j < end; j++) top.offer(s[j - from], order[j]);
+            scored += end - from;
+            pos = end;
+        }
+        log.debug("상관 후보 가지치기: 후보 {}, 정확 계산 {} 이하", order.length, scored);
+        return top;
+    }
+
+    /** 취소된 작업이면 CancellationException (작업 스케줄러가 CANCELLED 로 처리) */
+    static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("유사 종목 분석 취소됨");
+        }
+    }
+
+    private SimilarityIndex indexFor(PriceStoreSnapshot snap) {
+        SimilarityIndex idx = index.get();
+        if (idx != null && idx.version() == snap.getVersion()) return idx;
+        synchronized (index) {
+            idx = index.get();
+            if (idx == null || idx.version() != snap.getVersion()) {
+                long t0 = System.currentTimeMillis();
+                idx = SimilarityIndex.build(snap);
+                index.set(idx);
+                log.info("유사도 색인 생성: 스냅샷 버전 {}, {}ms", snap.getVersion(), System.currentTimeMillis() - t0);
+            }
+            return idx;
+        }
+    }
+
+    /** 상위 K 후보만 결과 행으로 변환 (점수 내림차순) */
+    private List<Map<String, Object>> rows(PriceStoreSnapshot snap, TopKCollector top, String scoreKey,
+                                           DoubleUnaryOperator toScore) {
+        int[] idx = top.indices();
+        double[] scores = top.scores();
+        List<Map<String, Object>> results = new ArrayList<>(idx.length);
+        for (int j = 0; j < idx.length; j++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("ticker", snap.symbol(idx[j]));
+            row.put("name", snap.name(idx[j]));
+            row.put(scoreKey, toScore.applyAsDouble(scores[j]));
+            results.add(row);
+        }
+        return results;
+    }
+
+    /** 비교 종목 i 를 기준 날짜에 정렬한 뒤 metric 점수 (정렬 불가 시 NaN) */
+    private double aligned(PriceStoreSnapshot snap, int i, BaseWindow base, SimilarityMetric metric) {
+        double[][] buf = scratch.get();
+        if (buf[1].length < base.length) {
+            buf[0] = new double[base.length];
+            buf[1] = new double[base.length];
+        }
+        double[] y = buf[1];
+        if (!base.alignTo(snap, i, y)) return Double.NaN;
+        return metric.similarity(base.close, y, base.length, metricScratch.get());
+    }
+
+    /** 비교 종목 i 와 기준 구간의 z-정규화 코사인 (조건 미달 시 NaN) */
+    private double cosine(PriceStoreSnapshot snap, int i, BaseWindow base) {
+        double[][] buf = scratch.get();
+        if (buf[0].length < base.length) {
+            buf[0] = new double[base.length];
+            buf[1] = new double[base.length];
+        }
+        double[] x = buf[0], y = buf[1];
+        int n = base.intersect(snap, i, x, y);
+        if (n < base.minOverlap) return Double.NaN;
+        return CosineMetric.centeredCosine(x, y, n);
+    }
+
+    PriceStoreSnapshot requireSnapshot() {
+        PriceStoreSnapshot snap = priceStore.current();
+        if (snap == null) {
+            throw new IllegalStateException("가격 데이터가 아직 메모리에 적재되지 않았습니다.");
+        }
+        return snap;
+    }
+
+    // ==================================
+    // 기준 종목 구간
+    // ==================================
+    static final class BaseWindow {
+        final int index;
+        final int[] dates;
+        final double[] close;
+        final int length;
+        final int minOverlap;
+        final int startDay;
+        final int endDay;
+
+        private BaseWindow(int index, int[] dates, double[] close, int startDay, int endDay) {
+            this.index = index;
+            this.dates = dates;
+            this.close = close;
+            this.length = dates.length;
+            this.minOverlap = Math.max(MIN_OVERLAP, (int) (length * 0.5));
+            this.startDay = startDay;
+            this.endDay = endDay;
+        }
+
+        static BaseWindow of(PriceStoreSnapshot snap, String baseSymbol, String start, String end) {
+            int bi = snap.indexOf(baseSymbol);
+            if (bi < 0) {
+                throw new IllegalArgumentException("종목(" + baseSymbol + ") 데이터가 없습니다. 먼저 종목 데이터를 업데이트하세요.");
+            }
+            BaseWindow base = of(snap, bi, PriceSeries.toEpochDay(start), PriceSeries.toEpochDay(end));
+            if (base == null) {
+                throw new IllegalArgumentException("종목(" + baseSymbol + ")의 지정 구간 데이터가 비어 있습니다. 기간을 다시 지정하세요.");
+            }
+            return base;
+        }
+
+        /** 종목 bi 의 [startDay, endDay] 구간 (비어 있으면 null) */
+        static BaseWindow of(PriceStoreSnapshot snap, int bi, int startDay, int endDay) {
+            int from = snap.lowerBound(bi, startDay);
+            int to = snap.upperBound(bi, endDay);
+            if (to <= from) return null;
+            int[] dates = new int[to - from];
+            double[] close = new double[to - from];
+            snap.copyDates(from, to, dates, 0);
+            snap.copyClose(from, to, close, 0);
+            return new BaseWindow(bi, dates, close, startDay, endDay);
+        }
+
+        /**
+         * 종목 i 의 [startDay, endDay] 구간과 기준 날짜의 교집합을 x(기준), y(비교) 로 채움
+         * @return 교집합 길이 (결측 포함 시 -1)
+         */
+        int intersect(PriceStoreSnapshot snap, int i, double[] x, double[] y) {
+            int row = snap.lowerBound(i, startDay);
+            int rowEnd = snap.upperBound(i, endDay);
+            if (rowEnd - row < minOverlap) return 0;
+
+            int b = 0, n = 0;
+            while (row < rowEnd && b < length) {
+                int d = snap.date(row);
+                int bd = dates[b];
+                if (d == bd) {
+                    double xv = close[b], yv = snap.close(row);
+                    if (Double.isNaN(xv) || Double.isNaN(yv)) return -1;
+                    x[n] = xv;
+                    y[n] = yv;
+                    n++;
+                    row++;
+                    b++;
+                } else if (d < bd) {
+                    row++;
+                } else {
+                    b++;
+                }
+            }
+            return n;
+        }
+
+        /**
+         * 종목 i 의 [startDay, endDay] 종가를 기준 날짜로 재색인 후 선형 보간하여 out[0..length) 에 채움
+         * - pandas reindex + interpolate(method='linear') 와 동일: 후행 결측은 마지막 값 유지
+         * @return 선행 결측(첫 기준 날짜에 값 없음)이면 false
+         */
+        boolean alignTo(PriceStoreSnapshot snap, int i, double[] out) {
+            int row = snap.lowerBound(i, startDay);
+            int rowEnd = snap.upperBound(i, endDay);
+            if (row >= rowEnd) return false;
+
+            int b = 0;
+            while (b < length) {
+                int bd = dates[b];
+                while (row < rowEnd && snap.date(row) < bd) row++;
+                out[b++] = (row < rowEnd && snap.date(row) == bd) ? snap.close(row) : Double.NaN;
+            }
+
+            if (Double.isNaN(out[0])) return false;
+            int last = 0;
+            for (int k = 1; k < length; k++) {
+                if (Double.isNaN(out[k])) continue;
+                if (k - last > 1) {
+                    double step = (out[k] - out[last]) / (k - last);
+                    for (int g = last + 1; g < k; g++) out[g] = out[last] + step * (g - last);
+                }
+                last = k;
+            }
+            for (int g = last + 1; g < length; g++) out[g] = out[last];
+            return true;
+        }
+    }
+
+    // ==================================
+    // z-정규화 연산 (할당 없음)
+    // ==================================
+    static final class ZNorm {
+        private ZNorm() {}
+
+        /** 모표준편차 (np.std) */
+        static double std(double[] a, int n) {
+            if (n == 0) return 0;
+            double mean = 0;
+            for (int k = 0; k < n; k++) mean += a[k];
+            mean /= n;
+            double ss = 0;
+            for (int k = 0; k < n; k++) {
+                double d = a[k] - mean;
+                ss += d * d;
+            }
+            return Math.sqrt(ss / n);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * SimilarityIndex
+ * --------------------------------------------------------
+ * 스냅샷 1개에 대한 상관(z-정규화 코사인) 유사도 가지치기 색인
+ * - 종목별 종가를 BLOCK 행 단위로 묶어 블록 합계 / 편차 제곱합(M2) 보관 (PAA 스케치)
+ *   → 임의 구간의 평균·표준편차와 블록 평균(PAA)을 O(구간 / BLOCK) 에 계산
+ * - z-정규화 유클리드 거리² = 2n(1 - 상관) 이고 PAA 거리는 그 하한이므로
+ *   상관 상한 = 1 - PAA거리² / 2n 이 현재 K번째 상관보다 작으면 정확 계산 없이 제외
+ * - 비교 종목의 구간 날짜가 기준 구간과 완전히 같을 때만 사용 (교집합 = 전체, 보간 없음)
+ *   공통 거래일 달력(활성 종목 과반이 가진 날짜)을 만들어 두고
+ *   종목별로 달력에 없는 날짜 / 달력 날짜 누락 행을 표시 → 양쪽 모두 표시 없고 양 끝 날짜가 같으면 동일
+ * - 결측 종가가 낀 구간·분산 0 구간은 판단하지 않고 정확 계산으로 넘김
+ * 행 번호는 스냅샷 전체 기준 절대 인덱스
+ * --------------------------------------------------------
+ */
+final class SimilarityIndex {
+
+    static final int BLOCK = 8;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final long version;
+    private final int[] blockOffset;  // 종목 i 의 첫 블록 번호 (symbolCount + 1)
+    private final double[] blockSum;
+    private final double[] blockM2;
+    private final int[][] extra;      // 종목별 달력에 없는 날짜의 행 (오름차순)
+    private final int[][] missing;    // 종목별 직전 행과의 사이에 달력 날짜가 빠진 행 (오름차순)
+
+    private SimilarityIndex(long version, int[] blockOffset, double[] blockSum, double[] blockM2,
+                            int[][] extra, int[][] missing) {
+        this.version = version;
+        this.blockOffset = blockOffset;
+        this.blockSum = blockSum;
+        this.blockM2 = blockM2;
+        this.extra = extra;
+        this.missing = missing;
+    }
+
+    /** 색인을 만든 스냅샷 버전 */
+    long version() {
+        return version;
+    }
+
+    /** 전 종목 색인 생성 (종목 단위 병렬) */
+    static SimilarityIndex build(PriceStoreSnapshot snap) {
+        int count = snap.symbolCount();
+        BitSet calendar = calendar(snap);
+
+        int[] blockOffset = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            int len = snap.rowEnd(i) - snap.rowStart(i);
+            blockOffset[i + 1] = blockOffset[i] + (len + BLOCK - 1) / BLOCK;
+        }
+        double[] sum = new double[blockOffset[count]];
+        double[] m2 = new double[blockOffset[count]];
+        int[][] extra = new int[count][];
+        int[][] missing = new int[count][];
+
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int lo = snap.rowStart(i), hi = snap.rowEnd(i);
+            for (int b = blockOffset[i], r = lo; r < hi; b++, r += BLOCK) {
+                int end = Math.min(hi, r + BLOCK);
+                double s = 0;
+                for (int k = r; k < end; k++) s += snap.close(k);
+                double mean = s / (end - r), ss = 0;
+                for (int k = r; k < end; k++) {
+                    double d = snap.close(k) - mean;
+                    ss += d * d;
+                }
+                sum[b] = s;
+                m2[b] = ss;
+            }
+
+            int[] ex = EMPTY, ms = EMPTY;
+            int ne = 0, nm = 0;
+            for (int r = lo; r < hi; r++) {
+                int d = snap.date(r);
+                if (!calendar.get(d)) {
+                    if (ne == ex.length) ex = Arrays.copyOf(ex, Math.max(4, ne * 2));
+                    ex[ne++] = r;
+                }
+                if (r > lo) {
+                    int next = calendar.nextSetBit(snap.date(r - 1) + 1);
+                    if (next >= 0 && next < d) {
+                        if (nm == ms.length) ms = Arrays.copyOf(ms, Math.max(4, nm * 2));
+                        ms[nm++] = r;
+                    }
+                }
+            }
+            extra[i] = ne == 0 ? EMPTY : Arrays.copyOf(ex, ne);
+            missing[i] = nm == 0 ? EMPTY : Arrays.copyOf(ms, nm);
+        });
+        return new SimilarityIndex(snap.getVersion(), blockOffset, sum, m2, extra, missing);
+    }
+
+    /** 상장 기간 중인 종목의 과반이 가진 날짜 = 공통 거래일 */
+    private static BitSet calendar(PriceStoreSnapshot snap) {
+        int count = snap.symbolCount();
+        int minDay = Integer.MAX_VALUE, maxDay = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (snap.rowEnd(i) == snap.rowStart(i)) continue;
+            minDay = Math.min(minDay, snap.date(snap.rowStart(i)));
+            maxDay = Math.max(maxDay, snap.date(snap.rowEnd(i) - 1));
+        }
+        BitSet calendar = new BitSet();
+        if (minDay > maxDay) return calendar;
+
+        int span = maxDay - minDay + 1;
+        int[] present = new int[span];
+        int[] active = new int[span + 1];
+        for (int i = 0; i < count; i++) {
+            int lo = snap.rowStart(i), hi = snap.rowEnd(i);
+            if (hi == lo) continue;
+            active[snap.date(lo) - minDay]++;
+            active[snap.date(hi - 1) - minDay + 1]--;
+            for (int r = lo; r < hi; r++) present[snap.date(r) - minDay]++;
+        }
+        int listed = 0;
+        for (int d = 0; d < span; d++) {
+            listed += active[d];
+            if (present[d] > 0 && present[d] * 2 >= listed) calendar.set(minDay + d);
+        }
+        return calendar;
+    }
+
+    /** 종목 i 의 [from, to) 행 날짜가 공통 거래일 달력과 빈틈없이 일치하는지 */
+    boolean regular(int i, int from, int to) {
+        return !any(extra[i], from, to) && !any(missing[i], from + 1, to);
+    }
+
+    /** sorted 에 [from, to) 값이 있는지 */
+    private static boolean any(int[] sorted, int from, int to) {
+        if (sorted.length == 0 || from >= to) return false;
+        int p = Arrays.binarySearch(sorted, from);
+        if (p < 0) p = -p - 1;
+        return p < sorted.length && sorted[p] < to;
+    }
+
+    // ==================================
+    // 기준 구간 (질의 1회당 1개)
+    // ==================================
+
+    /**
+     * 기준 종목 구간의 누적합 (PAA 세그먼트 평균을 임의 경계로 O(1) 계산)
+     * @return 결측/분산 0 이면 null (색인 사용 불가)
+     */
+    static Query query(double[] close, int length) {
+        double[] prefix = new double[length + 1];
+        double mean = 0, m2 = 0;
+        for (int k = 0; k < length; k++) {
+            double v = close[k];
+            if (Double.isNaN(v)) return null;
+            prefix[k + 1] = prefix[k] + v;
+            double d = v - mean;
+            mean += d / (k + 1);
+            m2 += d * (v - mean);
+        }
+        double std = Math.sqrt(m2 / length);
+        if (!(std > 0)) return null;
+        return new Query(prefix, length, mean, std);
+    }
+
+    record Query(double[] prefix, int length, double mean, double std) {
+        /** 기준 구간 [a, b) 의 z-정규화 평균 */
+        double zMean(int a, int b) {
+            return ((prefix[b] - prefix[a]) / (b - a) - mean) / std;
+        }
+    }
+
+    /**
+     * 종목 i 의 [from, to) 구간과 기준 구간의 상관 상한 (to - from == q.length 인 경우만)
+     * - 구간 경계가 블록 중간이면 양 끝 일부 행은 직접 읽어 세그먼트 1개씩으로 처리
+     * @return 상한, 판단 불가(결측/분산 0)면 +Inf
+     */
+    double upperBound(PriceStoreSnapshot snap, int i, int from, int to, Query q) {
+        int lo = snap.rowStart(i);
+        int firstBlock = (from - lo + BLOCK - 1) / BLOCK;   // 구간 안에서 시작하는 첫 블록
+        int endBlock = (to - lo) / BLOCK;                   // 구간 안에서 끝나는 마지막 블록 + 1
+        int headEnd = Math.min(to, lo + firstBlock * BLOCK);
+        int tailStart = Math.max(headEnd, lo + endBlock * BLOCK);
+
+        // 1) 구간 평균 / M2 (블록 병합, 양 끝은 한 행씩)
+        double n = 0, mean = 0, m2 = 0;
+        for (int r = from; r < headEnd; r++) {
+            double v = snap.close(r), d = v - mean;
+            n++;
+            mean += d / n;
+            m2 += d * (v - mean);
+        }
+        int base = blockOffset[i];
+        for (int b = firstBlock; b < endBlock; b++) {
+            double bm = blockSum[base + b] / BLOCK, d = bm - mean, total = n + BLOCK;
+            m2 += blockM2[base + b] + d * d * n * BLOCK / total;
+            mean += d * BLOCK / total;
+            n = total;
+        }
+        for (int r = tailStart; r < to; r++) {
+            double v = snap.close(r), d = v - mean;
+            n++;
+            mean += d / n;
+            m2 += d * (v - mean);
+        }
+        double std = Math.sqrt(m2 / n);
+        if (!(std > 0)) return Double.POSITIVE_INFINITY;
+
+        // 2) PAA 거리² (세그먼트: 앞쪽 행들, 블록들, 뒤쪽 행들)
+        double dist = 0;
+        int off = from;
+        for (int r = from; r < headEnd; r++) {
+            double e = (snap.close(r) - mean) / std - q.zMean(r - off, r - off + 1);
+            dist += e * e;
+        }
+        for (int b = firstBlock; b < endBlock; b++) {
+            int a = lo + b * BLOCK - off;
+            double e = (blockSum[base + b] / BLOCK - mean) / std - q.zMean(a, a + BLOCK);
+            dist += BLOCK * e * e;
+        }
+        for (int r = tailStart; r < to; r++) {
+            double e = (snap.close(r) - mean) / std - q.zMean(r - off, r - off + 1);
+            dist += e * e;
+        }
+        return 1 - dist / (2 * n);
+    }
+}
@@ -0,0 +1,128 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.rank.TopKCollector;
+
+/**
+ * WindowSearch
+ * --------------------------------------------------------
+ * 전 종목 과거 이력 전체에서 기준 구간과 가장 닮은 구간 검색 (한 번의 요청 = 인스턴스 1개)
+ * - 종목마다 가능한 모든 시작 위치의 z-정규화 유클리드 거리(거리 프로파일)를 MASS 로 계산
+ *   거리² = 2m(1 - 상관), 상관 = QT[i] / (m · σ_i)   (질의는 z-정규화되어 평균 0, 표준편차 1)
+ *   QT 는 Mass.slidingDot, 구간 평균/표준편차는 누적합으로 O(1)
+ * - 결측 종가가 낀 구간·분산 0 구간은 제외
+ * - 기준 종목 자신은 기준 구간과 겹치는 시작 위치를 제외 (자기 자신 매칭 방지)
+ * - 종목마다 최근접 구간 1개만 후보 → 워커의 TopKCollector 에 상관을 점수로 보관
+ * 행 번호는 스냅샷 전체 기준 절대 인덱스
+ * --------------------------------------------------------
+ */
+final class WindowSearch {
+
+    private final Mass.Query query;
+    private final int m;
+    private final int k;
+    private final int fromDay;
+    private final int baseIndex;
+    private final int baseFrom;
+    private final int baseTo;
+
+    /** 종목별 최근접 구간 시작 행 (종목마다 한 워커만 기록) */
+    final int[] bestRow;
+
+    /**
+     * @param close   기준 구간 종가 (결측 없음, 분산 > 0)
+     * @param fromDay 검색 시작일 (epochDay, 이 날짜 이후에 시작하는 구간만)
+     */
+    WindowSearch(double[] close, int m, int k, int fromDay, int symbolCount,
+                 int baseIndex, int baseFrom, int baseTo) {
+        double mean = 0;
+        for (int j = 0; j < m; j++) mean += close[j];
+        mean /= m;
+        double ss = 0;
+        for (int j = 0; j < m; j++) ss += (close[j] - mean) * (close[j] - mean);
+        double std = Math.sqrt(ss / m);
+        double[] q = new double[m];
+        for (int j = 0; j < m; j++) q[j] = (close[j] - mean) / std;
+
+        this.query = new Mass.Query(q);
+        this.m = m;
+        this.k = Math.max(1, k);
+        this.fromDay = fromDay;
+        this.baseIndex = baseIndex;
+        this.baseFrom = baseFrom;
+        this.baseTo = baseTo;
+        this.bestRow = new int[symbolCount];
+    }
+
+    Worker newWorker() {
+        return new Worker();
+    }
+
+    /** 상관 → z-정규화 유클리드 거리 */
+    double distance(double correlation) {
+        return Math.sqrt(Math.max(0, 2.0 * m * (1 - correlation)));
+    }
+
+    final class Worker {
+        final TopKCollector best = new TopKCollector(k);
+        private final Mass.Scratch scratch = new Mass.Scratch();
+        private double[] t = new double[0];
+        private double[] dot = new double[0];
+        private double[] sum = new double[0];
+        private double[] sumSq = new double[0];
+        private int[] nan = new int[0];
+
+        /** 종목 i 의 최근접 구간을 찾아 후보로 제출 */
+        void scan(PriceStoreSnapshot snap, int i) {
+            int lo = snap.lowerBound(i, fromDay), hi = snap.rowEnd(i);
+            int n = hi - lo;
+            if (n < m) return;
+            ensure(n);
+            snap.copyClose(lo, hi, t, 0);
+
+            // 수치 안정을 위해 첫 유효값을 빼서 누적 (상관은 이동에 불변, 질의 합 = 0 이라 QT 도 불변)
+            double shift = Double.NaN, scale = 0;
+            for (int r = 0; r < n && Double.isNaN(shift); r++) shift = t[r];
+            if (Double.isNaN(shift)) return;
+            for (int r = 0; r < n; r++) {
+                double v = t[r] - shift;
+                t[r] = v;
+                boolean missing = Double.isNaN(v);
+                sum[r + 1] = sum[r] + (missing ? 0 : v);
+                sumSq[r + 1] = sumSq[r] + (missing ? 0 : v * v);
+                nan[r + 1] = nan[r] + (missing ? 1 : 0);
+                if (!missing) scale = Math.max(scale, v * v);
+            }
+            Mass.slidingDot(query, t, n, dot, scratch);
+
+            double floor = 1e-12 * Math.max(scale, shift * shift);
+            double bestCorr = Double.NaN;
+            int bestAt = -1;
+            for (int s = 0; s + m <= n; s++) {
+                if (nan[s + m] != nan[s]) continue;
+                if (i == baseIndex && lo + s < baseTo && lo + s + m > baseFrom) continue;
+                double mean = (sum[s + m] - sum[s]) / m;
+                double var = (sumSq[s + m] - sumSq[s]) / m - mean * mean;
+                if (!(var > floor)) continue;
+                double corr = dot[s] / (m * Math.sqrt(var));
+                if (Double.isNaN(bestCorr) || corr > bestCorr) {
+                    bestCorr = corr;
+                    bestAt = s;
+                }
+            }
+            if (bestAt < 0) return;
+            bestRow[i] = lo + bestAt;
+            best.offer(Math.min(1.0, bestCorr), i);
+        }
+
+        private void ensure(int n) {
+            if (t.length < n) {
+                t = new double[n];
+                dot = new double[n];
+                sum = new double[n + 1];
+                sumSq = new double[n + 1];
+                nan = new int[n + 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * cosine: 양쪽을 z-정규화한 뒤 코사인 유사도
+ * - z-정규화 상수는 분자/분모에서 상쇄되므로 중심화 벡터의 코사인으로 계산
+ */
+@Component
+public class CosineMetric implements SimilarityMetric {
+
+    @Override
+    public String name() {
+        return "cosine";
+    }
+
+    @Override
+    public double similarity(double[] base, double[] compare, int n, MetricScratch scratch) {
+        return centeredCosine(base, compare, n);
+    }
+
+    @Override
+    public boolean correlation() {
+        return true;
+    }
+
+    /** 중심화 코사인 (= z-정규화 코사인 = 피어슨 상관), 분산 0 이면 NaN */
+    public static double centeredCosine(double[] x, double[] y, int n) {
+        if (n == 0) return Double.NaN;
+        double mx = 0, my = 0;
+        for (int k = 0; k < n; k++) {
+            mx += x[k];
+            my += y[k];
+        }
+        mx /= n;
+        my /= n;
+        double sxx = 0, syy = 0, sxy = 0;
+        for (int k = 0; k < n; k++) {
+            double dx = x[k] - mx, dy = y[k] - my;
+            sxx += dx * dx;
+            syy += dy * dy;
+            sxy += dx * dy;
+        }
+        if (sxx == 0 || syy == 0) return Double.NaN;
+        return sxy / Math.sqrt(sxx * syy);
+    }
+}
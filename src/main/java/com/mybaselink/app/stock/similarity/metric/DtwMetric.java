@@ -0,0 +1,46 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * dtw: 1 / (1 + DTW 거리)
+ * - dtaidistance dtw.distance 와 동일 (제곱 차이 누적 경로 비용의 제곱근, 창 제한 없음)
+ * - 두 행만 유지하는 O(n) 메모리 동적 계획법
+ */
+@Component
+public class DtwMetric implements SimilarityMetric {
+
+    @Override
+    public String name() {
+        return "dtw";
+    }
+
+    @Override
+    public double similarity(double[] base, double[] compare, int n, MetricScratch scratch) {
+        if (n == 0) return Double.NaN;
+        return 1.0 / (1.0 + Math.sqrt(squaredDistance(base, compare, n, scratch)));
+    }
+
+    /** 전 구간 DTW 누적 비용 (제곱 거리) */
+    static double squaredDistance(double[] a, double[] b, int n, MetricScratch scratch) {
+        double[] prev = scratch.buffer(0, n + 1);
+        double[] cur = scratch.buffer(1, n + 1);
+        Arrays.fill(prev, 0, n + 1, Double.POSITIVE_INFINITY);
+        prev[0] = 0;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = Double.POSITIVE_INFINITY;
+            double ai = a[i - 1];
+            for (int j = 1; j <= n; j++) {
+                double d = ai - b[j - 1];
+                double best = Math.min(prev[j - 1], Math.min(prev[j], cur[j - 1]));
+                cur[j] = d * d + best;
+            }
+            double[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[n];
+    }
+}
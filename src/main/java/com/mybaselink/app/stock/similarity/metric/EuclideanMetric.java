@@ -0,0 +1,26 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * euclidean: 1 / (1 + ||base - compare||) (원 가격 기준)
+ */
+@Component
+public class EuclideanMetric implements SimilarityMetric {
+
+    @Override
+    public String name() {
+        return "euclidean";
+    }
+
+    @Override
+    public double similarity(double[] base, double[] compare, int n, MetricScratch scratch) {
+        if (n == 0) return Double.NaN;
+        double ss = 0;
+        for (int k = 0; k < n; k++) {
+            double d = base[k] - compare[k];
+            ss += d * d;
+        }
+        return 1.0 / (1.0 + Math.sqrt(ss));
+    }
+}
@@ -0,0 +1,20 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+/**
+ * 유사도 계산용 작업 버퍼 (스레드별 1개, 재사용)
+ * - 요청 길이보다 작을 때만 다시 할당하므로 같은 구간 반복 계산 시 할당 없음
+ */
+public final class MetricScratch {
+
+    private final double[][] buffers = new double[4][0];
+
+    /** slot(0~3) 번 버퍼를 최소 len 길이로 반환 (내용은 보존되지 않음) */
+    public double[] buffer(int slot, int len) {
+        double[] b = buffers[slot];
+        if (b.length < len) {
+            b = new double[len];
+            buffers[slot] = b;
+        }
+        return b;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * pearson: 피어슨 상관계수 (pandas Series.corr 와 동일)
+ */
+@Component
+public class PearsonMetric implements SimilarityMetric {
+
+    @Override
+    public String name() {
+        return "pearson";
+    }
+
+    @Override
+    public double similarity(double[] base, double[] compare, int n, MetricScratch scratch) {
+        // cosine 과 같은 식: z-정규화 코사인은 피어슨 상관과 수학적으로 같으므로 의도적으로 같은 값을 냄
+        // (method 이름만 Python 스크립트의 두 선택지를 그대로 유지)
+        return CosineMetric.centeredCosine(base, compare, n);
+    }
+
+    @Override
+    public boolean correlation() {
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+/**
+ * 유사도 계산 방식 SPI
+ * --------------------------------------------------------
+ * - name() 은 API 의 method 파라미터 값 (cosine, pearson, euclidean, slope, dtw)
+ * - 입력은 기준 날짜에 맞춰 정렬된 두 종가 배열의 앞 n 개
+ * - 계산 중 메모리 할당 금지: 필요한 작업 공간은 MetricScratch 에서 재사용
+ * - 구현체는 @Component 로 등록하면 SimilarityMetrics 에 자동 등록
+ * --------------------------------------------------------
+ */
+public interface SimilarityMetric {
+
+    /** method 파라미터 값 */
+    String name();
+
+    /**
+     * @return 클수록 유사, 계산 불가 시 NaN
+     */
+    double similarity(double[] base, double[] compare, int n, MetricScratch scratch);
+
+    /**
+     * 점수가 z-정규화 상관(피어슨)과 같은지
+     * - true 면 SimilarityIndex 의 상관 상한으로 후보를 미리 걸러냄
+     */
+    default boolean correlation() {
+        return false;
+    }
+}
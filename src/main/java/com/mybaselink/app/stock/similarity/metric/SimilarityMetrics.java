@@ -0,0 +1,38 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 등록된 SimilarityMetric 조회 (method 파라미터 → 구현체)
+ */
+@Component
+public class SimilarityMetrics {
+
+    private final Map<String, SimilarityMetric> metrics = new LinkedHashMap<>();
+
+    public SimilarityMetrics(List<SimilarityMetric> registered) {
+        for (SimilarityMetric m : registered) {
+            metrics.put(m.name().toLowerCase(Locale.ROOT), m);
+        }
+    }
+
+    /** @throws IllegalArgumentException 지원하지 않는 method */
+    public SimilarityMetric get(String method) {
+        String key = method == null ? "cosine" : method.trim().toLowerCase(Locale.ROOT);
+        SimilarityMetric m = metrics.get(key);
+        if (m == null) {
+            throw new IllegalArgumentException("지원하지 않는 유사도 방식입니다: " + method + " (지원: " + metrics.keySet() + ")");
+        }
+        return m;
+    }
+
+    public Set<String> names() {
+        return metrics.keySet();
+    }
+}
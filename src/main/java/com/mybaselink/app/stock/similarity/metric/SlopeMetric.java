@@ -0,0 +1,29 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * slope: 1 / (1 + mean|gradient(base) - gradient(compare)|)
+ * - np.gradient 규칙: 양 끝은 한쪽 차분, 내부는 중앙 차분
+ */
+@Component
+public class SlopeMetric implements SimilarityMetric {
+
+    @Override
+    public String name() {
+        return "slope";
+    }
+
+    @Override
+    public double similarity(double[] base, double[] compare, int n, MetricScratch scratch) {
+        if (n < 2) return Double.NaN;
+        double sum = Math.abs((base[1] - base[0]) - (compare[1] - compare[0]))
+                + Math.abs((base[n - 1] - base[n - 2]) - (compare[n - 1] - compare[n - 2]));
+        for (int k = 1; k < n - 1; k++) {
+            double gb = (base[k + 1] - base[k - 1]) * 0.5;
+            double gc = (compare[k + 1] - compare[k - 1]) * 0.5;
+            sum += Math.abs(gb - gc);
+        }
+        return 1.0 / (1.0 + sum / n);
+    }
+}
@@ -0,0 +1,347 @@
+package com.mybaselink.app.job;
+
+import com.mybaselink.app.service.JobStoreService;
+import com.mybaselink.app.service.TaskStatusService;
+import com.mybaselink.app.service.TestJobStores;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JobScheduler: 대기열 순번(동시 제출 포함)·가득 참 거절(429)·대기/실행 중 취소·같은 키 요청 공유(합류/분리) 확인
+ * - SIMILARITY 동시 실행 1, 대기열 2 (Python 워커는 띄우지 않음)
+ */
+class JobSchedulerTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private TaskStatusService taskStatusService;
+    private PythonProcessRunner pythonProcessRunner;
+    private JobScheduler scheduler;
+    /** 실행 슬롯을 막고 있는 작업을 놓아 주는 문 */
+    private CountDownLatch gate;
+
+    @BeforeEach
+    void setUp() {
+        JobStoreService store = TestJobStores.empty();
+        taskStatusService = new TaskStatusService(store, 30, 6, 100, 64);
+        pythonProcessRunner = new PythonProcessRunner("python3", "/nonexistent.py", 1, 1, 1, "", 1, 10);
+        scheduler = new JobScheduler(taskStatusService, pythonProcessRunner, store, "SIMILARITY=1", 2);
+        gate = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        scheduler.shutdown();
+        pythonProcessRunner.shutdown();
+    }
+
+    // ==================================
+    // 대기열
+    // ==================================
+
+    @Test
+    void queuedJobsReportPosition() throws Exception {
+        occupySlot("running");
+        scheduler.submitShared(JobType.SIMILARITY, "q1", "k1", ctx -> "q1");
+        scheduler.submitShared(JobType.SIMILARITY, "q2", "k2", ctx -> "q2");
+
+        assertEquals(0, scheduler.position("running"));
+        assertEquals(1, scheduler.position("q1"));
+        assertEquals(2, scheduler.position("q2"));
+        assertEquals(JobState.QUEUED.name(), status("q2").getStatus());
+        assertEquals(2, ((Map<?, ?>) status("q2").getResult()).get("queuePosition"));
+
+        gate.countDown();
+        awaitStatus("q2", JobState.COMPLETED);
+        awaitIdle();
+        assertEquals("q1", status("q1").getResult());
+        assertEquals(-1, scheduler.position("q2"));
+    }
+
+    @Test
+    void concurrentSubmitsGetDistinctPositions() throws Exception {
+        scheduler.shutdown();
+        scheduler = new JobScheduler(taskStatusService, pythonProcessRunner, TestJobStores.empty(), "SIMILARITY=1", 32);
+        occupySlot("running");
+
+        int jobs = 24;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int j = 0; j < jobs; j++) {
+            String id = "q" + j;
+            Thread t = new Thread(() -> {
+                await(go);
+                scheduler.submit(JobType.SIMILARITY, id, () -> {});
+            });
+            t.start();
+            threads.add(t);
+        }
+        go.countDown();
+        for (Thread t : threads) t.join(TimeUnit.SECONDS.toMillis(WAIT_SECONDS));
+
+        // 보고된 순번 = 실제 대기열 위치, 1..jobs 가 한 번씩
+        Set<Object> positions = new HashSet<>();
+        for (int j = 0; j < jobs; j++) {
+            Object reported = ((Map<?, ?>) status("q" + j).getResult()).get("queuePosition");
+            assertEquals(scheduler.position("q" + j), reported, "q" + j);
+            positions.add(reported);
+        }
+        assertEquals(IntStream.rangeClosed(1, jobs).boxed().collect(Collectors.toSet()), positions);
+    }
+
+    @Test
+    void fullQueueRejects() throws Exception {
+        occupySlot("running");
+        scheduler.submitShared(JobType.SIMILARITY, "q1", "k1", ctx -> "q1");
+        scheduler.submitShared(JobType.SIMILARITY, "q2", "k2", ctx -> "q2");
+
+        JobRejectedException e = assertThrows(JobRejectedException.class,
+                () -> scheduler.submitShared(JobType.SIMILARITY, "q3", "k3", ctx -> "q3"));
+        assertEquals(JobType.SIMILARITY, e.getType());
+        assertEquals(2, e.getQueued());
+        assertEquals(2, e.getCapacity());
+        assertTrue(e.getRetryAfterSeconds() > 0);
+
+        // 거절된 요청은 상태를 남기지 않음
+        assertNull(status("q3"));
+        assertEquals(1L, lane().get("rejected"));
+        assertEquals(-1, scheduler.position("q3"));
+    }
+
+    @Test
+    void laneWithoutQueueRejectsWhileRunning() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit(JobType.STOCK_UPDATE, "update-1", () -> {
+            started.countDown();
+            await(gate);
+        });
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        JobRejectedException e = assertThrows(JobRejectedException.class,
+                () -> scheduler.submit(JobType.STOCK_UPDATE, "update-2", () -> {}));
+        assertEquals(0, e.getCapacity());
+    }
+
+    // ==================================
+    // 취소
+    // ==================================
+
+    @Test
+    void cancelQueuedJobRemovesItFromQueue() throws Exception {
+        occupySlot("running");
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.submit(JobType.SIMILARITY, "q1", runs::incrementAndGet);
+        scheduler.submit(JobType.SIMILARITY, "q2", () -> complete("q2", "q2"));
+
+        assertTrue(scheduler.cancel("q1"));
+        assertEquals(JobState.CANCELLED.name(), status("q1").getStatus());
+        assertEquals(-1, scheduler.position("q1"));
+        assertEquals(1, scheduler.position("q2"));
+        assertFalse(scheduler.cancel("q1"));
+
+        gate.countDown();
+        awaitStatus("q2", JobState.COMPLETED);
+        assertEquals(0, runs.get());
+        assertEquals(JobState.CANCELLED.name(), status("q1").getStatus());
+    }
+
+    @Test
+    void cancelRunningJobKeepsCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        scheduler.submit(JobType.SIMILARITY, "running", () -> {
+            taskStatusService.setTaskStatus("running",
+                    new TaskStatusService.TaskStatus(JobState.IN_PROGRESS.name(), null, null));
+            started.countDown();
+            await(gate);
+            complete("running", "late result");
+            finished.countDown();
+        });
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(scheduler.cancel("running"));
+        assertEquals(JobState.CANCELLED.name(), status("running").getStatus());
+
+        // 취소 뒤에 도착한 완료는 무시
+        gate.countDown();
+        assertTrue(finished.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        awaitIdle();
+        assertEquals(JobState.CANCELLED.name(), status("running").getStatus());
+        assertNull(status("running").getResult());
+        assertEquals(1L, lane().get("cancelled"));
+    }
+
+    @Test
+    void cancelUnknownOrFinishedJobFails() throws Exception {
+        assertFalse(scheduler.cancel("missing"));
+
+        scheduler.submitShared(JobType.SIMILARITY, "done", "k0", ctx -> "ok");
+        awaitStatus("done", JobState.COMPLETED);
+        assertFalse(scheduler.cancel("done"));
+        assertEquals(JobState.COMPLETED.name(), status("done").getStatus());
+    }
+
+    // ==================================
+    // 공유 작업 (single-flight)
+    // ==================================
+
+    @Test
+    void sameKeyRequestsShareOneRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        JobBody<String> body = ctx -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(gate);
+            return "shared";
+        };
+        scheduler.submitShared(JobType.SIMILARITY, "a",
+                JobScheduler.flightKey("similar", "005930", "2024-01-02", "2024-03-29", 10), body);
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        scheduler.submitShared(JobType.SIMILARITY, "b",
+                JobScheduler.flightKey("similar", " 005930 ", "20240102", "2024-03-29", 10), body);
+        scheduler.submitShared(JobType.SIMILARITY, "c",
+                JobScheduler.flightKey("similar", "005930", "2024-01-02", "20240329", 10), body);
+
+        assertEquals(0, scheduler.position("b"));
+        assertSame(status("a"), status("b"));
+        assertSame(status("a"), status("c"));
+        assertEquals(2L, lane().get("coalesced"));
+
+        gate.countDown();
+        awaitStatus("c", JobState.COMPLETED);
+        assertEquals(1, runs.get());
+        for (String id : new String[]{"a", "b", "c"}) assertEquals("shared", status(id).getResult(), id);
+    }
+
+    @Test
+    void leavingRequesterKeepsSharedJobForOthers() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        JobBody<String> body = ctx -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(gate);
+            return "shared";
+        };
+        scheduler.submitShared(JobType.SIMILARITY, "a", "k1", body);
+        scheduler.submitShared(JobType.SIMILARITY, "b", "k1", body);
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(scheduler.cancel("b"));
+        assertFalse(scheduler.cancel("b"));
+        assertEquals(JobState.CANCELLED.name(), status("b").getStatus());
+        assertEquals(JobState.IN_PROGRESS.name(), status("a").getStatus());
+        assertNotSame(status("a"), status("b"));
+
+        gate.countDown();
+        awaitStatus("a", JobState.COMPLETED);
+        assertEquals(1, runs.get());
+        assertEquals("shared", status("a").getResult());
+        assertEquals(JobState.CANCELLED.name(), status("b").getStatus());
+    }
+
+    @Test
+    void lastRequesterLeavingCancelsSharedJob() throws Exception {
+        occupySlot("running");
+        AtomicInteger runs = new AtomicInteger();
+        JobBody<Integer> body = ctx -> runs.incrementAndGet();
+        scheduler.submitShared(JobType.SIMILARITY, "x", "k1", body);
+        assertEquals(1, scheduler.position("x"));
+
+        assertTrue(scheduler.cancel("x"));
+        assertEquals(JobState.CANCELLED.name(), status("x").getStatus());
+        assertEquals(-1, scheduler.position("x"));
+
+        // 취소된 공유 작업에 합류하지 않고 새로 실행
+        scheduler.submitShared(JobType.SIMILARITY, "y", "k1", body);
+        assertEquals(1, scheduler.position("y"));
+        assertEquals(0L, lane().get("coalesced"));
+
+        gate.countDown();
+        awaitStatus("y", JobState.COMPLETED);
+        assertEquals(1, runs.get());
+        assertEquals(JobState.CANCELLED.name(), status("x").getStatus());
+    }
+
+    @Test
+    void flightKeyNormalizesParameters() {
+        assertEquals("pattern|20240102|20240329|10",
+                JobScheduler.flightKey("pattern", " 2024-01-02", "20240329 ", 10));
+        assertEquals("similar-new||5", JobScheduler.flightKey("similar-new", null, 5));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** 문이 열릴 때까지 SIMILARITY 실행 슬롯을 차지하는 작업 */
+    private void occupySlot(String taskId) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submitShared(JobType.SIMILARITY, taskId, "slot-" + taskId, ctx -> {
+            started.countDown();
+            await(gate);
+            return taskId;
+        });
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private void complete(String taskId, Object result) {
+        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus(JobState.COMPLETED.name(), result, null));
+    }
+
+    private TaskStatusService.TaskStatus status(String taskId) {
+        return taskStatusService.getTaskStatus(taskId);
+    }
+
+    private Map<?, ?> lane() {
+        return (Map<?, ?>) scheduler.stats().get(JobType.SIMILARITY.name());
+    }
+
+    private void awaitStatus(String taskId, JobState state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            TaskStatusService.TaskStatus s = status(taskId);
+            if (s != null && state.name().equals(s.getStatus())) return;
+            Thread.sleep(5);
+        }
+        TaskStatusService.TaskStatus s = status(taskId);
+        throw new AssertionError(taskId + " 상태가 " + state + " 이 되지 않음: " + (s == null ? null : s.getStatus()));
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (scheduler.running(JobType.SIMILARITY) > 0 && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(0, scheduler.running(JobType.SIMILARITY));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
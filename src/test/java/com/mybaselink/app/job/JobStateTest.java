@@ -0,0 +1,62 @@
+package com.mybaselink.app.job;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JobState: 허용 전이 표 (끝난 상태는 더 바뀌지 않음) 확인
+ */
+class JobStateTest {
+
+    /** 행 = 현재 상태, 열 = 다음 상태 (JobState 선언 순서) */
+    private static final boolean[][] ALLOWED = {
+            //            QUEUED IN_PROGRESS COMPLETED FAILED CANCELLED
+            /* QUEUED      */ {true,  true,  true,  true,  true},
+            /* IN_PROGRESS */ {false, true,  true,  true,  true},
+            /* COMPLETED   */ {false, false, false, false, false},
+            /* FAILED      */ {false, false, false, false, false},
+            /* CANCELLED   */ {false, false, false, false, false},
+    };
+
+    @Test
+    void transitionTable() {
+        JobState[] states = JobState.values();
+        assertEquals(ALLOWED.length, states.length);
+        for (JobState from : states) {
+            for (JobState to : states) {
+                assertEquals(ALLOWED[from.ordinal()][to.ordinal()], from.canMoveTo(to), from + " → " + to);
+            }
+            assertFalse(from.canMoveTo(null), from + " → null");
+        }
+    }
+
+    @Test
+    void onlyTerminalStatesAreFinished() {
+        assertFalse(JobState.QUEUED.finished());
+        assertFalse(JobState.IN_PROGRESS.finished());
+        assertTrue(JobState.COMPLETED.finished());
+        assertTrue(JobState.FAILED.finished());
+        assertTrue(JobState.CANCELLED.finished());
+    }
+
+    // ==================================
+    // 상태 문자열 변환
+    // ==================================
+
+    @Test
+    void parsesStatusStrings() {
+        assertEquals(JobState.COMPLETED, JobState.of("COMPLETED"));
+        assertEquals(JobState.IN_PROGRESS, JobState.of(" in_progress "));
+        assertNull(JobState.of(null));
+        assertNull(JobState.of("DONE"));
+
+        assertTrue(JobState.isFinished("cancelled"));
+        assertFalse(JobState.isFinished("QUEUED"));
+        assertFalse(JobState.isFinished("DONE"));
+        assertFalse(JobState.isFinished(null));
+    }
+}
@@ -0,0 +1,100 @@
+package com.mybaselink.app.service;
+
+import com.mybaselink.app.job.JobScheduler;
+import com.mybaselink.app.job.JobState;
+import com.mybaselink.app.job.JobType;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import com.mybaselink.app.stock.pattern.ChartPatternScanner;
+import com.mybaselink.app.stock.pattern.CupAndHandleDetector;
+import com.mybaselink.app.stock.pattern.DoubleBottomDetector;
+import com.mybaselink.app.stock.pattern.DoubleTopDetector;
+import com.mybaselink.app.stock.pattern.PatternDetectors;
+import com.mybaselink.app.stock.python.PythonProcessRunner;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ChartPatternService: 공유 키용 패턴 목록 정규화 (순서·대소문자·중복 무관),
+ * 실행을 공유한 다중 패턴 요청이 요청 순서와 무관하게 같은 (이름순) 결과를 받는지 확인
+ */
+class ChartPatternServiceTest {
+
+    @Test
+    void patternKeyIgnoresOrderCaseAndDuplicates() {
+        String key = ChartPatternService.patternKey("double_bottom,cup_and_handle");
+        assertEquals("cup_and_handle,double_bottom", key);
+        assertEquals(key, ChartPatternService.patternKey(" Cup_And_Handle , double_bottom,cup_and_handle,"));
+        assertEquals("double_bottom", ChartPatternService.patternKey("DOUBLE_BOTTOM"));
+    }
+
+    @Test
+    void blankOrAllMeansEveryPattern() {
+        assertEquals("all", ChartPatternService.patternKey(null));
+        assertEquals("all", ChartPatternService.patternKey(" "));
+        assertEquals("all", ChartPatternService.patternKey("ALL"));
+    }
+
+    @Test
+    void sharedMultiPatternRunUsesNormalizedOrder() throws Exception {
+        JobStoreService store = TestJobStores.empty();
+        TaskStatusService statuses = new TaskStatusService(store, 30, 6, 100, 64);
+        PythonProcessRunner python = new PythonProcessRunner("python3", "/nonexistent.py", 1, 1, 1, "", 1, 10);
+        JobScheduler scheduler = new JobScheduler(statuses, python, store, "PATTERN=1", 4);
+        int base = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+        double[] close = new double[60];
+        for (int k = 0; k < close.length; k++) close[k] = 100 + Math.sin(k / 5.0) * 10;
+        ChartPatternScanner scanner = new ChartPatternScanner(TestSnapshots.store(TestSnapshots.of(base, close)),
+                new PatternDetectors(List.of(new DoubleBottomDetector(), new DoubleTopDetector(), new CupAndHandleDetector())));
+        ChartPatternService service = new ChartPatternService(scanner, python, scheduler);
+
+        CountDownLatch gate = new CountDownLatch(1);
+        try {
+            // 실행 슬롯을 막아 두 요청이 대기 중인 같은 실행에 합류하게 함
+            scheduler.submit(JobType.PATTERN, "blocker", () -> {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            String start = LocalDate.ofEpochDay(base).toString(), end = LocalDate.ofEpochDay(base + 59).toString();
+            service.startMultiPatternTask("first", start, end, "double_top,double_bottom", 5);
+            service.startMultiPatternTask("second", start, end, "DOUBLE_BOTTOM,double_top,double_top", 5);
+            gate.countDown();
+
+            Map<?, ?> first = patterns(statuses, "first");
+            Map<?, ?> second = patterns(statuses, "second");
+            assertEquals(List.of("double_bottom", "double_top"), List.copyOf(first.keySet()));
+            assertEquals(List.copyOf(first.keySet()), List.copyOf(second.keySet()));
+        } finally {
+            gate.countDown();
+            scheduler.shutdown();
+            python.shutdown();
+        }
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** 완료될 때까지 기다린 뒤 result.patterns */
+    private static Map<?, ?> patterns(TaskStatusService statuses, String taskId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        TaskStatusService.TaskStatus s = statuses.getTaskStatus(taskId);
+        while ((s == null || !JobState.COMPLETED.name().equals(s.getStatus())) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            s = statuses.getTaskStatus(taskId);
+        }
+        assertTrue(s != null && JobState.COMPLETED.name().equals(s.getStatus()),
+                taskId + ": " + (s == null ? null : s.getStatus()));
+        return (Map<?, ?>) ((Map<?, ?>) s.getResult()).get("patterns");
+    }
+}
@@ -0,0 +1,294 @@
+package com.mybaselink.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselink.app.entity.JobRecordEntity;
+import com.mybaselink.app.job.JobType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JobStoreService: 모아 쓰기(INSERT 한 번 → 상태 UPDATE → 결과는 끝날 때 한 번)·저장 실패 재시도·
+ * 저장 중 변경(버전 확인)·합류 기록 정리·재사용 기준 시각·기동 시 중단 표시 확인
+ */
+class JobStoreServiceTest {
+
+    private static final Map<String, Object> RESULT = Map.of("count", 3);
+
+    // ==================================
+    // 모아 쓰기
+    // ==================================
+
+    @Test
+    void jobFinishedBeforeFirstFlushIsInsertedOnceWithResult() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        store.started("j1");
+        store.finished("j1", "COMPLETED", RESULT, null);
+        store.flush();
+
+        assertEquals(List.of("saveAll"), repo.calls());
+        JobRecordEntity row = repo.row("j1");
+        assertEquals("COMPLETED", row.getStatus());
+        assertNotNull(row.getStartedAt());
+        assertNotNull(row.getFinishedAt());
+        assertNotNull(row.getResultGz());
+        assertEquals(0, store.stats().get("live"));
+        assertEquals(RESULT, store.load("j1").getResult());
+    }
+
+    @Test
+    void storedRowIsUpdatedAndResultWrittenOnlyWhenFinished() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        store.flush();
+        assertEquals("QUEUED", repo.row("j1").getStatus());
+
+        repo.clearCalls();
+        store.started("j1");
+        store.flush();
+        assertEquals(List.of("updateState"), repo.calls());
+        assertEquals("IN_PROGRESS", repo.row("j1").getStatus());
+        assertNull(repo.row("j1").getResultGz());
+
+        repo.clearCalls();
+        store.finished("j1", "COMPLETED", RESULT, null);
+        store.flush();
+        assertEquals(List.of("updateFinished"), repo.calls());
+        assertEquals("COMPLETED", repo.row("j1").getStatus());
+        assertEquals(RESULT, store.load("j1").getResult());
+
+        // 끝난 기록은 메모리에서 빠지고 더 쓰지 않음
+        repo.clearCalls();
+        store.flush();
+        assertEquals(List.of(), repo.calls());
+        assertEquals(0, store.stats().get("live"));
+    }
+
+    // ==================================
+    // 저장 실패 재시도
+    // ==================================
+
+    @Test
+    void failedInsertIsRetriedOnNextFlush() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        repo.failNext(1);
+        store.flush();
+
+        assertNull(repo.row("j1"));
+        assertEquals(1L, store.stats().get("failedFlushes"));
+        assertEquals(1, store.stats().get("pending"));
+
+        store.flush();
+        assertEquals("QUEUED", repo.row("j1").getStatus());
+        assertEquals(0, store.stats().get("pending"));
+    }
+
+    @Test
+    void failedFinishUpdateKeepsResultForRetry() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        store.flush();
+        store.finished("j1", "COMPLETED", RESULT, null);
+        repo.failNext(1);
+        store.flush();
+
+        assertEquals("QUEUED", repo.row("j1").getStatus());
+        assertEquals(1, store.stats().get("live"));
+
+        repo.clearCalls();
+        store.flush();
+        // 다시 시도할 때도 INSERT 가 아닌 UPDATE, 압축해 둔 결과를 함께 기록
+        assertEquals(List.of("updateFinished"), repo.calls());
+        assertEquals("COMPLETED", repo.row("j1").getStatus());
+        assertEquals(RESULT, store.load("j1").getResult());
+        assertEquals(0, store.stats().get("live"));
+    }
+
+    // ==================================
+    // 저장 중 변경
+    // ==================================
+
+    @Test
+    void changeDuringFlushIsKeptForNextFlush() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        store.flush();
+        store.started("j1");
+        // 시작 상태를 쓰는 사이에 작업이 끝남
+        repo.beforeWrite(() -> store.finished("j1", "COMPLETED", RESULT, null));
+        store.flush();
+
+        assertEquals("IN_PROGRESS", repo.row("j1").getStatus());
+        assertEquals(1, store.stats().get("live"));
+        assertEquals(1, store.stats().get("pending"));
+
+        store.flush();
+        assertEquals("COMPLETED", repo.row("j1").getStatus());
+        assertEquals(RESULT, store.load("j1").getResult());
+        assertEquals(0, store.stats().get("live"));
+    }
+
+    // ==================================
+    // 합류 기록
+    // ==================================
+
+    @Test
+    void linkedRowStaysUntilSharedJobFinishes() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        store.linked(JobType.PATTERN, "t2", "key", "j1");
+        store.flush();
+        assertEquals("j1", repo.row("t2").getSharedJobId());
+        assertNull(repo.row("t2").getStatus());
+        assertEquals(2, store.stats().get("live"));
+
+        store.finished("j1", "COMPLETED", RESULT, null);
+        store.flush();
+        assertEquals(0, store.stats().get("live"));
+        // 합류 요청은 공유 작업 결과로 복원
+        assertEquals(RESULT, store.load("t2").getResult());
+    }
+
+    @Test
+    void detachedLinkedRowIsRecordedAsCancelled() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        JobStoreService store = store(repo);
+        store.queued(JobType.PATTERN, "j1", "key");
+        store.linked(JobType.PATTERN, "t2", "key", "j1");
+        store.flush();
+
+        repo.clearCalls();
+        store.detached("t2");
+        store.flush();
+        assertEquals(List.of("updateState"), repo.calls());
+        assertEquals("CANCELLED", repo.row("t2").getStatus());
+        assertEquals("QUEUED", repo.row("j1").getStatus());
+        assertEquals(1, store.stats().get("live"));
+    }
+
+    // ==================================
+    // 재사용·기동 복구
+    // ==================================
+
+    @Test
+    void reuseStopsAtLastStockUpdate() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        Instant now = Instant.now();
+        repo.put(row("old", JobType.PATTERN, "key", "COMPLETED", now.minus(Duration.ofMinutes(10)), RESULT));
+        JobStoreService store = store(repo);
+        store.flush();
+        // reuse-minutes 이내의 완료 결과는 재사용
+        JobStoreService.StoredJob reusable = store.findReusable(JobType.PATTERN, "key");
+        assertNotNull(reusable);
+        assertEquals("old", reusable.jobId());
+        assertNull(store.findReusable(JobType.PATTERN, "other"));
+
+        // 그 뒤로 시세 업데이트가 끝났으면 재사용하지 않음
+        repo.put(row("upd", JobType.STOCK_UPDATE, null, "COMPLETED", now.minus(Duration.ofMinutes(5)), null));
+        store.recoverOnStartup();
+        assertNull(store.findReusable(JobType.PATTERN, "key"));
+
+        // 업데이트 이후 결과는 다시 재사용
+        repo.put(row("new", JobType.PATTERN, "key", "COMPLETED", now.minus(Duration.ofMinutes(1)), RESULT));
+        assertEquals("new", store.findReusable(JobType.PATTERN, "key").jobId());
+    }
+
+    @Test
+    void stockUpdateFinishingInProcessEndsReuse() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        repo.put(row("old", JobType.PATTERN, "key", "COMPLETED", Instant.now().minusSeconds(1), RESULT));
+        JobStoreService store = store(repo);
+        assertNotNull(store.findReusable(JobType.PATTERN, "key"));
+
+        store.queued(JobType.STOCK_UPDATE, "u1", null);
+        store.finished("u1", "COMPLETED", null, null);
+        assertNull(store.findReusable(JobType.PATTERN, "key"));
+    }
+
+    @Test
+    void startupMarksPreviousProcessJobsFailed() {
+        TestJobStores.RecordingRepository repo = TestJobStores.recording();
+        Instant before = Instant.now().minus(Duration.ofHours(1));
+        repo.put(row("queued", JobType.PATTERN, "a", "QUEUED", null, null, before));
+        repo.put(row("running", JobType.SIMILARITY, "b", "IN_PROGRESS", null, null, before));
+        repo.put(row("done", JobType.PATTERN, "c", "COMPLETED", before.plusSeconds(5), RESULT, before));
+        JobStoreService store = store(repo);
+        // 이 프로세스에서 등록한 작업은 그대로
+        repo.put(row("mine", JobType.PATTERN, "d", "QUEUED", null, null, Instant.now().plusSeconds(60)));
+
+        store.recoverOnStartup();
+
+        for (String id : List.of("queued", "running")) {
+            JobRecordEntity row = repo.row(id);
+            assertEquals("FAILED", row.getStatus());
+            assertEquals("서버 재시작으로 중단됨", row.getErrorMessage());
+            assertNotNull(row.getFinishedAt());
+        }
+        assertEquals("COMPLETED", repo.row("done").getStatus());
+        assertEquals("QUEUED", repo.row("mine").getStatus());
+        // 중단 표시된 작업은 재기동 후 실패 상태로 복원
+        assertEquals("FAILED", store.load("running").getStatus());
+        assertTrue(repo.calls().contains("markOrphaned"));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    private static JobStoreService store(TestJobStores.RecordingRepository repo) {
+        return new JobStoreService(repo.repository(), 360, 14);
+    }
+
+    private static JobRecordEntity row(String id, JobType type, String key, String status,
+                                       Instant finishedAt, Object result) {
+        return row(id, type, key, status, finishedAt, result,
+                finishedAt != null ? finishedAt.minusSeconds(30) : Instant.now());
+    }
+
+    /** DB 에 이미 있는 기록 (결과는 저장 형식인 gzip JSON 으로) */
+    private static JobRecordEntity row(String id, JobType type, String key, String status,
+                                       Instant finishedAt, Object result, Instant createdAt) {
+        JobRecordEntity row = new JobRecordEntity();
+        row.setId(id);
+        row.setJobType(type.name());
+        row.setJobKey(key);
+        row.setStatus(status);
+        row.setCreatedAt(createdAt);
+        row.setFinishedAt(finishedAt);
+        row.setUpdatedAt(finishedAt != null ? finishedAt : createdAt);
+        if (result != null) {
+            row.setResultGz(gzipJson(result));
+        }
+        return row;
+    }
+
+    private static byte[] gzipJson(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new ObjectMapper().writeValue(new GZIPOutputStream(bytes), value); // 스트림까지 닫아 gzip 마무리
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
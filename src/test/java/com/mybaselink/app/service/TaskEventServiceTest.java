@@ -0,0 +1,237 @@
+package com.mybaselink.app.service;
+
+import com.mybaselink.app.job.JobState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TaskEventService: 구독자 전송 순서 확인 (TaskStatusService 에 실제로 상태·로그를 쓰고 기록용 SseEmitter 로 읽음)
+ * - sinceSeq / Last-Event-ID 이후 로그부터 이어받기, 끝난 상태 전송 후 스트림 종료
+ * - 전송이 막혀 대기열이 넘치면 현재 상태로 재동기화, 재동기화와 겹친 이벤트는 로그 순번·상태 버전으로 한 번만 전송
+ */
+class TaskEventServiceTest {
+
+    private static final String IN_PROGRESS = JobState.IN_PROGRESS.name();
+    private static final String COMPLETED = JobState.COMPLETED.name();
+
+    private final TaskStatusService statuses = new TaskStatusService(TestJobStores.empty(), 30, 6, 1000, 64);
+    /** 대기열 16건 (최솟값) */
+    private final TaskEventService events = new TaskEventService(statuses, 60_000, 60_000, 16);
+
+    @AfterEach
+    void tearDown() {
+        events.shutdown();
+    }
+
+    // ==================================
+    // 이어받기
+    // ==================================
+
+    @Test
+    void streamStartsAfterSinceSeqAndEndsOnFinish() throws Exception {
+        statuses.setTaskStatus("t", new TaskStatusService.TaskStatus(IN_PROGRESS, null, null));
+        for (int i = 1; i <= 5; i++) statuses.appendLog("t", "line-" + i);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertNotNull(events.open("t", 3, emitter));
+
+        Sent first = emitter.next();
+        assertEquals("status", first.name());
+        assertEquals(IN_PROGRESS, first.data().get("status"));
+        assertEquals(true, first.data().get("full"));
+        assertEquals("3", first.id());
+        assertLog(emitter.next(), 4);
+        assertLog(emitter.next(), 5);
+
+        statuses.appendLog("t", "line-6");
+        assertLog(emitter.next(), 6);
+
+        statuses.setTaskStatus("t", new TaskStatusService.TaskStatus(COMPLETED, List.of("r"), null));
+        Sent last = emitter.next();
+        assertEquals("status", last.name());
+        assertEquals(COMPLETED, last.data().get("status"));
+        assertEquals("6", last.id());
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        awaitClosed();
+    }
+
+    @Test
+    void reconnectWithLastEventIdSkipsDeliveredLogs() throws Exception {
+        statuses.setTaskStatus("t", new TaskStatusService.TaskStatus(IN_PROGRESS, null, null));
+        RecordingEmitter first = new RecordingEmitter();
+        events.open("t", 0, first);
+        assertEquals("status", first.next().name());
+        for (int i = 1; i <= 3; i++) statuses.appendLog("t", "line-" + i);
+        String lastEventId = null;
+        for (int i = 1; i <= 3; i++) lastEventId = first.next().id();
+        assertEquals("3", lastEventId);
+
+        // 연결이 끊긴 동안 쌓인 로그
+        statuses.appendLog("t", "line-4");
+        statuses.appendLog("t", "line-5");
+
+        // 브라우저 재연결: 쿼리의 sinceSeq 는 처음 값(0) 그대로, Last-Event-ID 가 더 큼
+        RecordingEmitter second = new RecordingEmitter();
+        events.open("t", TaskEventService.resumeSeq(0, lastEventId), second);
+        assertEquals("status", second.next().name());
+        assertLog(second.next(), 4);
+        assertLog(second.next(), 5);
+        assertNull(second.poll(200));
+    }
+
+    @Test
+    void resumeSeqTakesLargerOfQueryAndHeader() {
+        assertEquals(7, TaskEventService.resumeSeq(7, null));
+        assertEquals(7, TaskEventService.resumeSeq(7, " "));
+        assertEquals(12, TaskEventService.resumeSeq(7, " 12 "));
+        assertEquals(7, TaskEventService.resumeSeq(7, "3"));
+        assertEquals(7, TaskEventService.resumeSeq(7, "abc"));
+    }
+
+    @Test
+    void unknownTaskHasNoStream() {
+        assertNull(events.open("missing", 0, new RecordingEmitter()));
+        assertEquals(0, events.openStreams());
+    }
+
+    // ==================================
+    // 대기열 초과 → 재동기화
+    // ==================================
+
+    @Test
+    void overflowResyncsWithoutGapsOrDuplicates() throws Exception {
+        statuses.setTaskStatus("t", new TaskStatusService.TaskStatus(IN_PROGRESS, null, null));
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.blockFirstSend();
+        events.open("t", 0, emitter);
+        assertTrue(emitter.entered.await(5, TimeUnit.SECONDS));
+
+        // 첫 전송이 막힌 동안 대기열(16건)을 여러 번 넘기고, 그 뒤 상태도 바꿈
+        int lines = 200;
+        for (int i = 1; i <= lines; i++) statuses.appendLog("t", "line-" + i);
+        statuses.setTaskStatus("t", new TaskStatusService.TaskStatus(IN_PROGRESS, Map.of("progress", 50), null));
+        emitter.release.countDown();
+
+        List<Long> logSeqs = new ArrayList<>();
+        List<Object> statusResults = new ArrayList<>();
+        while (logSeqs.size() < lines || statusResults.size() < 2) {
+            Sent sent = emitter.next();
+            if ("log".equals(sent.name())) {
+                logSeqs.add(((Number) sent.data().get("seq")).longValue());
+                assertEquals(String.valueOf(logSeqs.get(logSeqs.size() - 1)), sent.id());
+            } else {
+                assertEquals("status", sent.name());
+                statusResults.add(sent.data().get("result"));
+            }
+        }
+        // 빠짐·중복 없이 1..200 순서대로, 상태는 바뀐 버전마다 한 번
+        assertEquals(LongStream.rangeClosed(1, lines).boxed().toList(), logSeqs);
+        List<Object> expected = new ArrayList<>();
+        expected.add(null);
+        expected.add(Map.of("progress", 50));
+        assertEquals(expected, statusResults);
+        assertNull(emitter.poll(200));
+
+        statuses.setTaskStatus("t", new TaskStatusService.TaskStatus(COMPLETED, null, null));
+        assertEquals(COMPLETED, emitter.next().data().get("status"));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** 보낸 SSE 이벤트 1건 (주석 ping 은 name = "comment") */
+    record Sent(String name, String id, Map<String, Object> data) {}
+
+    /** 보낸 이벤트를 조각(build())에서 다시 읽어 보관, 필요하면 첫 전송을 막아 둠 */
+    static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockFirst;
+
+        void blockFirstSend() {
+            blockFirst = true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            if (blockFirst) {
+                blockFirst = false;
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String name = null, id = null;
+            Map<String, Object> data = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getMediaType() == null) {
+                    data = (Map<String, Object>) part.getData();
+                    continue;
+                }
+                for (String line : part.getData().toString().split("\n")) {
+                    if (line.startsWith("event:")) name = line.substring(6);
+                    else if (line.startsWith("id:")) id = line.substring(3);
+                    else if (line.startsWith(":")) name = "comment";
+                }
+            }
+            sent.add(new Sent(name, id, data));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        /** 다음 이벤트 (ping 은 건너뜀) */
+        Sent next() throws InterruptedException {
+            Sent s = poll(5_000);
+            assertNotNull(s, "이벤트가 오지 않음");
+            return s;
+        }
+
+        Sent poll(long millis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + millis;
+            while (true) {
+                Sent s = sent.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (s == null || !"comment".equals(s.name())) return s;
+            }
+        }
+    }
+
+    private static void assertLog(Sent sent, long seq) {
+        assertEquals("log", sent.name());
+        assertEquals(seq, ((Number) sent.data().get("seq")).longValue());
+        assertEquals("line-" + seq, sent.data().get("line"));
+        assertEquals(String.valueOf(seq), sent.id());
+    }
+
+    private void awaitClosed() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (events.openStreams() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(0, events.openStreams());
+    }
+}
@@ -0,0 +1,147 @@
+package com.mybaselink.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TaskLogRing: 덮어쓰기(wraparound)·아직 쓰이지 않은 슬롯에서 멈추는 since() 확인
+ */
+class TaskLogRingTest {
+
+    @Test
+    void keepsLatestLinesAfterWraparound() {
+        TaskLogRing ring = new TaskLogRing(8);
+        for (int i = 1; i <= 20; i++) ring.append("line-" + i);
+
+        assertEquals(20, ring.lastSeq());
+        assertEquals(seqs(13, 20), seqsOf(ring.since(0)));
+        // 덮어써진 순번 이후를 요청해도 남아 있는 줄부터
+        assertEquals(seqs(13, 20), seqsOf(ring.since(3)));
+        assertEquals(seqs(16, 20), seqsOf(ring.since(15)));
+        assertTrue(ring.since(20).isEmpty());
+
+        for (TaskStatusService.LogEntry e : ring.since(0)) assertEquals("line-" + e.seq, e.line);
+        // 슬롯 배열 + 남아 있는 줄만 (덮어쓴 줄은 빠짐)
+        long bytes = slotBytes(8);
+        for (int i = 13; i <= 20; i++) bytes += 40 + ("line-" + i).length();
+        assertEquals(bytes, ring.bytes());
+    }
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        TaskLogRing ring = new TaskLogRing(5);
+        assertEquals(8, ring.capacity());
+        for (int i = 1; i <= 12; i++) ring.append("line-" + i);
+        assertEquals(seqs(5, 12), seqsOf(ring.since(0)));
+        assertEquals(2048, new TaskLogRing(2048).capacity());
+    }
+
+    @Test
+    void emptyRingReturnsNothing() {
+        TaskLogRing ring = new TaskLogRing(8);
+        assertTrue(ring.since(0).isEmpty());
+        assertEquals(0, ring.lastSeq());
+        // 비어 있어도 슬롯 배열은 이미 잡혀 있음
+        assertEquals(slotBytes(8), ring.bytes());
+    }
+
+    // ==================================
+    // 아직 쓰이지 않은 슬롯 (순번만 받고 기록 전인 쓰기)
+    // ==================================
+
+    @Test
+    void stopsAtSlotNotYetWritten() throws Exception {
+        TaskLogRing ring = new TaskLogRing(8);
+        for (int i = 1; i <= 3; i++) ring.append("line-" + i);
+        reserveSeq(ring);                       // 순번 4: 다른 스레드가 아직 쓰는 중
+        TaskStatusService.LogEntry fifth = ring.append("line-5");
+
+        assertEquals(5, fifth.seq);
+        // 4 를 건너뛰고 5 를 주면 다음 since(5) 에서 4 가 영영 빠지므로 3 에서 멈춤
+        assertEquals(seqs(1, 3), seqsOf(ring.since(0)));
+        assertTrue(ring.since(3).isEmpty());
+    }
+
+    @Test
+    void stopsAtSlotStillHoldingOlderLine() throws Exception {
+        TaskLogRing ring = new TaskLogRing(8);
+        for (int i = 1; i <= 10; i++) ring.append("line-" + i);
+        reserveSeq(ring);                       // 순번 11 의 슬롯에는 아직 순번 3 이 남아 있음
+
+        assertEquals(seqs(9, 10), seqsOf(ring.since(8)));
+        assertEquals(seqs(4, 10), seqsOf(ring.since(0)));
+    }
+
+    @Test
+    void concurrentReaderNeverSeesGapsOrReordering() throws Exception {
+        int writers = 4;
+        int perWriter = 20_000;
+        TaskLogRing ring = new TaskLogRing(writers * perWriter);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perWriter; i++) ring.append("x");
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        AtomicReference<String> error = new AtomicReference<>();
+        start.countDown();
+        long last = 0;
+        long total = (long) writers * perWriter;
+        while (last < total && error.get() == null) {
+            for (TaskStatusService.LogEntry e : ring.since(last)) {
+                if (e.seq != last + 1) error.set("순번 " + last + " 다음에 " + e.seq);
+                last = e.seq;
+            }
+        }
+        for (Thread t : threads) t.join();
+        assertNull(error.get());
+        assertEquals(total, last);
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** 순번만 받아 두고 슬롯은 쓰지 않은 상태 재현 */
+    /** AtomicReferenceArray 객체 + 내부 참조 배열 (참조 8바이트 기준) */
+    private static long slotBytes(int capacity) {
+        return 16 + 16 + 8L * capacity;
+    }
+
+    private static void reserveSeq(TaskLogRing ring) throws Exception {
+        Field f = TaskLogRing.class.getDeclaredField("lastSeq");
+        f.setAccessible(true);
+        ((AtomicLong) f.get(ring)).incrementAndGet();
+    }
+
+    private static List<Long> seqs(long from, long to) {
+        List<Long> out = new ArrayList<>();
+        for (long s = from; s <= to; s++) out.add(s);
+        return out;
+    }
+
+    private static List<Long> seqsOf(List<TaskStatusService.LogEntry> entries) {
+        List<Long> out = new ArrayList<>();
+        for (TaskStatusService.LogEntry e : entries) out.add(e.seq);
+        return out;
+    }
+}
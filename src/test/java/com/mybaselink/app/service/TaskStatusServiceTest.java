@@ -0,0 +1,209 @@
+package com.mybaselink.app.service;
+
+import com.mybaselink.app.job.JobState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TaskStatusService: 만료(TTL)·작업 수 상한·추정 크기 상한 정리·결과 크기 추정·로그 보관 줄 수 확인
+ * - 끝난 작업부터 오래된 순으로 제거, 진행 중 작업은 상한을 넘어도 유지 (stale-hours 동안 갱신 없는 작업만 예외)
+ */
+class TaskStatusServiceTest {
+
+    private static final String COMPLETED = JobState.COMPLETED.name();
+    private static final String IN_PROGRESS = JobState.IN_PROGRESS.name();
+
+    // ==================================
+    // 만료
+    // ==================================
+
+    @Test
+    void finishedTaskExpiresAfterTtl() {
+        TaskStatusService service = service(1000, 64);
+        service.setTaskStatus("done", status(COMPLETED, "r", minutesAgo(31)));
+        service.setTaskStatus("fresh", status(COMPLETED, "r", minutesAgo(29)));
+
+        assertNull(service.getTaskStatus("done"));
+        assertNotNull(service.getTaskStatus("fresh"));
+        assertEquals(1L, service.stats().get("expired"));
+    }
+
+    @Test
+    void runningTaskExpiresOnlyWhenStale() {
+        TaskStatusService service = service(1000, 64);
+        service.setTaskStatus("slow", status(IN_PROGRESS, null, minutesAgo(60)));
+        service.setTaskStatus("stuck", status(IN_PROGRESS, null, minutesAgo(7 * 60)));
+
+        service.sweep();
+        assertNotNull(service.getTaskStatus("slow"));
+        assertNull(service.getTaskStatus("stuck"));
+    }
+
+    // ==================================
+    // 작업 수 상한
+    // ==================================
+
+    @Test
+    void evictsOldestFinishedWhenOverCount() {
+        TaskStatusService service = service(3, 64);
+        service.setTaskStatus("old", status(COMPLETED, "r", minutesAgo(3)));
+        service.setTaskStatus("running", status(IN_PROGRESS, null, minutesAgo(10)));
+        service.setTaskStatus("mid", status(COMPLETED, "r", minutesAgo(2)));
+        service.setTaskStatus("new", status(COMPLETED, "r", minutesAgo(1)));
+
+        assertEquals(3, service.getAllTasks().size());
+        assertFalse(service.getAllTasks().containsKey("old"));
+        assertTrue(service.getAllTasks().containsKey("running"));
+        assertEquals(1L, service.stats().get("evicted"));
+    }
+
+    @Test
+    void keepsRunningTasksOverCount() {
+        TaskStatusService service = service(2, 64);
+        for (int i = 0; i < 4; i++) service.setTaskStatus("run-" + i, status(IN_PROGRESS, null, minutesAgo(1)));
+
+        assertEquals(4, service.getAllTasks().size());
+        assertEquals(0L, service.stats().get("evicted"));
+    }
+
+    // ==================================
+    // 추정 크기 상한
+    // ==================================
+
+    @Test
+    void evictsOldestFinishedWhenOverBytes() {
+        TaskStatusService service = service(1000, 1);
+        service.setTaskStatus("old", status(COMPLETED, "x".repeat(600_000), minutesAgo(2)));
+        service.setTaskStatus("new", status(COMPLETED, "x".repeat(600_000), minutesAgo(1)));
+
+        service.sweep();
+        assertFalse(service.getAllTasks().containsKey("old"));
+        assertTrue(service.getAllTasks().containsKey("new"));
+        assertTrue((Long) service.stats().get("estimatedBytes") <= 1024L * 1024L);
+    }
+
+    @Test
+    void sharedStatusCountsOnce() {
+        TaskStatusService service = service(1000, 1);
+        service.setTaskStatus("flight", status(COMPLETED, "x".repeat(600_000), minutesAgo(2)));
+        service.share("a", "flight");
+        service.share("b", "flight");
+        service.setTaskStatus("other", status(COMPLETED, "x".repeat(300_000), minutesAgo(1)));
+
+        service.sweep();
+        assertEquals(4, service.getAllTasks().size());
+        assertSame(service.getTaskStatus("flight"), service.getTaskStatus("b"));
+    }
+
+    @Test
+    void logLinesCountTowardBytes() {
+        TaskStatusService service = service(1000, 1);
+        service.setTaskStatus("noisy", status(COMPLETED, null, minutesAgo(2)));
+        for (int i = 0; i < 2_000; i++) service.appendLog("noisy", "y".repeat(1_000));
+        service.getTaskStatus("noisy").setUpdatedAt(minutesAgo(2)); // 로그 추가로 갱신된 시각을 되돌림
+        service.setTaskStatus("quiet", status(COMPLETED, "r", minutesAgo(1)));
+
+        service.sweep();
+        assertFalse(service.getAllTasks().containsKey("noisy"));
+        assertTrue(service.getAllTasks().containsKey("quiet"));
+    }
+
+    @Test
+    void logKeepsAtMostCapacityLines() {
+        TaskStatusService service = service(1000, 64);
+        service.setTaskStatus("t", status(IN_PROGRESS, null, Instant.now()));
+        for (int i = 1; i <= 3_000; i++) service.appendLog("t", "line-" + i);
+
+        List<TaskStatusService.LogEntry> logs = service.getTaskStatus("t").getLogs();
+        // 예전 목록 상한(3000줄) 이내
+        assertEquals(TaskStatusService.LOG_CAPACITY, logs.size());
+        assertTrue(TaskStatusService.LOG_CAPACITY <= 3_000);
+        assertEquals("line-3000", logs.get(logs.size() - 1).line);
+        assertEquals(3_000, service.getTaskStatus("t").getLogSeq());
+    }
+
+    // ==================================
+    // 결과 크기 추정
+    // ==================================
+
+    @Test
+    void estimatesPrimitiveArraysByElementSize() {
+        assertEquals(16 + 8 * 1000, TaskStatusService.estimateBytes(new double[1000]));
+        assertEquals(16 + 8 * 1000, TaskStatusService.estimateBytes(new long[1000]));
+        assertEquals(16 + 4 * 1000, TaskStatusService.estimateBytes(new float[1000]));
+        assertEquals(16 + 4 * 1000, TaskStatusService.estimateBytes(new int[1000]));
+        assertEquals(16 + 2 * 1000, TaskStatusService.estimateBytes(new char[1000]));
+        assertEquals(16 + 1000, TaskStatusService.estimateBytes(new byte[1000]));
+        // 배열 목록은 원소 배열까지
+        assertEquals(40 + 8 * 2 + 2 * (16 + 8 * 500),
+                TaskStatusService.estimateBytes(List.of(new double[500], new double[500])));
+    }
+
+    @Test
+    void estimatesRecordsThroughComponents() {
+        Row row = new Row("005930", new double[100], List.of("a"));
+        long expected = 16 + 3 * 8
+                + TaskStatusService.estimateBytes("005930")
+                + TaskStatusService.estimateBytes(new double[100])
+                + TaskStatusService.estimateBytes(List.of("a"));
+        assertEquals(expected, TaskStatusService.estimateBytes(row));
+        assertTrue(TaskStatusService.estimateBytes(List.of(row, row)) > 2 * 800);
+        // 값 타입은 고정 크기
+        assertEquals(24, TaskStatusService.estimateBytes(3.5));
+        assertEquals(24, TaskStatusService.estimateBytes(LocalDate.of(2024, 1, 1)));
+        assertEquals(48 + 32 + (40 + 1) + 24, TaskStatusService.estimateBytes(Map.of("n", 1)));
+    }
+
+    @Test
+    void unknownTypeCountsHeaderOnly() {
+        // 크기를 모르는 타입은 머리 크기만 (경고 로그는 타입별 한 번)
+        assertEquals(16, TaskStatusService.estimateBytes(new Object()));
+        assertEquals(16, TaskStatusService.estimateBytes(new Object()));
+    }
+
+    // ==================================
+    // 끝난 상태 유지
+    // ==================================
+
+    @Test
+    void finishedStatusIsNotOverwritten() {
+        TaskStatusService service = service(1000, 64);
+        service.setTaskStatus("t", status(JobState.CANCELLED.name(), null, Instant.now()));
+
+        assertFalse(service.setTaskStatus("t", status(COMPLETED, "late", Instant.now())));
+        assertEquals(JobState.CANCELLED.name(), service.getTaskStatus("t").getStatus());
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** TTL 30분, 진행 중 작업 폐기 6시간 */
+    private static TaskStatusService service(int maxEntries, int maxResultMb) {
+        return new TaskStatusService(TestJobStores.empty(), 30, 6, maxEntries, maxResultMb);
+    }
+
+    private static TaskStatusService.TaskStatus status(String state, Object result, Instant updatedAt) {
+        TaskStatusService.TaskStatus s = new TaskStatusService.TaskStatus(state, result, null);
+        s.setUpdatedAt(updatedAt);
+        return s;
+    }
+
+    private static Instant minutesAgo(long minutes) {
+        return Instant.now().minus(Duration.ofMinutes(minutes));
+    }
+
+    private record Row(String ticker, double[] closes, List<String> tags) {}
+}
@@ -0,0 +1,199 @@
+package com.mybaselink.app.service;
+
+import com.mybaselink.app.entity.JobRecordEntity;
+import com.mybaselink.app.repository.JobRecordRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 테스트용 작업 기록 저장소 (DB 없이)
+ * - empty(): 저장된 기록이 없는 저장소
+ * - recording(): 메모리 테이블에 기록하고 호출을 남기는 저장소
+ */
+public final class TestJobStores {
+
+    private TestJobStores() {}
+
+    /** 조회는 항상 빈 결과, 쓰기는 무시하는 저장소 위의 JobStoreService */
+    public static JobStoreService empty() {
+        return new JobStoreService(emptyRepository(), 360, 14);
+    }
+
+    /** 조회는 빈 결과, 쓰기·수정은 0건으로 응답하는 JobRecordRepository */
+    public static JobRecordRepository emptyRepository() {
+        return (JobRecordRepository) Proxy.newProxyInstance(JobRecordRepository.class.getClassLoader(),
+                new Class<?>[]{JobRecordRepository.class}, (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    return switch (method.getName()) {
+                        case "toString" -> "TestJobStores.emptyRepository";
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> type == Optional.class ? Optional.empty()
+                                : List.class.isAssignableFrom(type) ? List.of()
+                                : type == int.class ? 0
+                                : type == long.class ? 0L
+                                : type == boolean.class ? false
+                                : null;
+                    };
+                });
+    }
+
+    public static RecordingRepository recording() {
+        return new RecordingRepository();
+    }
+
+    /**
+     * 메모리 테이블 위의 JobRecordRepository
+     * - JobStoreService 가 쓰는 메서드만 구현, 그 밖의 호출은 UnsupportedOperationException
+     * - 새 행(isNew) 저장은 INSERT 로 취급해 같은 id 가 있으면 실패 (JPA persist 와 같음)
+     * - failNext(n): 다음 쓰기 n 번 실패, beforeWrite: 다음 쓰기 직전에 한 번 실행 (저장 중 변경 재현)
+     */
+    public static final class RecordingRepository {
+
+        private final Map<String, JobRecordEntity> table = new LinkedHashMap<>();
+        private final List<String> calls = new ArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private Runnable beforeWrite;
+        private final JobRecordRepository proxy;
+
+        private RecordingRepository() {
+            this.proxy = (JobRecordRepository) Proxy.newProxyInstance(JobRecordRepository.class.getClassLoader(),
+                    new Class<?>[]{JobRecordRepository.class}, (p, method, args) -> switch (method.getName()) {
+                        case "toString" -> "TestJobStores.recording";
+                        case "hashCode" -> System.identityHashCode(p);
+                        case "equals" -> p == args[0];
+                        default -> invoke(method.getName(), args);
+                    });
+        }
+
+        public JobRecordRepository repository() {
+            return proxy;
+        }
+
+        /** 저장된 행 (없으면 null) */
+        public synchronized JobRecordEntity row(String id) {
+            return table.get(id);
+        }
+
+        /** DB 에 이미 있는 행으로 넣기 */
+        public synchronized void put(JobRecordEntity row) {
+            row.markNotNew();
+            table.put(row.getId(), row);
+        }
+
+        /** 지금까지 호출된 메서드 이름 */
+        public synchronized List<String> calls() {
+            return List.copyOf(calls);
+        }
+
+        public synchronized void clearCalls() {
+            calls.clear();
+        }
+
+        public void failNext(int n) {
+            failures.set(n);
+        }
+
+        public synchronized void beforeWrite(Runnable action) {
+            this.beforeWrite = action;
+        }
+
+        private Object invoke(String name, Object[] args) {
+            Runnable hook;
+            synchronized (this) {
+                calls.add(name);
+                hook = name.startsWith("find") ? null : beforeWrite;
+                if (hook != null) beforeWrite = null;
+            }
+            if (hook != null) hook.run();
+            synchronized (this) {
+                if (!name.startsWith("find") && failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new IllegalStateException("테스트 저장 실패: " + name);
+                }
+                return switch (name) {
+                    case "saveAll" -> saveAll((Iterable<?>) args[0]);
+                    case "findById" -> Optional.ofNullable(table.get((String) args[0]));
+                    case "updateState" -> update((String) args[0], (String) args[1], (String) args[2],
+                            (Instant) args[3], (Instant) args[4], (Instant) args[5], null, null, false);
+                    case "updateFinished" -> update((String) args[0], (String) args[1], (String) args[2],
+                            (Instant) args[3], (Instant) args[4], (Instant) args[5],
+                            (byte[]) args[6], (Integer) args[7], true);
+                    case "findFirstByJobTypeAndJobKeyAndStatusAndFinishedAtAfterOrderByFinishedAtDesc" ->
+                            latest(r -> r.getJobType().equals(args[0]) && Objects.equals(r.getJobKey(), args[1])
+                                    && Objects.equals(r.getStatus(), args[2])
+                                    && r.getFinishedAt() != null && r.getFinishedAt().isAfter((Instant) args[3]));
+                    case "findFirstByJobTypeAndStatusOrderByFinishedAtDesc" ->
+                            latest(r -> r.getJobType().equals(args[0]) && Objects.equals(r.getStatus(), args[1])
+                                    && r.getFinishedAt() != null);
+                    case "markOrphaned" -> markOrphaned((String) args[0], (Instant) args[1], (Instant) args[2]);
+                    case "deleteUpdatedBefore" -> {
+                        int before = table.size();
+                        table.values().removeIf(r -> r.getUpdatedAt().isBefore((Instant) args[0]));
+                        yield before - table.size();
+                    }
+                    default -> throw new UnsupportedOperationException(name);
+                };
+            }
+        }
+
+        private List<JobRecordEntity> saveAll(Iterable<?> rows) {
+            List<JobRecordEntity> out = new ArrayList<>();
+            for (Object o : rows) {
+                JobRecordEntity row = (JobRecordEntity) o;
+                if (row.isNew() && table.containsKey(row.getId())) {
+                    throw new IllegalStateException("중복 키: " + row.getId());
+                }
+                row.markNotNew();
+                table.put(row.getId(), row);
+                out.add(row);
+            }
+            return out;
+        }
+
+        private int update(String id, String status, String errorMessage, Instant startedAt, Instant finishedAt,
+                           Instant updatedAt, byte[] resultGz, Integer resultSize, boolean withResult) {
+            JobRecordEntity row = table.get(id);
+            if (row == null) return 0;
+            row.setStatus(status);
+            row.setErrorMessage(errorMessage);
+            row.setStartedAt(startedAt);
+            row.setFinishedAt(finishedAt);
+            row.setUpdatedAt(updatedAt);
+            if (withResult) {
+                row.setResultGz(resultGz);
+                row.setResultSize(resultSize);
+            }
+            return 1;
+        }
+
+        private Optional<JobRecordEntity> latest(Predicate<JobRecordEntity> filter) {
+            return table.values().stream().filter(filter)
+                    .max(Comparator.comparing(JobRecordEntity::getFinishedAt));
+        }
+
+        private int markOrphaned(String message, Instant now, Instant bootAt) {
+            int n = 0;
+            for (JobRecordEntity row : table.values()) {
+                if (("QUEUED".equals(row.getStatus()) || "IN_PROGRESS".equals(row.getStatus()))
+                        && row.getCreatedAt().isBefore(bootAt)) {
+                    row.setStatus("FAILED");
+                    row.setErrorMessage(message);
+                    row.setFinishedAt(now);
+                    row.setUpdatedAt(now);
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+}
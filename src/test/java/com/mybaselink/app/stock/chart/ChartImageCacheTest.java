@@ -0,0 +1,180 @@
+package com.mybaselink.app.stock.chart;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ChartImageCache: 읽기·쓰기, 한도 초과 시 LRU(수정 시각) 순 삭제, 재기동 후 디렉터리 색인 복원 확인
+ */
+class ChartImageCacheTest {
+
+    private static final int KB = 1024;
+    private static final long MB = 1024 * 1024;
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("chart-cache-test-");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    // ==================================
+    // 읽기·쓰기
+    // ==================================
+
+    @Test
+    void putThenGetReturnsSameBytes() {
+        ChartImageCache cache = cache(1);
+        assertNull(cache.get("a"));
+
+        byte[] png = bytes(10 * KB, 1);
+        cache.put("a", png);
+        assertArrayEquals(png, cache.get("a"));
+        assertEquals(10 * KB, cache.totalBytes());
+
+        // 같은 키를 다시 쓰면 크기만 교체
+        cache.put("a", bytes(4 * KB, 2));
+        assertEquals(4 * KB, cache.totalBytes());
+        assertFalse(hasTempFiles());
+    }
+
+    @Test
+    void fileDeletedOutsideIsForgotten() throws IOException {
+        ChartImageCache cache = cache(1);
+        cache.put("a", bytes(10 * KB, 1));
+        Files.delete(dir.resolve("a.png"));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.totalBytes());
+    }
+
+    // ==================================
+    // 한도 초과 정리
+    // ==================================
+
+    @Test
+    void evictsLeastRecentlyUsedUntilNinetyPercent() throws IOException {
+        ChartImageCache cache = cache(1);
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.put(key, bytes(300 * KB, key.charAt(0)));
+        }
+        // a 가 가장 오래됐지만 최근에 읽었으므로 b 가 가장 오래된 사용
+        age("a", 300);
+        age("b", 200);
+        age("c", 100);
+        assertNotNull(cache.get("a"));
+
+        cache.put("d", bytes(300 * KB, 'd'));
+
+        assertTrue(Files.exists(dir.resolve("a.png")));
+        assertFalse(Files.exists(dir.resolve("b.png")));
+        assertTrue(Files.exists(dir.resolve("c.png")));
+        assertTrue(Files.exists(dir.resolve("d.png")));
+        assertEquals(900 * KB, cache.totalBytes());
+        assertTrue(cache.totalBytes() <= MB / 10 * 9);
+    }
+
+    @Test
+    void evictionDeletesSeveralOldFilesWhenNeeded() throws IOException {
+        ChartImageCache cache = cache(1);
+        for (int i = 0; i < 8; i++) {
+            cache.put("k" + i, bytes(100 * KB, i));
+            age("k" + i, 100 - i);
+        }
+        cache.put("big", bytes(500 * KB, 9));
+
+        // 1300KB → 921KB 이하: 가장 오래된 k0~k3 삭제
+        for (int i = 0; i < 4; i++) assertFalse(Files.exists(dir.resolve("k" + i + ".png")), "k" + i);
+        for (int i = 4; i < 8; i++) assertTrue(Files.exists(dir.resolve("k" + i + ".png")), "k" + i);
+        assertEquals(900 * KB, cache.totalBytes());
+    }
+
+    // ==================================
+    // 재기동 후 색인 복원
+    // ==================================
+
+    @Test
+    void newInstanceRebuildsIndexFromDirectory() {
+        ChartImageCache first = cache(16);
+        first.put("a", bytes(10 * KB, 1));
+        first.put("b", bytes(20 * KB, 2));
+
+        ChartImageCache second = cache(16);
+        assertEquals(0, second.totalBytes());   // 첫 사용 전에는 훑지 않음
+        assertArrayEquals(bytes(10 * KB, 1), second.get("a"));
+        assertEquals(30 * KB, second.totalBytes());
+
+        // 복원한 색인 위에 이어서 계산
+        second.put("c", bytes(5 * KB, 3));
+        assertEquals(35 * KB, second.totalBytes());
+    }
+
+    @Test
+    void rebuiltIndexOverLimitIsTrimmed() throws IOException {
+        ChartImageCache large = cache(16);
+        for (int i = 0; i < 5; i++) {
+            large.put("k" + i, bytes(300 * KB, i));
+            age("k" + i, 100 - i);
+        }
+
+        // 한도를 줄여 재기동: 첫 사용 때 오래된 파일부터 정리
+        ChartImageCache small = cache(1);
+        assertNull(small.get("missing"));
+        assertEquals(900 * KB, small.totalBytes());
+        assertFalse(Files.exists(dir.resolve("k0.png")));
+        assertFalse(Files.exists(dir.resolve("k1.png")));
+        assertTrue(Files.exists(dir.resolve("k4.png")));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    private ChartImageCache cache(long maxMb) {
+        return new ChartImageCache(dir.toString(), maxMb);
+    }
+
+    /** 파일 수정 시각을 지금보다 seconds 초 전으로 */
+    private void age(String key, long seconds) throws IOException {
+        Files.setLastModifiedTime(dir.resolve(key + ".png"),
+                FileTime.fromMillis(System.currentTimeMillis() - seconds * 1000));
+    }
+
+    private boolean hasTempFiles() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.anyMatch(f -> f.getFileName().toString().endsWith(".tmp"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] bytes(int size, int fill) {
+        byte[] b = new byte[size];
+        Arrays.fill(b, (byte) fill);
+        return b;
+    }
+}
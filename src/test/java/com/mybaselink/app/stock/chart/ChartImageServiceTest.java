@@ -0,0 +1,134 @@
+package com.mybaselink.app.stock.chart;
+
+import com.mybaselink.app.stock.data.PriceStore;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ChartImageService: ETag 는 PNG 없이 먼저 계산, PNG 는 png() 호출 때 한 번만 캐시 조회·렌더링,
+ * 같은 데이터는 디스크 캐시 재사용, 데이터가 바뀌면 다른 ETag 확인
+ */
+class ChartImageServiceTest {
+
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+    private Path dir;
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("chart-service-test-");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @Test
+    void etagIsAvailableWithoutLoadingPng() throws IOException {
+        ChartImageService service = service(new double[]{10, 11, 12, 11, 13, 14});
+        ChartImageService.ChartImage image = service.closeChart("S0", day(0), day(10));
+
+        // 지문만 계산: 렌더링도 캐시 파일도 없음 (304 경로)
+        assertEquals(16, image.etag().length());
+        assertEquals(0, renders.get());
+        assertEquals(0, cacheFiles());
+
+        byte[] png = image.png();
+        assertEquals(1, renders.get());
+        assertEquals(1, cacheFiles());
+        // 다시 불러도 같은 바이트, 렌더링 없음
+        assertArrayEquals(png, image.png());
+        assertEquals(image.base64(), Base64.getEncoder().encodeToString(png));
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void sameDataReusesDiskCacheAndEtag() {
+        double[] close = {10, 11, 12, 11, 13, 14};
+        ChartImageService first = service(close);
+        ChartImageService.ChartImage a = first.closeChart("S0", day(0), day(10));
+        byte[] png = a.png();
+
+        // 재기동 (새 캐시 인스턴스, 같은 디렉터리): 같은 ETag, 렌더링 없이 파일에서
+        ChartImageService second = service(close);
+        ChartImageService.ChartImage b = second.closeChart("S0", day(0), day(10));
+        assertEquals(a.etag(), b.etag());
+        assertArrayEquals(png, b.png());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void changedCloseOrRangeChangesEtag() {
+        String etag = service(new double[]{10, 11, 12, 11, 13, 14}).closeChart("S0", day(0), day(10)).etag();
+
+        assertNotEquals(etag, service(new double[]{10, 11, 12, 11, 13, 15}).closeChart("S0", day(0), day(10)).etag());
+        assertNotEquals(etag, service(new double[]{10, 11, 12, 11, 13, 14}).closeChart("S0", day(1), day(10)).etag());
+        assertEquals(0, renders.get());
+    }
+
+    @Test
+    void compareChartNeedsCommonDaysBeforeLoading() {
+        ChartImageService service = service(new double[]{1, 2, 3, 4, 5, 6}, new double[]{2, 3, 4, 5, 6, 7});
+        ChartImageService.ChartImage image = service.compareChart("S0", "S1", day(0), day(10));
+        assertEquals(0, renders.get());
+        image.png();
+        assertEquals(1, renders.get());
+
+        // 공통 거래일이 5일 미만이면 지문 계산 단계에서 오류
+        assertThrows(IllegalArgumentException.class, () -> service.compareChart("S0", "S1", day(0), day(2)));
+        assertThrows(IllegalArgumentException.class, () -> service.closeChart("NOPE", day(0), day(2)));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    private ChartImageService service(double[]... closes) {
+        PriceStore store = TestSnapshots.store(TestSnapshots.of((int) BASE.toEpochDay(), closes));
+        ChartRenderer renderer = new ChartRenderer() {
+            @Override
+            public byte[] renderClose(String title, String label, int[] dates, double[] close) {
+                renders.incrementAndGet();
+                return super.renderClose(title, label, dates, close);
+            }
+
+            @Override
+            public byte[] renderCompare(String title, int[] dates, String baseLabel, double[] base,
+                                        String compareLabel, double[] compare) {
+                renders.incrementAndGet();
+                return super.renderCompare(title, dates, baseLabel, base, compareLabel, compare);
+            }
+        };
+        return new ChartImageService(store, renderer, new ChartImageCache(dir.toString(), 16), 3600);
+    }
+
+    private long cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".png")).count();
+        }
+    }
+
+    private static String day(int offset) {
+        return BASE.plusDays(offset).toString();
+    }
+}
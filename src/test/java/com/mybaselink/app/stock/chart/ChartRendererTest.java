@@ -0,0 +1,114 @@
+package com.mybaselink.app.stock.chart;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ChartRenderer: PNG 크기·선 색상(matplotlib 기본 순서)·결측/단일 점/빈 데이터 처리·눈금 간격 확인
+ */
+class ChartRendererTest {
+
+    private static final int BASE = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+    private static final Color BLUE = new Color(0x1f77b4), ORANGE = new Color(0xff7f0e);
+
+    private final ChartRenderer renderer = new ChartRenderer();
+
+    @Test
+    void closeChartIsPngOfFixedSizeWithBlueLine() throws IOException {
+        BufferedImage img = decode(renderer.renderClose("제목", "삼성전자", dates(60), wave(60, 70_000)));
+
+        assertEquals(ChartRenderer.CLOSE_WIDTH, img.getWidth());
+        assertEquals(ChartRenderer.CLOSE_HEIGHT, img.getHeight());
+        assertTrue(count(img, BLUE) > 100, "종가 선");
+        assertEquals(0, count(img, ORANGE));
+        assertEquals(Color.WHITE.getRGB(), img.getRGB(2, 2));
+    }
+
+    @Test
+    void compareChartDrawsBothLines() throws IOException {
+        BufferedImage img = decode(renderer.renderCompare("비교", dates(40), "A", wave(40, 100), "B", wave(40, 130)));
+
+        assertEquals(ChartRenderer.COMPARE_WIDTH, img.getWidth());
+        assertEquals(ChartRenderer.COMPARE_HEIGHT, img.getHeight());
+        assertTrue(count(img, BLUE) > 100, "기준 종목 선");
+        assertTrue(count(img, ORANGE) > 100, "비교 종목 선");
+    }
+
+    @Test
+    void missingCloseBreaksLineButStillRenders() throws IOException {
+        double[] close = wave(30, 500);
+        for (int i = 10; i < 20; i++) close[i] = Double.NaN;
+        BufferedImage withGap = decode(renderer.renderClose("결측", "X", dates(30), close));
+        BufferedImage full = decode(renderer.renderClose("결측", "X", dates(30), wave(30, 500)));
+
+        assertTrue(count(withGap, BLUE) > 0);
+        assertTrue(count(withGap, BLUE) < count(full, BLUE));
+    }
+
+    @Test
+    void degenerateInputsDoNotFail() throws IOException {
+        // 한 점, 모두 같은 값, 모두 결측, 빈 배열
+        decode(renderer.renderClose("1", "X", dates(1), new double[]{100}));
+        decode(renderer.renderClose("flat", "X", dates(10), new double[10]));
+        decode(renderer.renderClose("nan", "X", dates(3), new double[]{Double.NaN, Double.NaN, Double.NaN}));
+        BufferedImage empty = decode(renderer.renderClose("empty", "X", new int[0], new double[0]));
+        assertEquals(0, count(empty, BLUE));
+    }
+
+    @Test
+    void niceStepRoundsUpToOneTwoTwoHalfFive() {
+        assertEquals(1, ChartRenderer.niceStep(0.7), 1e-12);
+        assertEquals(2, ChartRenderer.niceStep(1.3), 1e-12);
+        assertEquals(2.5, ChartRenderer.niceStep(2.2), 1e-12);
+        assertEquals(5, ChartRenderer.niceStep(3), 1e-12);
+        assertEquals(10, ChartRenderer.niceStep(7), 1e-12);
+        assertEquals(2_000, ChartRenderer.niceStep(1_234), 1e-9);
+        assertEquals(0.05, ChartRenderer.niceStep(0.031), 1e-12);
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        assertEquals((byte) 0x89, png[0]);
+        assertEquals('P', png[1]);
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(png));
+        assertTrue(img != null, "PNG 디코딩 실패");
+        return img;
+    }
+
+    /** 해당 색과 거의 같은 픽셀 수 (안티앨리어싱 가장자리 제외) */
+    private static int count(BufferedImage img, Color color) {
+        int n = 0;
+        for (int y = 0; y < img.getHeight(); y++) {
+            for (int x = 0; x < img.getWidth(); x++) {
+                Color c = new Color(img.getRGB(x, y));
+                if (Math.abs(c.getRed() - color.getRed()) + Math.abs(c.getGreen() - color.getGreen())
+                        + Math.abs(c.getBlue() - color.getBlue()) <= 12) n++;
+            }
+        }
+        return n;
+    }
+
+    private static int[] dates(int n) {
+        int[] d = new int[n];
+        for (int i = 0; i < n; i++) d[i] = BASE + i;
+        return d;
+    }
+
+    private static double[] wave(int n, double level) {
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) v[i] = level * (1 + 0.1 * Math.sin(i / 4.0));
+        return v;
+    }
+}
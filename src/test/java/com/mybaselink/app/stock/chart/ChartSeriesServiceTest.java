@@ -0,0 +1,108 @@
+package com.mybaselink.app.stock.chart;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ChartSeriesService: 봉 집계에서 결측 시가/고가/저가는 NaN 대신 null, 캐시 가중치는 점 개수 확인
+ */
+class ChartSeriesServiceTest {
+
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+    private static final double NAN = Double.NaN;
+
+    @Test
+    void missingOhlcValuesBecomeNull() {
+        int base = (int) BASE.toEpochDay();
+        PriceSeries s = new PriceSeries("S0", new int[]{base, base + 1, base + 2, base + 3},
+                new double[]{NAN, 11, 12, 13},
+                new double[]{NAN, NAN, 12, 14},
+                new double[]{NAN, NAN, 12, 12},
+                new double[]{10, 11, 12, 13},
+                new long[4]);
+        ChartSeriesService service = service(TestSnapshots.of(List.of(s)));
+
+        Map<String, Object> ohlc = service.series("S0", BASE.toString(), BASE.plusDays(10).toString(), 100, "ohlc");
+        assertEquals(4, ohlc.get("points"));
+        assertEquals(Arrays.asList(null, 11.0, 12.0, 13.0), Arrays.asList((Double[]) ohlc.get("open")));
+        assertEquals(Arrays.asList(null, null, 12.0, 14.0), Arrays.asList((Double[]) ohlc.get("high")));
+        assertEquals(Arrays.asList(null, null, 12.0, 12.0), Arrays.asList((Double[]) ohlc.get("low")));
+        assertArrayEquals(new double[]{10, 11, 12, 13}, (double[]) ohlc.get("close"));
+        assertEquals(4, ChartSeriesService.points(ohlc));
+    }
+
+    @Test
+    void bucketSkipsMissingHighLow() {
+        int base = (int) BASE.toEpochDay();
+        // 20행을 폭 10 → 2행씩 10봉, 짝수 행은 고가·홀수 행은 저가 결측 (첫 봉은 고가 모두 결측)
+        int n = 20;
+        int[] dates = new int[n];
+        double[] open = new double[n], high = new double[n], low = new double[n], close = new double[n];
+        for (int k = 0; k < n; k++) {
+            dates[k] = base + k;
+            open[k] = close[k] = 100 + k;
+            high[k] = k % 2 == 0 ? NAN : 110 + k;
+            low[k] = k % 2 == 0 ? 90 + k : NAN;
+        }
+        high[0] = high[1] = NAN;
+        ChartSeriesService service = service(TestSnapshots.of(List.of(
+                new PriceSeries("S0", dates, open, high, low, close, new long[n]))));
+
+        Map<String, Object> ohlc = service.series("S0", BASE.toString(), BASE.plusDays(n).toString(),
+                ChartSeriesService.MIN_WIDTH, "ohlc");
+        Double[] h = (Double[]) ohlc.get("high");
+        Double[] l = (Double[]) ohlc.get("low");
+        assertEquals(10, h.length);
+        assertNull(h[0]);
+        assertEquals(90.0, l[0].doubleValue());
+        for (int b = 1; b < 10; b++) {
+            assertEquals(110.0 + 2 * b + 1, h[b].doubleValue());
+            assertEquals(90.0 + 2 * b, l[b].doubleValue());
+        }
+    }
+
+    @Test
+    void closeSeriesWeighsByPickedPoints() {
+        double[] closes = new double[500];
+        for (int k = 0; k < closes.length; k++) closes[k] = Math.sin(k / 10.0);
+        ChartSeriesService service = service(TestSnapshots.of((int) BASE.toEpochDay(), closes));
+
+        Map<String, Object> close = service.series("S0", BASE.toString(), BASE.plusDays(600).toString(), 50, "close");
+        assertEquals(50, close.get("points"));
+        assertEquals(50, ChartSeriesService.points(close));
+        assertEquals(0, ChartSeriesService.points("not a series"));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** 캐시 없이 매번 계산 */
+    private static ChartSeriesService service(PriceStoreSnapshot snap) {
+        return new ChartSeriesService(TestSnapshots.store(snap), new CacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                return null;
+            }
+
+            @Override
+            public Collection<String> getCacheNames() {
+                return List.of();
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.mybaselink.app.stock.chart;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lttb: 버킷마다 선택된 점이 버킷 안 전수 비교로 구한 최대 넓이 점과 같은지 확인
+ */
+class LttbTest {
+
+    @Test
+    void eachPickMaximisesTriangleAreaInItsBucket() {
+        Random rnd = new Random(17);
+        for (int n : new int[]{5, 37, 250, 1000}) {
+            double[] x = new double[n], y = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = i * 1.5;
+                y[i] = (i == 0 ? 0 : y[i - 1]) + rnd.nextGaussian();
+            }
+            for (int threshold = 3; threshold < n; threshold += Math.max(1, n / 7)) {
+                int[] picked = Lttb.select(x, y, n, threshold);
+                assertEquals(threshold, picked.length);
+                assertEquals(0, picked[0]);
+                assertEquals(n - 1, picked[threshold - 1]);
+
+                double every = (double) (n - 2) / (threshold - 2);
+                for (int b = 0; b < threshold - 2; b++) {
+                    int from = (int) Math.floor(b * every) + 1;
+                    int to = (int) Math.floor((b + 1) * every) + 1;
+                    int avgTo = Math.min((int) Math.floor((b + 2) * every) + 1, n);
+                    double avgX = mean(x, to, avgTo), avgY = mean(y, to, avgTo);
+
+                    int prev = picked[b], pick = picked[b + 1];
+                    assertTrue(pick >= from && pick < to, "n=" + n + " threshold=" + threshold + " bucket=" + b);
+                    double best = area(x, y, prev, pick, avgX, avgY);
+                    for (int j = from; j < to; j++) {
+                        double a = area(x, y, prev, j, avgX, avgY);
+                        // 같은 넓이면 앞쪽 점 선택
+                        assertTrue(a < best || (a == best && j >= pick), "n=" + n + " bucket=" + b + " j=" + j);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void spikeSurvivesDownsampling() {
+        int n = 500;
+        double[] x = new double[n], y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = 100;
+        }
+        y[313] = 180;
+        int[] picked = Lttb.select(x, y, n, 20);
+        boolean found = false;
+        for (int p : picked) found |= p == 313;
+        assertTrue(found);
+    }
+
+    @Test
+    void smallThresholdKeepsAllPoints() {
+        double[] x = {0, 1, 2, 3}, y = {3, 1, 4, 1};
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.select(x, y, 4, 2));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.select(x, y, 4, 4));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.select(x, y, 4, 10));
+    }
+
+    private static double area(double[] x, double[] y, int a, int j, double avgX, double avgY) {
+        return Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+    }
+
+    private static double mean(double[] v, int from, int to) {
+        double s = 0;
+        for (int j = from; j < to; j++) s += v[j];
+        return s / (to - from);
+    }
+}
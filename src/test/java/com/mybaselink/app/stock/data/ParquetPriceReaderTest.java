@@ -0,0 +1,166 @@
+package com.mybaselink.app.stock.data;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ParquetPriceReader: 날짜 컬럼 형식별(DATE, TIMESTAMP_MILLIS/MICROS, 주석 없는 INT64) 고정 parquet 파일 읽기 확인
+ * - 테스트마다 parquet-hadoop 예제 작성기로 파일을 만들어 읽음
+ * - 단위 주석 없는 INT64 는 값 크기로 ms/us/ns 를 정하고, 정할 수 없으면 IOException
+ */
+class ParquetPriceReaderTest {
+
+    private static final LocalDate D0 = LocalDate.of(2024, 1, 2);
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private Path dir;
+    private final ParquetPriceReader reader = new ParquetPriceReader();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("parquet-reader-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    // ==================================
+    // 날짜 형식
+    // ==================================
+
+    @Test
+    void readsDateColumn() throws IOException {
+        MessageType schema = schema(Types.buildMessage()
+                .required(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.dateType()).named("Date"));
+        Path file = write(schema, (f, k) -> f.newGroup().append("Date", (int) D0.plusDays(k).toEpochDay()));
+
+        PriceSeries s = reader.read(file, "A");
+        assertArrayEquals(days(0, 1, 2), s.getDates());
+        assertArrayEquals(new double[]{100, 101, 102}, s.getClose());
+        assertArrayEquals(new long[]{1000, 1001, 1002}, s.getVolume());
+        // Open/High/Low 컬럼 없음 → NaN
+        assertTrue(Double.isNaN(s.getOpen()[0]) && Double.isNaN(s.getHigh()[1]) && Double.isNaN(s.getLow()[2]));
+    }
+
+    @Test
+    void readsTimestampMillisAndMicros() throws IOException {
+        MessageType millis = schema(Types.buildMessage().required(PrimitiveTypeName.INT64)
+                .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS)).named("Date"));
+        Path a = write(millis, (f, k) -> f.newGroup().append("Date", D0.plusDays(k).toEpochDay() * MILLIS_PER_DAY));
+        assertArrayEquals(days(0, 1, 2), reader.read(a, "A").getDates());
+
+        MessageType micros = schema(Types.buildMessage().required(PrimitiveTypeName.INT64)
+                .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS)).named("Date"));
+        // 장중 시각이 붙어도 날짜만 사용
+        Path b = write(micros, (f, k) -> f.newGroup()
+                .append("Date", (D0.plusDays(k).toEpochDay() * MILLIS_PER_DAY + 9 * 3_600_000L) * 1000));
+        assertArrayEquals(days(0, 1, 2), reader.read(b, "B").getDates());
+    }
+
+    @Test
+    void unannotatedInt64InfersUnitFromMagnitude() throws IOException {
+        MessageType plain = schema(Types.buildMessage().required(PrimitiveTypeName.INT64).named("Date"));
+        for (long scale : new long[]{1, 1000, 1_000_000}) {
+            Path file = write(plain, "u" + scale,
+                    (f, k) -> f.newGroup().append("Date", D0.plusDays(k).toEpochDay() * MILLIS_PER_DAY * scale));
+            assertArrayEquals(days(0, 1, 2), reader.read(file, "U").getDates(), "scale " + scale);
+        }
+
+        // 일 단위 정수 등 어느 단위로도 1971~2199년이 아님
+        Path dayCount = write(plain, "days", (f, k) -> f.newGroup().append("Date", D0.plusDays(k).toEpochDay()));
+        IOException e = assertThrows(IOException.class, () -> reader.read(dayCount, "X"));
+        assertTrue(e.getMessage().contains("단위"), e.getMessage());
+    }
+
+    @Test
+    void annotatedNonTimestampInt64IsRejected() throws IOException {
+        MessageType integer = schema(Types.buildMessage().required(PrimitiveTypeName.INT64)
+                .as(LogicalTypeAnnotation.intType(64, true)).named("Date"));
+        Path file = write(integer, (f, k) -> f.newGroup().append("Date", D0.plusDays(k).toEpochDay() * MILLIS_PER_DAY));
+        assertThrows(IOException.class, () -> reader.read(file, "X"));
+    }
+
+    @Test
+    void unitsPerDayPicksTheOnlyPlausibleUnit() {
+        long day = D0.toEpochDay();
+        assertEquals(MILLIS_PER_DAY, ParquetPriceReader.unitsPerDay(day * MILLIS_PER_DAY));
+        assertEquals(MILLIS_PER_DAY * 1000, ParquetPriceReader.unitsPerDay(day * MILLIS_PER_DAY * 1000));
+        assertEquals(MILLIS_PER_DAY * 1_000_000, ParquetPriceReader.unitsPerDay(day * MILLIS_PER_DAY * 1_000_000));
+        // 경계: 1971-01-01 포함, 2200-01-01 제외
+        assertEquals(MILLIS_PER_DAY, ParquetPriceReader.unitsPerDay(365 * MILLIS_PER_DAY));
+        assertThrows(IllegalStateException.class, () -> ParquetPriceReader.unitsPerDay(day));
+        assertThrows(IllegalStateException.class, () -> ParquetPriceReader.unitsPerDay(0));
+        assertThrows(IllegalStateException.class, () -> ParquetPriceReader.unitsPerDay(-day * MILLIS_PER_DAY));
+        assertThrows(IllegalStateException.class,
+                () -> ParquetPriceReader.unitsPerDay(LocalDate.of(2200, 1, 1).toEpochDay() * MILLIS_PER_DAY * 1_000_000));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    /** k 번째 행 (날짜 값만 채운 Group) */
+    private interface Row {
+        Group make(SimpleGroupFactory factory, int k);
+    }
+
+    /** 날짜 컬럼 뒤에 Close(DOUBLE), Volume(INT64) */
+    private static MessageType schema(Types.GroupBuilder<MessageType> withDate) {
+        return withDate
+                .optional(PrimitiveTypeName.DOUBLE).named("Close")
+                .optional(PrimitiveTypeName.INT64).named("Volume")
+                .named("schema");
+    }
+
+    private Path write(MessageType schema, Row row) throws IOException {
+        return write(schema, "fixture", row);
+    }
+
+    /** 3행 파일: 날짜 역순으로 기록 (읽은 뒤 정렬되는지 함께 확인), Close = 100 + k, Volume = 1000 + k */
+    private Path write(MessageType schema, String name, Row row) throws IOException {
+        Path file = dir.resolve(name + ".parquet");
+        SimpleGroupFactory factory = new SimpleGroupFactory(schema);
+        try (ParquetWriter<Group> writer = ExampleParquetWriter
+                .builder(new org.apache.hadoop.fs.Path(file.toAbsolutePath().toUri()))
+                .withType(schema)
+                .withConf(new Configuration())
+                .build()) {
+            for (int k = 2; k >= 0; k--) {
+                writer.write(row.make(factory, k).append("Close", 100.0 + k).append("Volume", 1000L + k));
+            }
+        }
+        return file;
+    }
+
+    private static int[] days(int... offsets) {
+        int[] d = new int[offsets.length];
+        for (int i = 0; i < d.length; i++) d[i] = (int) D0.plusDays(offsets[i]).toEpochDay();
+        return d;
+    }
+}
@@ -0,0 +1,156 @@
+package com.mybaselink.app.stock.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PriceStoreSnapshot: 컬럼 블록 배치·행 범위·날짜 검색·시계열 복원,
+ * volatility 컬럼의 창 갱신식 결과가 창 전체로 구한 모표준편차와 같은지 확인
+ */
+class PriceStoreSnapshotTest {
+
+    private static final int W = PriceStoreSnapshot.VOLATILITY_WINDOW;
+
+    @Test
+    void laysOutSymbolsBackToBack() {
+        PriceSeries a = ohlcv("A", new int[]{100, 101, 103}, 10);
+        PriceSeries b = ohlcv("B", new int[]{101, 102}, 20);
+        PriceStoreSnapshot snap = new PriceStoreSnapshot(7, List.of(a, b), java.util.Arrays.asList("에이", null));
+
+        assertEquals(7, snap.getVersion());
+        assertEquals(2, snap.symbolCount());
+        assertEquals(5, snap.rowCount());
+        assertEquals(5L * (Double.BYTES * 5 + Long.BYTES + Integer.BYTES), snap.offHeapBytes());
+        assertEquals(0, snap.rowStart(0));
+        assertEquals(3, snap.rowEnd(0));
+        assertEquals(3, snap.rowStart(1));
+        assertEquals(5, snap.rowEnd(1));
+
+        assertEquals(1, snap.indexOf("B"));
+        assertEquals(-1, snap.indexOf("C"));
+        assertEquals("에이", snap.name(0));
+        assertEquals("", snap.name(1));
+
+        int row = snap.rowStart(1) + 1;
+        assertEquals(102, snap.date(row));
+        assertEquals(21.0, snap.open(row));
+        assertEquals(21.5, snap.high(row));
+        assertEquals(20.5, snap.low(row));
+        assertEquals(21.25, snap.close(row));
+        assertEquals(2100L, snap.volume(row));
+    }
+
+    @Test
+    void seriesRoundTrips() {
+        PriceSeries a = ohlcv("A", new int[]{100, 101, 103}, 10);
+        PriceSeries b = ohlcv("B", new int[]{101, 102}, 20);
+        PriceStoreSnapshot snap = new PriceStoreSnapshot(1, List.of(a, b), List.of("a", "b"));
+
+        for (int i = 0; i < 2; i++) {
+            PriceSeries in = i == 0 ? a : b;
+            PriceSeries out = snap.series(i);
+            assertEquals(in.getSymbol(), out.getSymbol());
+            assertArrayEquals(in.getDates(), out.getDates());
+            assertArrayEquals(in.getOpen(), out.getOpen());
+            assertArrayEquals(in.getHigh(), out.getHigh());
+            assertArrayEquals(in.getLow(), out.getLow());
+            assertArrayEquals(in.getClose(), out.getClose());
+            assertArrayEquals(in.getVolume(), out.getVolume());
+        }
+
+        double[] close = new double[3];
+        snap.copyClose(snap.rowStart(0), snap.rowEnd(0), close, 0);
+        assertArrayEquals(a.getClose(), close);
+        int[] dates = new int[2];
+        snap.copyDates(snap.rowStart(1), snap.rowEnd(1), dates, 0);
+        assertArrayEquals(b.getDates(), dates);
+    }
+
+    @Test
+    void boundsSearchWithinOneSymbol() {
+        PriceStoreSnapshot snap = TestSnapshots.of(List.of(
+                TestSnapshots.series("A", new int[]{100, 101, 103, 107}, new double[]{1, 2, 3, 4}),
+                TestSnapshots.series("B", new int[]{90, 200}, new double[]{5, 6})));
+
+        // A 행 0..3
+        assertEquals(0, snap.lowerBound(0, 50));
+        assertEquals(2, snap.lowerBound(0, 102));
+        assertEquals(2, snap.lowerBound(0, 103));
+        assertEquals(3, snap.upperBound(0, 103));
+        assertEquals(4, snap.lowerBound(0, 108));
+        // B 행 4..5: 다른 종목 행으로 넘어가지 않음
+        assertEquals(4, snap.lowerBound(1, 0));
+        assertEquals(5, snap.lowerBound(1, 100));
+        assertEquals(6, snap.upperBound(1, 200));
+    }
+
+    @Test
+    void volatilityMatchesTwoPassStd() {
+        Random rnd = new Random(13);
+        double[] walk = new double[700];
+        double v = 50_000;
+        for (int k = 0; k < walk.length; k++) {
+            v = Math.max(100, v + rnd.nextGaussian() * 400);
+            walk[k] = Math.rint(v);
+        }
+        // 고가 종목의 작은 변동, 상수 구간, 결측이 섞인 구간
+        double[] flat = new double[300];
+        for (int k = 0; k < flat.length; k++) flat[k] = k < 150 ? 1_000_000 : 1_000_000 + (k % 3);
+        double[] gaps = walk.clone();
+        gaps[75] = Double.NaN;
+        gaps[80] = Double.NaN;
+        gaps[400] = Double.NaN;
+        double[] shortSeries = {1, 2, 3};
+
+        PriceStoreSnapshot snap = TestSnapshots.of(19000, walk, flat, gaps, shortSeries);
+        double[][] all = {walk, flat, gaps, shortSeries};
+        for (int i = 0; i < all.length; i++) {
+            double[] c = all[i];
+            int off = snap.rowStart(i);
+            for (int k = 0; k < c.length; k++) {
+                double expected = twoPassStd(c, k);
+                double actual = snap.volatility(off + k);
+                if (Double.isNaN(expected)) {
+                    assertTrue(Double.isNaN(actual), "symbol=" + i + " row=" + k + " expected NaN, got " + actual);
+                } else {
+                    assertEquals(expected, actual, 1e-9 * Math.max(1, expected), "symbol=" + i + " row=" + k);
+                }
+            }
+        }
+    }
+
+    /** 행 k: 시가 base+k, 고가 +0.5, 저가 -0.5, 종가 +0.25, 거래량 (base+k)*100 */
+    private static PriceSeries ohlcv(String symbol, int[] dates, int base) {
+        int n = dates.length;
+        double[] o = new double[n], h = new double[n], l = new double[n], c = new double[n];
+        long[] v = new long[n];
+        for (int k = 0; k < n; k++) {
+            o[k] = base + k;
+            h[k] = o[k] + 0.5;
+            l[k] = o[k] - 0.5;
+            c[k] = o[k] + 0.25;
+            v[k] = (base + k) * 100L;
+        }
+        return new PriceSeries(symbol, dates.clone(), o, h, l, c, v);
+    }
+
+    /** k 에서 끝나는 W 개 종가의 모표준편차 (창이 모자라거나 결측이 있으면 NaN) */
+    private static double twoPassStd(double[] c, int k) {
+        if (k < W - 1) return Double.NaN;
+        double mean = 0;
+        for (int j = k - W + 1; j <= k; j++) {
+            if (Double.isNaN(c[j])) return Double.NaN;
+            mean += c[j];
+        }
+        mean /= W;
+        double ss = 0;
+        for (int j = k - W + 1; j <= k; j++) ss += (c[j] - mean) * (c[j] - mean);
+        return Math.sqrt(ss / W);
+    }
+}
@@ -0,0 +1,54 @@
+package com.mybaselink.app.stock.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트용 PriceStoreSnapshot 생성 (Parquet 없이 종가 배열로 구성)
+ * - 날짜를 주지 않으면 baseDay 부터 하루씩 증가, 시가/고가/저가는 종가와 같게 채움
+ */
+public final class TestSnapshots {
+
+    private TestSnapshots() {
+    }
+
+    /** 종목 i 의 코드는 "S" + i, 종목명은 "name" + i */
+    public static PriceStoreSnapshot of(int baseDay, double[]... closes) {
+        List<PriceSeries> series = new ArrayList<>(closes.length);
+        for (int i = 0; i < closes.length; i++) series.add(series("S" + i, baseDay, closes[i]));
+        return of(series);
+    }
+
+    /** 종목명은 "name" + 순번 */
+    public static PriceStoreSnapshot of(List<PriceSeries> series) {
+        List<String> names = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) names.add("name" + i);
+        return new PriceStoreSnapshot(1, series, names);
+    }
+
+    public static PriceSeries series(String symbol, int baseDay, double[] close) {
+        int[] dates = new int[close.length];
+        for (int k = 0; k < dates.length; k++) dates[k] = baseDay + k;
+        return series(symbol, dates, close);
+    }
+
+    public static PriceSeries series(String symbol, int[] dates, double[] close) {
+        int n = close.length;
+        return new PriceSeries(symbol, dates.clone(), close.clone(), close.clone(), close.clone(), close.clone(), new long[n]);
+    }
+
+    /** 항상 snap 을 돌려주는 PriceStore (Parquet·종목 목록 없이 사용) */
+    public static PriceStore store(PriceStoreSnapshot snap) {
+        return new PriceStore(null, null) {
+            @Override
+            public PriceStoreSnapshot current() {
+                return snap;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+        };
+    }
+}
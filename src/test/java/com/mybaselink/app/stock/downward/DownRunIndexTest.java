@@ -0,0 +1,83 @@
+package com.mybaselink.app.stock.downward;
+
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DownRunIndex: 임의 [from, to) 조회가 구간 전수 스캔(pandas diff 규칙)과 같은지 확인
+ */
+class DownRunIndexTest {
+
+    @Test
+    void everyRangeMatchesLinearScan() {
+        Random rnd = new Random(5);
+        double[][] closes = new double[8][];
+        for (int i = 0; i < closes.length; i++) closes[i] = fallingWalk(rnd, 10 + rnd.nextInt(50), i % 2 == 0 ? 0.1 : 0);
+        assertAllRanges(TestSnapshots.of(19000, closes));
+    }
+
+    @Test
+    void missingClosesNeitherCountNorBreak() {
+        double nan = Double.NaN;
+        PriceStoreSnapshot snap = TestSnapshots.of(19000,
+                new double[]{10, 9, nan, 8, 7, 7, 6},
+                new double[]{nan, 5, 4, 3},
+                new double[]{1, 2, 3},
+                new double[]{4});
+
+        DownRunIndex index = DownRunIndex.build(snap);
+        // 9 → NaN → 8 의 두 diff 는 모두 NaN: 10→9, 8→7 만 세고 연속은 유지
+        assertEquals(2, index.longestRun(snap, 0, snap.rowStart(0), snap.rowEnd(0)));
+        assertEquals(2, index.longestRun(snap, 1, snap.rowStart(1), snap.rowEnd(1)));
+        assertEquals(0, index.longestRun(snap, 2, snap.rowStart(2), snap.rowEnd(2)));
+        assertEquals(0, index.longestRun(snap, 3, snap.rowStart(3), snap.rowEnd(3)));
+        assertAllRanges(snap);
+    }
+
+    private static void assertAllRanges(PriceStoreSnapshot snap) {
+        DownRunIndex index = DownRunIndex.build(snap);
+        for (int i = 0; i < snap.symbolCount(); i++) {
+            int lo = snap.rowStart(i), hi = snap.rowEnd(i);
+            for (int from = lo; from < hi; from++) {
+                for (int to = from + 1; to <= hi; to++) {
+                    assertEquals(linearScan(snap, from, to), index.longestRun(snap, i, from, to),
+                            "symbol=" + i + " from=" + (from - lo) + " to=" + (to - lo));
+                }
+            }
+        }
+    }
+
+    /** [from, to) 행의 최장 연속 하락 일수 (색인 도입 전 스캐너와 같은 규칙) */
+    private static int linearScan(PriceStoreSnapshot snap, int from, int to) {
+        int best = 0, run = 0;
+        double prev = snap.close(from);
+        for (int row = from + 1; row < to; row++) {
+            double cur = snap.close(row);
+            double diff = cur - prev;
+            prev = cur;
+            if (diff < 0) {
+                if (++run > best) best = run;
+            } else if (diff >= 0) {
+                run = 0;
+            }
+        }
+        return best;
+    }
+
+    /** 하락이 잦고 보합·결측이 섞인 종가 */
+    private static double[] fallingWalk(Random rnd, int n, double nanRate) {
+        double[] out = new double[n];
+        double v = 1000;
+        for (int k = 0; k < n; k++) {
+            int step = rnd.nextInt(5) - 3;
+            v += step;
+            out[k] = rnd.nextDouble() < nanRate ? Double.NaN : v;
+        }
+        return out;
+    }
+}
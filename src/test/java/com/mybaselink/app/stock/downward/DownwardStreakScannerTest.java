@@ -0,0 +1,143 @@
+package com.mybaselink.app.stock.downward;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DownwardStreakScanner: find_last_close_downward.py 와 같은 결과인지 확인
+ * - 종목별 값: (diff < 0).astype(int).groupby((diff >= 0).cumsum()).sum().max() 를 그대로 옮긴 기준 구현과 비교
+ * - 순위: heapq.nlargest(topN, results, key=streak) (동점은 종목 목록 순서), 구간 내 2행 미만 종목 제외
+ */
+class DownwardStreakScannerTest {
+
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+    private static final double NAN = Double.NaN;
+
+    @Test
+    void fixedSeriesMatchPandasValues() {
+        double[][] closes = {
+                {10, 9, 8, 8, 7, 6, 5},     // 보합이 끊음: 2, 3 → 3
+                {10, 9, NAN, 8, 7},         // 결측 전후 diff 는 NaN: 세지도 끊지도 않음 → 2
+                {1, 2, 3},                  // 상승만 → 0
+                {5},                        // 1행 → 제외
+                {NAN, NAN},                 // diff 가 모두 NaN → 0
+                {9, 8, 7, 8, 7, 6, 5, 4},   // 상승 뒤 4
+        };
+        int[] expected = {3, 2, 0, -1, 0, 4};
+        for (int i = 0; i < closes.length; i++) {
+            assertEquals(expected[i], closes[i].length < 2 ? -1 : pandasStreak(closes[i]), "series " + i);
+        }
+
+        List<Map<String, Object>> result = scanner(TestSnapshots.of((int) BASE.toEpochDay(), closes))
+                .scan(day(0), day(30), 10);
+        assertEquals(List.of(row(5, 4), row(0, 3), row(1, 2), row(2, 0), row(4, 0)), result);
+    }
+
+    @Test
+    void onlyRowsInsideRangeCount() {
+        // 0~5일 5연속 하락, 6일부터 상승 후 1연속 하락
+        double[] a = {20, 19, 18, 17, 16, 15, 16, 17, 16, 17};
+        // 범위 안에 1행만 있는 종목은 제외
+        PriceSeries b = TestSnapshots.series("S1", new int[]{epoch(0), epoch(7), epoch(20)}, new double[]{3, 2, 1});
+        PriceStoreSnapshot snap = TestSnapshots.of(List.of(TestSnapshots.series("S0", epoch(0), a), b));
+        DownwardStreakScanner scanner = scanner(snap);
+
+        assertEquals(List.of(row(0, 5), row(1, 2)), scanner.scan(day(0), day(20), 10));
+        assertEquals(List.of(row(0, 1)), scanner.scan(day(6), day(15), 10));
+        // 시작일·종료일 포함
+        assertEquals(List.of(row(0, 2)), scanner.scan(day(3), day(5), 10));
+    }
+
+    @Test
+    void randomWalksMatchPandasRanking() {
+        Random rnd = new Random(11);
+        int symbols = 40;
+        double[][] closes = new double[symbols][];
+        for (int i = 0; i < symbols; i++) {
+            int n = 1 + rnd.nextInt(80);
+            closes[i] = new double[n];
+            double v = 100;
+            for (int k = 0; k < n; k++) {
+                // 정수 가격으로 보합이 자주 생기게, 가끔 결측
+                v = Math.max(1, v + rnd.nextInt(5) - 2);
+                closes[i][k] = rnd.nextInt(25) == 0 ? NAN : v;
+            }
+        }
+        DownwardStreakScanner scanner = scanner(TestSnapshots.of((int) BASE.toEpochDay(), closes));
+
+        for (int trial = 0; trial < 30; trial++) {
+            int from = rnd.nextInt(60);
+            int to = from + rnd.nextInt(40);
+            int topN = 1 + rnd.nextInt(15);
+            assertEquals(pandasTop(closes, from, to, topN), scanner.scan(day(from), day(to), topN),
+                    "range " + from + "~" + to + " top " + topN);
+        }
+    }
+
+    // ==================================
+    // 기준 구현 (Python 스크립트와 같은 식)
+    // ==================================
+
+    /** (diff < 0).astype(int).groupby((diff >= 0).cumsum()).sum().max(), NaN 과의 비교는 모두 거짓 */
+    private static int pandasStreak(double[] close) {
+        Map<Integer, Integer> sums = new HashMap<>();
+        int group = 0;
+        for (int k = 0; k < close.length; k++) {
+            double diff = k == 0 ? NAN : close[k] - close[k - 1];
+            if (diff >= 0) group++;
+            sums.merge(group, diff < 0 ? 1 : 0, Integer::sum);
+        }
+        return sums.values().stream().max(Integer::compare).orElse(0);
+    }
+
+    /** 날짜 [from, to] 일로 자른 뒤 2행 이상인 종목만, 연속 하락 내림차순 (동점은 종목 순서) 상위 topN */
+    private static List<Map<String, Object>> pandasTop(double[][] closes, int from, int to, int topN) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < closes.length; i++) {
+            int lo = Math.min(from, closes[i].length);
+            int hi = Math.min(to + 1, closes[i].length);
+            if (hi - lo < 2) continue;
+            results.add(row(i, pandasStreak(Arrays.copyOfRange(closes[i], lo, hi))));
+        }
+        results.sort(Comparator.comparing((Map<String, Object> r) -> (Integer) r.get("streak")).reversed());
+        return results.subList(0, Math.min(topN, results.size()));
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    private static DownwardStreakScanner scanner(PriceStoreSnapshot snap) {
+        return new DownwardStreakScanner(TestSnapshots.store(snap));
+    }
+
+    private static Map<String, Object> row(int i, int streak) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ticker", "S" + i);
+        row.put("name", "name" + i);
+        row.put("streak", streak);
+        return row;
+    }
+
+    private static int epoch(int offset) {
+        return (int) BASE.plusDays(offset).toEpochDay();
+    }
+
+    private static String day(int offset) {
+        return BASE.plusDays(offset).toString();
+    }
+}
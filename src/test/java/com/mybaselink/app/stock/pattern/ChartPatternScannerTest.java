@@ -0,0 +1,89 @@
+package com.mybaselink.app.stock.pattern;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ChartPatternScanner: 여러 패턴 한 번 스캔(scanMulti) 결과가 패턴별 단독 스캔과 같은지, 실행 중 취소 확인
+ */
+class ChartPatternScannerTest {
+
+    private static final int BASE = (int) LocalDate.of(2023, 1, 2).toEpochDay();
+    private static final int SYMBOLS = 300, DAYS = 120;
+
+    @Test
+    void scanMultiMatchesSeparateScans() {
+        ChartPatternScanner scanner = scanner(new Random(17));
+        List<String> names = scanner.resolve("all").stream().map(PatternDetector::name).toList();
+        Map<String, Integer> matched = new HashMap<>();
+        for (int[] window : new int[][]{{0, DAYS - 1}, {20, DAYS - 1}, {0, 70}}) {
+            String start = PriceSeries.toIsoDate(BASE + window[0]), end = PriceSeries.toIsoDate(BASE + window[1]);
+            for (int topN : new int[]{3, SYMBOLS}) {
+                Map<String, List<Map<String, Object>>> all = scanner.scanMulti(start, end, "all", topN);
+                assertEquals(names, List.copyOf(all.keySet()));
+                for (String name : names) {
+                    assertEquals(scanner.scan(start, end, name, topN), all.get(name), name + " " + start + "~" + end);
+                    matched.merge(name, all.get(name).size(), Integer::sum);
+                }
+
+                // 일부 패턴만, 요청 순서대로
+                String subset = names.get(3) + "," + names.get(0) + "," + names.get(3);
+                Map<String, List<Map<String, Object>>> some = scanner.scanMulti(start, end, subset, topN);
+                assertEquals(List.of(names.get(3), names.get(0)), List.copyOf(some.keySet()));
+                assertEquals(all.get(names.get(3)), some.get(names.get(3)));
+                assertEquals(all.get(names.get(0)), some.get(names.get(0)));
+            }
+        }
+        // 패턴마다 검출 결과가 있어야 비교가 의미 있음
+        for (String name : names) assertTrue(matched.getOrDefault(name, 0) > 0, name + " 검출 없음: " + matched);
+    }
+
+    @Test
+    void cancelledScanStopsBeforeAllSymbols() {
+        ChartPatternScanner scanner = scanner(new Random(3));
+        String start = PriceSeries.toIsoDate(BASE), end = PriceSeries.toIsoDate(BASE + DAYS - 1);
+
+        AtomicInteger polls = new AtomicInteger();
+        assertThrows(CancellationException.class,
+                () -> scanner.scanMulti(start, end, "all", 10, () -> polls.incrementAndGet() > 5));
+        assertTrue(polls.get() < SYMBOLS, "취소 후에도 계속 확인함: " + polls.get());
+
+        // 취소되지 않으면 종목마다 한 번씩 확인하고 완료 (앞선 스캔의 남은 워커와 섞이지 않게 새 카운터)
+        AtomicInteger checks = new AtomicInteger();
+        Map<String, List<Map<String, Object>>> result = scanner.scanMulti(start, end, "all", 10,
+                () -> checks.incrementAndGet() < 0);
+        assertEquals(SYMBOLS, checks.get());
+        assertEquals(scanner.resolve("all").size(), result.size());
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    static ChartPatternScanner scanner(Random rnd) {
+        double[][] closes = new double[SYMBOLS][DAYS];
+        for (double[] c : closes) {
+            double v = 100;
+            for (int k = 0; k < DAYS; k++) {
+                v = Math.max(1, v * (1 + rnd.nextGaussian() * 0.03));
+                c[k] = v;
+            }
+        }
+        PatternDetectors detectors = new PatternDetectors(List.of(new DoubleBottomDetector(), new DoubleTopDetector(),
+                new HeadAndShouldersDetector(), new InverseHeadAndShouldersDetector(), new CupAndHandleDetector()));
+        return new ChartPatternScanner(TestSnapshots.store(TestSnapshots.of(BASE, closes)), detectors);
+    }
+}
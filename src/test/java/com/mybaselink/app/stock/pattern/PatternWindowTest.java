@@ -0,0 +1,89 @@
+package com.mybaselink.app.stock.pattern;
+
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PatternWindow: 극점·최솟값·최댓값·표준편차가 구간 직접 계산과 같은지 확인 (버퍼 재사용 포함)
+ */
+class PatternWindowTest {
+
+    @Test
+    void extremaMatchLocalExtremaRule() {
+        Random rnd = new Random(21);
+        double[] close = new double[120];
+        for (int k = 0; k < close.length; k++) close[k] = 100 + rnd.nextInt(7); // 보합이 섞이도록 정수 가격
+        PriceStoreSnapshot snap = TestSnapshots.of(19000, close);
+
+        // 긴 구간 → 짧은 구간 순으로 같은 인스턴스를 재사용해 이전 적재분이 남지 않는지 확인
+        PatternWindow window = new PatternWindow();
+        int[][] ranges = {{0, 120}, {10, 20}, {5, 90}, {100, 103}, {0, 2}};
+        for (int[] r : ranges) {
+            assertTrue(window.load(snap, r[0], r[1]));
+            double[] c = slice(close, r[0], r[1]);
+            assertEquals(c.length, window.length());
+
+            List<Integer> peaks = new ArrayList<>(), troughs = new ArrayList<>();
+            for (int k = 1; k < c.length - 1; k++) {
+                if (c[k] > c[k - 1] && c[k] > c[k + 1]) peaks.add(k);
+                if (c[k] < c[k - 1] && c[k] < c[k + 1]) troughs.add(k);
+            }
+            assertEquals(peaks, collect(window.peakCount(), window::peak));
+            assertEquals(troughs, collect(window.troughCount(), window::trough));
+
+            for (int from = 0; from < c.length; from++) {
+                double min = c[from], max = c[from];
+                for (int to = from; to < c.length; to++) {
+                    min = Math.min(min, c[to]);
+                    max = Math.max(max, c[to]);
+                    assertEquals(min, window.min(from, to), 0);
+                    assertEquals(max, window.max(from, to), 0);
+                }
+            }
+            assertEquals(std(c, 60), window.recentStd(60), 1e-9);
+        }
+    }
+
+    @Test
+    void missingCloseOrEmptyRangeIsRejected() {
+        PriceStoreSnapshot snap = TestSnapshots.of(19000, new double[]{1, 2, Double.NaN, 4, 5});
+        PatternWindow window = new PatternWindow();
+        assertFalse(window.load(snap, 0, 5));
+        assertFalse(window.load(snap, 3, 3));
+        assertTrue(window.load(snap, 3, 5));
+        assertEquals(2, window.length());
+    }
+
+    private static double[] slice(double[] a, int from, int to) {
+        double[] out = new double[to - from];
+        System.arraycopy(a, from, out, 0, out.length);
+        return out;
+    }
+
+    private static List<Integer> collect(int count, IntUnaryOperator at) {
+        List<Integer> out = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) out.add(at.applyAsInt(k));
+        return out;
+    }
+
+    /** 마지막 min(window, n) 개 모표준편차 */
+    private static double std(double[] c, int window) {
+        int from = c.length - Math.min(window, c.length);
+        double mean = 0;
+        for (int k = from; k < c.length; k++) mean += c[k];
+        mean /= c.length - from;
+        double ss = 0;
+        for (int k = from; k < c.length; k++) ss += (c[k] - mean) * (c[k] - mean);
+        return Math.sqrt(ss / (c.length - from));
+    }
+}
@@ -0,0 +1,180 @@
+package com.mybaselink.app.stock.python;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * PythonProcessRunner: runJson 스트리밍 파싱·빈 출력·비정상 종료 메시지,
+ * runProcess 줄 전달·바이트 기준 출력 상한·제한 시간·취소 확인 (Python 이 없으면 건너뜀)
+ */
+class PythonProcessRunnerTest {
+
+    private Path dir;
+    private PythonProcessRunner runner;
+    private final ExecutorService background = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(TestPython.executable() != null, "Python 인터프리터 없음");
+        assumeTrue(Files.exists(TestPython.WORKER_SCRIPT), "python_worker.py 없음");
+        dir = TestPython.tempDir();
+        // 출력 상한 1MB
+        runner = new PythonProcessRunner(TestPython.executable(), TestPython.WORKER_SCRIPT.toAbsolutePath().toString(),
+                1, 50, 30, "", 1, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (runner != null) runner.shutdown();
+        background.shutdownNow();
+        TestPython.delete(dir);
+    }
+
+    // ==================================
+    // runJson
+    // ==================================
+
+    @Test
+    void runJsonParsesStdout() throws Exception {
+        String script = TestPython.write(dir, "json_out.py", """
+                import json, sys
+                print(json.dumps({"symbol": sys.argv[1], "values": [1, 2, 3]}))
+                """);
+        JsonNode node = runner.runJson("job-1", null, script, List.of("005930"), 30, JsonNode.class);
+        assertEquals("005930", node.get("symbol").asText());
+        assertEquals(3, node.get("values").size());
+    }
+
+    @Test
+    void runJsonReturnsNullOnEmptyOutput() throws Exception {
+        String silent = TestPython.write(dir, "silent.py", "import sys\nprint('로그만', file=sys.stderr)\n");
+        assertNull(runner.runJson("job-1", null, silent, List.of(), 30, Map.class));
+        // 공백만 있는 출력도 빈 출력
+        String blank = TestPython.write(dir, "blank.py", "print()\nprint('   ')\n");
+        assertNull(runner.runJson("job-2", null, blank, List.of(), 30, Map.class));
+    }
+
+    @Test
+    void runJsonFailureCarriesLastStderrLine() throws Exception {
+        String script = TestPython.write(dir, "boom.py", "raise ValueError('잘못된 종목 코드')\n");
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> runner.runJson("job-1", null, script, List.of(), 30, JsonNode.class));
+        assertTrue(e.getMessage().contains("exit=1"), e.getMessage());
+        assertTrue(e.getMessage().contains("ValueError: 잘못된 종목 코드"), e.getMessage());
+    }
+
+    // ==================================
+    // runProcess
+    // ==================================
+
+    @Test
+    void runProcessStreamsLinesInOrder() throws Exception {
+        String script = TestPython.write(dir, "lines.py", """
+                import sys
+                for i in range(5):
+                    print(f"진행 {i}")
+                print("경고", file=sys.stderr)
+                sys.exit(2)
+                """);
+        List<String> lines = new ArrayList<>();
+        PythonProcessRunner.PythonResult<Void> result =
+                runner.runProcess("job-1", List.of("-u", script), null, 30, lines::add);
+        assertEquals(2, result.exitCode());
+        assertEquals(List.of("진행 0", "진행 1", "진행 2", "진행 3", "진행 4", "경고"), lines);
+        assertEquals("경고", result.lastStderr());
+    }
+
+    @Test
+    void runProcessOutputCapCountsEncodedBytes() throws Exception {
+        // 문자 수로는 상한(1MB)의 약 절반, UTF-8 바이트로는 약 1.5MB
+        String script = TestPython.write(dir, "korean.py", """
+                line = "가" * 999
+                for _ in range(500):
+                    print(line)
+                """);
+        List<String> lines = new ArrayList<>();
+        IOException e = assertThrows(IOException.class,
+                () -> runner.runProcess("job-1", List.of("-u", script), null, 30, lines::add));
+        assertTrue(e.getMessage().contains("상한"), e.getMessage());
+        assertTrue(lines.size() < 500);
+        assertFalse(runner.isRunning("job-1"));
+    }
+
+    @Test
+    void runProcessOutputCapStopsLongLineWithoutNewline() throws Exception {
+        String script = TestPython.write(dir, "no_newline.py", """
+                import sys
+                for _ in range(64):
+                    sys.stdout.write("x" * 32768)
+                    sys.stdout.flush()
+                """);
+        List<String> lines = new ArrayList<>();
+        assertThrows(IOException.class, () -> runner.runProcess("job-1", List.of("-u", script), null, 30, lines::add));
+        assertTrue(lines.isEmpty());
+    }
+
+    @Test
+    void runProcessTimeoutKillsProcess() throws Exception {
+        String script = TestPython.write(dir, "sleep.py", "import time\nprint('시작', flush=True)\ntime.sleep(60)\n");
+        long t0 = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> runner.runProcess("job-1", List.of("-u", script), null, 1, line -> {}));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - t0) < 20);
+        assertFalse(runner.isRunning("job-1"));
+    }
+
+    @Test
+    void cancelStopsRunProcess() throws Exception {
+        String script = TestPython.write(dir, "sleep.py", "import time\nprint('시작', flush=True)\ntime.sleep(60)\n");
+        Future<?> run = background.submit(() -> runner.runProcess("job-c", List.of("-u", script), null, 60, line -> {}));
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!runner.isRunning("job-c")) {
+            assertTrue(System.currentTimeMillis() < deadline, "작업이 시작되지 않음");
+            Thread.sleep(20);
+        }
+
+        assertTrue(runner.cancel("job-c"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> run.get(20, TimeUnit.SECONDS));
+        assertInstanceOf(CancellationException.class, e.getCause());
+        assertFalse(runner.cancel("job-c"));
+    }
+
+    @Test
+    void cancelStopsRunJsonOnWorker() throws Exception {
+        String script = TestPython.write(dir, "sleep.py", "import time\ntime.sleep(60)\n");
+        Future<?> run = background.submit(() -> runner.runJson("job-c", null, script, List.of(), 60, JsonNode.class));
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!runner.isRunning("job-c")) {
+            assertTrue(System.currentTimeMillis() < deadline, "작업이 시작되지 않음");
+            Thread.sleep(20);
+        }
+        Thread.sleep(300);
+
+        assertTrue(runner.cancel("job-c"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> run.get(20, TimeUnit.SECONDS));
+        assertInstanceOf(CancellationException.class, e.getCause());
+    }
+}
@@ -0,0 +1,269 @@
+package com.mybaselink.app.stock.python;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * PythonWorkerPool: 상주 워커 프로토콜(헤더 + 본문 + 줄바꿈)·읽다 만 본문 버림·다른 id 응답 건너뜀·
+ * 끝 줄바꿈 검사·max-jobs 후 교체·제한 시간 강제 종료·취소·상태 확인의 허가 사용 확인
+ * - 실제 python_worker.py 와, 프로토콜 이상 상황을 만드는 가짜 워커로 실행 (Python 이 없으면 건너뜀)
+ */
+class PythonWorkerPoolTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    /**
+     * 가짜 워커: 요청 script 값에 따라 응답
+     * - pid: 본문 = 프로세스 pid / stale: 다른 id 응답을 먼저 보낸 뒤 본래 응답 / no-newline: 본문 끝 줄바꿈 대신 'X'
+     * - ping 은 PY_WORKER_PRELOAD 초만큼 늦게 응답 (상태 확인 중 허가 확인용)
+     */
+    private static final String FAKE_WORKER = """
+            import json, os, sys, time
+            out = sys.stdout.buffer
+            delay = float(os.environ.get("PY_WORKER_PRELOAD") or 0)
+
+            def header(h):
+                out.write((json.dumps(h) + "\\n").encode())
+
+            def reply(job_id, body):
+                header({"id": job_id, "ok": True, "exit": 0, "size": len(body)})
+                out.write(body + b"\\n")
+
+            def done(job_id):
+                sys.stderr.write("\\0done:%s\\n" % job_id)
+                sys.stderr.flush()
+
+            header({"ready": True, "pid": os.getpid()})
+            out.flush()
+            for line in sys.stdin:
+                req = json.loads(line)
+                job_id, op = req["id"], req.get("op")
+                if op == "ping":
+                    time.sleep(delay)
+                    done(job_id)
+                    header({"id": job_id, "ok": True, "pong": True})
+                elif req["script"].endswith("stale"):
+                    reply("old-" + job_id, b"stale body")
+                    done(job_id)
+                    reply(job_id, b"fresh")
+                elif req["script"].endswith("no-newline"):
+                    done(job_id)
+                    header({"id": job_id, "ok": True, "exit": 0, "size": 2})
+                    out.write(b"{}X")
+                else:
+                    done(job_id)
+                    reply(job_id, str(os.getpid()).encode())
+                out.flush()
+            """;
+
+    private ExecutorService readers;
+    private ScheduledExecutorService watchdog;
+    private Path dir;
+    private PythonWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(TestPython.executable() != null, "Python 인터프리터 없음");
+        readers = Executors.newCachedThreadPool();
+        watchdog = Executors.newSingleThreadScheduledExecutor();
+        dir = TestPython.tempDir();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.shutdown();
+        if (watchdog != null) watchdog.shutdownNow();
+        if (readers != null) readers.shutdownNow();
+        TestPython.delete(dir);
+    }
+
+    // ==================================
+    // 실제 python_worker.py
+    // ==================================
+
+    @Test
+    void runsScriptWithArgsAndCollectsStderr() throws Exception {
+        pool = realPool(1, 50);
+        String script = TestPython.write(dir, "echo.py", """
+                import sys
+                print("진행 로그", file=sys.stderr)
+                print(" ".join(sys.argv[1:]))
+                """);
+
+        PythonProcessRunner.PythonResult<String> result = pool.run("job-1", null, script, List.of("가", "b"), 30, MB, PythonWorkerPoolTest::text);
+        assertEquals(0, result.exitCode());
+        assertEquals("가 b\n", result.value());
+        assertTrue(result.stderr().contains("진행 로그"), result.stderr().toString());
+    }
+
+    @Test
+    void unreadBodyIsDrainedBeforeNextReply() throws Exception {
+        pool = realPool(1, 50);
+        String big = TestPython.write(dir, "big.py", "print('x' * 200000)\n");
+        String failing = TestPython.write(dir, "fail.py", "import sys\nprint('partial')\nsys.exit(3)\n");
+        String pid = TestPython.write(dir, "pid.py", "import os\nprint(os.getpid())\n");
+
+        // 본문 앞 10바이트만 읽어도 나머지는 버리고 다음 응답 헤더부터 읽음
+        PythonProcessRunner.PythonResult<String> head = pool.run("job-1", null, big, List.of(), 30, MB,
+                out -> new String(out.readNBytes(10), StandardCharsets.US_ASCII));
+        assertEquals("xxxxxxxxxx", head.value());
+
+        // exit != 0 이면 본문을 읽지 않고 버림
+        PythonProcessRunner.PythonResult<String> failed = pool.run("job-2", null, failing, List.of(), 30, MB, PythonWorkerPoolTest::text);
+        assertEquals(3, failed.exitCode());
+        assertNull(failed.value());
+
+        String first = pool.run("job-3", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        String second = pool.run("job-4", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertEquals(first, second);
+    }
+
+    @Test
+    void outputOverLimitIsRejectedAndWorkerReplaced() throws Exception {
+        pool = realPool(1, 50);
+        String big = TestPython.write(dir, "big.py", "print('x' * 5000)\n");
+        String pid = TestPython.write(dir, "pid.py", "import os\nprint(os.getpid())\n");
+        String before = pool.run("job-1", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+
+        IOException e = assertThrows(IOException.class, () -> pool.run("job-2", null, big, List.of(), 30, 1000, PythonWorkerPoolTest::text));
+        assertTrue(e.getMessage().contains("상한"), e.getMessage());
+        String after = pool.run("job-3", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void workerIsRecycledAfterMaxJobs() throws Exception {
+        pool = realPool(1, 2);
+        String pid = TestPython.write(dir, "pid.py", "import os\nprint(os.getpid())\n");
+
+        String a = pool.run("job-1", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        String b = pool.run("job-2", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        String c = pool.run("job-3", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertEquals(a, b);
+        assertNotEquals(b, c);
+    }
+
+    @Test
+    void timeoutKillsWorkerAndNextJobGetsNewOne() throws Exception {
+        pool = realPool(1, 50);
+        String sleep = TestPython.write(dir, "sleep.py", "import time\ntime.sleep(60)\n");
+        String pid = TestPython.write(dir, "pid.py", "import os\nprint(os.getpid())\n");
+        String before = pool.run("job-1", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+
+        long t0 = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> pool.run("job-2", null, sleep, List.of(), 1, MB, PythonWorkerPoolTest::text));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - t0) < 20);
+
+        String after = pool.run("job-3", null, pid, List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void cancelKillsWorkerAndRunThrowsCancellation() throws Exception {
+        pool = realPool(1, 50);
+        String sleep = TestPython.write(dir, "sleep.py", "import time\ntime.sleep(60)\n");
+        Future<?> run = readers.submit(() -> pool.run("job-c", null, sleep, List.of(), 60, MB, PythonWorkerPoolTest::text));
+        awaitRunning("job-c");
+        Thread.sleep(300);
+
+        assertTrue(pool.cancel("job-c"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> run.get(20, TimeUnit.SECONDS));
+        assertInstanceOf(CancellationException.class, e.getCause());
+        assertFalse(pool.isRunning("job-c"));
+    }
+
+    // ==================================
+    // 가짜 워커 (프로토콜 이상 상황)
+    // ==================================
+
+    @Test
+    void replyWithOtherIdIsSkippedWithItsBody() throws Exception {
+        pool = fakePool(1, "0");
+        PythonProcessRunner.PythonResult<String> result = pool.run("job-1", null, "stale", List.of(), 30, MB, PythonWorkerPoolTest::text);
+        assertEquals("fresh", result.value());
+        // 건너뛴 본문이 다음 응답을 깨뜨리지 않음
+        String pid = pool.run("job-2", null, "pid", List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertEquals(pid, pool.run("job-3", null, "pid", List.of(), 30, MB, PythonWorkerPoolTest::text).value());
+    }
+
+    @Test
+    void missingTrailingNewlineFailsAndDropsWorker() throws Exception {
+        pool = fakePool(1, "0");
+        String before = pool.run("job-1", null, "pid", List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+
+        IOException e = assertThrows(IOException.class, () -> pool.run("job-2", null, "no-newline", List.of(), 30, MB, PythonWorkerPoolTest::text));
+        assertTrue(e.getMessage().contains("줄바꿈"), e.getMessage());
+        String after = pool.run("job-3", null, "pid", List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void healthCheckHoldsPermitSoJobWaitsForSameWorker() throws Exception {
+        pool = fakePool(1, "1.5");
+        String before = pool.run("job-1", null, "pid", List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+
+        CompletableFuture<Void> check = CompletableFuture.runAsync(pool::healthCheck, readers);
+        Thread.sleep(300);
+        // 상태 확인이 워커와 허가를 잡고 있는 동안 새 워커를 띄우지 않고 기다렸다가 같은 워커 사용
+        long t0 = System.nanoTime();
+        String during = pool.run("job-2", null, "pid", List.of(), 30, MB, PythonWorkerPoolTest::text).value();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) >= 500);
+        assertEquals(before, during);
+        check.get(10, TimeUnit.SECONDS);
+    }
+
+    // ==================================
+    // 도우미
+    // ==================================
+
+    private PythonWorkerPool realPool(int size, int maxJobs) {
+        assumeTrue(Files.exists(TestPython.WORKER_SCRIPT), "python_worker.py 없음");
+        return new PythonWorkerPool(new ObjectMapper(), TestPython.executable(),
+                TestPython.WORKER_SCRIPT.toAbsolutePath().toString(), size, maxJobs, 30, "", 50, readers, watchdog);
+    }
+
+    private PythonWorkerPool fakePool(int size, String pingDelaySeconds) {
+        String script = TestPython.write(dir, "fake_worker.py", FAKE_WORKER);
+        return new PythonWorkerPool(new ObjectMapper(), TestPython.executable(), script, size, 50, 30,
+                pingDelaySeconds, 50, readers, watchdog);
+    }
+
+    private void awaitRunning(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!pool.isRunning(jobId)) {
+            assertTrue(System.currentTimeMillis() < deadline, "작업이 시작되지 않음: " + jobId);
+            Thread.sleep(20);
+        }
+    }
+
+    private static String text(InputStream out) throws IOException {
+        return new String(out.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
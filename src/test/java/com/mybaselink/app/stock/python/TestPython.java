@@ -0,0 +1,82 @@
+package com.mybaselink.app.stock.python;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 테스트용 Python 환경 (인터프리터가 없으면 해당 테스트는 건너뜀)
+ */
+final class TestPython {
+
+    /** 저장소의 상주 워커 스크립트 (테스트는 프로젝트 루트에서 실행) */
+    static final Path WORKER_SCRIPT = Path.of("python", "stock", "py", "python_worker.py");
+
+    private static volatile String executable;
+    private static volatile boolean probed;
+
+    private TestPython() {}
+
+    /** 사용할 수 있는 Python 실행 파일 (없으면 null) */
+    static String executable() {
+        if (!probed) {
+            synchronized (TestPython.class) {
+                if (!probed) {
+                    executable = probe();
+                    probed = true;
+                }
+            }
+        }
+        return executable;
+    }
+
+    private static String probe() {
+        for (String exe : new String[]{"python3", "python"}) {
+            try {
+                Process p = new ProcessBuilder(exe, "-c", "import sys; sys.exit(0 if sys.version_info >= (3, 8) else 1)")
+                        .redirectErrorStream(true).start();
+                if (p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0) return exe;
+                p.destroyForcibly();
+            } catch (IOException e) {
+                // 다음 후보
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** dir 에 스크립트 파일 작성 → 절대 경로 */
+    static String write(Path dir, String name, String code) {
+        try {
+            Path file = dir.resolve(name);
+            Files.writeString(file, code, StandardCharsets.UTF_8);
+            return file.toAbsolutePath().toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Path tempDir() {
+        try {
+            return Files.createTempDirectory("python-test-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void delete(Path dir) {
+        if (dir == null) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        } catch (IOException ignored) {
+            // 임시 디렉터리
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mybaselink.app.stock.rank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TopKCollector: 전체 정렬 후 앞 K 개 슬라이스와 같은 결과인지 확인
+ */
+class TopKCollectorTest {
+
+    @Test
+    void matchesSortAndSlice() {
+        Random rnd = new Random(3);
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + rnd.nextInt(300);
+            // 동점이 많도록 점수를 작은 정수 범위에서 뽑음
+            double[] scores = new double[n];
+            for (int i = 0; i < n; i++) scores[i] = rnd.nextInt(20);
+            for (int k : new int[]{1, 3, 10, n, n + 5}) {
+                TopKCollector top = new TopKCollector(k);
+                for (int i = 0; i < n; i++) top.offer(scores[i], i);
+                assertArrayEquals(sortAndSlice(scores, k), top.indices(), "n=" + n + " k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void offerOrderDoesNotMatter() {
+        double[] scores = {5, 1, 5, 3, 5, 2, 3};
+        TopKCollector forward = new TopKCollector(3);
+        for (int i = 0; i < scores.length; i++) forward.offer(scores[i], i);
+        TopKCollector backward = new TopKCollector(3);
+        for (int i = scores.length - 1; i >= 0; i--) backward.offer(scores[i], i);
+
+        assertArrayEquals(new int[]{0, 2, 4}, forward.indices());
+        assertArrayEquals(forward.indices(), backward.indices());
+        assertArrayEquals(new double[]{5, 5, 5}, backward.scores(), 0);
+    }
+
+    @Test
+    void nanScoresAreIgnored() {
+        TopKCollector top = new TopKCollector(2);
+        assertFalse(top.offer(Double.NaN, 0));
+        assertTrue(top.offer(1, 1));
+        assertEquals(1, top.size());
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold(), 0);
+        top.offer(2, 2);
+        assertTrue(top.isFull());
+        assertEquals(1, top.threshold(), 0);
+        assertFalse(top.offer(0.5, 3));
+    }
+
+    @Test
+    void mergeAndParallelCollectMatchSequential() {
+        Random rnd = new Random(9);
+        int n = 5000;
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) scores[i] = rnd.nextInt(500) / 10.0;
+
+        TopKCollector a = new TopKCollector(25);
+        TopKCollector b = new TopKCollector(25);
+        for (int i = 0; i < n; i++) (i % 2 == 0 ? a : b).offer(scores[i], i);
+        a.merge(b);
+
+        int[] expected = sortAndSlice(scores, 25);
+        assertArrayEquals(expected, a.indices());
+        assertArrayEquals(expected, TopKCollector.collect(n, 25, i -> scores[i]).indices());
+    }
+
+    /** 점수 내림차순, 같은 점수는 인덱스 오름차순 정렬 후 앞 K 개 */
+    private static int[] sortAndSlice(double[] scores, int k) {
+        return IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> -scores[i]).thenComparingInt(i -> i))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,155 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.rank.TopKCollector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DtwSearch: 하한 가지치기·조기 중단 결과가 전수 DTW 계산 + 정렬과 같은지, 취소되면 다음 후보에서 멈추는지 확인
+ */
+class DtwSearchTest {
+
+    @Test
+    void topKMatchesBruteForce() {
+        Random rnd = new Random(7);
+        int length = 24;
+        double[] query = randomWalk(rnd, length);
+        double[][] candidates = new double[200][];
+        for (int i = 0; i < candidates.length; i++) candidates[i] = randomWalk(rnd, length);
+
+        for (int window : new int[]{0, 2, 5, length}) {
+            for (int k : new int[]{1, 5, 20}) {
+                assertSameAsBruteForce(query, candidates, window, k, 1);
+                assertSameAsBruteForce(query, candidates, window, k, 4);
+            }
+        }
+    }
+
+    @Test
+    void tiedDistancesKeepLowerIndex() {
+        Random rnd = new Random(11);
+        int length = 16;
+        double[] query = randomWalk(rnd, length);
+        double[] near = query.clone();
+        near[3] += 0.5;
+        double[] far = query.clone();
+        far[5] += 3;
+
+        // 같은 거리의 후보가 K번째 경계에 걸치도록 배치 (뒤쪽 인덱스가 먼저 제출되는 워커 포함)
+        double[][] candidates = new double[12][];
+        for (int i = 0; i < candidates.length; i++) candidates[i] = (i % 3 == 0) ? far : near;
+
+        for (int k = 1; k <= candidates.length; k++) {
+            assertSameAsBruteForce(query, candidates, 3, k, 1);
+            assertSameAsBruteForce(query, candidates, 3, k, 3);
+        }
+    }
+
+    @Test
+    void fullWindowEqualsUnconstrainedDtw() {
+        double[] query = {1, 2, 3, 4, 3, 2, 1};
+        double[] candidate = {1, 1, 2, 3, 4, 3, 1};
+        assertEquals(bruteForce(query, candidate, query.length), searchDistance(query, candidate, query.length), 1e-12);
+        assertTrue(bruteForce(query, candidate, 0) > bruteForce(query, candidate, query.length));
+    }
+
+    @Test
+    void cancelledSearchStopsAtNextCandidate() {
+        Random rnd = new Random(5);
+        int length = 20;
+        AtomicBoolean cancelled = new AtomicBoolean();
+        DtwSearch search = new DtwSearch(randomWalk(rnd, length), length, 3, 5, cancelled::get);
+        DtwSearch.Worker worker = search.newWorker();
+        for (int i = 0; i < 10; i++) {
+            System.arraycopy(randomWalk(rnd, length), 0, worker.candidate, 0, length);
+            worker.offer(i);
+        }
+        long evaluated = search.prunedByKim.sum() + search.prunedByKeogh.sum() + search.abandoned.sum()
+                + search.computed.sum();
+        assertEquals(10, evaluated);
+
+        cancelled.set(true);
+        assertThrows(CancellationException.class, () -> worker.offer(10));
+        assertEquals(evaluated, search.prunedByKim.sum() + search.prunedByKeogh.sum() + search.abandoned.sum()
+                + search.computed.sum());
+    }
+
+    // ==================================
+    // 보조
+    // ==================================
+
+    /** 워커 수만큼 종목을 나눠 제출한 뒤 병합 (SimilarityEngine 과 같은 방식) */
+    private static void assertSameAsBruteForce(double[] query, double[][] candidates, int window, int k, int workers) {
+        int length = query.length;
+        DtwSearch search = new DtwSearch(query, length, window, k);
+        DtwSearch.Worker[] ws = new DtwSearch.Worker[workers];
+        for (int w = 0; w < workers; w++) ws[w] = search.newWorker();
+        // 뒤쪽 종목부터 제출해 동점 후보가 나중에 오는 경우도 확인
+        for (int i = candidates.length - 1; i >= 0; i--) {
+            DtwSearch.Worker worker = ws[i % workers];
+            System.arraycopy(candidates[i], 0, worker.candidate, 0, length);
+            worker.offer(i);
+        }
+        TopKCollector merged = new TopKCollector(k);
+        for (DtwSearch.Worker worker : ws) merged.merge(worker.best);
+
+        TopKCollector expected = new TopKCollector(k);
+        for (int i = 0; i < candidates.length; i++) {
+            expected.offer(-bruteForce(query, candidates[i], search.window()), i);
+        }
+        String label = "window=" + window + " k=" + k + " workers=" + workers;
+        assertArrayEquals(expected.indices(), merged.indices(), label);
+        assertArrayEquals(expected.scores(), merged.scores(), 1e-9);
+    }
+
+    private static double searchDistance(double[] query, double[] candidate, int window) {
+        DtwSearch search = new DtwSearch(query, query.length, window, 1);
+        DtwSearch.Worker worker = search.newWorker();
+        System.arraycopy(candidate, 0, worker.candidate, 0, query.length);
+        worker.offer(0);
+        return -worker.best.scores()[0];
+    }
+
+    /** 전체 비용 행렬 DTW (|i - j| <= window 밖은 무한대) */
+    private static double bruteForce(double[] q, double[] c, int window) {
+        int n = q.length;
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (Math.abs(i - j) > window) {
+                    d[i][j] = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                double step;
+                if (i == 0 && j == 0) step = 0;
+                else {
+                    step = Double.POSITIVE_INFINITY;
+                    if (i > 0) step = Math.min(step, d[i - 1][j]);
+                    if (j > 0) step = Math.min(step, d[i][j - 1]);
+                    if (i > 0 && j > 0) step = Math.min(step, d[i - 1][j - 1]);
+                }
+                double diff = q[i] - c[j];
+                d[i][j] = diff * diff + step;
+            }
+        }
+        return d[n - 1][n - 1];
+    }
+
+    private static double[] randomWalk(Random rnd, int n) {
+        double[] out = new double[n];
+        double v = 0;
+        for (int i = 0; i < n; i++) {
+            v += rnd.nextGaussian();
+            out[i] = v;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,54 @@
+package com.mybaselink.app.stock.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mass.slidingDot: 직접 계산 경로와 FFT 경로 모두 창별 내적 직접 합과 같은지 확인
+ */
+class MassTest {
+
+    @Test
+    void slidingDotMatchesDirectSum() {
+        Random rnd = new Random(37);
+        Mass.Scratch scratch = new Mass.Scratch();
+        // (m, n): 짧은 질의는 직접 계산, 긴 질의는 FFT 경로를 타도록 구성
+        int[][] cases = {{1, 1}, {3, 10}, {5, 300}, {64, 1024}, {256, 4096}, {700, 2000}, {1000, 1000}};
+        for (int[] c : cases) {
+            int m = c[0], n = c[1];
+            double[] q = new double[m];
+            for (int k = 0; k < m; k++) q[k] = rnd.nextGaussian();
+            double[] t = new double[n];
+            for (int k = 0; k < n; k++) t[k] = rnd.nextInt(50) == 0 ? Double.NaN : rnd.nextGaussian() * 100;
+
+            double[] out = new double[n];
+            Mass.slidingDot(new Mass.Query(q), t, n, out, scratch);
+            for (int i = 0; i + m <= n; i++) {
+                double expected = 0, scale = 0;
+                for (int k = 0; k < m; k++) {
+                    if (Double.isNaN(t[i + k])) continue;
+                    expected += q[k] * t[i + k];
+                    scale += Math.abs(q[k] * t[i + k]);
+                }
+                assertEquals(expected, out[i], 1e-9 * Math.max(1, scale), "m=" + m + " n=" + n + " i=" + i);
+            }
+        }
+    }
+
+    @Test
+    void fftRoundTripRestoresInput() {
+        Random rnd = new Random(41);
+        double[] re = new double[256], im = new double[256];
+        double[] original = new double[256];
+        for (int k = 0; k < re.length; k++) original[k] = re[k] = rnd.nextGaussian();
+        Mass.fft(re, im, false);
+        Mass.fft(re, im, true);
+        for (int k = 0; k < re.length; k++) {
+            assertEquals(original[k], re[k], 1e-12);
+            assertEquals(0, im[k], 1e-12);
+        }
+    }
+}
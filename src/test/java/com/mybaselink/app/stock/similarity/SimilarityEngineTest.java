@@ -0,0 +1,360 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import com.mybaselink.app.stock.rank.TopKCollector;
+import com.mybaselink.app.stock.similarity.metric.PearsonMetric;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SimilarityEngine: 색인 가지치기·사전 계산 행렬을 거친 결과가 전 종목 전수 계산과 같은지 확인
+ * - 종목 구성: 기준 종목과 닮은 종목들(달력 일치), 거래일 누락 종목, 결측 종가 종목, 늦게 상장한 종목, 가격 일정 종목
+ * - 종목 수는 정확 계산 묶음 크기의 몇 배로 잡아 상한 가지치기가 실제로 일어나게 함
+ * - 취소 확인: 실행 도중 취소되면 모든 경로가 CancellationException 으로 중단
+ */
+class SimilarityEngineTest {
+
+    private static final int BASE_DAY = 19000;
+    private static final int ROWS = 220;
+
+    private Path matrixDir;
+    private PriceStoreSnapshot snap;
+    private CountingMatrixStore store;
+    private SimilarityEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        matrixDir = Files.createTempDirectory("corr-matrix-test");
+        snap = TestSnapshots.of(universe(new Random(31)));
+        store = new CountingMatrixStore(matrixDir.toString());
+        engine = new SimilarityEngine(TestSnapshots.store(snap), store);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(matrixDir)) {
+            for (Path f : files.toList()) Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(matrixDir);
+    }
+
+    /** 지문까지 비교하는 조회 횟수 기록 (지문 계산 여부 확인용) */
+    static final class CountingMatrixStore extends CorrelationMatrixStore {
+        int fingerprintLookups;
+
+        CountingMatrixStore(String dir) {
+            super(dir);
+        }
+
+        @Override
+        CorrelationMatrix find(int startDay, int endDay, long fingerprint) {
+            fingerprintLookups++;
+            return super.find(startDay, endDay, fingerprint);
+        }
+    }
+
+    @Test
+    void cosineSearchMatchesFullScan() {
+        for (int[] window : new int[][]{{40, 150}, {0, ROWS - 1}, {100, 170}}) {
+            String start = PriceSeries.toIsoDate(BASE_DAY + window[0]);
+            String end = PriceSeries.toIsoDate(BASE_DAY + window[1]);
+            for (int k : new int[]{1, 5, 40}) {
+                List<Map<String, Object>> actual = engine.findSimilar("S0", start, end, k);
+                assertSameRanking(bruteForce(0, BASE_DAY + window[0], BASE_DAY + window[1], k, false),
+                        actual, "cosine_similarity");
+            }
+        }
+    }
+
+    @Test
+    void pearsonSearchMatchesFullScan() {
+        String start = PriceSeries.toIsoDate(BASE_DAY + 30);
+        String end = PriceSeries.toIsoDate(BASE_DAY + 140);
+        for (int k : new int[]{1, 7, 40}) {
+            List<Map<String, Object>> actual = engine.findSimilar("S0", start, end, k, new PearsonMetric());
+            assertSameRanking(bruteForce(0, BASE_DAY + 30, BASE_DAY + 140, k, true), actual, "similarity");
+        }
+    }
+
+    @Test
+    void standardMatrixMatchesLiveSearch() {
+        LocalDate today = LocalDate.ofEpochDay(BASE_DAY + ROWS - 1);
+        int endDay = (int) today.toEpochDay();
+        String[] symbols = {"S0", "S7", "S13"};
+        // 행렬 생성 전 = 실시간 계산
+        Map<String, List<Map<String, Object>>> live = new HashMap<>();
+        for (int months : new int[]{1, 3, 6}) {
+            String start = PriceSeries.toIsoDate((int) today.minusMonths(months).toEpochDay());
+            for (String symbol : symbols) {
+                live.put(months + symbol, engine.findSimilar(symbol, start, PriceSeries.toIsoDate(endDay), 15));
+            }
+        }
+        engine.rebuildStandardMatrices(today);
+
+        for (int months : new int[]{1, 3, 6}) {
+            int startDay = (int) today.minusMonths(months).toEpochDay();
+            assertNotNull(store.find(startDay, endDay, engine.windowFingerprint(snap, startDay, endDay)));
+            for (String symbol : symbols) {
+                List<Object[]> expected = bruteForce(snap.indexOf(symbol), startDay, endDay, 15, false);
+                List<Map<String, Object>> fromMatrix = engine.findSimilar(symbol, PriceSeries.toIsoDate(startDay),
+                        PriceSeries.toIsoDate(endDay), 15);
+                assertSameRanking(expected, fromMatrix, "cosine_similarity");
+                // 두 경로는 점수까지 정확히 같음 (같은 float 정밀도)
+                assertEquals(live.get(months + symbol), fromMatrix, months + "개월 " + symbol);
+            }
+        }
+    }
+
+    @Test
+    void adHocWindowSkipsFingerprint() {
+        store.fingerprintLookups = 0;
+        engine.findSimilar("S0", PriceSeries.toIsoDate(BASE_DAY + 10), PriceSeries.toIsoDate(BASE_DAY + 120), 5);
+        assertEquals(0, store.fingerprintLookups);
+
+        LocalDate today = LocalDate.ofEpochDay(BASE_DAY + ROWS - 1);
+        engine.rebuildStandardMatrices(today);
+        store.fingerprintLookups = 0;
+        engine.findSimilar("S0", PriceSeries.toIsoDate((int) today.minusMonths(1).toEpochDay()),
+                PriceSeries.toIsoDate((int) today.toEpochDay()), 5);
+        assertEquals(1, store.fingerprintLookups);
+    }
+
+    @Test
+    void cancelledSearchStopsOnEveryPath() {
+        String start = PriceSeries.toIsoDate(BASE_DAY + 40);
+        String end = PriceSeries.toIsoDate(BASE_DAY + 179);
+        // 몇 종목을 처리한 뒤 취소
+        assertCancelledMidway(c -> engine.findSimilar("S0", start, end, 5, c));
+        assertCancelledMidway(c -> engine.findSimilar("S0", start, end, 5, new PearsonMetric(), c));
+        assertCancelledMidway(c -> engine.findSimilarDtw("S0", start, end, 5, 10, c));
+        assertCancelledMidway(c -> engine.findSimilarWindows("S0", PriceSeries.toIsoDate(BASE_DAY + 150), end, 1, 5, c));
+
+        // 취소되지 않으면 그대로 완료
+        assertEquals(5, engine.findSimilarDtw("S0", start, end, 5, 10, () -> false).size());
+    }
+
+    @Test
+    void windowSearchMatchesFullScan() {
+        int startDay = BASE_DAY + 150, endDay = BASE_DAY + 179;
+        List<Map<String, Object>> actual = engine.findSimilarWindows("S0",
+                PriceSeries.toIsoDate(startDay), PriceSeries.toIsoDate(endDay), 1, 10);
+
+        // 종목마다 모든 시작 위치의 상관을 직접 계산해 최댓값 1개씩 (기준 종목은 기준 구간과 겹치는 위치 제외)
+        double[] q = closes(0, startDay, endDay);
+        int m = q.length;
+        int baseFrom = snap.lowerBound(0, startDay), baseTo = snap.upperBound(0, endDay);
+        int fromDay = endDay - (int) Math.round(365.25);
+        TopKCollector top = new TopKCollector(10);
+        int[] bestRow = new int[snap.symbolCount()];
+        for (int i = 0; i < snap.symbolCount(); i++) {
+            double best = Double.NaN;
+            for (int r = snap.lowerBound(i, fromDay); r + m <= snap.rowEnd(i); r++) {
+                if (i == 0 && r < baseTo && r + m > baseFrom) continue;
+                double[] w = new double[m];
+                snap.copyClose(r, r + m, w, 0);
+                List<double[]> pairs = new ArrayList<>();
+                for (int k = 0; k < m; k++) pairs.add(new double[]{q[k], w[k]});
+                double corr = Arrays.stream(w).anyMatch(Double::isNaN) ? Double.NaN : correlation(pairs);
+                if (!Double.isNaN(corr) && (Double.isNaN(best) || corr > best)) {
+                    best = corr;
+                    bestRow[i] = r;
+                }
+            }
+            top.offer(best, i);
+        }
+
+        int[] idx = top.indices();
+        double[] scores = top.scores();
+        assertEquals(idx.length, actual.size());
+        for (int j = 0; j < idx.length; j++) {
+            Map<String, Object> row = actual.get(j);
+            assertEquals(snap.symbol(idx[j]), row.get("ticker"), "rank " + j);
+            assertEquals(PriceSeries.toIsoDate(snap.date(bestRow[idx[j]])), row.get("start"), "rank " + j);
+            assertEquals(scores[j], (double) row.get("similarity"), 1e-6, "rank " + j);
+            assertEquals(Math.sqrt(Math.max(0, 2.0 * m * (1 - scores[j]))), (double) row.get("distance"), 1e-4);
+        }
+    }
+
+    // ==================================
+    // 전수 계산 (색인·행렬 없이 종목마다 직접)
+    // ==================================
+
+    /**
+     * @param aligned false: 기준 날짜와의 교집합 (findSimilar)
+     *                true: 기준 날짜로 재색인 + 선형 보간 (method 별 분석)
+     */
+    private List<Object[]> bruteForce(int base, int startDay, int endDay, int k, boolean aligned) {
+        int[] baseDates = dates(base, startDay, endDay);
+        double[] baseClose = closes(base, startDay, endDay);
+        int minOverlap = Math.max(SimilarityEngine.MIN_OVERLAP, (int) (baseDates.length * 0.5));
+
+        TopKCollector top = new TopKCollector(k);
+        for (int i = 0; i < snap.symbolCount(); i++) {
+            if (i == base) continue;
+            int[] d = dates(i, startDay, endDay);
+            double[] c = closes(i, startDay, endDay);
+            double score = aligned ? alignedCorrelation(baseDates, baseClose, d, c)
+                    : intersectCorrelation(baseDates, baseClose, d, c, minOverlap);
+            top.offer(score, i);
+        }
+        List<Object[]> out = new ArrayList<>();
+        int[] idx = top.indices();
+        double[] scores = top.scores();
+        for (int j = 0; j < idx.length; j++) out.add(new Object[]{snap.symbol(idx[j]), scores[j]});
+        return out;
+    }
+
+    private static double intersectCorrelation(int[] bd, double[] bc, int[] d, double[] c, int minOverlap) {
+        if (d.length < minOverlap) return Double.NaN;
+        List<double[]> pairs = new ArrayList<>();
+        for (int a = 0; a < bd.length; a++) {
+            int b = Arrays.binarySearch(d, bd[a]);
+            if (b < 0) continue;
+            if (Double.isNaN(bc[a]) || Double.isNaN(c[b])) return Double.NaN;
+            pairs.add(new double[]{bc[a], c[b]});
+        }
+        if (pairs.size() < minOverlap) return Double.NaN;
+        return correlation(pairs);
+    }
+
+    /** pandas reindex + interpolate(linear): 선행 결측이면 제외, 후행 결측은 마지막 값 유지 */
+    private static double alignedCorrelation(int[] bd, double[] bc, int[] d, double[] c) {
+        double[] y = new double[bd.length];
+        for (int a = 0; a < bd.length; a++) {
+            int b = Arrays.binarySearch(d, bd[a]);
+            y[a] = b >= 0 ? c[b] : Double.NaN;
+        }
+        if (y.length == 0 || Double.isNaN(y[0])) return Double.NaN;
+        for (int a = 1; a < y.length; a++) {
+            if (!Double.isNaN(y[a])) continue;
+            int prev = a - 1, next = a + 1;
+            while (next < y.length && Double.isNaN(y[next])) next++;
+            y[a] = next < y.length ? y[prev] + (y[next] - y[prev]) / (next - prev) : y[prev];
+        }
+        List<double[]> pairs = new ArrayList<>();
+        for (int a = 0; a < bd.length; a++) pairs.add(new double[]{bc[a], y[a]});
+        return correlation(pairs);
+    }
+
+    /** 두 번 훑는 피어슨 상관 (분산 0 이면 NaN) */
+    private static double correlation(List<double[]> pairs) {
+        int n = pairs.size();
+        double mx = 0, my = 0;
+        for (double[] p : pairs) {
+            mx += p[0];
+            my += p[1];
+        }
+        mx /= n;
+        my /= n;
+        double sxx = 0, syy = 0, sxy = 0;
+        for (double[] p : pairs) {
+            sxx += (p[0] - mx) * (p[0] - mx);
+            syy += (p[1] - my) * (p[1] - my);
+            sxy += (p[0] - mx) * (p[1] - my);
+        }
+        return (sxx == 0 || syy == 0) ? Double.NaN : sxy / Math.sqrt(sxx * syy);
+    }
+
+    private int[] dates(int i, int startDay, int endDay) {
+        int from = snap.lowerBound(i, startDay), to = snap.upperBound(i, endDay);
+        int[] out = new int[to - from];
+        snap.copyDates(from, to, out, 0);
+        return out;
+    }
+
+    private double[] closes(int i, int startDay, int endDay) {
+        int from = snap.lowerBound(i, startDay), to = snap.upperBound(i, endDay);
+        double[] out = new double[to - from];
+        snap.copyClose(from, to, out, 0);
+        return out;
+    }
+
+    /** 취소 확인을 몇 번 통과시킨 뒤 취소 → 끝까지 가지 않고 CancellationException */
+    private void assertCancelledMidway(Consumer<BooleanSupplier> search) {
+        AtomicInteger polls = new AtomicInteger();
+        assertThrows(CancellationException.class, () -> search.accept(() -> polls.incrementAndGet() > 3));
+        assertTrue(polls.get() > 3);
+        assertTrue(polls.get() < snap.symbolCount(), "취소 후에도 계속 확인함: " + polls.get());
+    }
+
+    private static void assertSameRanking(List<Object[]> expected, List<Map<String, Object>> actual, String scoreKey) {
+        assertEquals(expected.size(), actual.size(), "result size");
+        for (int j = 0; j < expected.size(); j++) {
+            assertEquals(expected.get(j)[0], actual.get(j).get("ticker"), "rank " + j);
+            assertEquals((double) expected.get(j)[1], ((Number) actual.get(j).get(scoreKey)).doubleValue(), 1e-6,
+                    "rank " + j);
+        }
+    }
+
+    // ==================================
+    // 테스트 종목 구성
+    // ==================================
+    static List<PriceSeries> universe(Random rnd) {
+        double[] base = new double[ROWS];
+        double v = 20_000;
+        for (int k = 0; k < ROWS; k++) {
+            v += rnd.nextGaussian() * 200;
+            base[k] = v;
+        }
+        List<PriceSeries> series = new ArrayList<>();
+        series.add(TestSnapshots.series("S0", BASE_DAY, base));
+        int[] all = new int[ROWS];
+        for (int k = 0; k < ROWS; k++) all[k] = BASE_DAY + k;
+
+        int count = 3 * Math.max(64, Runtime.getRuntime().availableProcessors() * 16);
+        for (int i = 1; i < count; i++) {
+            // 잡음 크기를 달리해 기준 종목과의 상관이 고르게 퍼지도록 구성
+            double noise = 50 + rnd.nextDouble() * 3_000, scale = 0.5 + rnd.nextDouble();
+            double[] c = new double[ROWS];
+            double drift = 0;
+            for (int k = 0; k < ROWS; k++) {
+                drift += rnd.nextGaussian() * noise;
+                c[k] = 5_000 + base[k] * scale + drift;
+            }
+            int[] dates = all;
+            if (i % 7 == 0) {
+                // 거래일 일부 누락 → 색인 상한 대신 정확 계산 경로
+                dates = IntStream.range(0, ROWS).filter(k -> k % 11 != 5).map(k -> BASE_DAY + k).toArray();
+                double[] kept = new double[dates.length];
+                for (int k = 0, p = 0; k < ROWS; k++) if (k % 11 != 5) kept[p++] = c[k];
+                c = kept;
+            } else if (i % 13 == 0) {
+                c[90] = Double.NaN;
+            }
+            series.add(TestSnapshots.series("S" + i, dates, c));
+        }
+
+        // 늦게 상장한 종목 (교집합 길이 부족 또는 선행 결측), 가격 일정 종목
+        double[] late = new double[60];
+        for (int k = 0; k < late.length; k++) late[k] = 1_000 + rnd.nextGaussian() * 10;
+        series.add(TestSnapshots.series("LATE", BASE_DAY + ROWS - late.length, late));
+        double[] flat = new double[ROWS];
+        Arrays.fill(flat, 777);
+        series.add(TestSnapshots.series("FLAT", BASE_DAY, flat));
+        return series;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mybaselink.app.stock.similarity;
+
+import com.mybaselink.app.stock.data.PriceSeries;
+import com.mybaselink.app.stock.data.PriceStoreSnapshot;
+import com.mybaselink.app.stock.data.TestSnapshots;
+import com.mybaselink.app.stock.similarity.metric.CosineMetric;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SimilarityIndex: PAA 상관 상한이 정확한 상관 이상인지, 달력 판정이 날짜 전수 비교와 같은지 확인
+ */
+class SimilarityIndexTest {
+
+    @Test
+    void upperBoundNeverBelowExactCorrelation() {
+        Random rnd = new Random(23);
+        int rows = 160;
+        double[][] closes = new double[25][];
+        for (int i = 0; i < closes.length; i++) closes[i] = walk(rnd, rows, 10_000);
+        PriceStoreSnapshot snap = TestSnapshots.of(19000, closes);
+        SimilarityIndex index = SimilarityIndex.build(snap);
+
+        // 블록 경계에 걸치는 여러 시작 위치·길이
+        for (int from : new int[]{0, 3, 8, 13, 40}) {
+            for (int length : new int[]{2, 7, 9, 33, 100}) {
+                double[] q = new double[length];
+                System.arraycopy(closes[0], from, q, 0, length);
+                SimilarityIndex.Query query = SimilarityIndex.query(q, length);
+                for (int i = 1; i < closes.length; i++) {
+                    int lo = snap.rowStart(i);
+                    double exact = CosineMetric.centeredCosine(q, slice(closes[i], from, length), length);
+                    double bound = index.upperBound(snap, i, lo + from, lo + from + length, query);
+                    assertTrue(bound >= exact - 1e-9,
+                            "symbol=" + i + " from=" + from + " length=" + length + " bound=" + bound + " exact=" + exact);
+                }
+            }
+        }
+    }
+
+    @Test
+    void degenerateQueryIsNotIndexed() {
+        assertNull(SimilarityIndex.query(new double[]{5, 5, 5, 5}, 4));
+        assertNull(SimilarityIndex.query(new double[]{1, Double.NaN, 3}, 3));
+    }
+
+    @Test
+    void regularMatchesCalendarScan() {
+        Random rnd = new Random(29);
+        int base = 19000;
+        List<PriceSeries> series = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            // 상장일·폐지일이 다르고, 일부 종목은 거래일 누락 또는 단독 거래일을 가짐
+            int first = base + (i % 4) * 5, last = base + 80 - (i % 3) * 7;
+            List<Integer> days = new ArrayList<>();
+            for (int d = first; d <= last; d++) {
+                boolean holiday = d % 7 == 0;
+                if (holiday && !(i == 3 && d == base + 21)) continue;
+                if (i >= 9 && rnd.nextInt(10) == 0) continue;
+                days.add(d);
+            }
+            int[] dates = days.stream().mapToInt(Integer::intValue).toArray();
+            series.add(TestSnapshots.series("S" + i, dates, walk(rnd, dates.length, 100)));
+        }
+        PriceStoreSnapshot snap = TestSnapshots.of(series);
+        SimilarityIndex index = SimilarityIndex.build(snap);
+        boolean[] calendar = calendar(snap, base, base + 81);
+
+        for (int i = 0; i < snap.symbolCount(); i++) {
+            int lo = snap.rowStart(i), hi = snap.rowEnd(i);
+            for (int from = lo; from < hi; from++) {
+                for (int to = from + 1; to <= hi; to++) {
+                    assertEquals(regular(snap, calendar, base, from, to), index.regular(i, from, to),
+                            "symbol=" + i + " from=" + (from - lo) + " to=" + (to - lo));
+                }
+            }
+        }
+    }
+
+    /** 날짜 d 는 상장 기간 중인 종목 과반이 가지면 공통 거래일 */
+    private static boolean[] calendar(PriceStoreSnapshot snap, int minDay, int endDay) {
+        boolean[] out = new boolean[endDay - minDay];
+        for (int d = minDay; d < endDay; d++) {
+            int listed = 0, present = 0;
+            for (int i = 0; i < snap.symbolCount(); i++) {
+                int lo = snap.rowStart(i), hi = snap.rowEnd(i);
+                if (snap.date(lo) > d || snap.date(hi - 1) < d) continue;
+                listed++;
+                for (int r = lo; r < hi; r++) if (snap.date(r) == d) present++;
+            }
+            out[d - minDay] = present > 0 && present * 2 >= listed;
+        }
+        return out;
+    }
+
+    /** [from, to) 행 날짜가 모두 공통 거래일이고 행 사이에 빠진 공통 거래일이 없는지 */
+    private static boolean regular(PriceStoreSnapshot snap, boolean[] calendar, int minDay, int from, int to) {
+        for (int r = from; r < to; r++) {
+            if (!calendar[snap.date(r) - minDay]) return false;
+            if (r > from) {
+                for (int d = snap.date(r - 1) + 1; d < snap.date(r); d++) if (calendar[d - minDay]) return false;
+            }
+        }
+        return true;
+    }
+
+    private static double[] slice(double[] a, int from, int length) {
+        double[] out = new double[length];
+        System.arraycopy(a, from, out, 0, length);
+        return out;
+    }
+
+    private static double[] walk(Random rnd, int n, double start) {
+        double[] out = new double[n];
+        double v = start;
+        for (int k = 0; k < n; k++) {
+            v += rnd.nextGaussian() * start * 0.01;
+            out[k] = v;
+        }
+        return out;
+    }
+}
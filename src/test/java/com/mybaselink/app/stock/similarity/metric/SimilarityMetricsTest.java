@@ -0,0 +1,91 @@
+package com.mybaselink.app.stock.similarity.metric;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 유사도 방식별 고정 벡터 값 확인 (손으로 계산한 값 = Python 스크립트의 numpy/pandas/dtaidistance 결과)
+ * - 공통 입력: base = [1, 2, 3, 5, 4], compare = [2, 4, 5, 4, 6]
+ * - 결측·분산 0·길이 부족이면 NaN
+ */
+class SimilarityMetricsTest {
+
+    private static final double EPS = 1e-12;
+    private static final double[] BASE = {1, 2, 3, 5, 4};
+    private static final double[] COMPARE = {2, 4, 5, 4, 6};
+
+    private final MetricScratch scratch = new MetricScratch();
+
+    @Test
+    void cosineAndPearsonAreCenteredCorrelation() {
+        // 평균 3, 4.2 → Σdxdy = 6, Σdx² = 10, Σdy² = 8.8 → 6 / √88
+        double expected = 6 / Math.sqrt(88);
+        assertEquals(expected, new CosineMetric().similarity(BASE, COMPARE, 5, scratch), EPS);
+        assertEquals(expected, new PearsonMetric().similarity(BASE, COMPARE, 5, scratch), EPS);
+        // 스케일·이동에 무관
+        double[] scaled = {12, 22, 32, 52, 42};
+        assertEquals(1.0, new CosineMetric().similarity(BASE, scaled, 5, scratch), EPS);
+        assertEquals(-1.0, new PearsonMetric().similarity(BASE, new double[]{-1, -2, -3, -5, -4}, 5, scratch), EPS);
+        // 앞 n 개만 사용: [1, 2, 3] vs [2, 4, 5] → 평균 2, 11/3 → Σdxdy = 3, Σdx² = 2, Σdy² = 14/3
+        assertEquals(3 / Math.sqrt(2 * 14.0 / 3), new PearsonMetric().similarity(BASE, COMPARE, 3, scratch), EPS);
+        // 분산 0
+        assertTrue(Double.isNaN(new CosineMetric().similarity(BASE, new double[]{7, 7, 7, 7, 7}, 5, scratch)));
+        assertTrue(Double.isNaN(new PearsonMetric().similarity(BASE, COMPARE, 0, scratch)));
+    }
+
+    @Test
+    void euclideanUsesRawPrices() {
+        // 차이 -1, -2, -2, 1, -2 → 제곱합 14
+        assertEquals(1 / (1 + Math.sqrt(14)), new EuclideanMetric().similarity(BASE, COMPARE, 5, scratch), EPS);
+        // 가격 수준이 다르면 모양이 같아도 낮음 (10 씩 차이 → √500)
+        double[] shifted = {11, 12, 13, 15, 14};
+        assertEquals(1 / (1 + Math.sqrt(500)), new EuclideanMetric().similarity(BASE, shifted, 5, scratch), EPS);
+        assertEquals(1.0, new EuclideanMetric().similarity(BASE, BASE, 5, scratch), EPS);
+        assertTrue(Double.isNaN(new EuclideanMetric().similarity(BASE, COMPARE, 0, scratch)));
+    }
+
+    @Test
+    void slopeFollowsNumpyGradient() {
+        // np.gradient(base) = [1, 1, 1.5, 0.5, -1], np.gradient(compare) = [2, 1.5, 0, 0.5, 2]
+        // |차이| = 1, 0.5, 1.5, 0, 3 → 합 6, 평균 1.2 → 1 / 2.2
+        assertEquals(1 / 2.2, new SlopeMetric().similarity(BASE, COMPARE, 5, scratch), EPS);
+        // 기울기만 보므로 평행 이동은 1
+        assertEquals(1.0, new SlopeMetric().similarity(BASE, new double[]{11, 12, 13, 15, 14}, 5, scratch), EPS);
+        // 2개: 양 끝 한쪽 차분 2번 → |1 - 2| · 2 / 2 = 1 → 0.5
+        assertEquals(0.5, new SlopeMetric().similarity(BASE, COMPARE, 2, scratch), EPS);
+        assertTrue(Double.isNaN(new SlopeMetric().similarity(BASE, COMPARE, 1, scratch)));
+    }
+
+    @Test
+    void dtwMatchesDtaidistance() {
+        // 최소 경로 (1,2)(2,2)(3,4)(5,5)(4,4)(4,6) → 제곱 차이 1+0+1+0+0+4 = 6 → dtw.distance = √6
+        assertEquals(1 / (1 + Math.sqrt(6)), new DtwMetric().similarity(BASE, COMPARE, 5, scratch), EPS);
+        assertEquals(6.0, DtwMetric.squaredDistance(BASE, COMPARE, 5, scratch), EPS);
+        // 시간축만 어긋난 같은 모양은 거리 0
+        assertEquals(1.0, new DtwMetric().similarity(new double[]{0, 1, 2, 2}, new double[]{0, 0, 1, 2}, 4, scratch), EPS);
+        // 다른 길이로 쓴 작업 버퍼를 재사용해도 같은 값
+        assertEquals(6.0, DtwMetric.squaredDistance(BASE, COMPARE, 5, scratch), EPS);
+        assertTrue(Double.isNaN(new DtwMetric().similarity(BASE, COMPARE, 0, scratch)));
+    }
+
+    @Test
+    void lookupIsCaseInsensitiveWithCosineDefault() {
+        CosineMetric cosine = new CosineMetric();
+        PearsonMetric pearson = new PearsonMetric();
+        SimilarityMetrics metrics = new SimilarityMetrics(
+                List.of(cosine, pearson, new EuclideanMetric(), new SlopeMetric(), new DtwMetric()));
+        assertSame(cosine, metrics.get(null));
+        assertSame(pearson, metrics.get(" Pearson "));
+        assertEquals(List.of("cosine", "pearson", "euclidean", "slope", "dtw"), List.copyOf(metrics.names()));
+        assertThrows(IllegalArgumentException.class, () -> metrics.get("manhattan"));
+        assertTrue(cosine.correlation() && pearson.correlation());
+        assertFalse(new DtwMetric().correlation());
+    }
+}